@@ -0,0 +1,44 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.db;
+
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseRepositoryCloudantClient;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentBlob;
+
+import com.cloudant.client.api.model.DesignDocument.MapReduce;
+import com.cloudant.client.api.views.Key;
+import com.cloudant.client.api.views.ViewRequestBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Access to the records of attachment data stored once for all attachment contents with the same sha1 and size
+ */
+public class AttachmentBlobRepository extends DatabaseRepositoryCloudantClient<AttachmentBlob> {
+
+    private static final String ALL = "function(doc) { if (doc.type == 'attachmentBlob') emit(null, doc._id) }";
+    private static final String UNREFERENCED = "function(doc) { if (doc.type == 'attachmentBlob' && !(doc.references > 0)) emit(null, doc._id) }";
+
+    public AttachmentBlobRepository(DatabaseConnectorCloudant db) {
+        super(db, AttachmentBlob.class);
+        Map<String, MapReduce> views = new HashMap<String, MapReduce>();
+        views.put("all", createMapReduce(ALL, null));
+        views.put("unreferenced", createMapReduce(UNREFERENCED, null));
+        initStandardDesignDocument(views, db);
+    }
+
+    public List<AttachmentBlob> getUnreferencedBlobs() {
+        ViewRequestBuilder query = getConnector().createQuery(AttachmentBlob.class, "unreferenced");
+        return queryView(query.newRequest(Key.Type.STRING, Object.class).includeDocs(true));
+    }
+}
@@ -12,6 +12,7 @@ package org.eclipse.sw360.datahandler.db;
 
 import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
 import org.eclipse.sw360.datahandler.cloudantclient.DatabaseRepositoryCloudantClient;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentBlobStore;
 import org.eclipse.sw360.datahandler.permissions.PermissionUtils;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.RequestSummary;
@@ -25,6 +26,7 @@ import com.cloudant.client.api.views.UnpaginatedRequestBuilder;
 import com.cloudant.client.api.views.ViewRequestBuilder;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,12 +43,18 @@ public class AttachmentContentRepository extends DatabaseRepositoryCloudantClien
 
     private static final String ALL = "function(doc) { if (doc.type == 'attachment') emit(null, doc._id) }";
     private static final String ONLYREMOTES = "function(doc) { if(doc.type == 'attachment' && doc.onlyRemote) { emit(null, doc) } }";
+    private static final String WITHOUTSHA1 = "function(doc) { if(doc.type == 'attachment' && !doc.onlyRemote && !doc.sha1) { emit(null, doc._id) } }";
+    private static final String WITHOUTBLOB = "function(doc) { if(doc.type == 'attachment' && !doc.onlyRemote && !doc.blobId) { emit(null, doc._id) } }";
+    private static final String WITHDATAINDB = "function(doc) { if((doc.type == 'attachment' || doc.type == 'detachedAttachment') && doc._attachments) { emit(null, doc._id) } }";
 
     public AttachmentContentRepository(DatabaseConnectorCloudant db) {
         super(db, AttachmentContent.class);
         Map<String, MapReduce> views = new HashMap<String, MapReduce>();
         views.put("onlyRemotes", createMapReduce(ONLYREMOTES, null));
         views.put("all", createMapReduce(ALL, null));
+        views.put("withoutSha1", createMapReduce(WITHOUTSHA1, null));
+        views.put("withoutBlob", createMapReduce(WITHOUTBLOB, null));
+        views.put("withDataInDb", createMapReduce(WITHDATAINDB, null));
         initStandardDesignDocument(views, db);
     }
 
@@ -56,6 +64,24 @@ public class AttachmentContentRepository extends DatabaseRepositoryCloudantClien
         return queryView(req);
     }
 
+    public Set<String> getAttachmentContentIdsWithoutSha1() {
+        ViewRequestBuilder query = getConnector().createQuery(AttachmentContent.class, "withoutSha1");
+        return queryForIds(query.newRequest(Key.Type.STRING, Object.class));
+    }
+
+    public Set<String> getAttachmentContentIdsWithoutBlob() {
+        ViewRequestBuilder query = getConnector().createQuery(AttachmentContent.class, "withoutBlob");
+        return queryForIds(query.newRequest(Key.Type.STRING, Object.class));
+    }
+
+    /**
+     * @return ids of the attachment contents, including detached ones, which keep their data as CouchDB attachments
+     */
+    public Set<String> getAttachmentContentIdsWithDataInDb() {
+        ViewRequestBuilder query = getConnector().createQuery(AttachmentContent.class, "withDataInDb");
+        return queryForIds(query.newRequest(Key.Type.STRING, Object.class));
+    }
+
     public RequestSummary vacuumAttachmentDB(User user, final Set<String> usedIds) {
         final RequestSummary requestSummary = new RequestSummary();
         if (!PermissionUtils.isAdmin(user))
@@ -69,8 +95,21 @@ public class AttachmentContentRepository extends DatabaseRepositoryCloudantClien
         requestSummary.setTotalElements(allAttachmentContents.size());
         requestSummary.setTotalAffectedElements(unusedAttachmentContents.size());
 
-        final List<Response> documentOperationResults = getConnector().deleteBulk(unusedAttachmentContents);
-        if (unusedAttachmentContents.isEmpty() || !documentOperationResults.isEmpty()) {
+        // contents keeping the data of a blob which others link to are detached instead of deleted
+        final AttachmentBlobStore blobStore = new AttachmentBlobStore(getConnector());
+        final Set<AttachmentContent> deletableAttachmentContents = new HashSet<>();
+        for (AttachmentContent attachmentContent : unusedAttachmentContents) {
+            try {
+                if (blobStore.release(attachmentContent)) {
+                    deletableAttachmentContents.add(attachmentContent);
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not release the blob of attachment " + attachmentContent.getId() + ", keeping it", e);
+            }
+        }
+
+        final List<Response> documentOperationResults = getConnector().deleteBulk(deletableAttachmentContents);
+        if (deletableAttachmentContents.isEmpty() || !documentOperationResults.isEmpty()) {
             requestSummary.setRequestStatus(RequestStatus.SUCCESS);
         }else{
             requestSummary.setRequestStatus(RequestStatus.FAILURE);
@@ -18,7 +18,11 @@ import com.google.common.collect.Maps;
 
 import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentBlob;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentBlobStore;
 import org.eclipse.sw360.datahandler.couchdb.AttachmentConnector;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentDataStore;
+import org.eclipse.sw360.datahandler.couchdb.FileSystemAttachmentDataStore;
 import org.eclipse.sw360.datahandler.thrift.*;
 import org.eclipse.sw360.datahandler.thrift.attachments.*;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -48,6 +52,9 @@ import static org.eclipse.sw360.datahandler.thrift.ThriftValidate.validateAttach
 public class AttachmentDatabaseHandler {
     private final DatabaseConnectorCloudant db;
     private final AttachmentContentRepository attachmentContentRepository;
+    private final AttachmentBlobRepository attachmentBlobRepository;
+    private final AttachmentBlobStore attachmentBlobStore;
+    private final AttachmentDataStore attachmentDataStore;
     private final AttachmentConnector attachmentConnector;
     private final AttachmentUsageRepository attachmentUsageRepository;
     private final AttachmentRepository attachmentRepository;
@@ -58,8 +65,11 @@ public class AttachmentDatabaseHandler {
 
     public AttachmentDatabaseHandler(Supplier<CloudantClient> httpClient, String dbName, String attachmentDbName) throws MalformedURLException {
         db = new DatabaseConnectorCloudant(httpClient, attachmentDbName);
-        attachmentConnector = new AttachmentConnector(httpClient, attachmentDbName, durationOf(30, TimeUnit.SECONDS));
         attachmentContentRepository = new AttachmentContentRepository(db);
+        attachmentBlobRepository = new AttachmentBlobRepository(db);
+        attachmentDataStore = AttachmentDataStore.configured(db);
+        attachmentConnector = new AttachmentConnector(db, attachmentDataStore, durationOf(30, TimeUnit.SECONDS));
+        attachmentBlobStore = new AttachmentBlobStore(db, attachmentDataStore);
         attachmentUsageRepository = new AttachmentUsageRepository(new DatabaseConnectorCloudant(httpClient, dbName));
         attachmentRepository = new AttachmentRepository(new DatabaseConnectorCloudant(httpClient, dbName));
         attachmentOwnerRepository = new AttachmentOwnerRepository(new DatabaseConnectorCloudant(httpClient, dbName));
@@ -91,7 +101,8 @@ public class AttachmentDatabaseHandler {
         attachmentConnector.updateAttachmentContent(attachment);
     }
     public RequestSummary bulkDelete(List<String> ids) {
-        final List<Response> documentOperationResults = attachmentContentRepository.deleteIds(ids);
+        // contents sharing a blob have to release it, like any other deletion of attachment contents
+        final List<Response> documentOperationResults = attachmentConnector.deleteAttachmentsByIds(ids);
         return CommonUtils.getRequestSummary(ids, documentOperationResults);
     }
     public RequestStatus deleteAttachmentContent(String attachmentId) throws TException {
@@ -272,6 +283,41 @@ public class AttachmentDatabaseHandler {
         return attachmentUsageRepository.getUsagesByReleaseId(releaseId);
     }
     public RequestStatus deleteOldAttachmentFromFileSystem() throws TException {
-        return DatabaseHandlerUtil.deleteOldAttachmentFromFileSystem();
+        RequestStatus status = DatabaseHandlerUtil.deleteOldAttachmentFromFileSystem();
+        RequestStatus blobStatus = deleteUnreferencedBlobs();
+        deleteDataOfDeletedAttachments();
+        return status == RequestStatus.SUCCESS ? blobStatus : status;
+    }
+
+    /**
+     * Deletes the data of attachment contents which were deleted in bulk, if the data is stored in the file system
+     */
+    public void deleteDataOfDeletedAttachments() {
+        if (attachmentDataStore instanceof FileSystemAttachmentDataStore) {
+            int deleted = ((FileSystemAttachmentDataStore) attachmentDataStore)
+                    .deleteDataOfMissingContents(db::getExistingIds, TimeUnit.HOURS.toMillis(1));
+            log.info("Deleted the data of " + deleted + " deleted attachments");
+        }
+    }
+
+    /**
+     * Deletes the attachment data which no attachment content references any more
+     */
+    public RequestStatus deleteUnreferencedBlobs() {
+        List<AttachmentBlob> unreferencedBlobs = attachmentBlobRepository.getUnreferencedBlobs();
+        RequestStatus status = RequestStatus.SUCCESS;
+        int deleted = 0;
+        for (AttachmentBlob blob : unreferencedBlobs) {
+            try {
+                if (attachmentBlobStore.delete(blob)) {
+                    deleted++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Unable to delete attachment blob " + blob.getId(), e);
+                status = RequestStatus.FAILURE;
+            }
+        }
+        log.info("Deleted " + deleted + " of " + unreferencedBlobs.size() + " unreferenced attachment blobs");
+        return status;
     }
 }
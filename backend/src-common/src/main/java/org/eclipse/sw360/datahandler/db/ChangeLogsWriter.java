@@ -0,0 +1,198 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.sw360.datahandler.thrift.changelogs.ChangeLogs;
+
+import com.cloudant.client.api.model.Response;
+
+/**
+ * Writes change logs in the background. Changes are put into one bounded queue, a fixed number of worker threads
+ * compute the change logs of up to batchSize queued changes and store them with a single bulk request. If the queue
+ * is full, the caller blocks until a worker has made room. Queued changes are written before the JVM shuts down.
+ */
+public class ChangeLogsWriter {
+    private static final Logger log = LogManager.getLogger(ChangeLogsWriter.class);
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_MILLIS = 30000;
+
+    private final BlockingQueue<PendingChange> queue;
+    private final int batchSize;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicLong writtenChangeLogs = new AtomicLong();
+    private final AtomicLong failedChanges = new AtomicLong();
+    private volatile long lastBatchLagMillis;
+    private volatile boolean stopped;
+
+    private static class PendingChange {
+        private final ChangeLogsRepository repository;
+        private final Supplier<List<ChangeLogs>> changeLogs;
+        private final long queuedAt = System.currentTimeMillis();
+
+        private PendingChange(ChangeLogsRepository repository, Supplier<List<ChangeLogs>> changeLogs) {
+            this.repository = repository;
+            this.changeLogs = changeLogs;
+        }
+    }
+
+    public ChangeLogsWriter(int threads, int queueCapacity, int batchSize) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::writeLoop, "sw360-changelog-writer-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(SHUTDOWN_FLUSH_TIMEOUT_MILLIS)));
+    }
+
+    /**
+     * Queues a change. The supplier computes the change logs of it on a worker thread, the first element is the log
+     * of the changed document and needs an id already, as the logs of the reference documents point to it.
+     */
+    public void submit(ChangeLogsRepository repository, Supplier<List<ChangeLogs>> changeLogs) {
+        try {
+            queue.put(new PendingChange(repository, changeLogs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while queueing change logs, change is not logged", e);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Age of the oldest queued change in milliseconds, or the lag of the last written batch if the queue is empty
+     */
+    public long getLagMillis() {
+        PendingChange oldest = queue.peek();
+        return oldest == null ? lastBatchLagMillis : System.currentTimeMillis() - oldest.queuedAt;
+    }
+
+    public long getWrittenChangeLogsCount() {
+        return writtenChangeLogs.get();
+    }
+
+    /**
+     * Number of submitted changes of which at least one change log could not be computed or stored
+     */
+    public long getFailedChangesCount() {
+        return failedChanges.get();
+    }
+
+    /**
+     * Waits until all queued changes are written or the timeout elapsed, then stops the workers
+     */
+    public void shutdown(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            while (!queue.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            stopped = true;
+            // the workers finish the batch they are writing before they stop
+            for (Thread worker : workers) {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopped = true;
+        if (!queue.isEmpty()) {
+            log.warn("Stopping change log writer with " + queue.size() + " changes not logged");
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingChange> batch = new ArrayList<>(batchSize);
+        while (!stopped) {
+            try {
+                PendingChange first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error occured while writing Change Logs", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingChange> batch) {
+        Map<ChangeLogsRepository, List<ChangeLogs>> changeLogsByRepository = new IdentityHashMap<>();
+        // the change each change log belongs to, in the order of the change logs of the repository
+        Map<ChangeLogsRepository, List<PendingChange>> changesByRepository = new IdentityHashMap<>();
+        for (PendingChange change : batch) {
+            try {
+                List<ChangeLogs> changeLogs = change.changeLogs.get();
+                changeLogsByRepository.computeIfAbsent(change.repository, r -> new ArrayList<>()).addAll(changeLogs);
+                List<PendingChange> changes = changesByRepository.computeIfAbsent(change.repository, r -> new ArrayList<>());
+                changeLogs.forEach(changeLog -> changes.add(change));
+            } catch (Exception e) {
+                failedChanges.incrementAndGet();
+                log.error("Error occured while creating Change Logs", e);
+            }
+        }
+        changeLogsByRepository.forEach((repository, changeLogs) -> {
+            List<PendingChange> changes = changesByRepository.get(repository);
+            List<Response> responses = null;
+            try {
+                responses = repository.executeBulk(changeLogs);
+            } catch (Exception e) {
+                log.error("Error occured while storing Change Logs", e);
+            }
+            if (responses == null) {
+                failedChanges.addAndGet(changes.stream().distinct().count());
+                log.error("Could not store " + changeLogs.size() + " Change Logs");
+                return;
+            }
+            // the bulk request answers in the order of the documents
+            Set<PendingChange> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < responses.size(); i++) {
+                Response response = responses.get(i);
+                if (response.getError() == null) {
+                    writtenChangeLogs.incrementAndGet();
+                } else {
+                    log.error("Could not store Change Log " + response.getId() + ": " + response.getError());
+                    if (i < changes.size()) {
+                        failed.add(changes.get(i));
+                    }
+                }
+            }
+            failedChanges.addAndGet(failed.size());
+        });
+        lastBatchLagMillis = System.currentTimeMillis() - batch.get(0).queuedAt;
+        log.debug("Wrote change logs of " + batch.size() + " changes, " + queue.size() + " changes queued, lag "
+                + lastBatchLagMillis + " ms");
+    }
+}
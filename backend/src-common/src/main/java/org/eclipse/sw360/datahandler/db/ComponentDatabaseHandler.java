@@ -30,6 +30,8 @@ import org.eclipse.sw360.datahandler.entitlement.ProjectModerator;
 import org.eclipse.sw360.datahandler.entitlement.ReleaseModerator;
 import org.eclipse.sw360.datahandler.permissions.DocumentPermissions;
 import org.eclipse.sw360.datahandler.permissions.PermissionUtils;
+import org.eclipse.sw360.datahandler.resourcelists.ResourceClassNotFoundException;
+import org.eclipse.sw360.datahandler.resourcelists.ResourceComparatorGenerator;
 import org.eclipse.sw360.datahandler.thrift.*;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
@@ -322,6 +324,33 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
         return release;
     }
 
+    /**
+     * Bulk variant of {@link #getRelease(String, User)} which keeps the order of the given ids. Ids of releases which
+     * do not exist are skipped.
+     */
+    public List<Release> getReleasesInOrder(List<String> ids, User user) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, Release> releasesById = ThriftUtils.getIdMap(releaseRepository.get(ids));
+        List<Release> releases = new ArrayList<>();
+        for (String id : ids) {
+            Release release = releasesById.get(id);
+            if (release == null) {
+                log.warn("Could not fetch release from database! id=" + id);
+                continue;
+            }
+            vendorRepository.fillVendor(release);
+            if (user != null) {
+                makePermission(release, user).fillPermissions();
+                addSelectLogs(release, user);
+            }
+            ensureEccInformationIsSet(release);
+            releases.add(release);
+        }
+        return releases;
+    }
+
     private void setMainLicenses(Component component) {
         if (!component.isSetMainLicenseIds() && component.isSetReleases()) {
             Set<String> licenseIds = new HashSet<>();
@@ -1631,18 +1660,82 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
     // HELPER SERVICES //
     /////////////////////
 
-    List<ReleaseLink> getLinkedReleases(Project project, Deque<String> visitedIds) {
-        return getLinkedReleases(project.getReleaseIdToUsage(), visitedIds);
+    List<ReleaseLink> getLinkedReleases(Project project, Deque<String> visitedIds, LinkedReleasesCache cache) {
+        return iterateReleaseRelationShips(project.getReleaseIdToUsage(), null, visitedIds, cache);
     }
 
     private List<ReleaseLink> getLinkedReleases(Map<String, ?> relations, Deque<String> visitedIds) {
-        return iterateReleaseRelationShips(relations, null, visitedIds);
+        return iterateReleaseRelationShips(relations, null, visitedIds, prefetchReleasesForLinking(relations.keySet()));
     }
 
     public List<ReleaseLink> getLinkedReleases(Map<String, ?> relations) {
         return getLinkedReleases(relations, new ArrayDeque<>());
     }
 
+    /**
+     * Loads the given releases together with their vendors and the types of their components using one bulk read per
+     * document type, so that release links can be created without a database round trip per release.
+     */
+    LinkedReleasesCache prefetchReleasesForLinking(Collection<String> releaseIds) {
+        LinkedReleasesCache cache = new LinkedReleasesCache();
+        if (releaseIds == null || releaseIds.isEmpty()) {
+            return cache;
+        }
+        for (Release release : releaseRepository.get(releaseIds)) {
+            if (release.isSetId() && SW360Constants.TYPE_RELEASE.equals(release.getType())) {
+                cache.releases.put(release.getId(), release);
+            }
+        }
+
+        Set<String> vendorIds = cache.releases.values().stream()
+                .map(Release::getVendorId)
+                .filter(CommonUtils::isNotNullEmptyOrWhitespace)
+                .collect(Collectors.toSet());
+        Map<String, Vendor> vendorsById = new HashMap<>();
+        if (!vendorIds.isEmpty()) {
+            vendorRepository.get(vendorIds).stream()
+                    .filter(vendor -> vendor.isSetId() && SW360Constants.TYPE_VENDOR.equals(vendor.getType()))
+                    .forEach(vendor -> vendorsById.put(vendor.getId(), vendor));
+        }
+        for (Release release : cache.releases.values()) {
+            if (release.isSetVendorId()) {
+                Vendor vendor = vendorsById.get(release.getVendorId());
+                if (vendor != null) {
+                    release.setVendor(vendor);
+                }
+                release.unsetVendorId();
+            }
+        }
+
+        Set<String> componentIds = cache.releases.values().stream()
+                .map(Release::getComponentId)
+                .filter(CommonUtils::isNotNullEmptyOrWhitespace)
+                .collect(Collectors.toSet());
+        if (!componentIds.isEmpty()) {
+            componentRepository.get(componentIds).stream()
+                    .filter(component -> component.isSetId() && SW360Constants.TYPE_COMPONENT.equals(component.getType()))
+                    .filter(Component::isSetComponentType)
+                    .forEach(component -> cache.componentTypes.put(component.getId(), component.getComponentType()));
+        }
+        return cache;
+    }
+
+    /**
+     * Releases (with filled vendors) and component types which have been bulk-loaded for building release links
+     */
+    static class LinkedReleasesCache {
+        private final Map<String, Release> releases = new HashMap<>();
+        private final Map<String, ComponentType> componentTypes = new HashMap<>();
+
+        Release getRelease(String id) {
+            return releases.get(id);
+        }
+
+        ComponentType getComponentType(String componentId) {
+            return componentTypes.get(componentId);
+        }
+    }
+
     public List<Release> getAllReleases() {
         return releaseRepository.getAll();
     }
@@ -1653,25 +1746,27 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
     }
 
     @NotNull
-    private List<ReleaseLink> iterateReleaseRelationShips(Map<String, ?> relations, String parentNodeId, Deque<String> visitedIds) {
+    private List<ReleaseLink> iterateReleaseRelationShips(Map<String, ?> relations, String parentNodeId, Deque<String> visitedIds,
+            LinkedReleasesCache cache) {
         List<ReleaseLink> out = new ArrayList<>();
 
         for (Map.Entry<String, ?> entry : relations.entrySet()) {
             String id = entry.getKey();
-            Optional<ReleaseLink> releaseLinkOptional = getFilledReleaseLink(id, entry.getValue(), parentNodeId, visitedIds);
+            Optional<ReleaseLink> releaseLinkOptional = getFilledReleaseLink(id, entry.getValue(), parentNodeId, visitedIds, cache);
             releaseLinkOptional.ifPresent(out::add);
         }
         out.sort(SW360Utils.RELEASE_LINK_COMPARATOR);
         return out;
     }
 
-    private Optional<ReleaseLink> getFilledReleaseLink(String id, Object relation, String parentNodeId, Deque<String> visitedIds) {
+    private Optional<ReleaseLink> getFilledReleaseLink(String id, Object relation, String parentNodeId, Deque<String> visitedIds,
+            LinkedReleasesCache cache) {
         ReleaseLink releaseLink = null;
         if (!visitedIds.contains(id)) {
             visitedIds.push(id);
-            Release release = releaseRepository.get(id);
+            Release release = cache.getRelease(id);
             if (release != null) {
-                releaseLink = createReleaseLink(release);
+                releaseLink = createReleaseLink(release, cache.getComponentType(release.getComponentId()));
                 fillValueFieldInReleaseLink(releaseLink, relation);
                 releaseLink.setNodeId(generateNodeId(id));
                 releaseLink.setParentNodeId(parentNodeId);
@@ -1704,17 +1799,13 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
     }
 
     @NotNull
-    private ReleaseLink createReleaseLink(Release release) {
-        vendorRepository.fillVendor(release);
+    private ReleaseLink createReleaseLink(Release release, ComponentType componentType) {
         String vendorName = release.isSetVendor() ? release.getVendor().getShortname() : "";
         ReleaseLink releaseLink = new ReleaseLink(release.id, vendorName, release.name, release.version, SW360Utils.printFullname(release),
                  !nullToEmptyMap(release.getReleaseIdToRelationship()).isEmpty());
         releaseLink
                 .setClearingState(release.getClearingState())
-                .setComponentType(
-                        Optional.ofNullable(componentRepository.get(release.getComponentId()))
-                                .map(Component::getComponentType)
-                                .orElse(null));
+                .setComponentType(componentType);
         if (!nullToEmptySet(release.getAttachments()).isEmpty()) {
             releaseLink.setAttachments(Lists.newArrayList(release.getAttachments()));
         }
@@ -2274,6 +2365,77 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
         updateReleases(releasesToUpdate, user);
     }
 
+    /**
+     * Returns one page of all components, or of the components of the given type if it is not null, as summaries
+     * sorted as given by the pagination data. Only the components on the requested page are loaded. The total
+     * number of matching components is returned as total row count of the pagination data.
+     */
+    public Map<PaginationData, List<Component>> getComponentSummaryWithPagination(User user,
+            ComponentType componentType, PaginationData pageData) {
+        List<String> pageIds = componentRepository.getComponentIdsOfPage(componentType, pageData);
+        Map<String, Component> componentsById = ThriftUtils.getIdMap(componentRepository.get(pageIds));
+        List<Component> components = pageIds.stream()
+                .map(componentsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        PaginationData resultPageData = pageData.deepCopy()
+                .setTotalRowCount(componentRepository.getComponentCount(componentType));
+        return Collections.singletonMap(resultPageData,
+                componentRepository.makeSummaryWithPermissionsFromFullDocs(SummaryType.SUMMARY, components, user));
+    }
+
+    /**
+     * Returns one page of all releases, or of the releases whose name equals the given one ignoring case if it is
+     * not empty, sorted as given by the pagination data. Only the releases on the requested page are loaded. The
+     * total number of matching releases is returned as total row count of the pagination data.
+     */
+    public Map<PaginationData, List<Release>> getReleasesWithPagination(User user, String name,
+            PaginationData pageData) throws SW360Exception {
+        List<String> pageIds;
+        int totalRowCount;
+        if (isNullOrEmpty(name)) {
+            pageIds = releaseRepository.getReleaseIdsOfPage(pageData);
+            totalRowCount = releaseRepository.getDocumentCount();
+        } else {
+            // releases sharing one name are few, so they are sorted here using only a lightweight view
+            List<Release> sortableReleases = releaseRepository
+                    .getReleasesWithSortFields(releaseRepository.getReleaseIdsByNameIgnoreCase(name));
+            sortableReleases.sort(getReleaseComparator(pageData));
+
+            int start = pageData.isSetDisplayStart() ? Math.max(pageData.getDisplayStart(), 0) : 0;
+            int rowsPerPage = pageData.isSetRowsPerPage() ? pageData.getRowsPerPage() : -1;
+            pageIds = sortableReleases.stream()
+                    .skip(start)
+                    .limit(rowsPerPage < 0 ? Long.MAX_VALUE : rowsPerPage)
+                    .map(Release::getId)
+                    .collect(Collectors.toList());
+            totalRowCount = sortableReleases.size();
+        }
+
+        PaginationData resultPageData = pageData.deepCopy().setTotalRowCount(totalRowCount);
+        return Collections.singletonMap(resultPageData, getReleasesInOrder(pageIds, user));
+    }
+
+    /**
+     * Returns the comparator for the release field whose thrift id is given as sort column number of the pagination
+     * data (name if unset), as used by the REST API, reversed for a descending order.
+     */
+    public Comparator<Release> getReleaseComparator(PaginationData pageData) throws SW360Exception {
+        ResourceComparatorGenerator<Release> comparatorGenerator = new ResourceComparatorGenerator<>();
+        Release._Fields sortField = pageData.isSetSortColumnNumber()
+                ? Release._Fields.findByThriftId(pageData.getSortColumnNumber())
+                : null;
+        Comparator<Release> comparator;
+        try {
+            comparator = sortField == null ? comparatorGenerator.generateComparator(SW360Constants.TYPE_RELEASE)
+                    : comparatorGenerator.generateComparator(SW360Constants.TYPE_RELEASE, sortField.getFieldName());
+        } catch (ResourceClassNotFoundException e) {
+            throw fail(500, "Could not sort releases: %s", e.getMessage());
+        }
+        return !pageData.isSetAscending() || pageData.isAscending() ? comparator : comparator.reversed();
+    }
+
     public Map<PaginationData, List<Component>> getRecentComponentsSummaryWithPagination(User user,
             PaginationData pageData) {
           return componentRepository.getRecentComponentsSummary(user, pageData);
@@ -16,6 +16,7 @@ import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.couchdb.SummaryAwareRepository;
 import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
+import org.eclipse.sw360.datahandler.thrift.components.ComponentType;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 
 import com.cloudant.client.api.model.DesignDocument.MapReduce;
@@ -50,6 +51,11 @@ public class ComponentRepository extends SummaryAwareRepository<Component> {
             "    emit(doc.createdBy, doc._id);" +
             "  } " +
             "}";
+    private static final String BYCREATEDBYLOWERCASE = "function(doc) {" +
+            "  if (doc.type == 'component') {" +
+            "    emit((doc.createdBy || '').toLowerCase(), doc._id);" +
+            "  } " +
+            "}";
     private static final String SUBSCRIBERS = "function(doc) {" +
             "  if (doc.type == 'component') {" +
             "    for(var i in doc.subscribers) {" +
@@ -147,6 +153,14 @@ public class ComponentRepository extends SummaryAwareRepository<Component> {
             "    }" +
             "}";
 
+    private static final String BYCOMPONENTTYPEANDSORTFIELD = "function(doc) {" +
+            "  if (doc.type == 'component' && doc.componentType) {" +
+            "    emit([doc.componentType, 'name', (doc.name || '').toLowerCase()], doc._id);" +
+            "    emit([doc.componentType, 'createdOn', doc.createdOn || ''], doc._id);" +
+            "    emit([doc.componentType, 'createdBy', (doc.createdBy || '').toLowerCase()], doc._id);" +
+            "  }" +
+            "}";
+
     public ComponentRepository(DatabaseConnectorCloudant db, ReleaseRepository releaseRepository, VendorRepository vendorRepository) {
         super(Component.class, db, new ComponentSummary(releaseRepository, vendorRepository));
         Map<String, MapReduce> views = new HashMap<String, MapReduce>();
@@ -154,9 +168,12 @@ public class ComponentRepository extends SummaryAwareRepository<Component> {
         views.put("byCreatedOn", createMapReduce(BYCREATEDON, null));
         views.put("usedAttachmentContents", createMapReduce(USEDATTACHMENTCONTENTS, null));
         views.put("mycomponents", createMapReduce(MYCOMPONENTS, null));
+        views.put("bycreatedbylowercase", createMapReduce(BYCREATEDBYLOWERCASE, null));
         views.put("subscribers", createMapReduce(SUBSCRIBERS, null));
         views.put("byname", createMapReduce(BYNAME, null));
         views.put("bycomponenttype", createMapReduce(BYCOMPONENTTYPE, null));
+        views.put("componentTypeCount", createMapReduce(BYCOMPONENTTYPE, "_count"));
+        views.put("byComponentTypeAndSortField", createMapReduce(BYCOMPONENTTYPEANDSORTFIELD, null));
         views.put("fullbyname", createMapReduce(FULLBYNAME, null));
         views.put("byLinkingRelease", createMapReduce(BYLINKINGRELEASE, null));
         views.put("byFossologyId", createMapReduce(BYFOSSOLOGYID, null));
@@ -208,6 +225,60 @@ public class ComponentRepository extends SummaryAwareRepository<Component> {
         return makeSummaryWithPermissionsFromFullDocs(SummaryType.SUMMARY, componentList, user);
     }
 
+    /**
+     * Returns the ids of one page of all components, or of the components of the given type if it is not null. They
+     * are sorted by the component field whose thrift id is the sort column number of the pagination data, by name if
+     * it is unset. Only the view rows of the requested page are read.
+     */
+    public List<String> getComponentIdsOfPage(ComponentType componentType, PaginationData pageData) {
+        boolean descending = pageData.isSetAscending() && !pageData.isAscending();
+        Component._Fields sortField = pageData.isSetSortColumnNumber()
+                ? Component._Fields.findByThriftId(pageData.getSortColumnNumber())
+                : null;
+        UnpaginatedRequestBuilder<?, ?> reqBuilder;
+        if (componentType == null) {
+            reqBuilder = getConnector().createQuery(Component.class, getViewSortedBy(sortField))
+                    .newRequest(Key.Type.STRING, Object.class).descending(descending);
+        } else {
+            // all components of the type have the same type, so sorting by it falls back to the name
+            String sortKey = sortField == Component._Fields.CREATED_ON || sortField == Component._Fields.CREATED_BY
+                    ? sortField.getFieldName()
+                    : Component._Fields.NAME.getFieldName();
+            Key.ComplexKey firstKey = Key.complex(new String[] { componentType.name(), sortKey });
+            Key.ComplexKey lastKey = Key.complex(new String[] { componentType.name(), sortKey, "\ufff0" });
+            reqBuilder = getConnector().createQuery(Component.class, "byComponentTypeAndSortField")
+                    .newRequest(Key.Type.COMPLEX, Object.class).startKey(descending ? lastKey : firstKey)
+                    .endKey(descending ? firstKey : lastKey).descending(descending);
+        }
+        return queryForIdsOfPage(reqBuilder, pageData);
+    }
+
+    private static String getViewSortedBy(Component._Fields sortField) {
+        if (sortField == null) {
+            return "bynamelowercase";
+        }
+        switch (sortField) {
+            case CREATED_ON:
+                return "byCreatedOn";
+            case CREATED_BY:
+                return "bycreatedbylowercase";
+            case COMPONENT_TYPE:
+                return "bycomponenttype";
+            default:
+                return "bynamelowercase";
+        }
+    }
+
+    /**
+     * Returns the number of all components, or of the components of the given type if it is not null
+     */
+    public int getComponentCount(ComponentType componentType) {
+        if (componentType == null) {
+            return getDocumentCount();
+        }
+        return getConnector().getDocumentCount(Component.class, "componentTypeCount", new String[] { componentType.name() });
+    }
+
     public Set<String> getComponentIdsByName(String name, boolean caseInsenstive) {
         if(caseInsenstive) {
             return queryForIdsAsValue("bynamelowercase", name.toLowerCase());
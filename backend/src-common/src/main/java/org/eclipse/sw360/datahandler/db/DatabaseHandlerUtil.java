@@ -27,6 +27,7 @@ import java.nio.file.attribute.PosixFilePermissions;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
@@ -39,6 +40,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
@@ -126,6 +128,10 @@ public class DatabaseHandlerUtil {
     private static final boolean IS_SW360CHANGELOG_ENABLED;
     private static final String CHANGE_LOG_CONFIG_FILE_PATH;
     private static final String SW360CHANGELOG_OUTPUT_PATH;
+    private static final int CHANGE_LOG_WRITER_THREADS;
+    private static final int CHANGE_LOG_WRITER_QUEUE_CAPACITY;
+    private static final int CHANGE_LOG_WRITER_BATCH_SIZE;
+    private static ChangeLogsWriter changeLogsWriter;
     private static boolean isChangeLogDisabledMessageLogged = false;
     private static boolean isLiferayEnvVarNotPresent = true;
 
@@ -143,12 +149,26 @@ public class DatabaseHandlerUtil {
                 "/etc/sw360/log4j2.xml");
         SW360CHANGELOG_OUTPUT_PATH = props.getProperty("sw360changelog.output.path",
                 "sw360changelog/sw360changelog");
+        CHANGE_LOG_WRITER_THREADS = Integer.parseInt(props.getProperty("changelog.writer.threads", "2"));
+        CHANGE_LOG_WRITER_QUEUE_CAPACITY = Integer.parseInt(props.getProperty("changelog.writer.queue.capacity", "10000"));
+        CHANGE_LOG_WRITER_BATCH_SIZE = Integer.parseInt(props.getProperty("changelog.writer.batch.size", "100"));
     }
 
     public DatabaseHandlerUtil(DatabaseConnectorCloudant db) {
             changeLogRepository = new ChangeLogsRepository(db);
     }
 
+    /**
+     * The writer shared by all handlers, e.g. to monitor its queue depth, lag and failures
+     */
+    public static synchronized ChangeLogsWriter getChangeLogsWriter() {
+        if (changeLogsWriter == null) {
+            changeLogsWriter = new ChangeLogsWriter(CHANGE_LOG_WRITER_THREADS, CHANGE_LOG_WRITER_QUEUE_CAPACITY,
+                    CHANGE_LOG_WRITER_BATCH_SIZE);
+        }
+        return changeLogsWriter;
+    }
+
     private static <T, R> Object[] getCyclicLinkPresenceAndLastElementInCycle(T obj, R handler, User user,
             Map<String, String> linkedPath) throws TException {
         Map linkedElementsMap = null;
@@ -498,50 +518,46 @@ public class DatabaseHandlerUtil {
                 || DatabaseSettings.COUCH_DB_ATTACHMENTS.contains("test")) {
             return;
         }
-        Runnable changeLogRunnable = prepareChangeLogRunnable(newDocVersion, oldDocVersion, userEdited, operation,
-                attachmentConnector, referenceDocLogList, parentDocId, parentOperation);
-
-        Thread changeLogsThread = new Thread(changeLogRunnable);
-        changeLogsThread.start();
+        getChangeLogsWriter().submit(changeLogRepository, () -> prepareChangeLogs(newDocVersion, oldDocVersion,
+                userEdited, operation, attachmentConnector, referenceDocLogList, parentDocId, parentOperation));
     }
 
     /**
-     * Prepare ChangeLog Runnable along with all the Change data.
+     * Prepare the ChangeLogs of a change, the log of the document first followed by the logs of the reference
+     * documents pointing to it.
      */
-    private static <T extends TBase> Runnable prepareChangeLogRunnable(T newDocVersion, T oldDocVersion,
+    private static <T extends TBase> List<ChangeLogs> prepareChangeLogs(T newDocVersion, T oldDocVersion,
             String userEdited, Operation operation, AttachmentConnector attachmentConnector,
             List<ChangeLogs> referenceDocLogList, String parentDocId, Operation parentOperation) {
-        return () -> {
-            try {
-                log.info("Generating ChangeLogs.");
-                ChangeLogs changeLogParent = initChangeLogsObj(newDocVersion, userEdited, parentDocId, operation,
-                        parentOperation);
-                if (oldDocVersion == null) {
-                    changeLogsForNewlyCreatedOrDeleted(newDocVersion, changeLogParent, false);
-                } else if (newDocVersion == null) {
-                    changeLogParent = initChangeLogsObj(oldDocVersion, userEdited, parentDocId, operation,
-                            parentOperation);
-                    changeLogsForNewlyCreatedOrDeleted(oldDocVersion, changeLogParent, true);
-                } else {
-                    evaluateAndAddChanges(oldDocVersion, newDocVersion, changeLogParent);
-
-                    if (attachmentConnector != null) {
-                        referenceDocChanges(oldDocVersion, newDocVersion, userEdited, referenceDocLogList,
-                                attachmentConnector, changeLogParent);
-                    }
-                }
-                changelog.debug(convertObjectToJson(changeLogParent));
-                changeLogRepository.add(changeLogParent);
-                String changeLogParentId = changeLogParent.getId();
-                referenceDocLogList.stream().forEach(referenceDocLog -> {
-                    referenceDocLog.setDocumentId(changeLogParentId);
-                    changelog.debug(convertObjectToJson(referenceDocLog));
-                    changeLogRepository.add(referenceDocLog);
-                });
-            } catch (Exception exp) {
-                log.error("Error occured while creating Change Logs", exp);
+        log.info("Generating ChangeLogs.");
+        ChangeLogs changeLogParent = initChangeLogsObj(newDocVersion, userEdited, parentDocId, operation,
+                parentOperation);
+        if (oldDocVersion == null) {
+            changeLogsForNewlyCreatedOrDeleted(newDocVersion, changeLogParent, false);
+        } else if (newDocVersion == null) {
+            changeLogParent = initChangeLogsObj(oldDocVersion, userEdited, parentDocId, operation,
+                    parentOperation);
+            changeLogsForNewlyCreatedOrDeleted(oldDocVersion, changeLogParent, true);
+        } else {
+            evaluateAndAddChanges(oldDocVersion, newDocVersion, changeLogParent);
+
+            if (attachmentConnector != null) {
+                referenceDocChanges(oldDocVersion, newDocVersion, userEdited, referenceDocLogList,
+                        attachmentConnector, changeLogParent);
             }
-        };
+        }
+        // the id is assigned here as the parent log is stored in the same bulk request as the logs referencing it
+        changeLogParent.setId(UUID.randomUUID().toString().replace("-", ""));
+        changelog.debug(convertObjectToJson(changeLogParent));
+        List<ChangeLogs> changeLogs = new ArrayList<>();
+        changeLogs.add(changeLogParent);
+        String changeLogParentId = changeLogParent.getId();
+        referenceDocLogList.stream().forEach(referenceDocLog -> {
+            referenceDocLog.setDocumentId(changeLogParentId);
+            changelog.debug(convertObjectToJson(referenceDocLog));
+            changeLogs.add(referenceDocLog);
+        });
+        return changeLogs;
     }
 
     /**
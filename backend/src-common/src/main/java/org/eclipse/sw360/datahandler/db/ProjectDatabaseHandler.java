@@ -49,7 +49,6 @@ import org.spdx.rdfparser.InvalidSPDXAnalysisException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
-import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -92,23 +91,10 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
     private final RelationsUsageRepository relUsageRepository;
     private final ReleaseRepository releaseRepository;
     private final VendorRepository vendorRepository;
+    private final DatabaseConnectorCloudant projectDatabaseConnector;
     private DatabaseHandlerUtil dbHandlerUtil;
     private final MailUtil mailUtil = new MailUtil();
 
-    // this caching structure is only used for filling clearing state summaries and
-    // should be avoided anywhere else so that no other outdated information will be
-    // provided
-    // for the clearing state it is
-    // 1. necessary because they take a long time to get calculated which might be a
-    // good reason for service clients to query not for all projects at once, but to
-    // divide the queries in subsets of project (and we do not want to load the
-    // whole project map for each of this subset queries)
-    // 2. okay because the data normally "only moves forward", meaning that already
-    // approved clearing reports will not be revoked. So worst case of caching is
-    // that outdated data is provided, not wrong one (as it would be okay to see a
-    // cleared project that is displayed as not yet cleared - but it won't be okay
-    // to see a uncleared project that is displayed as cleared but isn't anymore)
-    private static final java.time.Duration ALL_PROJECTS_ID_MAP_CACHE_LIFETIME = java.time.Duration.ofMinutes(2);
     private static final ImmutableList<Project._Fields> listOfStringFieldsInProjToTrim = ImmutableList.of(
             Project._Fields.NAME, Project._Fields.DESCRIPTION, Project._Fields.VERSION, Project._Fields.DOMAIN,
             Project._Fields.BUSINESS_UNIT, Project._Fields.TAG, Project._Fields.PROJECT_RESPONSIBLE,
@@ -119,8 +105,6 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
             Project._Fields.SPECIAL_RISKS3RD_PARTY, Project._Fields.DELIVERY_CHANNELS,
             Project._Fields.REMARKS_ADDITIONAL_REQUIREMENTS, Project._Fields.OBLIGATIONS_TEXT,
             Project._Fields.LICENSE_INFO_HEADER_TEXT);
-    private Map<String, Project> cachedAllProjectsIdMap;
-    private Instant cachedAllProjectsIdMapLoadingInstant;
 
     public ProjectDatabaseHandler(Supplier<CloudantClient> httpClient, String dbName, String attachmentDbName) throws MalformedURLException {
         this(httpClient, dbName, attachmentDbName, new ProjectModerator(),
@@ -149,6 +133,7 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
                                   AttachmentDatabaseHandler attachmentDatabaseHandler) throws MalformedURLException {
         super(attachmentDatabaseHandler);
         DatabaseConnectorCloudant db = new DatabaseConnectorCloudant(httpClient, dbName);
+        projectDatabaseConnector = db;
 
         // Create the repositories
         repository = new ProjectRepository(db);
@@ -783,7 +768,9 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
 
         Map<String, ProjectProjectRelationship> fakeRelations = new HashMap<>();
         fakeRelations.put(project.isSetId() ? project.getId() : DUMMY_NEW_PROJECT_ID, new ProjectProjectRelationship(ProjectRelationship.UNKNOWN));
-        List<ProjectLink> out = iterateProjectRelationShips(fakeRelations, null, visitedIds, deep ? -1 : 2, user);
+        int maxDepth = deep ? -1 : 2;
+        LinkedProjectsGraph graph = loadLinkedProjectsGraph(fakeRelations.keySet(), maxDepth, user);
+        List<ProjectLink> out = iterateProjectRelationShips(fakeRelations, null, visitedIds, maxDepth, user, graph);
         return out;
     }
 
@@ -791,17 +778,73 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
         List<ProjectLink> out;
 
         Deque<String> visitedIds = new ArrayDeque<>();
-        out = iterateProjectRelationShips(relations, null, visitedIds, -1, user);
+        LinkedProjectsGraph graph = loadLinkedProjectsGraph(relations.keySet(), -1, user);
+        out = iterateProjectRelationShips(relations, null, visitedIds, -1, user, graph);
 
         return out;
     }
 
+    /**
+     * Loads all projects reachable from the given ids (up to maxDepth) level by level with one bulk read per level,
+     * followed by one bulk read each for the linked releases, their vendors and their components. The link tree is
+     * then built from memory by {@link #iterateProjectRelationShips}, which still takes care of cycle detection.
+     */
+    private LinkedProjectsGraph loadLinkedProjectsGraph(Set<String> rootIds, int maxDepth, User user) {
+        LinkedProjectsGraph graph = new LinkedProjectsGraph();
+        Set<String> requestedIds = new HashSet<>();
+        Set<String> releaseIds = new HashSet<>();
+        Set<String> currentLevel = new HashSet<>(rootIds);
+        int depth = 1;
+
+        while (!currentLevel.isEmpty() && (maxDepth < 0 || depth <= maxDepth)) {
+            currentLevel.removeAll(requestedIds);
+            requestedIds.addAll(currentLevel);
+            boolean expandChildren = maxDepth < 0 || depth < maxDepth;
+            Set<String> nextLevel = new HashSet<>();
+
+            for (Project project : getProjectsForLinking(currentLevel)) {
+                if (user == null || !makePermission(project, user).isActionAllowed(RequestedAction.READ)) {
+                    graph.inaccessibleProjects.put(project.getId(), project);
+                    continue;
+                }
+                graph.projects.put(project.getId(), project);
+                if (expandChildren) {
+                    releaseIds.addAll(nullToEmptyMap(project.getReleaseIdToUsage()).keySet());
+                    nextLevel.addAll(nullToEmptyMap(project.getLinkedProjects()).keySet());
+                }
+            }
+            currentLevel = nextLevel;
+            depth++;
+        }
+
+        graph.releases = componentDatabaseHandler.prefetchReleasesForLinking(releaseIds);
+        return graph;
+    }
+
+    private List<Project> getProjectsForLinking(Set<String> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return repository.get(ids).stream()
+                .filter(project -> project.isSetId() && SW360Constants.TYPE_PROJECT.equals(project.getType()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * In-memory snapshot of the documents needed to build a tree of {@link ProjectLink}s
+     */
+    private static class LinkedProjectsGraph {
+        private final Map<String, Project> projects = new HashMap<>();
+        private final Map<String, Project> inaccessibleProjects = new HashMap<>();
+        private ComponentDatabaseHandler.LinkedReleasesCache releases;
+    }
+
     private List<ProjectLink> iterateProjectRelationShips(Map<String, ProjectProjectRelationship> relations,
-            String parentNodeId, Deque<String> visitedIds, int maxDepth, User user) {
+            String parentNodeId, Deque<String> visitedIds, int maxDepth, User user, LinkedProjectsGraph graph) {
         List<ProjectLink> out = new ArrayList<>();
         for (Map.Entry<String, ProjectProjectRelationship> entry : relations.entrySet()) {
             Optional<ProjectLink> projectLinkOptional = createProjectLink(entry.getKey(), entry.getValue(),
-                    parentNodeId, visitedIds, maxDepth, user);
+                    parentNodeId, visitedIds, maxDepth, user, graph);
             projectLinkOptional.ifPresent(out::add);
         }
         out.sort(Comparator.comparing(ProjectLink::getName).thenComparing(ProjectLink::getVersion));
@@ -809,21 +852,19 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
     }
 
     private Optional<ProjectLink> createProjectLink(String id, ProjectProjectRelationship projectProjectRelationship, String parentNodeId,
-            Deque<String> visitedIds, int maxDepth, User user) {
+            Deque<String> visitedIds, int maxDepth, User user, LinkedProjectsGraph graph) {
         ProjectLink projectLink = null;
         if (!visitedIds.contains(id) && (maxDepth < 0 || visitedIds.size() < maxDepth)) {
             visitedIds.push(id);
-            Project project = repository.get(id);
-            if (project != null
-                    && (user == null || !makePermission(project, user).isActionAllowed(RequestedAction.READ))) {
-                log.error("User " + user == null ? ""
-                        : user.getEmail() + " requested not accessible project " + printName(project));
-                project = null;
+            Project project = graph.projects.get(id);
+            if (graph.inaccessibleProjects.containsKey(id)) {
+                log.error("User " + (user == null ? "" : user.getEmail()) + " requested not accessible project "
+                        + printName(graph.inaccessibleProjects.get(id)));
             }
             if (project != null) {
                 projectLink = new ProjectLink(id, project.name);
                 if (project.isSetReleaseIdToUsage() && (maxDepth < 0 || visitedIds.size() < maxDepth)){ // ProjectLink on the last level does not get children added
-                    List<ReleaseLink> linkedReleases = componentDatabaseHandler.getLinkedReleases(project, visitedIds);
+                    List<ReleaseLink> linkedReleases = componentDatabaseHandler.getLinkedReleases(project, visitedIds, graph.releases);
                     fillMainlineStates(linkedReleases, project.getReleaseIdToUsage());
                     projectLink.setLinkedReleases(nullToEmptyList(linkedReleases));
                 }
@@ -840,7 +881,7 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
                         .setTreeLevel(visitedIds.size() - 1);
                 if (project.isSetLinkedProjects()) {
                     List<ProjectLink> subprojectLinks = iterateProjectRelationShips(project.getLinkedProjects(),
-                            projectLink.getNodeId(), visitedIds, maxDepth, user);
+                            projectLink.getNodeId(), visitedIds, maxDepth, user, graph);
                     projectLink.setSubprojects(subprojectLinks);
                 }
             } else {
@@ -1073,14 +1114,15 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
         return false;
     }
 
-    public List<Project> fillClearingStateSummaryIncludingSubprojects(List<Project> projects, User user) {
-        final Map<String, Project> allProjectsIdMap = getRefreshedAllProjectsIdMap();
+    public List<Project> fillClearingStateSummaryIncludingSubprojects(List<Project> projects, User user) throws SW360Exception {
+        final ProjectDependencyGraphIndex dependencyGraphIndex = getDependencyGraphIndex();
 
         projects.stream().forEach(project -> {
-            // build project tree, get all linked release ids and fetch the releases
+            // get all linked release ids of the project tree from the index and fetch the releases, "REFERRED"
+            // releases are not counted
             // current decision is to not check any permissions for subproject visibility
-            Set<String> releaseIdsOfProjectTree = getReleaseIdsOfProjectTree(project, Sets.newHashSet(),
-                    allProjectsIdMap, user, null);
+            Set<String> releaseIdsOfProjectTree = dependencyGraphIndex.getReleaseIdsOfProjectTree(project,
+                    relationship -> true, relationship -> !ReleaseRelationship.REFERRED.equals(relationship));
             List<Release> releasesForClearingStateSummary = componentDatabaseHandler
                     .getReleasesForClearingStateSummary(releaseIdsOfProjectTree);
             // compute the summaries
@@ -1094,70 +1136,66 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
     }
 
     /**
-     * Synchronization is not really necessary, we could also remove it. Worst case
-     * would then be that the projects map would be loaded twice if one thread just
-     * loaded it but has not yet updated the loadingInstant field while another
-     * thread queries already (if we change the order and set the instant first and
-     * then load the new map, worst case would be that the other thread would get an
-     * older map as the new one is not yet set).
+     * Loads the project dependency graph index of this database, if that has not happened yet. Should be called on
+     * startup of services which answer transitive queries, as the initial load reads all projects.
      */
-    private synchronized Map<String, Project> getRefreshedAllProjectsIdMap() {
-        if (cachedAllProjectsIdMap != null && Instant.now()
-                .isBefore(cachedAllProjectsIdMapLoadingInstant.plus(ALL_PROJECTS_ID_MAP_CACHE_LIFETIME))) {
-            return cachedAllProjectsIdMap;
+    public void loadDependencyGraphIndex() {
+        try {
+            getDependencyGraphIndex();
+        } catch (SW360Exception e) {
+            log.error("Project dependency graph index is loaded on first use instead: " + e.getWhy());
         }
-
-        cachedAllProjectsIdMap = ThriftUtils.getIdMap(repository.getAll());
-        cachedAllProjectsIdMapLoadingInstant = Instant.now();
-
-        return cachedAllProjectsIdMap;
     }
 
-    private Set<String> getReleaseIdsOfProjectTree(Project project, Set<String> visitedProjectIds,
-            Map<String, Project> allProjectsIdMap, User user, List<RequestedAction> permissionsFilter) {
-        // no need to visit a project twice
-        if (visitedProjectIds.contains(project.getId())) {
-            return Collections.emptySet();
-        }
+    private ProjectDependencyGraphIndex getDependencyGraphIndex() throws SW360Exception {
+        return ProjectDependencyGraphIndex.getInstance(projectDatabaseConnector);
+    }
 
-        // we are now checking this project so no need for further examination in
-        // recursion
-        visitedProjectIds.add(project.getId());
-
-        // container to aggregate results
-        Set<String> releaseIds = Sets.newHashSet();
-
-        // traverse linked projects with relation type other than "REFERRED" and
-        // "DUPLICATE" and add the result to this result
-        if (project.isSetLinkedProjects()) {
-            project.getLinkedProjects().entrySet().stream().forEach(e -> {
-                if (!ProjectRelationship.REFERRED.equals(e.getValue())
-                        && !ProjectRelationship.DUPLICATE.equals(e.getValue())) {
-                    Project childProject = allProjectsIdMap.get(e.getKey());
-                    if (childProject != null) {
-                        // since we fetched all project up front we did not yet check any permission -
-                        // so do it now
-                        if (permissionsFilter == null || permissionsFilter.isEmpty()
-                                || makePermission(childProject, user).areActionsAllowed(permissionsFilter)) {
-                            // recursion inside :-)
-                            releaseIds.addAll(getReleaseIdsOfProjectTree(childProject, visitedProjectIds,
-                                    allProjectsIdMap, user, permissionsFilter));
-                        }
-                    }
-                }
-            });
-        }
+    /**
+     * Returns the ids of all releases linked by the given project and its subprojects, resolved via the project
+     * dependency graph index. Fails like {@link #getProjectById(String, User)} if the user may not read the project
+     * or one of its subprojects.
+     */
+    public Set<String> getReleaseIdsOfProjectTree(String projectId, User user) throws SW360Exception {
+        Project project = getProjectById(projectId, user);
 
-        // add own releases to result if they are not just "REFERRED"
-        if (project.isSetReleaseIdToUsage()) {
-            project.getReleaseIdToUsage().entrySet().stream().forEach(e -> {
-                if (!ReleaseRelationship.REFERRED.equals(e.getValue().getReleaseRelation())) {
-                    releaseIds.add(e.getKey());
+        ProjectDependencyGraphIndex dependencyGraphIndex = getDependencyGraphIndex();
+        Set<String> subprojectIds = dependencyGraphIndex.getProjectIdsOfProjectTree(project, relationship -> true);
+        subprojectIds.remove(projectId);
+        if (!subprojectIds.isEmpty()) {
+            for (Project subproject : repository.get(subprojectIds)) {
+                if (!makePermission(subproject, user).isActionAllowed(RequestedAction.READ)) {
+                    throw fail(403, "User: %s is not allowed to view the requested project: %s", user.getEmail(), subproject.getId());
                 }
-            });
+            }
         }
+        return dependencyGraphIndex.getReleaseIdsOfProjectTree(project, relationship -> true, relationship -> true);
+    }
 
-        return releaseIds;
+    /**
+     * Returns one page of the releases linked by the given project (and its subprojects if transitive is set). The
+     * releases are sorted by the release field whose thrift id is given as sort column number (by name if unset)
+     * using only a lightweight view, so that just the releases on the requested page are loaded. The total number of
+     * releases is returned as total row count of the pagination data.
+     */
+    public Map<PaginationData, List<Release>> getReleasesOfProject(String projectId, boolean transitive, User user,
+            PaginationData pageData) throws SW360Exception {
+        Set<String> releaseIds = transitive ? getReleaseIdsOfProjectTree(projectId, user)
+                : nullToEmptyMap(getProjectById(projectId, user).getReleaseIdToUsage()).keySet();
+
+        List<Release> sortableReleases = releaseRepository.getReleasesWithSortFields(releaseIds);
+        sortableReleases.sort(componentDatabaseHandler.getReleaseComparator(pageData));
+
+        int start = pageData.isSetDisplayStart() ? Math.max(pageData.getDisplayStart(), 0) : 0;
+        int rowsPerPage = pageData.isSetRowsPerPage() ? pageData.getRowsPerPage() : -1;
+        List<String> pageIds = sortableReleases.stream()
+                .skip(start)
+                .limit(rowsPerPage < 0 ? Long.MAX_VALUE : rowsPerPage)
+                .map(Release::getId)
+                .collect(Collectors.toList());
+
+        PaginationData resultPageData = pageData.deepCopy().setTotalRowCount(sortableReleases.size());
+        return Collections.singletonMap(resultPageData, componentDatabaseHandler.getReleasesInOrder(pageIds, user));
     }
 
     private Set<String> getCotsComponentIdsFromRelease(Collection<Release> releases) {
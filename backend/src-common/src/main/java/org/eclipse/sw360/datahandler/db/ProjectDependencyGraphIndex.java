@@ -0,0 +1,372 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.db;
+
+import com.cloudant.client.api.model.ChangesResult;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.sw360.datahandler.cloudantclient.ChangesFollowerTracker;
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.common.SW360Constants;
+import org.eclipse.sw360.datahandler.thrift.ProjectReleaseRelationship;
+import org.eclipse.sw360.datahandler.thrift.ReleaseRelationship;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.projects.Project;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectProjectRelationship;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectRelationship;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyMap;
+
+/**
+ * In-memory index of the links between projects (project to subprojects and project to releases).
+ *
+ * Document ids are mapped to int ordinals, the links of a project are kept as int arrays of ordinals together with
+ * byte arrays holding the relationship types. The index is loaded once from the database and is afterwards kept up to
+ * date by polling the CouchDB _changes feed, so that transitive queries do not need to read the project documents.
+ * The feed is filtered in the database to project documents. Reads can lag behind the database by up to the poll
+ * interval of 5 seconds, only the links of the project a query starts from are always current.
+ *
+ * There is one index per database which is shared by all handlers using it. If the initial load fails, no index is
+ * kept and the next access tries to load it again.
+ */
+public class ProjectDependencyGraphIndex {
+
+    private static final Logger log = LogManager.getLogger(ProjectDependencyGraphIndex.class);
+
+    private static final long CHANGES_POLL_INTERVAL_SECONDS = 5;
+    private static final int CHANGES_BATCH_SIZE = 1000;
+    private static final List<String> INDEXED_TYPES = ImmutableList.of(SW360Constants.TYPE_PROJECT);
+    private static final byte NO_RELATIONSHIP = -1;
+    private static final int[] NO_LINKS = new int[0];
+    private static final byte[] NO_RELATIONSHIPS = new byte[0];
+
+    private static final Map<String, ProjectDependencyGraphIndex> INSTANCES = new ConcurrentHashMap<>();
+
+    private final DatabaseConnectorCloudant db;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> projectOrdinals = new HashMap<>();
+    private final List<String> projectIds = new ArrayList<>();
+    private final Map<String, Integer> releaseOrdinals = new HashMap<>();
+    private final List<String> releaseIds = new ArrayList<>();
+
+    // all indexed by project ordinal
+    private final List<int[]> subprojects = new ArrayList<>();
+    private final List<byte[]> subprojectRelationships = new ArrayList<>();
+    private final List<int[]> releases = new ArrayList<>();
+    private final List<byte[]> releaseRelationships = new ArrayList<>();
+    private final BitSet existingProjects = new BitSet();
+
+    private String lastSequence;
+
+    @VisibleForTesting
+    ProjectDependencyGraphIndex(DatabaseConnectorCloudant db) {
+        this.db = db;
+    }
+
+    /**
+     * Returns the index of the given database, loading it and starting to follow the _changes feed on first access
+     *
+     * @throws SW360Exception if the projects could not be read, the index stays unloaded then
+     */
+    public static ProjectDependencyGraphIndex getInstance(DatabaseConnectorCloudant db) throws SW360Exception {
+        ProjectDependencyGraphIndex index = INSTANCES.get(db.getDbName());
+        if (index != null) {
+            return index;
+        }
+        synchronized (INSTANCES) {
+            index = INSTANCES.get(db.getDbName());
+            if (index == null) {
+                index = new ProjectDependencyGraphIndex(db);
+                index.load();
+                index.startFollowingChanges();
+                INSTANCES.put(db.getDbName(), index);
+            }
+            return index;
+        }
+    }
+
+    @VisibleForTesting
+    void load() throws SW360Exception {
+        String sequence;
+        List<Project> projects;
+        try {
+            // remember the sequence first, so that changes happening while loading are applied afterwards
+            sequence = db.getUpdateSequence();
+            projects = db.getAllOrThrow(Project.class);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not load project dependency graph index of database " + db.getDbName(), e);
+            throw new SW360Exception("Could not load project dependency graph index: " + e.getMessage());
+        }
+        lock.writeLock().lock();
+        try {
+            for (Project project : projects) {
+                putProject(project.getId(),
+                        extractLinks(nullToEmptyMap(project.getLinkedProjects()), ProjectProjectRelationship::getProjectRelationship),
+                        extractLinks(nullToEmptyMap(project.getReleaseIdToUsage()), ProjectReleaseRelationship::getReleaseRelation));
+            }
+            lastSequence = sequence;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded project dependency graph index of database " + db.getDbName() + " with " + projects.size() + " projects");
+    }
+
+    private void startFollowingChanges() {
+        ChangesFollowerTracker.follow("project-graph-index-" + db.getDbName(), this::applyChanges,
+                CHANGES_POLL_INTERVAL_SECONDS);
+    }
+
+    @VisibleForTesting
+    void applyChanges() {
+        try {
+            ChangesResult changes;
+            do {
+                changes = db.getChanges(lastSequence, CHANGES_BATCH_SIZE, INDEXED_TYPES);
+                lock.writeLock().lock();
+                try {
+                    for (ChangesResult.Row row : changes.getResults()) {
+                        applyChange(row);
+                    }
+                    lastSequence = changes.getLastSeq();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } while (changes.getResults().size() >= CHANGES_BATCH_SIZE);
+        } catch (Exception e) {
+            log.error("Could not apply changes to project dependency graph index of database " + db.getDbName(), e);
+        }
+    }
+
+    private void applyChange(ChangesResult.Row row) {
+        JsonObject doc = row.getDoc();
+        if (row.isDeleted() || doc == null) {
+            removeProject(row.getId());
+            return;
+        }
+        JsonElement type = doc.get("type");
+        if (type == null || !SW360Constants.TYPE_PROJECT.equals(type.getAsString())) {
+            return;
+        }
+        putProject(row.getId(),
+                extractLinks(doc, "linkedProjects", "projectRelationship", ProjectRelationship::valueOf),
+                extractLinks(doc, "releaseIdToUsage", "releaseRelation", ReleaseRelationship::valueOf));
+    }
+
+    private static <V, R extends Enum<R>> Map<String, R> extractLinks(Map<String, V> relations, Function<V, R> relationship) {
+        Map<String, R> links = new HashMap<>();
+        relations.forEach((id, relation) -> links.put(id, relation == null ? null : relationship.apply(relation)));
+        return links;
+    }
+
+    private static <R extends Enum<R>> Map<String, R> extractLinks(JsonObject doc, String mapField, String relationshipField,
+            Function<String, R> parser) {
+        Map<String, R> links = new HashMap<>();
+        JsonElement map = doc.get(mapField);
+        if (map == null || !map.isJsonObject()) {
+            return links;
+        }
+        for (Map.Entry<String, JsonElement> entry : map.getAsJsonObject().entrySet()) {
+            R relationship = null;
+            if (entry.getValue().isJsonObject()) {
+                JsonElement value = entry.getValue().getAsJsonObject().get(relationshipField);
+                if (value != null && value.isJsonPrimitive()) {
+                    try {
+                        relationship = parser.apply(value.getAsString());
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Unknown relationship " + value.getAsString() + " in project dependency graph index");
+                    }
+                }
+            }
+            links.put(entry.getKey(), relationship);
+        }
+        return links;
+    }
+
+    private void putProject(String projectId, Map<String, ? extends Enum<?>> linkedProjects, Map<String, ? extends Enum<?>> linkedReleases) {
+        int ordinal = projectOrdinal(projectId);
+
+        int[] subprojectOrdinals = new int[linkedProjects.size()];
+        byte[] subprojectTypes = new byte[linkedProjects.size()];
+        int i = 0;
+        for (Map.Entry<String, ? extends Enum<?>> entry : linkedProjects.entrySet()) {
+            subprojectOrdinals[i] = projectOrdinal(entry.getKey());
+            subprojectTypes[i++] = toByte(entry.getValue());
+        }
+
+        int[] releaseOrdinalsOfProject = new int[linkedReleases.size()];
+        byte[] releaseTypes = new byte[linkedReleases.size()];
+        i = 0;
+        for (Map.Entry<String, ? extends Enum<?>> entry : linkedReleases.entrySet()) {
+            releaseOrdinalsOfProject[i] = releaseOrdinal(entry.getKey());
+            releaseTypes[i++] = toByte(entry.getValue());
+        }
+
+        subprojects.set(ordinal, subprojectOrdinals);
+        subprojectRelationships.set(ordinal, subprojectTypes);
+        releases.set(ordinal, releaseOrdinalsOfProject);
+        releaseRelationships.set(ordinal, releaseTypes);
+        existingProjects.set(ordinal);
+    }
+
+    private void removeProject(String projectId) {
+        Integer ordinal = projectOrdinals.get(projectId);
+        if (ordinal != null) {
+            subprojects.set(ordinal, NO_LINKS);
+            subprojectRelationships.set(ordinal, NO_RELATIONSHIPS);
+            releases.set(ordinal, NO_LINKS);
+            releaseRelationships.set(ordinal, NO_RELATIONSHIPS);
+            existingProjects.clear(ordinal);
+        }
+    }
+
+    private int projectOrdinal(String projectId) {
+        Integer ordinal = projectOrdinals.get(projectId);
+        if (ordinal == null) {
+            ordinal = projectIds.size();
+            projectOrdinals.put(projectId, ordinal);
+            projectIds.add(projectId);
+            subprojects.add(NO_LINKS);
+            subprojectRelationships.add(NO_RELATIONSHIPS);
+            releases.add(NO_LINKS);
+            releaseRelationships.add(NO_RELATIONSHIPS);
+        }
+        return ordinal;
+    }
+
+    private int releaseOrdinal(String releaseId) {
+        Integer ordinal = releaseOrdinals.get(releaseId);
+        if (ordinal == null) {
+            ordinal = releaseIds.size();
+            releaseOrdinals.put(releaseId, ordinal);
+            releaseIds.add(releaseId);
+        }
+        return ordinal;
+    }
+
+    private static byte toByte(Enum<?> relationship) {
+        return relationship == null ? NO_RELATIONSHIP : (byte) relationship.ordinal();
+    }
+
+    private static <E extends Enum<E>> E fromByte(byte relationship, E[] values) {
+        return relationship == NO_RELATIONSHIP ? null : values[relationship];
+    }
+
+    /**
+     * Returns the ids of the given project and of all projects reachable from it via links accepted by the filter.
+     * Linked project ids which do not exist (anymore) in the database are not contained.
+     *
+     * The links of the given project are taken from the document, as the index lags behind the database by up to
+     * the poll interval and the project might just have been changed.
+     */
+    public Set<String> getProjectIdsOfProjectTree(Project root, Predicate<ProjectRelationship> projectFilter) {
+        lock.readLock().lock();
+        try {
+            Set<String> result = new HashSet<>();
+            result.add(root.getId());
+            BitSet visited = traverse(root, projectFilter);
+            for (int ordinal = visited.nextSetBit(0); ordinal >= 0; ordinal = visited.nextSetBit(ordinal + 1)) {
+                result.add(projectIds.get(ordinal));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of all releases linked by the given project or by any project reachable from it via links
+     * accepted by the project filter, restricted to release links accepted by the release filter. The links of the
+     * given project are taken from the document, see {@link #getProjectIdsOfProjectTree(Project, Predicate)}.
+     */
+    public Set<String> getReleaseIdsOfProjectTree(Project root, Predicate<ProjectRelationship> projectFilter,
+            Predicate<ReleaseRelationship> releaseFilter) {
+        Set<String> result = new HashSet<>();
+        nullToEmptyMap(root.getReleaseIdToUsage()).forEach((releaseId, usage) -> {
+            if (releaseFilter.test(usage == null ? null : usage.getReleaseRelation())) {
+                result.add(releaseId);
+            }
+        });
+        lock.readLock().lock();
+        try {
+            ReleaseRelationship[] releaseRelationshipValues = ReleaseRelationship.values();
+            BitSet visited = traverse(root, projectFilter);
+            BitSet releaseOrdinalsOfTree = new BitSet();
+            for (int ordinal = visited.nextSetBit(0); ordinal >= 0; ordinal = visited.nextSetBit(ordinal + 1)) {
+                int[] linkedReleases = releases.get(ordinal);
+                byte[] types = releaseRelationships.get(ordinal);
+                for (int i = 0; i < linkedReleases.length; i++) {
+                    if (releaseFilter.test(fromByte(types[i], releaseRelationshipValues))) {
+                        releaseOrdinalsOfTree.set(linkedReleases[i]);
+                    }
+                }
+            }
+            for (int ordinal = releaseOrdinalsOfTree.nextSetBit(0); ordinal >= 0; ordinal = releaseOrdinalsOfTree.nextSetBit(ordinal + 1)) {
+                result.add(releaseIds.get(ordinal));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ordinals of all projects reachable from the links of the given project document, without the
+     * project itself
+     */
+    private BitSet traverse(Project root, Predicate<ProjectRelationship> projectFilter) {
+        BitSet visited = new BitSet();
+        // the root is marked as visited, so that its links are not read from the index if a subproject links back
+        Integer rootOrdinal = projectOrdinals.get(root.getId());
+        if (rootOrdinal != null) {
+            visited.set(rootOrdinal);
+        }
+        ProjectRelationship[] projectRelationshipValues = ProjectRelationship.values();
+        Deque<Integer> toVisit = new ArrayDeque<>();
+        nullToEmptyMap(root.getLinkedProjects()).forEach((linkedProjectId, relation) -> {
+            Integer child = projectOrdinals.get(linkedProjectId);
+            if (child != null && !visited.get(child) && existingProjects.get(child)
+                    && projectFilter.test(relation == null ? null : relation.getProjectRelationship())) {
+                visited.set(child);
+                toVisit.push(child);
+            }
+        });
+        while (!toVisit.isEmpty()) {
+            int current = toVisit.pop();
+            int[] linkedProjects = subprojects.get(current);
+            byte[] types = subprojectRelationships.get(current);
+            for (int i = 0; i < linkedProjects.length; i++) {
+                int child = linkedProjects[i];
+                if (!visited.get(child) && existingProjects.get(child)
+                        && projectFilter.test(fromByte(types[i], projectRelationshipValues))) {
+                    visited.set(child);
+                    toVisit.push(child);
+                }
+            }
+        }
+        if (rootOrdinal != null) {
+            visited.clear(rootOrdinal);
+        }
+        return visited;
+    }
+}
@@ -33,12 +33,15 @@ import com.cloudant.client.api.query.QueryResult;
 import com.cloudant.client.api.query.Selector;
 import com.cloudant.client.api.query.Sort;
 import com.cloudant.client.api.views.Key;
-import com.cloudant.client.api.views.ViewRequest;
+import com.cloudant.client.api.views.UnpaginatedRequestBuilder;
 import com.cloudant.client.api.views.ViewRequestBuilder;
 import com.cloudant.client.api.views.ViewResponse;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -159,6 +162,43 @@ public class ProjectRepository extends SummaryAwareRepository<Project> {
                     "  }" +
                     "}";
 
+    /**
+     * Keys every project by the scopes it is visible in, matching ProjectPermissions.isVisible: [everyone],
+     * [bu, businessUnit] and [member, email] for the users equivalent to a moderator (only the creator for private
+     * projects). A missing visibility is treated as business unit and moderators.
+     */
+    private static final String BY_VISIBILITY_SCOPE_VIEW =
+            "function(doc) {\n" +
+            "  if (doc.type == 'project') {\n" +
+            "    var visibility = doc.visbility || \"BUISNESSUNIT_AND_MODERATORS\";\n" +
+            "    var acc = {};\n" +
+            "    if (visibility == \"EVERYONE\") {\n" +
+            "      emit([\"everyone\", \"\"], null);\n" +
+            "    } else if (visibility == \"PRIVATE\") {\n" +
+            "      if (doc.createdBy)\n" +
+            "        acc[doc.createdBy]=1;\n" +
+            "    } else if (visibility == \"ME_AND_MODERATORS\" || visibility == \"BUISNESSUNIT_AND_MODERATORS\") {\n" +
+            "      if (visibility == \"BUISNESSUNIT_AND_MODERATORS\")\n" +
+            "        emit([\"bu\", doc.businessUnit || \"\"], null);\n" +
+            "      if (doc.createdBy)\n" +
+            "        acc[doc.createdBy]=1;\n" +
+            "      if (doc.leadArchitect)\n" +
+            "        acc[doc.leadArchitect]=1;\n" +
+            "      if (doc.projectResponsible)\n" +
+            "        acc[doc.projectResponsible]=1;\n" +
+            "      for (var i in doc.moderators) {\n" +
+            "        acc[doc.moderators[i]]=1;\n" +
+            "      }\n" +
+            "      for (var i in doc.contributors) {\n" +
+            "        acc[doc.contributors[i]]=1;\n" +
+            "      }\n" +
+            "    }\n" +
+            "    for (var i in acc) {\n" +
+            "      emit([\"member\", i], null);\n" +
+            "    }\n" +
+            "  }\n" +
+            "}";
+
     private static final String BY_NAME_VIEW =
             "function(doc) {" +
                     "  if (doc.type == 'project') {" +
@@ -250,6 +290,9 @@ public class ProjectRepository extends SummaryAwareRepository<Project> {
                     "  }" +
                     "}";
 
+    private static final int BY_STATE_BATCH_SIZE = 500;
+    private static final Gson GSON = new Gson();
+
     public static Joiner spaceJoiner = Joiner.on(" ");
 
     public ProjectRepository(DatabaseConnectorCloudant db) {
@@ -265,6 +308,8 @@ public class ProjectRepository extends SummaryAwareRepository<Project> {
         views.put("bylinkingprojectid", createMapReduce(BY_LINKING_PROJECT_ID_VIEW, null));
         views.put("fullmyprojects", createMapReduce(FULL_MY_PROJECTS_VIEW, null));
         views.put("buprojects", createMapReduce(BU_PROJECTS_VIEW, null));
+        views.put("bugroups", createMapReduce(BU_PROJECTS_VIEW, "_count"));
+        views.put("byvisibilityscope", createMapReduce(BY_VISIBILITY_SCOPE_VIEW, null));
         views.put("byexternalids", createMapReduce(BY_EXTERNAL_IDS, null));
         views.put("all", createMapReduce(ALL, null));
         views.put("myfullprojectscount", createMapReduce(MY_ACCESSIBLE_PROJECTS_COUNT, "_count"));
@@ -420,12 +465,17 @@ public class ProjectRepository extends SummaryAwareRepository<Project> {
                     isUserBelongToMeAndModerator, isUserBelongToBuAndModerator));
         }
 
+        final String bookmark = pageData.isSetBookmark() ? pageData.getBookmark() : null;
         QueryBuilder qb = new QueryBuilder(finalSelector);
         if (rowsPerPage != -1) {
             qb.limit(rowsPerPage);
         }
-        qb.skip(pageData.getDisplayStart());
-        ViewRequestBuilder queryView = null;
+        if (bookmark != null) {
+            qb.bookmark(bookmark);
+        } else {
+            qb.skip(pageData.getDisplayStart());
+        }
+        boolean pageByStateView = false;
         switch (sortColumnNo) {
         case 0:
             qb = qb.useIndex("byName");
@@ -444,56 +494,104 @@ public class ProjectRepository extends SummaryAwareRepository<Project> {
             break;
         case 3:
         case 4:
-            queryView = getConnector().createQuery(Project.class, "byState");
+            pageByStateView = true;
             break;
         default:
             break;
         }
+        PaginationData resultPageData = pageData.deepCopy();
+        resultPageData.unsetBookmark();
         try {
-            if (queryView != null) {
-                ViewRequest<String, Object> request = queryView.newPaginatedRequest(Key.Type.STRING, Object.class)
-                        .rowsPerPage(rowsPerPage).descending(!ascending).includeDocs(true).build();
-                ViewResponse<String, Object> response = request.getResponse();
-                response = request.getResponse();
-                int pageNo = pageData.getDisplayStart() / rowsPerPage;
-                List<Project> proj = new ArrayList<Project>();
-                int count = pageNo == 0 ? rowsPerPage : (pageNo + 1) * rowsPerPage;
-                while (projects.size() < count) {
-                    if (response != null) {
-                        proj = response.getDocsAs(Project.class);
-                    }
-                    proj = proj.stream().filter(ProjectPermissions.isVisible(user)).collect(Collectors.toList());
-                    projects.addAll(proj.stream().collect(Collectors.toList()));
-                    response = response.nextPage();
-                    if (response == null) {
-                        break;
-                    }
-                }
-                projects = projects.stream().skip(pageData.getDisplayStart()).limit(rowsPerPage).collect(Collectors.toList());
+            if (pageByStateView) {
+                resultPageData.setBookmark(getVisibleProjectsPageByState(user, pageData, bookmark, projects));
             } else {
                 QueryResult<Project> queryResult = getConnector().getQueryResult(query, Project.class);
                 projects = queryResult.getDocs();
+                if (rowsPerPage != -1 && projects.size() == rowsPerPage) {
+                    resultPageData.setBookmark(queryResult.getBookmark());
+                }
             }
         } catch (Exception e) {
             log.error("Error getting projects", e);
         }
-        result.put(pageData, projects);
+        result.put(resultPageData, projects);
         return result;
     }
 
+    /**
+     * Fills the given list with the visible projects of the requested page from the byState view. The view is read
+     * from the given bookmark on, which holds key and document id of the first row of the page, and the bookmark of
+     * the following page is returned, or null if there are no more visible projects.
+     */
+    private String getVisibleProjectsPageByState(User user, PaginationData pageData, String bookmark, List<Project> projects) {
+        final int rowsPerPage = pageData.getRowsPerPage();
+        final int batchSize = rowsPerPage > 0 ? rowsPerPage : BY_STATE_BATCH_SIZE;
+        String[] startRow = bookmark != null ? GSON.fromJson(bookmark, String[].class) : null;
+        int rowsToSkip = bookmark != null ? 0 : pageData.getDisplayStart();
+        ViewRequestBuilder queryView = getConnector().createQuery(Project.class, "byState");
+        while (true) {
+            UnpaginatedRequestBuilder<String, Object> reqBuilder = queryView.newRequest(Key.Type.STRING, Object.class)
+                    .descending(!pageData.isAscending()).includeDocs(true).limit(batchSize + 1);
+            if (startRow != null) {
+                reqBuilder = reqBuilder.startKey(startRow[0]).startKeyDocId(startRow[1]);
+            }
+            List<ViewResponse.Row<String, Object>> rows;
+            try {
+                rows = reqBuilder.build().getResponse().getRows();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read view byState", e);
+            }
+            for (ViewResponse.Row<String, Object> row : rows.subList(0, Math.min(rows.size(), batchSize))) {
+                Project project = row.getDocumentAsType(Project.class);
+                if (project == null || !ProjectPermissions.isVisible(user).test(project)) {
+                    continue;
+                }
+                if (rowsToSkip > 0) {
+                    rowsToSkip--;
+                } else if (rowsPerPage == -1 || projects.size() < rowsPerPage) {
+                    projects.add(project);
+                } else {
+                    return GSON.toJson(new String[] { row.getKey(), row.getId() });
+                }
+            }
+            if (rows.size() <= batchSize) {
+                return null;
+            }
+            ViewResponse.Row<String, Object> nextRow = rows.get(batchSize);
+            startRow = new String[] { nextRow.getKey(), nextRow.getId() };
+        }
+    }
+
     @NotNull
     public Set<Project> getAccessibleProjects(User user) {
-        /** This implementation requires multiple DB requests and has its logic distributed in multiple places **/
-//        final Set<Project> buProjects = new HashSet<>(getBUProjects(organisation));
-//        final Set<Project> myProjects = getMyProjects(user);
-//        return Sets.union(buProjects, myProjects);
-
-        /** I have only one day left in the project so I try this, but if there is time this should be reviewed
-         *  The ideal solution would be to make a smarter query with a combined key, but I do not know how easy
-         *  this is to refactor if say an enum value gets renamed...
-         * **/
-        final List<Project> all = getAll();
-        return all.stream().filter(ProjectPermissions.isVisible(user)::test).collect(Collectors.toSet());
+        return getFullDocsById(getAccessibleProjectIds(user));
+    }
+
+    /**
+     * Collects the ids of all projects visible to the user from the byvisibilityscope view, without reading the
+     * project documents
+     */
+    private Set<String> getAccessibleProjectIds(User user) {
+        Map<String, Set<String>> scopes = new HashMap<>();
+        scopes.put("everyone", Collections.singleton(""));
+        scopes.put("member", Collections.singleton(user.getEmail()));
+        Set<String> accessibleIds = new HashSet<>();
+        if (PermissionUtils.isUserAtLeast(UserGroup.CLEARING_ADMIN, user)) {
+            accessibleIds.addAll(queryForIdsOnlyComplexKey("byvisibilityscope", "bu"));
+        } else {
+            Set<String> departments = new HashSet<>();
+            departments.add(user.getDepartment());
+            if (!CommonUtils.isNullOrEmptyMap(user.getSecondaryDepartmentsAndRoles())) {
+                departments.addAll(user.getSecondaryDepartmentsAndRoles().keySet());
+            }
+            Set<String> businessUnits = departments.stream().map(SW360Utils::getBUFromOrganisation)
+                    .filter(CommonUtils::isNotNullEmptyOrWhitespace).collect(Collectors.toSet());
+            if (!businessUnits.isEmpty()) {
+                scopes.put("bu", businessUnits);
+            }
+        }
+        accessibleIds.addAll(queryForIdsAsComplexValues("byvisibilityscope", scopes));
+        return accessibleIds;
     }
 
     public List<Project> searchByName(String name, User user) {
@@ -501,24 +599,23 @@ public class ProjectRepository extends SummaryAwareRepository<Project> {
     }
 
     public Set<String> getGroups() {
-        return getConnector().getDistinctSortedStringKeys(Project.class, "buprojects");
+        return getConnector().getDistinctSortedStringKeysOfGroupedView(Project.class, "bugroups");
     }
 
     @NotNull
     private Set<Project> filterAccessibleProjectsByIds(User user, Set<String> searchIds) {
+        Set<String> ids = searchIds.stream().filter(CommonUtils::isNotNullEmptyOrWhitespace).collect(Collectors.toSet());
         final Set<Project> output = new HashSet<>();
-        searchIds.stream().filter(CommonUtils::isNotNullEmptyOrWhitespace).forEach(searchId -> {
-            Project project = get(searchId);
-            if (project != null) {
-                if (ProjectPermissions.isVisible(user).test(project)) {
-                    output.add(project);
-                } else {
-                    log.warn("Project with Id - " + searchId + " not visisble to user - " + user.getEmail());
-                }
+        Set<String> foundIds = new HashSet<>();
+        for (Project project : get(ids)) {
+            foundIds.add(project.getId());
+            if (ProjectPermissions.isVisible(user).test(project)) {
+                output.add(project);
             } else {
-                log.warn("Error occured while fetching Project with Id - " + searchId);
+                log.warn("Project with Id - " + project.getId() + " not visisble to user - " + user.getEmail());
             }
-        });
+        }
+        Sets.difference(ids, foundIds).forEach(searchId -> log.warn("Error occured while fetching Project with Id - " + searchId));
 
         return output;
     }
@@ -9,9 +9,12 @@
  */
 package org.eclipse.sw360.datahandler.db;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.couchdb.lucene.LuceneAwareDatabaseConnector;
 import org.eclipse.sw360.datahandler.couchdb.lucene.LuceneSearchView;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.ektorp.http.HttpClient;
@@ -28,7 +31,13 @@ import static org.eclipse.sw360.datahandler.couchdb.lucene.LuceneAwareDatabaseCo
 
 public class ProjectSearchHandler {
 
-    private static final LuceneSearchView luceneSearchView = new LuceneSearchView("lucene", "projects",
+    /**
+     * Besides the searchable fields, the permission relevant fields are stored with the prefix
+     * {@link LuceneAwareDatabaseConnector#PERMISSION_FIELD_PREFIX}, so that the visibility of a hit can be checked
+     * without loading the document
+     */
+    @VisibleForTesting
+    static final String PROJECT_SEARCH_FUNCTION =
             "function(doc) {" +
                     "    var ret = new Document();" +
                     "    if(!doc.type) return ret;" +
@@ -48,6 +57,23 @@ public class ProjectSearchHandler {
                     "        }" +
                     "    };" +
                     "    idx(doc);" +
+                    "    function perm(field, value) {" +
+                    "        if(value !== undefined && value != null && value.length >0) {" +
+                    "            ret.add(value, {\"field\": \"perm_\" + field, \"store\": \"yes\", \"index\": \"no\"} );" +
+                    "        }" +
+                    "    };" +
+                    "    perm('stored', 'true');" +
+                    "    perm('visbility', doc.visbility);" +
+                    "    perm('createdBy', doc.createdBy);" +
+                    "    perm('leadArchitect', doc.leadArchitect);" +
+                    "    perm('projectResponsible', doc.projectResponsible);" +
+                    "    perm('businessUnit', doc.businessUnit);" +
+                    "    for(var i in doc.moderators) {" +
+                    "        perm('moderators', doc.moderators[i]);" +
+                    "    }" +
+                    "    for(var i in doc.contributors) {" +
+                    "        perm('contributors', doc.contributors[i]);" +
+                    "    }" +
                     "    if(doc.businessUnit !== undefined && doc.businessUnit != null && doc.businessUnit.length >0) {  "+
                     "         ret.add(doc.businessUnit, {\"field\": \"businessUnit\"} );" +
                     "    }" +
@@ -76,7 +102,10 @@ public class ProjectSearchHandler {
                     "      ret.add(doc.additionalData[key], {\"field\": \"additionalData\"} );" +
                     "    }" +
                     "    return ret;" +
-                    "}");
+                    "}";
+
+    private static final LuceneSearchView luceneSearchView = new LuceneSearchView("lucene", "projects",
+            PROJECT_SEARCH_FUNCTION);
 
 
     private final LuceneAwareDatabaseConnector connector;
@@ -91,6 +120,12 @@ public class ProjectSearchHandler {
         return connector.searchProjectViewWithRestrictionsAndFilter(luceneSearchView, text, subQueryRestrictions, user);
     }
 
+    public Map<PaginationData, List<Project>> search(String text, final Map<String, Set<String>> subQueryRestrictions,
+            User user, PaginationData pageData) {
+        return connector.searchProjectViewWithRestrictionsAndFilter(luceneSearchView, text, subQueryRestrictions, user,
+                pageData);
+    }
+
     public List<Project> search(String searchText) {
         return connector.searchView(Project.class, luceneSearchView, prepareWildcardQuery(searchText));
     }
@@ -13,6 +13,8 @@ import org.eclipse.sw360.components.summary.ReleaseSummary;
 import org.eclipse.sw360.components.summary.SummaryType;
 import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
 import org.eclipse.sw360.datahandler.couchdb.SummaryAwareRepository;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.eclipse.sw360.datahandler.thrift.components.ClearingState;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 
@@ -20,8 +22,11 @@ import com.cloudant.client.api.model.DesignDocument.MapReduce;
 import com.cloudant.client.api.views.Key;
 import com.cloudant.client.api.views.UnpaginatedRequestBuilder;
 import com.cloudant.client.api.views.ViewRequestBuilder;
+import com.cloudant.client.api.views.ViewResponse;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -41,6 +46,9 @@ public class ReleaseRepository extends SummaryAwareRepository<Release> {
 
     private static final String ALL = "function(doc) { if (doc.type == 'release') emit(null, doc._id) }";
     private static final String BYNAME = "function(doc) { if(doc.type == 'release') { emit(doc.name, doc._id) } }";
+    private static final String BYNAMELOWERCASE = "function(doc) { if(doc.type == 'release') { emit((doc.name || '').toLowerCase(), doc._id) } }";
+    private static final String BYCLEARINGSTATEANDNAME = "function(doc) { if(doc.type == 'release') { emit([doc.clearingState || '', (doc.name || '').toLowerCase()], doc._id) } }";
+    private static final String SORTFIELDS = "function(doc) { if(doc.type == 'release') { emit(doc._id, [doc.name, doc.version, doc.clearingState]) } }";
     private static final String BYCREATEDON = "function(doc) { if(doc.type == 'release') { emit(doc.createdOn, doc._id) } }";
     private static final String SUBSCRIBERS = "function(doc) {" +
             " if (doc.type == 'release'){" +
@@ -97,7 +105,10 @@ public class ReleaseRepository extends SummaryAwareRepository<Release> {
         Map<String, MapReduce> views = new HashMap<String, MapReduce>();
         views.put("all", createMapReduce(ALL, null));
         views.put("byname", createMapReduce(BYNAME, null));
+        views.put("bynamelowercase", createMapReduce(BYNAMELOWERCASE, null));
+        views.put("byClearingStateAndName", createMapReduce(BYCLEARINGSTATEANDNAME, null));
         views.put("byCreatedOn", createMapReduce(BYCREATEDON, null));
+        views.put("sortFields", createMapReduce(SORTFIELDS, null));
         views.put("subscribers", createMapReduce(SUBSCRIBERS, null));
         views.put("usedInReleaseRelation", createMapReduce(USEDINRELEASERELATION, null));
         views.put("releaseByVendorId", createMapReduce(RELEASEBYVENDORID, null));
@@ -119,6 +130,29 @@ public class ReleaseRepository extends SummaryAwareRepository<Release> {
         return releasesMatchingNameAndVersion;
     }
 
+    public Set<String> getReleaseIdsByNameIgnoreCase(String name) {
+        return queryForIds("bynamelowercase", name.toLowerCase());
+    }
+
+    /**
+     * Returns the ids of one page of all releases, sorted case insensitively by name or, if the sort column number
+     * of the pagination data is the thrift id of the clearing state, by clearing state and name. Only the view rows
+     * of the requested page are read.
+     */
+    public List<String> getReleaseIdsOfPage(PaginationData pageData) {
+        boolean descending = pageData.isSetAscending() && !pageData.isAscending();
+        UnpaginatedRequestBuilder<?, ?> reqBuilder;
+        if (pageData.isSetSortColumnNumber()
+                && pageData.getSortColumnNumber() == Release._Fields.CLEARING_STATE.getThriftFieldId()) {
+            reqBuilder = getConnector().createQuery(Release.class, "byClearingStateAndName")
+                    .newRequest(Key.Type.COMPLEX, Object.class).descending(descending);
+        } else {
+            reqBuilder = getConnector().createQuery(Release.class, "bynamelowercase")
+                    .newRequest(Key.Type.STRING, Object.class).descending(descending);
+        }
+        return queryForIdsOfPage(reqBuilder, pageData);
+    }
+
     public List<Release> getReleaseSummary() {
         return makeSummary(SummaryType.SUMMARY, getAllIds());
     }
@@ -176,4 +210,34 @@ public class ReleaseRepository extends SummaryAwareRepository<Release> {
     public List<Release> getReferencingReleases(String releaseId) {
         return queryView("usedInReleaseRelation", releaseId);
     }
+
+    /**
+     * Returns the given releases with only id, name, version and clearing state set. These are read from a view, so
+     * the release documents are not loaded. Meant for sorting large sets of releases before loading a single page.
+     */
+    public List<Release> getReleasesWithSortFields(Collection<String> ids) {
+        List<Release> releases = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return releases;
+        }
+        ViewRequestBuilder query = getConnector().createQuery(Release.class, "sortFields");
+        try {
+            ViewResponse<String, String[]> response = query.newRequest(Key.Type.STRING, String[].class)
+                    .keys(ids.toArray(new String[0])).build().getResponse();
+            for (ViewResponse.Row<String, String[]> row : response.getRows()) {
+                String[] sortFields = row.getValue();
+                if (sortFields == null) {
+                    continue;
+                }
+                Release release = new Release().setId(row.getId()).setName(sortFields[0]).setVersion(sortFields[1]);
+                if (sortFields[2] != null) {
+                    release.setClearingState(ClearingState.valueOf(sortFields[2]));
+                }
+                releases.add(release);
+            }
+        } catch (IOException e) {
+            log.error("Error fetching sort fields of releases", e);
+        }
+        return releases;
+    }
 }
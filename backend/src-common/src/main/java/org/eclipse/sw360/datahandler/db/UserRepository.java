@@ -34,6 +34,7 @@ import com.google.common.collect.Sets;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -118,6 +119,13 @@ public class UserRepository extends SummaryAwareRepository<User> {
         return getUserFromIds(userIds);
     }
 
+    public List<User> getByEmails(Set<String> emails) {
+        if (emails.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return get(queryForIdsAsValue("byEmail", emails));
+    }
+
     public User getByApiToken(String token) {
         final Set<String> userIds = queryForIdsAsValue("byApiToken", token);
         return getUserFromIds(userIds);
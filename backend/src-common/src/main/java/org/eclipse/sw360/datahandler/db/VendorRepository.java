@@ -11,8 +11,11 @@ package org.eclipse.sw360.datahandler.db;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
 import org.eclipse.sw360.datahandler.cloudantclient.DatabaseRepositoryCloudantClient;
@@ -29,14 +32,23 @@ import com.cloudant.client.api.model.DesignDocument.MapReduce;
 public class VendorRepository extends DatabaseRepositoryCloudantClient<Vendor> {
 
     private static final String ALL = "function(doc) { if (doc.type == 'vendor') emit(null, doc._id) }";
+    private static final String BYFULLNAME = "function(doc) { if (doc.type == 'vendor') emit(doc.fullname, doc._id) }";
 
     public VendorRepository(DatabaseConnectorCloudant db) {
         super(db, Vendor.class);
         Map<String, MapReduce> views = new HashMap<String, MapReduce>();
         views.put("all", createMapReduce(ALL, null));
+        views.put("byFullname", createMapReduce(BYFULLNAME, null));
         initStandardDesignDocument(views, db);
     }
 
+    public List<Vendor> getByFullnames(Set<String> fullnames) {
+        if (fullnames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return get(queryForIdsAsValue("byFullname", fullnames));
+    }
+
     public void fillVendor(Component component) {
         if (component.isSetDefaultVendorId()) {
             final String vendorId = component.getDefaultVendorId();
@@ -0,0 +1,147 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.db;
+
+import com.cloudant.client.api.model.Response;
+
+import org.eclipse.sw360.datahandler.thrift.changelogs.ChangeLogs;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChangeLogsWriterTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    private ChangeLogsRepository repository;
+    private List<String> storedDocumentIds;
+
+    @Before
+    public void setUp() {
+        repository = mock(ChangeLogsRepository.class);
+        storedDocumentIds = Collections.synchronizedList(new ArrayList<>());
+        when(repository.executeBulk(anyCollection())).thenAnswer(invocation -> {
+            Collection<?> changeLogs = (Collection<?>) invocation.getArguments()[0];
+            List<Response> responses = new ArrayList<>();
+            for (Object changeLog : changeLogs) {
+                String documentId = ((ChangeLogs) changeLog).getDocumentId();
+                Response response = mock(Response.class);
+                when(response.getId()).thenReturn(documentId);
+                if (documentId.startsWith("fail")) {
+                    when(response.getError()).thenReturn("conflict");
+                } else {
+                    storedDocumentIds.add(documentId);
+                }
+                responses.add(response);
+            }
+            return responses;
+        });
+    }
+
+    @Test
+    public void testChangesAreWrittenInOrder() {
+        ChangeLogsWriter writer = new ChangeLogsWriter(1, 100, 3);
+        List<String> documentIds = IntStream.range(0, 20).mapToObj(i -> "doc" + i).collect(Collectors.toList());
+
+        documentIds.forEach(id -> writer.submit(repository, () -> Collections.singletonList(changeLog(id))));
+        writer.shutdown(TIMEOUT_MILLIS);
+
+        assertEquals(documentIds, storedDocumentIds);
+        assertEquals(20, writer.getWrittenChangeLogsCount());
+        assertEquals(0, writer.getFailedChangesCount());
+    }
+
+    @Test
+    public void testSubmitBlocksWhileQueueIsFull() throws Exception {
+        ChangeLogsWriter writer = new ChangeLogsWriter(1, 1, 1);
+        CountDownLatch firstChangeStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstChange = new CountDownLatch(1);
+
+        writer.submit(repository, () -> {
+            firstChangeStarted.countDown();
+            awaitQuietly(releaseFirstChange);
+            return Collections.singletonList(changeLog("doc1"));
+        });
+        assertTrue(firstChangeStarted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        writer.submit(repository, () -> Collections.singletonList(changeLog("doc2")));
+        assertEquals(1, writer.getQueueDepth());
+
+        Thread blockedSubmitter = new Thread(
+                () -> writer.submit(repository, () -> Collections.singletonList(changeLog("doc3"))));
+        blockedSubmitter.start();
+        blockedSubmitter.join(500);
+        assertTrue(blockedSubmitter.isAlive());
+        assertEquals(1, writer.getQueueDepth());
+
+        releaseFirstChange.countDown();
+        blockedSubmitter.join(TIMEOUT_MILLIS);
+        assertFalse(blockedSubmitter.isAlive());
+
+        writer.shutdown(TIMEOUT_MILLIS);
+        assertEquals(3, writer.getWrittenChangeLogsCount());
+    }
+
+    @Test
+    public void testShutdownDrainsTheQueue() {
+        ChangeLogsWriter writer = new ChangeLogsWriter(2, 100, 2);
+        for (int i = 0; i < 50; i++) {
+            String id = "doc" + i;
+            writer.submit(repository, () -> Collections.singletonList(changeLog(id)));
+        }
+
+        writer.shutdown(TIMEOUT_MILLIS);
+
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(50, storedDocumentIds.size());
+        assertEquals(50, writer.getWrittenChangeLogsCount());
+    }
+
+    @Test
+    public void testFailuresAreCountedPerChange() {
+        ChangeLogsWriter writer = new ChangeLogsWriter(1, 100, 10);
+
+        writer.submit(repository, () -> {
+            throw new IllegalStateException("cannot compute change logs");
+        });
+        writer.submit(repository, () -> List.of(changeLog("fail1"), changeLog("fail1-reference")));
+        writer.submit(repository, () -> List.of(changeLog("doc1"), changeLog("doc1-reference")));
+        writer.shutdown(TIMEOUT_MILLIS);
+
+        assertEquals(2, writer.getFailedChangesCount());
+        assertEquals(2, writer.getWrittenChangeLogsCount());
+    }
+
+    private static ChangeLogs changeLog(String documentId) {
+        return new ChangeLogs().setDocumentId(documentId);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.eclipse.sw360.datahandler.TestUtils.assertTestString;
 import static org.eclipse.sw360.datahandler.common.SW360Utils.printName;
@@ -382,6 +383,123 @@ public class ProjectDatabaseHandlerTest {
         assertThat(projectLinks.get(0).getLinkedReleases().size(), is(2));
     }
 
+    @Test
+    public void testGetLinkedProjectsDeep() throws Exception {
+        addProjectGraph();
+
+        List<ProjectLink> projectLinks = handler.getLinkedProjects(handler.getProjectById("G1", user1), true, user1);
+
+        // G2 links back to G1, G3 is private to user2, "missing" and "missing-release" do not exist
+        assertThat(describe(projectLinks), is("G1@0[gr1:MAINLINE,gr2:SPECIFIC](G2@1[gr3:PHASEOUT](G4@2[gr4:OPEN]))"));
+        assertNodeIdsLinkParents(projectLinks, null);
+    }
+
+    @Test
+    public void testGetLinkedProjectsNotDeep() throws Exception {
+        addProjectGraph();
+
+        List<ProjectLink> projectLinks = handler.getLinkedProjects(handler.getProjectById("G1", user1), false, user1);
+
+        // the second level has neither releases nor subprojects
+        assertThat(describe(projectLinks), is("G1@0[gr1:MAINLINE,gr2:SPECIFIC](G2@1())"));
+        assertNodeIdsLinkParents(projectLinks, null);
+    }
+
+    @Test
+    public void testGetLinkedProjectsOfRelations() throws Exception {
+        addProjectGraph();
+
+        List<ProjectLink> projectLinks = handler.getLinkedProjects(ImmutableMap.of("G2",
+                new ProjectProjectRelationship(ProjectRelationship.CONTAINED)), user1);
+
+        assertThat(describe(projectLinks),
+                is("G2@0[gr3:PHASEOUT](G1@1[gr1:MAINLINE,gr2:SPECIFIC](),G4@1[gr4:OPEN])"));
+        assertThat(projectLinks.get(0).getRelation(), is(ProjectRelationship.CONTAINED));
+        assertThat(projectLinks.get(0).getSubprojects().get(0).getRelation(), is(ProjectRelationship.CONTAINED));
+        assertNodeIdsLinkParents(projectLinks, null);
+    }
+
+    @Test
+    public void testGetLinkedProjectsOfInaccessibleProject() throws Exception {
+        addProjectGraph();
+
+        // G1 is in a business unit of which user2 is not a member, G3 is private to user2
+        assertThat(handler.getLinkedProjects(ImmutableMap.of("G1",
+                new ProjectProjectRelationship(ProjectRelationship.CONTAINED)), user2).size(), is(0));
+        assertThat(describe(handler.getLinkedProjects(ImmutableMap.of("G3",
+                new ProjectProjectRelationship(ProjectRelationship.REFERRED)), user2)), is("G3@0(G5@1)"));
+    }
+
+    /**
+     * G1 -> G2 -> G4, G2 -> G1, G1 -> G3 (private to user2) -> G5, G1 -> missing
+     */
+    private void addProjectGraph() {
+        DatabaseConnectorCloudant databaseConnector = new DatabaseConnectorCloudant(DatabaseSettingsTest.getConfiguredClient(), dbName);
+        databaseConnector.add(graphProject("G1", "user1")
+                .setLinkedProjects(ImmutableMap.of(
+                        "G2", new ProjectProjectRelationship(ProjectRelationship.CONTAINED),
+                        "G3", new ProjectProjectRelationship(ProjectRelationship.REFERRED),
+                        "missing", new ProjectProjectRelationship(ProjectRelationship.CONTAINED)))
+                .setReleaseIdToUsage(ImmutableMap.of(
+                        "gr1", new ProjectReleaseRelationship(ReleaseRelationship.CONTAINED, MainlineState.MAINLINE),
+                        "gr2", new ProjectReleaseRelationship(ReleaseRelationship.REFERRED, MainlineState.SPECIFIC),
+                        "missing-release", new ProjectReleaseRelationship(ReleaseRelationship.CONTAINED, MainlineState.OPEN))));
+        databaseConnector.add(graphProject("G2", "user1")
+                .setLinkedProjects(ImmutableMap.of(
+                        "G1", new ProjectProjectRelationship(ProjectRelationship.CONTAINED),
+                        "G4", new ProjectProjectRelationship(ProjectRelationship.CONTAINED)))
+                .setReleaseIdToUsage(ImmutableMap.of(
+                        "gr3", new ProjectReleaseRelationship(ReleaseRelationship.CONTAINED, MainlineState.PHASEOUT))));
+        databaseConnector.add(graphProject("G3", "user2").setVisbility(Visibility.PRIVATE)
+                .setLinkedProjects(ImmutableMap.of(
+                        "G5", new ProjectProjectRelationship(ProjectRelationship.CONTAINED))));
+        databaseConnector.add(graphProject("G4", "user1")
+                .setReleaseIdToUsage(ImmutableMap.of(
+                        "gr4", new ProjectReleaseRelationship(ReleaseRelationship.CONTAINED, MainlineState.OPEN))));
+        databaseConnector.add(graphProject("G5", "user2").setVisbility(Visibility.EVERYONE));
+        for (int i = 1; i <= 4; i++) {
+            databaseConnector.add(new Release().setId("gr" + i).setName("Release " + i).setVersion("1.0")
+                    .setComponentId("c1"));
+        }
+    }
+
+    private static Project graphProject(String id, String createdBy) {
+        return new Project().setId(id).setName("Graph " + id.substring(1)).setVersion("1.0")
+                .setBusinessUnit("AB CD EF").setCreatedBy(createdBy);
+    }
+
+    /**
+     * Describes a tree of project links as id@level[release:mainline state,...](subprojects,...), leaving out the
+     * parts which are not set
+     */
+    private static String describe(List<ProjectLink> projectLinks) {
+        StringBuilder description = new StringBuilder();
+        for (ProjectLink projectLink : projectLinks) {
+            if (description.length() > 0) {
+                description.append(",");
+            }
+            description.append(projectLink.getId()).append("@").append(projectLink.getTreeLevel());
+            if (projectLink.isSetLinkedReleases()) {
+                description.append(projectLink.getLinkedReleases().stream()
+                        .map(releaseLink -> releaseLink.getId() + ":" + releaseLink.getMainlineState())
+                        .collect(Collectors.joining(",", "[", "]")));
+            }
+            if (projectLink.isSetSubprojects()) {
+                description.append("(").append(describe(projectLink.getSubprojects())).append(")");
+            }
+        }
+        return description.toString();
+    }
+
+    private static void assertNodeIdsLinkParents(List<ProjectLink> projectLinks, String parentNodeId) {
+        for (ProjectLink projectLink : projectLinks) {
+            assertEquals(parentNodeId, projectLink.getParentNodeId());
+            if (projectLink.isSetSubprojects()) {
+                assertNodeIdsLinkParents(projectLink.getSubprojects(), projectLink.getNodeId());
+            }
+        }
+    }
+
     private ProjectWithReleaseRelationTuple createTuple(Project p) {
         return new ProjectWithReleaseRelationTuple(p, newDefaultProjectReleaseRelationship());
     }
@@ -0,0 +1,264 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.db;
+
+import com.cloudant.client.api.model.ChangesResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonObject;
+
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.thrift.MainlineState;
+import org.eclipse.sw360.datahandler.thrift.ProjectReleaseRelationship;
+import org.eclipse.sw360.datahandler.thrift.ReleaseRelationship;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.projects.Project;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectProjectRelationship;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectRelationship;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProjectDependencyGraphIndexTest {
+
+    private static final List<String> TYPES = ImmutableList.of("project");
+    private static final Predicate<ProjectRelationship> ALL_PROJECTS = relationship -> true;
+    private static final Predicate<ReleaseRelationship> ALL_RELEASES = relationship -> true;
+
+    @Mock
+    private DatabaseConnectorCloudant db;
+
+    private ProjectDependencyGraphIndex index;
+
+    private Project p1;
+    private Project p2;
+
+    @Before
+    public void setUp() throws Exception {
+        // p1 -> p2 -> p4, p2 -> p1 (cycle), p1 -> p3 -> p5, p1 -> missing
+        p1 = project("p1", ImmutableMap.of(
+                "p2", ProjectRelationship.CONTAINED,
+                "p3", ProjectRelationship.REFERRED,
+                "missing", ProjectRelationship.CONTAINED),
+                ImmutableMap.of("r1", ReleaseRelationship.CONTAINED));
+        p2 = project("p2", ImmutableMap.of(
+                "p4", ProjectRelationship.CONTAINED,
+                "p1", ProjectRelationship.CONTAINED),
+                ImmutableMap.of("r2", ReleaseRelationship.REFERRED));
+        Project p3 = project("p3", ImmutableMap.of("p5", ProjectRelationship.DUPLICATE), ImmutableMap.of());
+        Project p4 = project("p4", ImmutableMap.of(), ImmutableMap.of("r3", ReleaseRelationship.CONTAINED));
+        Project p5 = project("p5", ImmutableMap.of(), ImmutableMap.of("r4", ReleaseRelationship.OPTIONAL));
+
+        when(db.getDbName()).thenReturn("sw360db");
+        when(db.getUpdateSequence()).thenReturn("1");
+        when(db.getAllOrThrow(Project.class)).thenReturn(ImmutableList.of(p1, p2, p3, p4, p5));
+        index = new ProjectDependencyGraphIndex(db);
+    }
+
+    @Test
+    public void testProjectTreeAfterLoad() throws Exception {
+        index.load();
+
+        assertThat(index.getProjectIdsOfProjectTree(p1, ALL_PROJECTS), containsInAnyOrder("p1", "p2", "p3", "p4", "p5"));
+        assertThat(index.getProjectIdsOfProjectTree(p1, relationship -> relationship == ProjectRelationship.CONTAINED),
+                containsInAnyOrder("p1", "p2", "p4"));
+    }
+
+    @Test
+    public void testProjectTreeWithCycle() throws Exception {
+        index.load();
+
+        assertThat(index.getProjectIdsOfProjectTree(p2, ALL_PROJECTS), containsInAnyOrder("p1", "p2", "p3", "p4", "p5"));
+        assertThat(index.getReleaseIdsOfProjectTree(p2, ALL_PROJECTS, ALL_RELEASES),
+                containsInAnyOrder("r1", "r2", "r3", "r4"));
+    }
+
+    @Test
+    public void testLinksOfTheRootAreTakenFromTheDocument() throws Exception {
+        index.load();
+        Project changedP1 = project("p1", ImmutableMap.of("p3", ProjectRelationship.REFERRED),
+                ImmutableMap.of("r5", ReleaseRelationship.CONTAINED));
+
+        assertThat(index.getProjectIdsOfProjectTree(changedP1, ALL_PROJECTS), containsInAnyOrder("p1", "p3", "p5"));
+        assertThat(index.getReleaseIdsOfProjectTree(changedP1, ALL_PROJECTS, ALL_RELEASES),
+                containsInAnyOrder("r4", "r5"));
+    }
+
+    @Test
+    public void testReleaseTreeIsFiltered() throws Exception {
+        index.load();
+
+        assertThat(index.getReleaseIdsOfProjectTree(p1, ALL_PROJECTS, ALL_RELEASES),
+                containsInAnyOrder("r1", "r2", "r3", "r4"));
+        assertThat(index.getReleaseIdsOfProjectTree(p1, ALL_PROJECTS,
+                relationship -> relationship == ReleaseRelationship.CONTAINED), containsInAnyOrder("r1", "r3"));
+        assertThat(index.getReleaseIdsOfProjectTree(p1, relationship -> relationship == ProjectRelationship.CONTAINED,
+                ALL_RELEASES), containsInAnyOrder("r1", "r2", "r3"));
+    }
+
+    @Test
+    public void testProjectNotInTheIndex() throws Exception {
+        index.load();
+        Project newProject = project("new", ImmutableMap.of("p4", ProjectRelationship.CONTAINED),
+                ImmutableMap.of());
+
+        assertThat(index.getProjectIdsOfProjectTree(newProject, ALL_PROJECTS), containsInAnyOrder("new", "p4"));
+    }
+
+    @Test
+    public void testLoadFailsIfProjectsCannotBeRead() throws Exception {
+        when(db.getAllOrThrow(Project.class)).thenThrow(new IOException("connection reset"));
+
+        try {
+            index.load();
+            fail("expected the load to fail");
+        } catch (SW360Exception e) {
+            assertThat(e.getWhy(), is("Could not load project dependency graph index: connection reset"));
+        }
+    }
+
+    @Test
+    public void testChangesAreApplied() throws Exception {
+        index.load();
+        JsonObject changedP4 = projectDoc(ImmutableMap.of("p6", "CONTAINED"), ImmutableMap.of("r3", "CONTAINED"));
+        JsonObject newP6 = projectDoc(ImmutableMap.of(), ImmutableMap.of("r6", "CONTAINED"));
+        ChangesResult changes = changes("2", row("p4", changedP4), row("p6", newP6));
+        when(db.getChanges("1", 1000, TYPES)).thenReturn(changes);
+
+        index.applyChanges();
+
+        assertThat(index.getProjectIdsOfProjectTree(p1, ALL_PROJECTS),
+                containsInAnyOrder("p1", "p2", "p3", "p4", "p5", "p6"));
+        assertThat(index.getReleaseIdsOfProjectTree(p1, ALL_PROJECTS, ALL_RELEASES),
+                containsInAnyOrder("r1", "r2", "r3", "r4", "r6"));
+    }
+
+    @Test
+    public void testDeletedProjectsAreNotTraversed() throws Exception {
+        index.load();
+        ChangesResult changes = changes("2", deletedRow("p3"));
+        when(db.getChanges("1", 1000, TYPES)).thenReturn(changes);
+
+        index.applyChanges();
+
+        assertThat(index.getProjectIdsOfProjectTree(p1, ALL_PROJECTS), containsInAnyOrder("p1", "p2", "p4"));
+        assertThat(index.getReleaseIdsOfProjectTree(p1, ALL_PROJECTS, ALL_RELEASES),
+                containsInAnyOrder("r1", "r2", "r3"));
+
+        // the next poll continues after the last sequence, a project created again with the same id is traversed
+        JsonObject recreatedP3 = projectDoc(ImmutableMap.of(), ImmutableMap.of());
+        ChangesResult nextChanges = changes("3", row("p3", recreatedP3));
+        when(db.getChanges("2", 1000, TYPES)).thenReturn(nextChanges);
+        index.applyChanges();
+
+        assertThat(index.getProjectIdsOfProjectTree(p1, ALL_PROJECTS), containsInAnyOrder("p1", "p2", "p3", "p4"));
+    }
+
+    @Test
+    public void testUnknownRelationshipIsKeptAsNull() throws Exception {
+        index.load();
+        JsonObject changedP2 = projectDoc(ImmutableMap.of("p4", "NO_SUCH_RELATIONSHIP"), ImmutableMap.of());
+        ChangesResult changes = changes("2", row("p2", changedP2));
+        when(db.getChanges("1", 1000, TYPES)).thenReturn(changes);
+        Set<ProjectRelationship> seenRelationships = new HashSet<>();
+
+        index.applyChanges();
+        Set<String> projectIds = index.getProjectIdsOfProjectTree(p1, relationship -> {
+            seenRelationships.add(relationship);
+            return true;
+        });
+
+        assertThat(projectIds, containsInAnyOrder("p1", "p2", "p3", "p4", "p5"));
+        assertThat(seenRelationships.contains(null), is(true));
+    }
+
+    @Test
+    public void testFailedPollKeepsSequence() throws Exception {
+        index.load();
+        ChangesResult changes = changes("2", deletedRow("p2"));
+        when(db.getChanges("1", 1000, TYPES)).thenThrow(new RuntimeException("connection reset")).thenReturn(changes);
+
+        index.applyChanges();
+        assertThat(index.getProjectIdsOfProjectTree(p1, ALL_PROJECTS), containsInAnyOrder("p1", "p2", "p3", "p4", "p5"));
+
+        index.applyChanges();
+        assertThat(index.getProjectIdsOfProjectTree(p1, ALL_PROJECTS), containsInAnyOrder("p1", "p3", "p5"));
+    }
+
+    private static Project project(String id, Map<String, ProjectRelationship> linkedProjects,
+            Map<String, ReleaseRelationship> linkedReleases) {
+        Project project = new Project(id).setId(id);
+        linkedProjects.forEach((linkedId, relationship) ->
+                project.putToLinkedProjects(linkedId, new ProjectProjectRelationship(relationship)));
+        linkedReleases.forEach((releaseId, relationship) ->
+                project.putToReleaseIdToUsage(releaseId, new ProjectReleaseRelationship(relationship, MainlineState.OPEN)));
+        return project;
+    }
+
+    private static JsonObject projectDoc(Map<String, String> linkedProjects, Map<String, String> linkedReleases) {
+        JsonObject doc = new JsonObject();
+        doc.addProperty("type", "project");
+        JsonObject projects = new JsonObject();
+        linkedProjects.forEach((linkedId, relationship) -> {
+            JsonObject relation = new JsonObject();
+            relation.addProperty("projectRelationship", relationship);
+            projects.add(linkedId, relation);
+        });
+        doc.add("linkedProjects", projects);
+        JsonObject releases = new JsonObject();
+        linkedReleases.forEach((releaseId, relationship) -> {
+            JsonObject relation = new JsonObject();
+            relation.addProperty("releaseRelation", relationship);
+            relation.addProperty("mainlineState", "OPEN");
+            releases.add(releaseId, relation);
+        });
+        doc.add("releaseIdToUsage", releases);
+        return doc;
+    }
+
+    private static ChangesResult.Row row(String id, JsonObject doc) {
+        ChangesResult.Row row = mock(ChangesResult.Row.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getDoc()).thenReturn(doc);
+        return row;
+    }
+
+    private static ChangesResult.Row deletedRow(String id) {
+        ChangesResult.Row row = mock(ChangesResult.Row.class);
+        when(row.getId()).thenReturn(id);
+        when(row.isDeleted()).thenReturn(true);
+        return row;
+    }
+
+    private static ChangesResult changes(String lastSequence, ChangesResult.Row... rows) {
+        ChangesResult changes = mock(ChangesResult.class);
+        List<ChangesResult.Row> results = ImmutableList.copyOf(rows);
+        when(changes.getResults()).thenReturn(results);
+        when(changes.getLastSeq()).thenReturn(lastSequence);
+        return changes;
+    }
+}
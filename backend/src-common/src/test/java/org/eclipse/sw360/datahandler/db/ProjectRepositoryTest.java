@@ -0,0 +1,332 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.db;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.eclipse.sw360.datahandler.TestUtils;
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.common.DatabaseSettingsTest;
+import org.eclipse.sw360.datahandler.permissions.ProjectPermissions;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.eclipse.sw360.datahandler.thrift.Visibility;
+import org.eclipse.sw360.datahandler.thrift.projects.Project;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectClearingState;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectState;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.eclipse.sw360.datahandler.TestUtils.assertTestString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProjectRepositoryTest {
+
+    private static final String dbName = DatabaseSettingsTest.COUCH_DB_DATABASE;
+
+    private static final String MEMBER = "member@sw360.org";
+    private static final List<String> BUSINESS_UNITS = Arrays.asList("AB CD EF", "XY ZW UV", null);
+    private static final List<String> ROLES = Arrays.asList("createdBy", "leadArchitect", "projectResponsible",
+            "moderator", "contributor", "none");
+
+    private static final User PAGING_USER = user("user@sw360.org", "AB CD EF", UserGroup.USER);
+    private static final int SORT_BY_NAME = 0;
+    private static final int SORT_BY_STATE = 3;
+
+    private DatabaseConnectorCloudant databaseConnector;
+    private ProjectRepository repository;
+    private List<Project> projects;
+
+    @Before
+    public void setUp() throws Exception {
+        assertTestString(dbName);
+        TestUtils.createDatabase(DatabaseSettingsTest.getConfiguredClient(), dbName);
+        databaseConnector = new DatabaseConnectorCloudant(DatabaseSettingsTest.getConfiguredClient(), dbName);
+        repository = new ProjectRepository(databaseConnector);
+        projects = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.deleteDatabase(DatabaseSettingsTest.getConfiguredClient(), dbName);
+    }
+
+    /**
+     * Adds a project of every visibility, including a missing one, in every business unit with every role of the member
+     */
+    private void addProjectsOfAllVisibilities() {
+        List<Visibility> visibilities = new ArrayList<>(Arrays.asList(Visibility.values()));
+        visibilities.add(null);
+        int count = 0;
+        for (Visibility visibility : visibilities) {
+            for (String businessUnit : BUSINESS_UNITS) {
+                for (String role : ROLES) {
+                    Project project = project("P" + count++, visibility, businessUnit, role);
+                    databaseConnector.add(project);
+                    projects.add(project);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAccessibleProjectsOfMemberInBusinessUnit() throws Exception {
+        assertAccessibleProjectsMatchVisibility(user(MEMBER, "AB CD EF GH", UserGroup.USER));
+    }
+
+    @Test
+    public void testAccessibleProjectsOfOtherUserInBusinessUnit() throws Exception {
+        assertAccessibleProjectsMatchVisibility(user("other@sw360.org", "AB CD EF", UserGroup.USER));
+    }
+
+    @Test
+    public void testAccessibleProjectsOfMemberInOtherBusinessUnit() throws Exception {
+        assertAccessibleProjectsMatchVisibility(user(MEMBER, "QQ RR SS", UserGroup.USER));
+    }
+
+    @Test
+    public void testAccessibleProjectsOfUserWithSecondaryDepartment() throws Exception {
+        User user = user("other@sw360.org", "QQ RR SS", UserGroup.USER)
+                .setSecondaryDepartmentsAndRoles(ImmutableMap.of("XY ZW UV", ImmutableSet.of(UserGroup.USER)));
+
+        assertAccessibleProjectsMatchVisibility(user);
+    }
+
+    @Test
+    public void testAccessibleProjectsOfMemberWithSecondaryDepartment() throws Exception {
+        User user = user(MEMBER, "AB CD EF", UserGroup.USER)
+                .setSecondaryDepartmentsAndRoles(ImmutableMap.of("XY ZW UV", ImmutableSet.of(UserGroup.USER)));
+
+        assertAccessibleProjectsMatchVisibility(user);
+    }
+
+    @Test
+    public void testAccessibleProjectsOfClearingAdmin() throws Exception {
+        assertAccessibleProjectsMatchVisibility(user("clearing@sw360.org", "QQ RR SS", UserGroup.CLEARING_ADMIN));
+    }
+
+    @Test
+    public void testAccessibleProjectsOfClearingExpertWhoIsMember() throws Exception {
+        assertAccessibleProjectsMatchVisibility(user(MEMBER, "QQ RR SS", UserGroup.CLEARING_EXPERT));
+    }
+
+    @Test
+    public void testAccessibleProjectsOfAdmin() throws Exception {
+        assertAccessibleProjectsMatchVisibility(user("admin@sw360.org", "AB CD EF", UserGroup.SW360_ADMIN));
+    }
+
+    @Test
+    public void testPagesByStateAscending() throws Exception {
+        addProjectsByState();
+
+        List<List<String>> pages = readAllPages(PAGING_USER, SORT_BY_STATE, true, 3);
+
+        // page boundaries fall on invisible rows and between rows of the same key
+        assertEquals(Arrays.asList(
+                Arrays.asList("S01", "S02", "S03"),
+                Arrays.asList("S05", "S06", "S09"),
+                Arrays.asList("S10", "S11")), pages);
+    }
+
+    @Test
+    public void testPagesByStateDescending() throws Exception {
+        addProjectsByState();
+
+        List<List<String>> pages = readAllPages(PAGING_USER, SORT_BY_STATE, false, 3);
+
+        assertEquals(Arrays.asList(
+                Arrays.asList("S11", "S10", "S09"),
+                Arrays.asList("S06", "S05", "S03"),
+                Arrays.asList("S02", "S01")), pages);
+    }
+
+    @Test
+    public void testLastFullPageByStateHasNoBookmark() throws Exception {
+        addProjectsByState();
+
+        List<List<String>> pages = readAllPages(PAGING_USER, SORT_BY_STATE, true, 4);
+
+        // the invisible S12 after the last visible project does not lead to an empty page
+        assertEquals(Arrays.asList(
+                Arrays.asList("S01", "S02", "S03", "S05"),
+                Arrays.asList("S06", "S09", "S10", "S11")), pages);
+    }
+
+    @Test
+    public void testPageByStateWithOffset() throws Exception {
+        addProjectsByState();
+
+        assertEquals(Arrays.asList("S05", "S06", "S09"), readPage(PAGING_USER, SORT_BY_STATE, true, 3, 3, null));
+        assertEquals(Arrays.asList("S11"), readPage(PAGING_USER, SORT_BY_STATE, true, 3, 7, null));
+        assertEquals(Arrays.asList(), readPage(PAGING_USER, SORT_BY_STATE, true, 3, 8, null));
+        assertEquals(Arrays.asList("S01", "S02", "S03", "S05", "S06", "S09", "S10", "S11"),
+                readPage(PAGING_USER, SORT_BY_STATE, true, -1, 0, null));
+    }
+
+    @Test
+    public void testPagesByNameFollowBookmarks() throws Exception {
+        addProjectsByName();
+
+        List<String> ascending = readAllPages(PAGING_USER, SORT_BY_NAME, true, 2).stream()
+                .flatMap(List::stream).collect(Collectors.toList());
+        List<String> descending = readAllPages(PAGING_USER, SORT_BY_NAME, false, 2).stream()
+                .flatMap(List::stream).collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("N1", "N2", "N4", "N6", "N7"), ascending);
+        assertEquals(Arrays.asList("N7", "N6", "N4", "N2", "N1"), descending);
+    }
+
+    @Test
+    public void testPageByNameWithOffset() throws Exception {
+        addProjectsByName();
+
+        assertEquals(Arrays.asList("N4", "N6"), readPage(PAGING_USER, SORT_BY_NAME, true, 2, 2, null));
+        assertEquals(Arrays.asList("N2", "N1"), readPage(PAGING_USER, SORT_BY_NAME, false, 2, 3, null));
+    }
+
+    private void assertAccessibleProjectsMatchVisibility(User user) {
+        addProjectsOfAllVisibilities();
+        Set<String> expected = projects.stream().filter(ProjectPermissions.isVisible(user)).map(Project::getId)
+                .collect(Collectors.toSet());
+
+        Set<String> accessible = repository.getAccessibleProjects(user).stream().map(Project::getId)
+                .collect(Collectors.toSet());
+
+        assertTrue("every user sees some projects", expected.size() > 0);
+        assertEquals(expected, accessible);
+    }
+
+    private static Project project(String id, Visibility visibility, String businessUnit, String role) {
+        Project project = new Project().setId(id).setName("Project " + id).setCreatedBy("creator@sw360.org");
+        if (visibility != null) {
+            project.setVisbility(visibility);
+        } else {
+            // the visibility defaults to business unit and moderators, documents of old projects have none
+            project.unsetVisbility();
+        }
+        if (businessUnit != null) {
+            project.setBusinessUnit(businessUnit);
+        }
+        switch (role) {
+            case "createdBy":
+                project.setCreatedBy(MEMBER);
+                break;
+            case "leadArchitect":
+                project.setLeadArchitect(MEMBER);
+                break;
+            case "projectResponsible":
+                project.setProjectResponsible(MEMBER);
+                break;
+            case "moderator":
+                project.addToModerators(MEMBER);
+                break;
+            case "contributor":
+                project.addToContributors(MEMBER);
+                break;
+            default:
+                break;
+        }
+        return project;
+    }
+
+    /**
+     * Adds projects in the order of the byState view, keyed by state and clearing state. Every visible project is
+     * followed by its invisible ones.
+     */
+    private void addProjectsByState() {
+        addPagingProject("S01", "a", ProjectState.ACTIVE, ProjectClearingState.OPEN, true);
+        addPagingProject("S02", "b", ProjectState.ACTIVE, ProjectClearingState.OPEN, true);
+        addPagingProject("S03", "c", ProjectState.ACTIVE, ProjectClearingState.IN_PROGRESS, true);
+        addPagingProject("S04", "d", ProjectState.ACTIVE, ProjectClearingState.IN_PROGRESS, false);
+        addPagingProject("S05", "e", ProjectState.ACTIVE, ProjectClearingState.CLOSED, true);
+        addPagingProject("S06", "f", ProjectState.ACTIVE, ProjectClearingState.CLOSED, true);
+        addPagingProject("S07", "g", ProjectState.PHASE_OUT, ProjectClearingState.OPEN, false);
+        addPagingProject("S08", "h", ProjectState.PHASE_OUT, ProjectClearingState.OPEN, false);
+        addPagingProject("S09", "i", ProjectState.PHASE_OUT, ProjectClearingState.IN_PROGRESS, true);
+        addPagingProject("S10", "j", ProjectState.PHASE_OUT, ProjectClearingState.IN_PROGRESS, true);
+        addPagingProject("S11", "k", ProjectState.PHASE_OUT, ProjectClearingState.CLOSED, true);
+        addPagingProject("S12", "l", ProjectState.PHASE_OUT, ProjectClearingState.CLOSED, false);
+    }
+
+    private void addProjectsByName() {
+        addPagingProject("N1", "Alpha", ProjectState.ACTIVE, ProjectClearingState.OPEN, true);
+        addPagingProject("N2", "Bravo", ProjectState.ACTIVE, ProjectClearingState.OPEN, true);
+        addPagingProject("N3", "Charlie", ProjectState.ACTIVE, ProjectClearingState.OPEN, false);
+        addPagingProject("N4", "Delta", ProjectState.ACTIVE, ProjectClearingState.OPEN, true);
+        addPagingProject("N5", "Echo", ProjectState.ACTIVE, ProjectClearingState.OPEN, false);
+        addPagingProject("N6", "Foxtrot", ProjectState.ACTIVE, ProjectClearingState.OPEN, true);
+        addPagingProject("N7", "Golf", ProjectState.ACTIVE, ProjectClearingState.OPEN, true);
+    }
+
+    private void addPagingProject(String id, String name, ProjectState state, ProjectClearingState clearingState,
+            boolean visible) {
+        Project project = new Project().setId(id).setName(name).setState(state).setClearingState(clearingState)
+                .setBusinessUnit("XY ZW UV").setCreatedBy("creator@sw360.org")
+                .setVisbility(visible ? Visibility.EVERYONE : Visibility.PRIVATE);
+        databaseConnector.add(project);
+    }
+
+    /**
+     * Reads the pages one after the other by following the bookmarks, until a page has no bookmark or is empty
+     */
+    private List<List<String>> readAllPages(User user, int sortColumn, boolean ascending, int rowsPerPage) {
+        List<List<String>> pages = new ArrayList<>();
+        String bookmark = null;
+        int displayStart = 0;
+        do {
+            PaginationData pageData = pageData(sortColumn, ascending, rowsPerPage, displayStart, bookmark);
+            Map.Entry<PaginationData, List<Project>> page = getOnlyPage(repository.getAccessibleProjectsSummary(user, pageData));
+            if (!page.getValue().isEmpty()) {
+                pages.add(page.getValue().stream().map(Project::getId).collect(Collectors.toList()));
+            }
+            bookmark = page.getKey().isSetBookmark() ? page.getKey().getBookmark() : null;
+            displayStart += rowsPerPage;
+            assertTrue("too many pages", pages.size() < 20);
+        } while (bookmark != null);
+        return pages;
+    }
+
+    private List<String> readPage(User user, int sortColumn, boolean ascending, int rowsPerPage, int displayStart,
+            String bookmark) {
+        PaginationData pageData = pageData(sortColumn, ascending, rowsPerPage, displayStart, bookmark);
+        return getOnlyPage(repository.getAccessibleProjectsSummary(user, pageData)).getValue().stream()
+                .map(Project::getId).collect(Collectors.toList());
+    }
+
+    private static PaginationData pageData(int sortColumn, boolean ascending, int rowsPerPage, int displayStart,
+            String bookmark) {
+        PaginationData pageData = new PaginationData().setSortColumnNumber(sortColumn).setAscending(ascending)
+                .setRowsPerPage(rowsPerPage).setDisplayStart(displayStart);
+        if (bookmark != null) {
+            pageData.setBookmark(bookmark);
+        }
+        return pageData;
+    }
+
+    private static Map.Entry<PaginationData, List<Project>> getOnlyPage(Map<PaginationData, List<Project>> result) {
+        assertEquals(1, result.size());
+        return result.entrySet().iterator().next();
+    }
+
+    private static User user(String email, String department, UserGroup userGroup) {
+        return new User().setEmail(email).setDepartment(department).setUserGroup(userGroup);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.db;
+
+import org.eclipse.sw360.datahandler.thrift.projects.Project;
+import org.junit.Test;
+
+import static org.eclipse.sw360.datahandler.couchdb.lucene.LuceneAwareDatabaseConnector.PERMISSION_FIELD_PREFIX;
+import static org.eclipse.sw360.datahandler.db.ProjectSearchHandler.PROJECT_SEARCH_FUNCTION;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+public class ProjectSearchHandlerTest {
+
+    @Test
+    public void testSearchFunctionStoresMarkerOfPermissionFields() {
+        assertThat(PROJECT_SEARCH_FUNCTION, containsString("perm('stored', 'true');"));
+        assertThat(PROJECT_SEARCH_FUNCTION,
+                containsString("{\"field\": \"" + PERMISSION_FIELD_PREFIX + "\" + field, \"store\": \"yes\""));
+    }
+
+    @Test
+    public void testSearchFunctionStoresAllFieldsNeededForVisibility() {
+        // the fields read by ProjectPermissions.isVisible
+        assertStored(Project._Fields.VISBILITY, "doc.visbility");
+        assertStored(Project._Fields.CREATED_BY, "doc.createdBy");
+        assertStored(Project._Fields.LEAD_ARCHITECT, "doc.leadArchitect");
+        assertStored(Project._Fields.PROJECT_RESPONSIBLE, "doc.projectResponsible");
+        assertStored(Project._Fields.BUSINESS_UNIT, "doc.businessUnit");
+        assertStored(Project._Fields.MODERATORS, "doc.moderators[i]");
+        assertStored(Project._Fields.CONTRIBUTORS, "doc.contributors[i]");
+    }
+
+    private static void assertStored(Project._Fields field, String value) {
+        assertThat(PROJECT_SEARCH_FUNCTION, containsString("perm('" + field.getFieldName() + "', " + value + ");"));
+    }
+}
@@ -18,6 +18,7 @@ import org.eclipse.sw360.datahandler.thrift.*;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
 import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
+import org.eclipse.sw360.datahandler.thrift.components.ComponentType;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.components.ReleaseLink;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -81,6 +82,15 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.getComponentSummary(user);
     }
 
+    @Override
+    public Map<PaginationData, List<Component>> getComponentSummaryWithPagination(User user,
+            ComponentType componentType, PaginationData pageData) throws TException {
+        assertUser(user);
+        assertNotNull(pageData);
+
+        return handler.getComponentSummaryWithPagination(user, componentType, pageData);
+    }
+
     @Override
     public List<Component> getRecentComponentsSummary(int limit, User user) throws TException {
         assertUser(user);
@@ -526,6 +536,14 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.getAllReleases();
     }
 
+    @Override
+    public Map<PaginationData, List<Release>> getReleasesWithPagination(User user, String name,
+            PaginationData pageData) throws TException {
+        assertUser(user);
+        assertNotNull(pageData);
+        return handler.getReleasesWithPagination(user, name, pageData);
+    }
+
     @Override
     public Map<PaginationData, List<Component>> getRecentComponentsSummaryWithPagination(User user,
             PaginationData pageData) throws TException {
@@ -35,6 +35,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 import static org.eclipse.sw360.datahandler.TestUtils.assertTestString;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyMap;
@@ -970,6 +971,122 @@ public class ComponentDatabaseHandlerTest {
         verify(releaseModerator).deleteRelease(any(Release.class), eq(user1));
     }
 
+    @Test
+    public void testGetComponentSummaryWithPagination() throws Exception {
+        Map.Entry<PaginationData, List<Component>> firstPage = getOnlyPage(
+                handler.getComponentSummaryWithPagination(user1, null, page(0, 2, true)));
+        Map.Entry<PaginationData, List<Component>> lastPage = getOnlyPage(
+                handler.getComponentSummaryWithPagination(user1, null, page(2, 2, true)));
+        Map.Entry<PaginationData, List<Component>> descendingPage = getOnlyPage(
+                handler.getComponentSummaryWithPagination(user1, null, page(0, 2, false)));
+
+        assertThat(componentIdsInOrder(firstPage.getValue()), contains("C1", "C2"));
+        assertThat(firstPage.getKey().getTotalRowCount(), is(3));
+        assertThat(componentIdsInOrder(lastPage.getValue()), contains("C3"));
+        assertThat(lastPage.getKey().getTotalRowCount(), is(3));
+        assertThat(componentIdsInOrder(descendingPage.getValue()), contains("C3", "C2"));
+    }
+
+    @Test
+    public void testGetComponentSummaryWithPaginationSortedByCreatedByIgnoresCase() throws Exception {
+        DatabaseConnector databaseConnector = new DatabaseConnector(DatabaseSettingsTest.getConfiguredHttpClient(), dbName);
+        databaseConnector.add(new Component().setId("C4").setName("component4").setCreatedBy("Bert@example.com"));
+        databaseConnector.add(new Component().setId("C5").setName("component5").setCreatedBy("Dora@example.com"));
+        PaginationData pageData = page(0, 3, true).setSortColumnNumber(Component._Fields.CREATED_BY.getThriftFieldId());
+
+        List<Component> ascending = getOnlyPage(handler.getComponentSummaryWithPagination(user1, null, pageData)).getValue();
+        List<Component> descending = getOnlyPage(handler.getComponentSummaryWithPagination(user1, null,
+                pageData.deepCopy().setAscending(false))).getValue();
+
+        assertThat(componentIdsInOrder(ascending), contains("C4", "C1", "C3"));
+        assertThat(componentIdsInOrder(descending), contains("C2", "C5", "C3"));
+    }
+
+    @Test
+    public void testGetComponentSummaryWithPaginationOfComponentType() throws Exception {
+        DatabaseConnector databaseConnector = new DatabaseConnector(DatabaseSettingsTest.getConfiguredHttpClient(), dbName);
+        databaseConnector.add(new Component().setId("C4").setName("component4").setCreatedBy(email1)
+                .setCreatedOn("2017-07-25").setComponentType(ComponentType.OSS));
+        databaseConnector.add(new Component().setId("C5").setName("component5").setCreatedBy(email1)
+                .setCreatedOn("2017-07-23").setComponentType(ComponentType.OSS));
+        databaseConnector.add(new Component().setId("C6").setName("component6").setCreatedBy(email1)
+                .setCreatedOn("2017-07-24").setComponentType(ComponentType.OSS));
+        databaseConnector.add(new Component().setId("C7").setName("component7").setCreatedBy(email1)
+                .setCreatedOn("2017-07-26").setComponentType(ComponentType.INTERNAL));
+        PaginationData pageData = page(0, 2, false).setSortColumnNumber(Component._Fields.CREATED_ON.getThriftFieldId());
+
+        Map.Entry<PaginationData, List<Component>> firstPage = getOnlyPage(
+                handler.getComponentSummaryWithPagination(user1, ComponentType.OSS, pageData));
+        Map.Entry<PaginationData, List<Component>> lastPage = getOnlyPage(
+                handler.getComponentSummaryWithPagination(user1, ComponentType.OSS, pageData.deepCopy().setDisplayStart(2)));
+        List<Component> ascending = getOnlyPage(handler.getComponentSummaryWithPagination(user1, ComponentType.OSS,
+                pageData.deepCopy().setAscending(true).setRowsPerPage(-1))).getValue();
+
+        assertThat(componentIdsInOrder(firstPage.getValue()), contains("C4", "C6"));
+        assertThat(firstPage.getKey().getTotalRowCount(), is(3));
+        assertThat(componentIdsInOrder(lastPage.getValue()), contains("C5"));
+        assertThat(componentIdsInOrder(ascending), contains("C5", "C6", "C4"));
+    }
+
+    @Test
+    public void testGetReleasesWithPagination() throws Exception {
+        Map.Entry<PaginationData, List<Release>> firstPage = getOnlyPage(
+                handler.getReleasesWithPagination(user1, null, page(0, 2, true)));
+        Map.Entry<PaginationData, List<Release>> secondPage = getOnlyPage(
+                handler.getReleasesWithPagination(user1, "", page(2, 2, true)));
+        Map.Entry<PaginationData, List<Release>> lastPage = getOnlyPage(
+                handler.getReleasesWithPagination(user1, null, page(4, 2, true)));
+        Map.Entry<PaginationData, List<Release>> descendingPage = getOnlyPage(
+                handler.getReleasesWithPagination(user1, null, page(0, 2, false)));
+
+        assertThat(releaseIdsInOrder(firstPage.getValue()), contains("R1A", "R1B"));
+        assertThat(firstPage.getKey().getTotalRowCount(), is(5));
+        assertThat(releaseIdsInOrder(secondPage.getValue()), contains("R2A", "R2B"));
+        assertThat(releaseIdsInOrder(lastPage.getValue()), contains("R2C"));
+        assertThat(lastPage.getKey().getTotalRowCount(), is(5));
+        assertThat(releaseIdsInOrder(descendingPage.getValue()), contains("R2C", "R2B"));
+    }
+
+    @Test
+    public void testGetReleasesWithPaginationOfNameIgnoresCase() throws Exception {
+        DatabaseConnector databaseConnector = new DatabaseConnector(DatabaseSettingsTest.getConfiguredHttpClient(), dbName);
+        databaseConnector.add(new Release().setId("R2D").setComponentId("C2").setName("Component2").setVersion("releaseD")
+                .setCreatedBy(email1).setClearingState(ClearingState.APPROVED));
+        PaginationData pageData = page(0, 2, false).setSortColumnNumber(Release._Fields.CLEARING_STATE.getThriftFieldId());
+
+        Map.Entry<PaginationData, List<Release>> firstPage = getOnlyPage(
+                handler.getReleasesWithPagination(user1, "COMPONENT2", pageData));
+        Map.Entry<PaginationData, List<Release>> lastPage = getOnlyPage(
+                handler.getReleasesWithPagination(user1, "COMPONENT2", pageData.deepCopy().setDisplayStart(2)));
+        List<Release> allReleases = getOnlyPage(handler.getReleasesWithPagination(user1, "component2",
+                page(0, -1, true))).getValue();
+
+        assertThat(firstPage.getValue().get(0).getId(), is("R2D"));
+        assertThat(firstPage.getValue(), hasSize(2));
+        assertThat(firstPage.getKey().getTotalRowCount(), is(4));
+        assertThat(lastPage.getValue(), hasSize(2));
+        assertThat(releaseIdsInOrder(allReleases), containsInAnyOrder("R2A", "R2B", "R2C", "R2D"));
+        assertThat(getOnlyPage(handler.getReleasesWithPagination(user1, "component", page(0, 2, true))).getValue(),
+                is(empty()));
+    }
+
+    private static PaginationData page(int start, int rowsPerPage, boolean ascending) {
+        return new PaginationData().setDisplayStart(start).setRowsPerPage(rowsPerPage).setAscending(ascending);
+    }
+
+    private static <T> Map.Entry<PaginationData, List<T>> getOnlyPage(Map<PaginationData, List<T>> pages) {
+        assertThat(pages.size(), is(1));
+        return pages.entrySet().iterator().next();
+    }
+
+    private static List<String> componentIdsInOrder(List<Component> components) {
+        return components.stream().map(Component::getId).collect(Collectors.toList());
+    }
+
+    private static List<String> releaseIdsInOrder(List<Release> releases) {
+        return releases.stream().map(Release::getId).collect(Collectors.toList());
+    }
+
     private static boolean componentsContain(Collection<Component> components, @NotNull String id) {
         for (Component component : components) {
             if (id.equals(component.getId()))
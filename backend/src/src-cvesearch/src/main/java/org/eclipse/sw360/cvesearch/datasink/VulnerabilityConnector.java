@@ -13,12 +13,14 @@ package org.eclipse.sw360.cvesearch.datasink;
 import com.cloudant.client.api.CloudantClient;
 import com.google.common.base.Strings;
 
+import org.eclipse.sw360.cvesearch.entitytranslation.CveSearchDataTranslator.VulnerabilityWithRelation;
 import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.db.*;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
+import org.eclipse.sw360.datahandler.thrift.cvesearch.CveSearchState;
 import org.eclipse.sw360.datahandler.thrift.cvesearch.UpdateType;
 import org.eclipse.sw360.datahandler.thrift.cvesearch.VulnerabilityUpdateStatus;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
@@ -26,11 +28,16 @@ import org.eclipse.sw360.datahandler.thrift.vulnerabilities.ReleaseVulnerability
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.Vulnerability;
 import org.eclipse.sw360.vulnerabilities.common.VulnerabilityMapper;
 import org.eclipse.sw360.vulnerabilities.db.VulnerabilityDatabaseHandler;
+import org.ektorp.DocumentOperationResult;
 import org.ektorp.http.HttpClient;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyList;
 
 public class VulnerabilityConnector {
 
@@ -88,6 +95,21 @@ public class VulnerabilityConnector {
         return allReleases;
     }
 
+    public Map<String, CveSearchState> getCveSearchStatesByReleaseId() {
+        Map<String, CveSearchState> statesByReleaseId = new HashMap<>();
+        for (CveSearchState state : vulnerabilityDatabaseHandler.getAll(CveSearchState.class)) {
+            statesByReleaseId.put(state.getReleaseId(), state);
+        }
+        return statesByReleaseId;
+    }
+
+    public RequestStatus saveCveSearchStates(Collection<CveSearchState> states) {
+        if (states.isEmpty()) {
+            return RequestStatus.SUCCESS;
+        }
+        return vulnerabilityDatabaseHandler.add(CveSearchState.class, states);
+    }
+
 
 
     ///////////////////////////////////////
@@ -153,6 +175,109 @@ public class VulnerabilityConnector {
         return currentVulnerabilityUpdateStatus;
     }
 
+    /**
+     * Does the same as calling addOrUpdate for each vulnerability with its relation, but reads the existing
+     * vulnerabilities and relations with one request each, and writes only the changed ones with one bulk request
+     * for the vulnerabilities and one for the relations.
+     */
+    public VulnerabilityUpdateStatus addOrUpdate(List<VulnerabilityWithRelation> vulnerabilitiesWithRelations,
+                                                 VulnerabilityUpdateStatus currentVulnerabilityUpdateStatus) {
+        if (vulnerabilitiesWithRelations.isEmpty()) {
+            return currentVulnerabilityUpdateStatus;
+        }
+
+        // vulnerabilities
+        Set<String> externalIds = vulnerabilitiesWithRelations.stream()
+                .map(vulnerabilityWithRelation -> vulnerabilityWithRelation.vulnerability.getExternalId())
+                .collect(Collectors.toSet());
+        Map<String, Vulnerability> dbVulnerabilities = new HashMap<>();
+        for (Vulnerability dbVulnerability : vulnerabilityDatabaseHandler.getByExternalIds(externalIds)) {
+            dbVulnerabilities.put(dbVulnerability.getExternalId(), dbVulnerability);
+        }
+
+        List<UpdateType> updateTypes = new ArrayList<>();
+        Map<String, Vulnerability> changedVulnerabilities = new LinkedHashMap<>();
+        for (VulnerabilityWithRelation vulnerabilityWithRelation : vulnerabilitiesWithRelations) {
+            Vulnerability vulnerability = vulnerabilityWithRelation.vulnerability;
+            String externalId = vulnerability.getExternalId();
+            Vulnerability dbVulnerability = dbVulnerabilities.get(externalId);
+            if (dbVulnerability == null) {
+                updateTypes.add(UpdateType.NEW);
+                dbVulnerabilities.put(externalId, vulnerability);
+                changedVulnerabilities.put(externalId, vulnerability);
+            } else if (isMoreRecent(vulnerability, dbVulnerability)) {
+                updateTypes.add(UpdateType.UPDATED);
+                changedVulnerabilities.put(externalId, VulnerabilityMapper.updateFromVulnerability(dbVulnerability, vulnerability));
+            } else {
+                updateTypes.add(UpdateType.OLD);
+            }
+        }
+
+        Set<String> failedVulnerabilityIds = vulnerabilityDatabaseHandler
+                .addOrUpdate(Vulnerability.class, changedVulnerabilities.values()).stream()
+                .map(DocumentOperationResult::getId)
+                .collect(Collectors.toSet());
+        Predicate<Vulnerability> isFailed = dbVulnerability -> dbVulnerability.getId() == null
+                || failedVulnerabilityIds.contains(dbVulnerability.getId());
+
+        // relations, of the vulnerabilities which could be written
+        Set<String> releaseIds = vulnerabilitiesWithRelations.stream()
+                .map(vulnerabilityWithRelation -> vulnerabilityWithRelation.relation.getReleaseId())
+                .collect(Collectors.toSet());
+        Map<String, ReleaseVulnerabilityRelation> dbRelations = new HashMap<>();
+        for (ReleaseVulnerabilityRelation dbRelation : nullToEmptyList(vulnerabilityDatabaseHandler.getRelationsByReleaseIds(releaseIds))) {
+            dbRelations.put(getRelationKey(dbRelation), dbRelation);
+        }
+
+        Map<String, ReleaseVulnerabilityRelation> changedRelations = new LinkedHashMap<>();
+        for (VulnerabilityWithRelation vulnerabilityWithRelation : vulnerabilitiesWithRelations) {
+            Vulnerability dbVulnerability = dbVulnerabilities.get(vulnerabilityWithRelation.vulnerability.getExternalId());
+            if (isFailed.test(dbVulnerability)) {
+                continue;
+            }
+            ReleaseVulnerabilityRelation relation = vulnerabilityWithRelation.relation.setVulnerabilityId(dbVulnerability.getId());
+            String relationKey = getRelationKey(relation);
+            ReleaseVulnerabilityRelation dbRelation = dbRelations.get(relationKey);
+            if (dbRelation == null) {
+                dbRelations.put(relationKey, relation);
+                changedRelations.put(relationKey, relation);
+            } else {
+                ReleaseVulnerabilityRelation unchangedRelation = dbRelation.deepCopy();
+                if (!VulnerabilityMapper.updateFromReleaseVulnerabilityRelation(dbRelation, relation).equals(unchangedRelation)) {
+                    changedRelations.put(relationKey, dbRelation);
+                }
+            }
+        }
+
+        Set<String> failedRelationKeys = new HashSet<>();
+        Set<String> failedRelationIds = vulnerabilityDatabaseHandler
+                .addOrUpdate(ReleaseVulnerabilityRelation.class, changedRelations.values()).stream()
+                .map(DocumentOperationResult::getId)
+                .collect(Collectors.toSet());
+        changedRelations.forEach((relationKey, relation) -> {
+            if (relation.getId() == null || failedRelationIds.contains(relation.getId())) {
+                failedRelationKeys.add(relationKey);
+            }
+        });
+
+        // status, with one entry for each vulnerability as if they had been written one after the other
+        for (int i = 0; i < vulnerabilitiesWithRelations.size(); i++) {
+            VulnerabilityWithRelation vulnerabilityWithRelation = vulnerabilitiesWithRelations.get(i);
+            String externalId = vulnerabilityWithRelation.vulnerability.getExternalId();
+            UpdateType updateType = updateTypes.get(i);
+            if (isFailed.test(dbVulnerabilities.get(externalId))
+                    || failedRelationKeys.contains(getRelationKey(vulnerabilityWithRelation.relation))) {
+                updateType = UpdateType.FAILED;
+            }
+            currentVulnerabilityUpdateStatus.getStatusToVulnerabilityIds().get(updateType).add(externalId);
+        }
+        return currentVulnerabilityUpdateStatus;
+    }
+
+    private static String getRelationKey(ReleaseVulnerabilityRelation relation) {
+        return relation.getReleaseId() + "/" + relation.getVulnerabilityId();
+    }
+
     public Map<UpdateType, List<Vulnerability>> addOrUpdateVulnerabilityAndSetId(
             Vulnerability vulnerability,
             Map<UpdateType, List<Vulnerability>> statusToVulnerabilities){
@@ -10,20 +10,27 @@
  */
 package org.eclipse.sw360.cvesearch.datasource;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
 import org.eclipse.sw360.cvesearch.datasource.matcher.ListMatcher;
 import org.eclipse.sw360.cvesearch.datasource.matcher.Match;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class CveSearchGuesser {
 
     private final CveSearchApi cveSearchApi;
-    private ListMatcher vendorMatcher;
-    private Map<String,ListMatcher> productMatchers;
+    // filled lazily and shared by the workers of a full update. Each matcher is loaded by the first worker needing
+    // it, while workers needing other matchers go on, and a failed load is retried by the next worker.
+    private final Supplier<ListMatcher> vendorMatcher;
+    private final Map<String,Supplier<ListMatcher>> productMatchers;
 
     private int vendorThreshold = 0;
     private int productThreshold = 0;
@@ -33,8 +40,8 @@ public class CveSearchGuesser {
 
     public CveSearchGuesser(CveSearchApi cveSearchApi) {
         this.cveSearchApi=cveSearchApi;
-        vendorMatcher = null;
-        productMatchers = new HashMap<>();
+        vendorMatcher = Suppliers.memoize(() -> loadMatcher(cveSearchApi::allVendorNames));
+        productMatchers = new ConcurrentHashMap<>();
     }
 
     public void setVendorThreshold(int vendorThreshold) {
@@ -50,27 +57,37 @@ public class CveSearchGuesser {
     }
 
     public boolean addVendorGuesserIfNeeded() {
-        if(vendorMatcher == null) {
-            try {
-                vendorMatcher = new ListMatcher(cveSearchApi.allVendorNames());
-            } catch (IOException e) {
-                log.error(e.getMessage(), e);
-                return false;
-            }
-        }
-        return true;
+        return getMatcher(vendorMatcher) != null;
     }
 
     public boolean addProductGuesserIfNeeded(String vendor) {
-        if(! productMatchers.containsKey(vendor)) {
-            try {
-                productMatchers.put(vendor, new ListMatcher(cveSearchApi.allProductsOfVendor(vendor)));
-            } catch (IOException e) {
-                log.error(e.getMessage(), e);
-                return false;
-            }
+        return getMatcher(getProductMatcher(vendor)) != null;
+    }
+
+    private Supplier<ListMatcher> getProductMatcher(String vendor) {
+        return productMatchers.computeIfAbsent(vendor,
+                v -> Suppliers.memoize(() -> loadMatcher(() -> cveSearchApi.allProductsOfVendor(v))));
+    }
+
+    private interface NamesLoader {
+        Collection<String> load() throws IOException;
+    }
+
+    private static ListMatcher loadMatcher(NamesLoader namesLoader) {
+        try {
+            return new ListMatcher(namesLoader.load());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ListMatcher getMatcher(Supplier<ListMatcher> matcher) {
+        try {
+            return matcher.get();
+        } catch (UncheckedIOException e) {
+            log.error(e.getMessage(), e);
+            return null;
         }
-        return true;
     }
 
     public List<Match> getBest(List<Match> matches, int threshold) {
@@ -94,17 +111,20 @@ public class CveSearchGuesser {
     }
 
     public List<Match> guessVendors(String vendorHaystack) throws IOException {
-        if (!addVendorGuesserIfNeeded()){
+        ListMatcher matcher = getMatcher(vendorMatcher);
+        if (matcher == null){
             throw new IOException("Was not able to instantiate vendor guesser");
         }
-        return getBest(vendorMatcher.getMatches(vendorHaystack), vendorThreshold);
+        // getBest drops all matches at or beyond the cutoff, so they need not be calculated
+        return getBest(matcher.getMatches(vendorHaystack, cutoff), vendorThreshold);
     }
 
     public List<Match> guessProducts(String vendor, String productHaystack) throws IOException {
-        if (!addProductGuesserIfNeeded(vendor)) {
+        ListMatcher matcher = getMatcher(getProductMatcher(vendor));
+        if (matcher == null) {
             throw new IOException("Was not able to instantiate product guesser for vendor " + vendor);
         }
-        return getBest(productMatchers.get(vendor).getMatches(productHaystack), productThreshold);
+        return getBest(matcher.getMatches(productHaystack, cutoff), productThreshold);
     }
 
     public List<Match> guessVendorAndProducts(String haystack) throws IOException {
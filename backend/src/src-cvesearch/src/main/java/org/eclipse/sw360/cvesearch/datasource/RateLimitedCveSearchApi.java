@@ -0,0 +1,102 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.cvesearch.datasource;
+
+import com.google.common.util.concurrent.RateLimiter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decorates the {@link CveSearchApi} of one cve-search host, so that it can be shared by several threads without
+ * overloading the host: the requests are limited to a fixed rate and failed requests are retried after an
+ * exponentially growing, randomized delay.
+ */
+public class RateLimitedCveSearchApi implements CveSearchApi {
+
+    private static final Logger log = LogManager.getLogger(RateLimitedCveSearchApi.class);
+
+    @FunctionalInterface
+    private interface Request<T> {
+        T execute() throws IOException;
+    }
+
+    private final CveSearchApi delegate;
+    private final RateLimiter rateLimiter;
+    private final int maxRetries;
+    private final long retryBaseDelayMillis;
+
+    public RateLimitedCveSearchApi(CveSearchApi delegate, double requestsPerSecond, int maxRetries, long retryBaseDelayMillis) {
+        this.delegate = delegate;
+        this.rateLimiter = RateLimiter.create(requestsPerSecond);
+        this.maxRetries = maxRetries;
+        this.retryBaseDelayMillis = retryBaseDelayMillis;
+    }
+
+    private <T> T execute(Request<T> request) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                return request.execute();
+            } catch (IOException e) {
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                long delay = getRetryDelay(attempt);
+                log.warn("Request to cve-search failed (" + e.getMessage() + "), retrying in " + delay + " ms");
+                sleep(delay);
+            }
+        }
+    }
+
+    // randomized between half and all of the exponential backoff, so that failing workers do not retry in lockstep
+    protected long getRetryDelay(int attempt) {
+        long maxDelay = retryBaseDelayMillis << Math.min(attempt, 16);
+        return ThreadLocalRandom.current().nextLong(maxDelay / 2, maxDelay + 1);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry a request to cve-search");
+        }
+    }
+
+    @Override
+    public List<CveSearchData> search(String vendor, String product) throws IOException {
+        return execute(() -> delegate.search(vendor, product));
+    }
+
+    @Override
+    public List<CveSearchData> cvefor(String cpe) throws IOException {
+        return execute(() -> delegate.cvefor(cpe));
+    }
+
+    @Override
+    public CveSearchData cve(String cve) throws IOException {
+        return execute(() -> delegate.cve(cve));
+    }
+
+    @Override
+    public List<String> allVendorNames() throws IOException {
+        return execute(delegate::allVendorNames);
+    }
+
+    @Override
+    public List<String> allProductsOfVendor(String vendorName) throws IOException {
+        return execute(() -> delegate.allProductsOfVendor(vendorName));
+    }
+}
@@ -10,23 +10,124 @@
  */
 package org.eclipse.sw360.cvesearch.datasource.matcher;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import static org.eclipse.sw360.cvesearch.datasource.matcher.ModifiedLevenshteinDistance.levenshteinMatch;
+import static org.eclipse.sw360.cvesearch.datasource.matcher.ModifiedLevenshteinDistance.calculateModifiedLevenshteinDistance;
+import static org.eclipse.sw360.cvesearch.datasource.matcher.ModifiedLevenshteinDistance.toLowerCase;
+import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyString;
 
+/**
+ * Matches a haystack against a fixed list of needles, e.g. all vendor names known to cve-search.
+ *
+ * The needles are prepared once, so that matching a haystack needs no allocation per needle. If only matches below a
+ * maximal distance are requested, needles which cannot get close enough are skipped without calculating their
+ * distance: every needle char which is not in the haystack (counted per char) costs at least 1.
+ */
 public class ListMatcher {
-    private Collection<String> needleList;
+
+    private static final char SPACE = '_';
+    private static final int ASCII = 128;
+
+    private final List<PreparedNeedle> needles;
+    private final int maxNeedleLength;
+
+    private static class PreparedNeedle {
+        private final String needle;
+        private final char[] chars;
+        // ascii chars of the needle and how often they occur, to bound the distance from below
+        private final char[] asciiChars;
+        private final int[] asciiCharCounts;
+
+        private PreparedNeedle(String needle) {
+            this.needle = needle;
+            this.chars = toLowerCase(needle);
+
+            int[] counts = new int[ASCII];
+            int distinct = 0;
+            for (char c : chars) {
+                if (c < ASCII && counts[c]++ == 0) {
+                    distinct++;
+                }
+            }
+            asciiChars = new char[distinct];
+            asciiCharCounts = new int[distinct];
+            int k = 0;
+            for (char c = 0; c < ASCII; c++) {
+                if (counts[c] > 0) {
+                    asciiChars[k] = c;
+                    asciiCharCounts[k++] = counts[c];
+                }
+            }
+        }
+
+        private int getMinimalDistance(int haystackLength, int[] haystackCharCounts) {
+            int missingChars = 0;
+            for (int k = 0; k < asciiChars.length; k++) {
+                missingChars += Math.max(0, asciiCharCounts[k] - haystackCharCounts[asciiChars[k]]);
+            }
+            return Math.max(missingChars, chars.length - haystackLength);
+        }
+    }
 
     public ListMatcher(Collection<String> needleList){
-        this.needleList = needleList;
+        needles = new ArrayList<>(needleList.size());
+        int maxLength = 0;
+        for (String needle : needleList) {
+            PreparedNeedle preparedNeedle = new PreparedNeedle(needle);
+            needles.add(preparedNeedle);
+            maxLength = Math.max(maxLength, preparedNeedle.chars.length);
+        }
+        maxNeedleLength = maxLength;
     }
 
+    /**
+     * @return the matches of all needles, sorted from the best to the worst match
+     */
     public List<Match> getMatches(String haystack){
-        return needleList.stream()
-                .map(needle -> levenshteinMatch(needle, haystack))
-                .sorted((sm1,sm2) -> sm1.compareTo(sm2))
-                .collect(Collectors.toList());
+        return getMatches(haystack, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * @return the matches of all needles with a distance smaller than maxDistance, sorted from the best to the worst
+     * match. This is the beginning of the list returned by {@link #getMatches(String)}.
+     */
+    public List<Match> getMatches(String haystack, int maxDistance){
+        return getMatches(haystack, maxDistance, false);
+    }
+
+    private List<Match> getMatches(String haystack, int maxDistance, boolean includeAll) {
+        String spacedHaystack = nullToEmptyString(haystack).replace(' ', SPACE);
+        char[] lowerCaseHaystack = toLowerCase(spacedHaystack);
+        int[] haystackCharCounts = new int[ASCII];
+        for (char c : lowerCaseHaystack) {
+            if (c < ASCII) {
+                haystackCharCounts[c]++;
+            }
+        }
+        int[] oldcost = new int[maxNeedleLength + 1];
+        int[] curcost = new int[maxNeedleLength + 1];
+
+        List<Match> matches = new ArrayList<>();
+        for (PreparedNeedle needle : needles) {
+            int distance;
+            if (includeAll) {
+                distance = calculateModifiedLevenshteinDistance(needle.chars, spacedHaystack, lowerCaseHaystack, SPACE,
+                        Integer.MAX_VALUE, oldcost, curcost);
+            } else if (needle.getMinimalDistance(lowerCaseHaystack.length, haystackCharCounts) >= maxDistance) {
+                continue;
+            } else {
+                distance = calculateModifiedLevenshteinDistance(needle.chars, spacedHaystack, lowerCaseHaystack, SPACE,
+                        maxDistance, oldcost, curcost);
+                if (distance >= maxDistance) {
+                    continue;
+                }
+            }
+            matches.add(new Match(needle.needle, distance));
+        }
+        // stable sort, needles with equal distance and length keep their order
+        matches.sort(Match::compareTo);
+        return matches;
     }
 }
@@ -19,50 +19,20 @@ public class ModifiedLevenshteinDistance {
                 calculateModifiedLevenshteinDistance(needle, nullToEmptyString(haystack).replace(' ', '_')));
     }
 
-    public static class LevenshteinCost {
+    // a cost is encoded as (distance << 1) | (matched ? 0 : 1), so that merging two costs is taking their minimum:
+    // the smaller distance wins and for equal distances a matched cost wins
+    private static final int NO_COST = Integer.MAX_VALUE;
 
-        private final int d;
-        private final boolean matched;
-
-        public LevenshteinCost(int d){
-            this.d = d;
-            this.matched = false;
-        }
-
-        private LevenshteinCost(int d, boolean matched){
-            this.d = d;
-            this.matched = matched;
-        }
-
-        public int getD() {
-            return d;
-        }
-
-        public boolean hasMatched() {
-            return matched;
-        }
-
-        public LevenshteinCost increment() {
-            return new LevenshteinCost(d + 1, matched);
-        }
+    private static int unmatchedCost(int d) {
+        return (d << 1) | 1;
+    }
 
-        public LevenshteinCost incrementOrMatch(boolean hasMatched) {
-            if(hasMatched){
-                return new LevenshteinCost(d, true);
-            }else{
-                return this.increment();
-            }
-        }
+    private static int increment(int cost) {
+        return cost + 2;
+    }
 
-        public LevenshteinCost merge(LevenshteinCost le){
-            if(d > le.getD()){
-                return le;
-            }
-            if(d == le.getD()){
-                return new LevenshteinCost(d, matched || le.hasMatched());
-            }
-            return this;
-        }
+    private static int match(int cost) {
+        return cost & ~1;
     }
 
     /**
@@ -95,55 +65,93 @@ public class ModifiedLevenshteinDistance {
      * @return the modified Levenshtein distance between the needle and the haystack
      */
     public static int calculateModifiedLevenshteinDistance(String needle, String haystack, char space){
-
         if (needle.length() == 0 || haystack.length() == 0){
             return Integer.MAX_VALUE;
         }
 
-        int needleLength = needle.length() + 1;
-        int haystackLength = haystack.length() + 1;
+        return calculateModifiedLevenshteinDistance(toLowerCase(needle), haystack, toLowerCase(haystack), space,
+                Integer.MAX_VALUE, new int[needle.length() + 1], new int[needle.length() + 1]);
+    }
+
+    static char[] toLowerCase(String string) {
+        char[] chars = new char[string.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(string.charAt(i));
+        }
+        return chars;
+    }
+
+    /**
+     * Calculates the modified Levenshtein distance with two rows of primitive costs, which are passed in by the caller
+     * so that they can be reused for many needles. As soon as the distance cannot get below maxDistance anymore, the
+     * calculation stops and Integer.MAX_VALUE is returned.
+     *
+     * @param needle the lower case needle
+     * @param haystack the haystack, to find the separators in
+     * @param lowerCaseHaystack the lower case haystack, to match the needle against
+     * @param space the chosen representation of the separator
+     * @param maxDistance distances of at least this value are returned as Integer.MAX_VALUE
+     * @param oldcost row of costs with at least needle.length + 1 entries
+     * @param curcost row of costs with at least needle.length + 1 entries
+     * @return the modified Levenshtein distance, if it is smaller than maxDistance
+     */
+    static int calculateModifiedLevenshteinDistance(char[] needle, String haystack, char[] lowerCaseHaystack, char space,
+                                                    int maxDistance, int[] oldcost, int[] curcost) {
+        if (needle.length == 0 || lowerCaseHaystack.length == 0){
+            return Integer.MAX_VALUE;
+        }
 
-        LevenshteinCost[] oldcost = new LevenshteinCost[needleLength];
-        LevenshteinCost[] curcost = new LevenshteinCost[needleLength];
+        int needleLength = needle.length + 1;
+        int haystackLength = lowerCaseHaystack.length + 1;
+        int lastSpace = haystack.lastIndexOf(space);
 
-        for (int i = 0; i < needleLength; i++) oldcost[i] = new LevenshteinCost(i);
+        for (int i = 0; i < needleLength; i++) oldcost[i] = unmatchedCost(i);
 
         int savedCostsWhenSkippedSpaceSeparatedPrefix = 0;
-        LevenshteinCost minimalCostsWhenSkippedSpaceSeperatedPostfix = new LevenshteinCost(Integer.MAX_VALUE);
+        int minimalCostsWhenSkippedSpaceSeperatedPostfix = NO_COST;
         for (int j = 1; j < haystackLength; j++) {
+            boolean isSpace = haystack.charAt(j - 1) == space;
+            char haystackChar = lowerCaseHaystack[j - 1];
             //=========================================================================================================
-            if (j > 0 && haystack.charAt(j - 1) == space) {
+            if (isSpace) {
                 // skipping prefix of haystack does not cost anything, if it ends with a space
                 savedCostsWhenSkippedSpaceSeparatedPrefix = j;
             }
-            curcost[0] = new LevenshteinCost(j - savedCostsWhenSkippedSpaceSeparatedPrefix);
+            curcost[0] = unmatchedCost(j - savedCostsWhenSkippedSpaceSeparatedPrefix);
+            int minimalCostsInRow = curcost[0];
 
             //=========================================================================================================
             for(int i = 1; i < needleLength; i++) {
-                boolean charsMatch = Character.toLowerCase(needle.charAt(i - 1)) == Character.toLowerCase(haystack.charAt(j - 1));
-                LevenshteinCost costReplace = oldcost[i - 1].incrementOrMatch(charsMatch);
-                LevenshteinCost costInsert  = oldcost[i].increment();
-                LevenshteinCost costDelete  = curcost[i - 1].increment();
+                int costReplace = needle[i - 1] == haystackChar ? match(oldcost[i - 1]) : increment(oldcost[i - 1]);
+                int costInsert  = increment(oldcost[i]);
+                int costDelete  = increment(curcost[i - 1]);
 
-                curcost[i] = costReplace.merge(costInsert).merge(costDelete);
+                curcost[i] = Math.min(costReplace, Math.min(costInsert, costDelete));
+                minimalCostsInRow = Math.min(minimalCostsInRow, curcost[i]);
             }
 
             //=========================================================================================================
-            if(haystack.charAt(j - 1) == space) {
+            if(isSpace) {
                 // skipping postfix of haystack does not cost anything, if it starts with a space
                 minimalCostsWhenSkippedSpaceSeperatedPostfix =
-                        minimalCostsWhenSkippedSpaceSeperatedPostfix.merge(oldcost[needleLength - 1]);
+                        Math.min(minimalCostsWhenSkippedSpaceSeperatedPostfix, oldcost[needleLength - 1]);
+            }
+
+            //=========================================================================================================
+            // without a space in the rest of the haystack the costs in the following rows cannot get smaller
+            if (j > lastSpace
+                    && Math.min(minimalCostsInRow, minimalCostsWhenSkippedSpaceSeperatedPostfix) >> 1 >= maxDistance) {
+                return Integer.MAX_VALUE;
             }
 
             //=========================================================================================================
-            LevenshteinCost[] swap = oldcost; oldcost = curcost; curcost = swap;
+            int[] swap = oldcost; oldcost = curcost; curcost = swap;
         }
 
-        LevenshteinCost finalCost = oldcost[needleLength - 1]
-                .merge(minimalCostsWhenSkippedSpaceSeperatedPostfix);
+        int finalCost = Math.min(oldcost[needleLength - 1], minimalCostsWhenSkippedSpaceSeperatedPostfix);
 
-        if(finalCost.hasMatched()){
-            return finalCost.getD();
+        if((finalCost & 1) == 0){
+            return finalCost >> 1;
         }else{
             return Integer.MAX_VALUE;
         }
@@ -12,10 +12,10 @@
 package org.eclipse.sw360.cvesearch.service;
 
 import org.eclipse.sw360.cvesearch.datasink.VulnerabilityConnector;
+import org.eclipse.sw360.cvesearch.datasource.CveSearchApi;
 import org.eclipse.sw360.cvesearch.datasource.CveSearchApiImpl;
-import org.eclipse.sw360.cvesearch.datasource.CveSearchData;
 import org.eclipse.sw360.cvesearch.datasource.CveSearchWrapper;
-import org.eclipse.sw360.cvesearch.entitytranslation.CveSearchDataTranslator;
+import org.eclipse.sw360.cvesearch.datasource.RateLimitedCveSearchApi;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
@@ -30,7 +30,7 @@ import org.apache.thrift.TException;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 import static org.eclipse.sw360.cvesearch.helper.VulnerabilityUtils.*;
 
@@ -39,8 +39,14 @@ public class CveSearchHandler implements CveSearchService.Iface {
     private static final Logger log = LogManager.getLogger(CveSearchHandler.class);
 
     public static final String CVESEARCH_HOST_PROPERTY = "cvesearch.host";
+    public static final String CVESEARCH_WORKERS_PROPERTY = "cvesearch.workers";
+    public static final String CVESEARCH_REQUESTS_PER_SECOND_PROPERTY = "cvesearch.requests.per.second";
+    public static final String CVESEARCH_MAX_RETRIES_PROPERTY = "cvesearch.max.retries";
+    public static final String CVESEARCH_RETRY_DELAY_PROPERTY = "cvesearch.retry.delay.ms";
+    public static final String CVESEARCH_RECHECK_INTERVAL_PROPERTY = "cvesearch.recheck.interval.hours";
+
     private VulnerabilityConnector vulnerabilityConnector;
-    private CveSearchWrapper cveSearchWrapper;
+    private CveSearchSync cveSearchSync;
 
 
     public CveSearchHandler() {
@@ -55,32 +61,19 @@ public class CveSearchHandler implements CveSearchService.Iface {
 
         log.info("Using " + host + " for CVE search...");
 
-        cveSearchWrapper = new CveSearchWrapper(new CveSearchApiImpl(host));
+        int workers = CommonUtils.getIntOrDefault(props.getProperty(CVESEARCH_WORKERS_PROPERTY), 4);
+        int requestsPerSecond = CommonUtils.getIntOrDefault(props.getProperty(CVESEARCH_REQUESTS_PER_SECOND_PROPERTY), 5);
+        int maxRetries = CommonUtils.getIntOrDefault(props.getProperty(CVESEARCH_MAX_RETRIES_PROPERTY), 3);
+        int retryDelay = CommonUtils.getIntOrDefault(props.getProperty(CVESEARCH_RETRY_DELAY_PROPERTY), 1000);
+        int recheckIntervalHours = CommonUtils.getIntOrDefault(props.getProperty(CVESEARCH_RECHECK_INTERVAL_PROPERTY), 24 * 7);
+
+        CveSearchApi cveSearchApi = new RateLimitedCveSearchApi(new CveSearchApiImpl(host), requestsPerSecond, maxRetries, retryDelay);
+        cveSearchSync = new CveSearchSync(new CveSearchWrapper(cveSearchApi), vulnerabilityConnector, workers,
+                TimeUnit.HOURS.toMillis(recheckIntervalHours));
     }
 
     private VulnerabilityUpdateStatus updateForRelease(Release release) {
-        Optional<List<CveSearchData>> cveSearchDatas = cveSearchWrapper.searchForRelease(release);
-        if(!cveSearchDatas.isPresent()) {
-            return new VulnerabilityUpdateStatus().setRequestStatus(RequestStatus.FAILURE);
-        }
-
-        CveSearchDataTranslator cveSearchDataTranslator = new CveSearchDataTranslator();
-        List<CveSearchDataTranslator.VulnerabilityWithRelation> translated = cveSearchDatas.get().stream()
-                .map(cveSearchDataTranslator)
-                .map(vulnerabilityWithRelation -> {
-                    vulnerabilityWithRelation.relation.setReleaseId(release.getId());
-                    return vulnerabilityWithRelation;
-                })
-                .collect(Collectors.toList());
-
-        VulnerabilityUpdateStatus updateStatus = getEmptyVulnerabilityUpdateStatus();
-        for (CveSearchDataTranslator.VulnerabilityWithRelation vulnerabilityWithRelation : translated) {
-            updateStatus = vulnerabilityConnector.addOrUpdate(vulnerabilityWithRelation.vulnerability,
-                    vulnerabilityWithRelation.relation,
-                    updateStatus);
-        }
-
-        return updateStatus;
+        return cveSearchSync.updateForRelease(release);
     }
 
     @Override
@@ -122,10 +115,7 @@ public class CveSearchHandler implements CveSearchService.Iface {
     public VulnerabilityUpdateStatus fullUpdate() throws TException {
         List<Release> allReleases = vulnerabilityConnector.getAllReleases();
 
-        return allReleases.stream()
-                .map(this::updateForRelease)
-                .reduce(getEmptyVulnerabilityUpdateStatus(),
-                        (r1, r2) -> reduceVulnerabilityUpdateStatus(r1,r2));
+        return cveSearchSync.fullUpdate(allReleases);
     }
 
     @Override
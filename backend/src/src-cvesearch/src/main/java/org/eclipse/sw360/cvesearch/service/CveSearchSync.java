@@ -0,0 +1,200 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.cvesearch.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.sw360.cvesearch.datasink.VulnerabilityConnector;
+import org.eclipse.sw360.cvesearch.datasource.CveSearchData;
+import org.eclipse.sw360.cvesearch.datasource.CveSearchWrapper;
+import org.eclipse.sw360.cvesearch.entitytranslation.CveSearchDataTranslator;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.components.Release;
+import org.eclipse.sw360.datahandler.thrift.cvesearch.CveSearchState;
+import org.eclipse.sw360.datahandler.thrift.cvesearch.UpdateType;
+import org.eclipse.sw360.datahandler.thrift.cvesearch.VulnerabilityUpdateStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.eclipse.sw360.cvesearch.helper.VulnerabilityUtils.getEmptyVulnerabilityUpdateStatus;
+import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyString;
+
+/**
+ * Searches cve-search for vulnerabilities of releases and writes them to the database.
+ *
+ * The searches of a full update run on a bounded pool of workers, while the results are written to the database
+ * by the calling thread, one release after the other. A release is only searched again if its name, version, CPE
+ * or vendor changed since its last search, or if the last search is older than the recheck interval.
+ */
+public class CveSearchSync {
+
+    private static final Logger log = LogManager.getLogger(CveSearchSync.class);
+
+    private static final int STATE_BATCH_SIZE = 100;
+
+    private final CveSearchWrapper cveSearchWrapper;
+    private final VulnerabilityConnector vulnerabilityConnector;
+    private final int workers;
+    private final long recheckIntervalMillis;
+
+    private static class SearchResult {
+        private final Release release;
+        private final Optional<List<CveSearchData>> cveSearchDatas;
+
+        private SearchResult(Release release, Optional<List<CveSearchData>> cveSearchDatas) {
+            this.release = release;
+            this.cveSearchDatas = cveSearchDatas;
+        }
+    }
+
+    public CveSearchSync(CveSearchWrapper cveSearchWrapper, VulnerabilityConnector vulnerabilityConnector,
+                         int workers, long recheckIntervalMillis) {
+        this.cveSearchWrapper = cveSearchWrapper;
+        this.vulnerabilityConnector = vulnerabilityConnector;
+        this.workers = Math.max(1, workers);
+        this.recheckIntervalMillis = recheckIntervalMillis;
+    }
+
+    public VulnerabilityUpdateStatus updateForRelease(Release release) {
+        Optional<List<CveSearchData>> cveSearchDatas = cveSearchWrapper.searchForRelease(release);
+        if (!cveSearchDatas.isPresent()) {
+            return getEmptyVulnerabilityUpdateStatus(RequestStatus.FAILURE);
+        }
+        return writeVulnerabilities(release, cveSearchDatas.get());
+    }
+
+    public VulnerabilityUpdateStatus fullUpdate(List<Release> releases) {
+        long now = System.currentTimeMillis();
+        Map<String, CveSearchState> states = vulnerabilityConnector.getCveSearchStatesByReleaseId();
+        List<Release> releasesToSearch = releases.stream()
+                .filter(release -> needsSearch(release, states.get(release.getId()), now))
+                .collect(Collectors.toList());
+        log.info("Searching vulnerabilities for " + releasesToSearch.size() + " of " + releases.size()
+                + " releases with " + workers + " workers, the others are up to date");
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers, newWorkerThreadFactory());
+        List<CveSearchState> changedStates = new ArrayList<>();
+        try {
+            CompletionService<SearchResult> completionService = new ExecutorCompletionService<>(executor);
+            for (Release release : releasesToSearch) {
+                completionService.submit(() -> new SearchResult(release, cveSearchWrapper.searchForRelease(release)));
+            }
+
+            VulnerabilityUpdateStatus updateStatus = getEmptyVulnerabilityUpdateStatus();
+            for (int i = 0; i < releasesToSearch.size(); i++) {
+                SearchResult result;
+                try {
+                    result = completionService.take().get();
+                } catch (ExecutionException e) {
+                    // the release of the failed search is not known, it is searched again by the next update
+                    log.error("Error while searching for vulnerabilities", e.getCause());
+                    updateStatus.setRequestStatus(RequestStatus.FAILURE);
+                    continue;
+                }
+                if (!result.cveSearchDatas.isPresent()) {
+                    // no state is recorded, so the release is searched again by the next update
+                    updateStatus.setRequestStatus(RequestStatus.FAILURE);
+                    continue;
+                }
+                VulnerabilityUpdateStatus releaseStatus = writeVulnerabilities(result.release, result.cveSearchDatas.get());
+                addAll(updateStatus, releaseStatus);
+                if (releaseStatus.getStatusToVulnerabilityIds().get(UpdateType.FAILED).isEmpty()) {
+                    changedStates.add(updateState(states.get(result.release.getId()), result.release, now));
+                }
+                if (changedStates.size() >= STATE_BATCH_SIZE) {
+                    saveStates(changedStates);
+                }
+            }
+            return updateStatus;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while searching for vulnerabilities", e);
+            return getEmptyVulnerabilityUpdateStatus(RequestStatus.FAILURE);
+        } finally {
+            executor.shutdownNow();
+            // the vulnerabilities of these releases are written already, so their states are kept on failures as well
+            if (!changedStates.isEmpty()) {
+                saveStates(changedStates);
+            }
+        }
+    }
+
+    protected boolean needsSearch(Release release, CveSearchState state, long now) {
+        return state == null
+                || !getSearchKey(release).equals(state.getSearchKey())
+                || now - state.getLastChecked() >= recheckIntervalMillis;
+    }
+
+    protected static String getSearchKey(Release release) {
+        StringBuilder searchKey = new StringBuilder()
+                .append(nullToEmptyString(release.getName())).append('\n')
+                .append(nullToEmptyString(release.getVersion())).append('\n')
+                .append(nullToEmptyString(release.getCpeid()));
+        if (release.isSetVendor()) {
+            searchKey.append('\n').append(nullToEmptyString(release.getVendor().getShortname()))
+                    .append('\n').append(nullToEmptyString(release.getVendor().getFullname()));
+        }
+        return searchKey.toString();
+    }
+
+    private CveSearchState updateState(CveSearchState state, Release release, long now) {
+        if (state == null) {
+            state = new CveSearchState().setReleaseId(release.getId());
+        }
+        return state.setSearchKey(getSearchKey(release)).setLastChecked(now);
+    }
+
+    private static void addAll(VulnerabilityUpdateStatus updateStatus, VulnerabilityUpdateStatus releaseStatus) {
+        for (UpdateType updateType : UpdateType.values()) {
+            updateStatus.getStatusToVulnerabilityIds().get(updateType)
+                    .addAll(releaseStatus.getStatusToVulnerabilityIds().get(updateType));
+        }
+    }
+
+    private void saveStates(List<CveSearchState> states) {
+        if (RequestStatus.FAILURE.equals(vulnerabilityConnector.saveCveSearchStates(states))) {
+            log.warn("Could not save the search state of " + states.size() + " releases, they are searched again by the next update");
+        }
+        states.clear();
+    }
+
+    private VulnerabilityUpdateStatus writeVulnerabilities(Release release, List<CveSearchData> cveSearchDatas) {
+        CveSearchDataTranslator cveSearchDataTranslator = new CveSearchDataTranslator();
+        List<CveSearchDataTranslator.VulnerabilityWithRelation> translated = cveSearchDatas.stream()
+                .map(cveSearchDataTranslator)
+                .map(vulnerabilityWithRelation -> {
+                    vulnerabilityWithRelation.relation.setReleaseId(release.getId());
+                    return vulnerabilityWithRelation;
+                })
+                .collect(Collectors.toList());
+
+        return vulnerabilityConnector.addOrUpdate(translated, getEmptyVulnerabilityUpdateStatus());
+    }
+
+    private static ThreadFactory newWorkerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "cvesearch-sync-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
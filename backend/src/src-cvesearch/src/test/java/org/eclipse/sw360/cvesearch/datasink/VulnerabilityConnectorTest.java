@@ -10,19 +10,27 @@
  */
 package org.eclipse.sw360.cvesearch.datasink;
 
+import org.eclipse.sw360.cvesearch.entitytranslation.CveSearchDataTranslator;
+import org.eclipse.sw360.cvesearch.entitytranslation.CveSearchDataTranslator.VulnerabilityWithRelation;
 import org.eclipse.sw360.datahandler.common.DatabaseSettingsTest;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.cvesearch.UpdateType;
+import org.eclipse.sw360.datahandler.thrift.cvesearch.VulnerabilityUpdateStatus;
+import org.eclipse.sw360.datahandler.thrift.vulnerabilities.ReleaseVulnerabilityRelation;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.Vulnerability;
 import org.eclipse.sw360.vulnerabilities.db.VulnerabilityDatabaseHandler;
+import org.ektorp.DocumentOperationResult;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import java.util.*;
 
+import static org.eclipse.sw360.cvesearch.helper.VulnerabilityUtils.getEmptyVulnerabilityUpdateStatus;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -149,6 +157,89 @@ public class VulnerabilityConnectorTest {
         assertThat(resultMap.get(UpdateType.FAILED), is(Collections.EMPTY_LIST));
     }
 
+    private static VulnerabilityWithRelation withRelation(Vulnerability vulnerability, String releaseId) {
+        return new CveSearchDataTranslator().new VulnerabilityWithRelation(vulnerability,
+                new ReleaseVulnerabilityRelation().setReleaseId(releaseId).setMatchedBy("CPE"));
+    }
+
+    private void givenBulkWritesSetIdsExceptOf(Set<String> failedIds) {
+        Answer<List<DocumentOperationResult>> bulkWrite = invocation -> {
+            List<DocumentOperationResult> failures = new ArrayList<>();
+            for (Object element : (Collection<?>) invocation.getArguments()[1]) {
+                if (element instanceof Vulnerability) {
+                    Vulnerability vulnerability = (Vulnerability) element;
+                    if (failedIds.contains(vulnerability.getExternalId())) {
+                        failures.add(DocumentOperationResult.newInstance(vulnerability.getId(), "conflict", "Document update conflict."));
+                    } else if (!vulnerability.isSetId()) {
+                        vulnerability.setId("id" + vulnerability.getExternalId());
+                    }
+                } else {
+                    ReleaseVulnerabilityRelation relation = (ReleaseVulnerabilityRelation) element;
+                    if (!relation.isSetId()) {
+                        relation.setId("rel" + relation.getVulnerabilityId());
+                    }
+                }
+            }
+            return failures;
+        };
+        when(vulnerabilityDatabaseHandler.addOrUpdate(eq(Vulnerability.class), anyCollection())).thenAnswer(bulkWrite);
+        when(vulnerabilityDatabaseHandler.addOrUpdate(eq(ReleaseVulnerabilityRelation.class), anyCollection())).thenAnswer(bulkWrite);
+    }
+
+    @Test
+    public void testBulkAddOrUpdateWritesOnlyChangedDocuments() {
+        Vulnerability dbOld = new Vulnerability().setLastExternalUpdate("2000-01-01").setId("idold").setRevision("1").setExternalId("old");
+        Vulnerability dbUpdated = new Vulnerability().setLastExternalUpdate("1999-12-31").setId("idupdated").setRevision("1").setExternalId("updated");
+        ReleaseVulnerabilityRelation dbOldRelation = new ReleaseVulnerabilityRelation("r1", "idold").setId("relold").setRevision("1").setMatchedBy("CPE");
+
+        when(vulnerabilityDatabaseHandler.getByExternalIds(anyCollection())).thenReturn(Arrays.asList(dbOld, dbUpdated));
+        when(vulnerabilityDatabaseHandler.getRelationsByReleaseIds(anyCollection())).thenReturn(Arrays.asList(dbOldRelation));
+        givenBulkWritesSetIdsExceptOf(Collections.emptySet());
+
+        List<VulnerabilityWithRelation> vulnerabilities = Arrays.asList(
+                withRelation(new Vulnerability().setLastExternalUpdate("2000-01-01").setExternalId("old"), "r1"),
+                withRelation(new Vulnerability().setLastExternalUpdate("2000-01-01").setExternalId("updated"), "r1"),
+                withRelation(new Vulnerability().setLastExternalUpdate("2000-01-01").setExternalId("new"), "r1"));
+
+        VulnerabilityUpdateStatus status = vulnerabilityConnector.addOrUpdate(vulnerabilities, getEmptyVulnerabilityUpdateStatus());
+
+        assertThat(status.getStatusToVulnerabilityIds().get(UpdateType.OLD), is(Arrays.asList("old")));
+        assertThat(status.getStatusToVulnerabilityIds().get(UpdateType.UPDATED), is(Arrays.asList("updated")));
+        assertThat(status.getStatusToVulnerabilityIds().get(UpdateType.NEW), is(Arrays.asList("new")));
+        assertThat(status.getStatusToVulnerabilityIds().get(UpdateType.FAILED), is(Collections.EMPTY_LIST));
+
+        ArgumentCaptor<Collection> written = ArgumentCaptor.forClass(Collection.class);
+        verify(vulnerabilityDatabaseHandler).addOrUpdate(eq(Vulnerability.class), written.capture());
+        assertThat(written.getValue().size(), is(2));
+        verify(vulnerabilityDatabaseHandler).addOrUpdate(eq(ReleaseVulnerabilityRelation.class), written.capture());
+        assertThat(written.getValue().size(), is(2));
+        verify(vulnerabilityDatabaseHandler, never()).getByExternalId(any(), anyString());
+        verify(vulnerabilityDatabaseHandler, never()).update(any());
+    }
+
+    @Test
+    public void testBulkAddOrUpdateReportsConflicts() {
+        Vulnerability dbVulnerability = new Vulnerability().setLastExternalUpdate("1999-12-31").setId("idconflict").setRevision("1").setExternalId("conflict");
+
+        when(vulnerabilityDatabaseHandler.getByExternalIds(anyCollection())).thenReturn(Arrays.asList(dbVulnerability));
+        when(vulnerabilityDatabaseHandler.getRelationsByReleaseIds(anyCollection())).thenReturn(Collections.emptyList());
+        givenBulkWritesSetIdsExceptOf(Collections.singleton("conflict"));
+
+        List<VulnerabilityWithRelation> vulnerabilities = Arrays.asList(
+                withRelation(new Vulnerability().setLastExternalUpdate("2000-01-01").setExternalId("conflict"), "r1"),
+                withRelation(new Vulnerability().setLastExternalUpdate("2000-01-01").setExternalId("new"), "r1"));
+
+        VulnerabilityUpdateStatus status = vulnerabilityConnector.addOrUpdate(vulnerabilities, getEmptyVulnerabilityUpdateStatus());
+
+        assertThat(status.getStatusToVulnerabilityIds().get(UpdateType.FAILED), is(Arrays.asList("conflict")));
+        assertThat(status.getStatusToVulnerabilityIds().get(UpdateType.NEW), is(Arrays.asList("new")));
+
+        // only the relation of the vulnerability which could be written is written
+        ArgumentCaptor<Collection> written = ArgumentCaptor.forClass(Collection.class);
+        verify(vulnerabilityDatabaseHandler).addOrUpdate(eq(ReleaseVulnerabilityRelation.class), written.capture());
+        assertThat(written.getValue().size(), is(1));
+    }
+
     @Test
     public void testIsMoreRecentEmpty() throws Exception {
         Vulnerability v1 = new Vulnerability();
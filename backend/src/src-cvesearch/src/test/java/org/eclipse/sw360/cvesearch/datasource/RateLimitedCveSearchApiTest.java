@@ -0,0 +1,57 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.cvesearch.datasource;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RateLimitedCveSearchApiTest {
+
+    @Mock
+    private CveSearchApi cveSearchApi;
+
+    @Test
+    public void testRetriesFailedRequests() throws Exception {
+        List<String> vendors = Collections.singletonList("apache");
+        when(cveSearchApi.allVendorNames())
+                .thenThrow(new IOException("timeout"))
+                .thenThrow(new IOException("timeout"))
+                .thenReturn(vendors);
+
+        RateLimitedCveSearchApi rateLimitedApi = new RateLimitedCveSearchApi(cveSearchApi, 100, 2, 1);
+
+        assertThat(rateLimitedApi.allVendorNames(), is(vendors));
+        verify(cveSearchApi, times(3)).allVendorNames();
+    }
+
+    @Test(expected = IOException.class)
+    public void testGivesUpAfterMaxRetries() throws Exception {
+        when(cveSearchApi.cvefor("cpe:2.3:a:apache:maven")).thenThrow(new IOException("timeout"));
+
+        RateLimitedCveSearchApi rateLimitedApi = new RateLimitedCveSearchApi(cveSearchApi, 100, 2, 1);
+
+        try {
+            rateLimitedApi.cvefor("cpe:2.3:a:apache:maven");
+        } finally {
+            verify(cveSearchApi, times(3)).cvefor("cpe:2.3:a:apache:maven");
+        }
+    }
+}
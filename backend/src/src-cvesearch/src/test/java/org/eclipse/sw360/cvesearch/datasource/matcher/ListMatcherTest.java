@@ -15,6 +15,11 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
 
 public class ListMatcherTest {
 
@@ -43,4 +48,29 @@ public class ListMatcherTest {
         assert(matches.get(1).getDistance() != 0);
         assert(matches.get(2).getDistance() != 0);
     }
+
+    @Test
+    public void testAgreesWithReferenceImplementation() {
+        Random random = new Random(42);
+        List<String> randomNeedles = ReferenceLevenshteinDistance.randomStrings(random, 300, 10);
+        ListMatcher randomMatcher = new ListMatcher(randomNeedles);
+
+        for (int run = 0; run < 200; run++) {
+            String haystack = ReferenceLevenshteinDistance.randomString(random, 20);
+            List<Match> expected = ReferenceLevenshteinDistance.getMatches(randomNeedles, haystack);
+
+            assertThat(toStrings(randomMatcher.getMatches(haystack)), is(toStrings(expected)));
+            for (int maxDistance = 0; maxDistance < 8; maxDistance++) {
+                int bound = maxDistance;
+                List<Match> expectedBelowMaxDistance = expected.stream()
+                        .filter(match -> match.getDistance() < bound)
+                        .collect(Collectors.toList());
+                assertThat(toStrings(randomMatcher.getMatches(haystack, maxDistance)), is(toStrings(expectedBelowMaxDistance)));
+            }
+        }
+    }
+
+    private static List<String> toStrings(List<Match> matches) {
+        return matches.stream().map(Match::toString).collect(Collectors.toList());
+    }
 }
@@ -12,6 +12,9 @@ package org.eclipse.sw360.cvesearch.datasource.matcher;
 
 import org.junit.Test;
 
+import java.util.Random;
+
+import static org.eclipse.sw360.cvesearch.datasource.matcher.ModifiedLevenshteinDistance.calculateModifiedLevenshteinDistance;
 import static org.eclipse.sw360.cvesearch.datasource.matcher.ModifiedLevenshteinDistance.levenshteinMatch;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -156,4 +159,17 @@ public class ModifiedLevenshteinDistanceTest {
 
         assertThat(match.getDistance(), is(noise.length())) ;
     }
+
+    @Test
+    public void testAgreesWithReferenceImplementation() {
+        Random random = new Random(42);
+        for (int run = 0; run < 20000; run++) {
+            String needle = ReferenceLevenshteinDistance.randomString(random, 8);
+            String haystack = ReferenceLevenshteinDistance.randomString(random, 16);
+
+            assertThat(needle + " in " + haystack,
+                    calculateModifiedLevenshteinDistance(needle, haystack, ' '),
+                    is(ReferenceLevenshteinDistance.calculateModifiedLevenshteinDistance(needle, haystack, ' ')));
+        }
+    }
 }
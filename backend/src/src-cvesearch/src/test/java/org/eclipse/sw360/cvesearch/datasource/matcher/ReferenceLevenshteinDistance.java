@@ -0,0 +1,124 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.cvesearch.datasource.matcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * The former, straightforward implementation of the modified Levenshtein distance with one cost object per cell,
+ * which the optimized implementation has to agree with
+ */
+class ReferenceLevenshteinDistance {
+
+    private static final String ALPHABET = "aAbBcdeEn_ 1-.";
+
+    private static class LevenshteinCost {
+        private final int d;
+        private final boolean matched;
+
+        LevenshteinCost(int d) {
+            this(d, false);
+        }
+
+        private LevenshteinCost(int d, boolean matched) {
+            this.d = d;
+            this.matched = matched;
+        }
+
+        LevenshteinCost increment() {
+            return new LevenshteinCost(d + 1, matched);
+        }
+
+        LevenshteinCost incrementOrMatch(boolean hasMatched) {
+            return hasMatched ? new LevenshteinCost(d, true) : increment();
+        }
+
+        LevenshteinCost merge(LevenshteinCost le) {
+            if (d > le.d) {
+                return le;
+            }
+            if (d == le.d) {
+                return new LevenshteinCost(d, matched || le.matched);
+            }
+            return this;
+        }
+    }
+
+    static int calculateModifiedLevenshteinDistance(String needle, String haystack, char space) {
+        if (needle.length() == 0 || haystack.length() == 0) {
+            return Integer.MAX_VALUE;
+        }
+
+        int needleLength = needle.length() + 1;
+        int haystackLength = haystack.length() + 1;
+
+        LevenshteinCost[] oldcost = new LevenshteinCost[needleLength];
+        LevenshteinCost[] curcost = new LevenshteinCost[needleLength];
+
+        for (int i = 0; i < needleLength; i++) oldcost[i] = new LevenshteinCost(i);
+
+        int savedCostsWhenSkippedSpaceSeparatedPrefix = 0;
+        LevenshteinCost minimalCostsWhenSkippedSpaceSeperatedPostfix = new LevenshteinCost(Integer.MAX_VALUE);
+        for (int j = 1; j < haystackLength; j++) {
+            if (haystack.charAt(j - 1) == space) {
+                savedCostsWhenSkippedSpaceSeparatedPrefix = j;
+            }
+            curcost[0] = new LevenshteinCost(j - savedCostsWhenSkippedSpaceSeparatedPrefix);
+
+            for (int i = 1; i < needleLength; i++) {
+                boolean charsMatch = Character.toLowerCase(needle.charAt(i - 1)) == Character.toLowerCase(haystack.charAt(j - 1));
+                LevenshteinCost costReplace = oldcost[i - 1].incrementOrMatch(charsMatch);
+                LevenshteinCost costInsert = oldcost[i].increment();
+                LevenshteinCost costDelete = curcost[i - 1].increment();
+
+                curcost[i] = costReplace.merge(costInsert).merge(costDelete);
+            }
+
+            if (haystack.charAt(j - 1) == space) {
+                minimalCostsWhenSkippedSpaceSeperatedPostfix =
+                        minimalCostsWhenSkippedSpaceSeperatedPostfix.merge(oldcost[needleLength - 1]);
+            }
+
+            LevenshteinCost[] swap = oldcost; oldcost = curcost; curcost = swap;
+        }
+
+        LevenshteinCost finalCost = oldcost[needleLength - 1].merge(minimalCostsWhenSkippedSpaceSeperatedPostfix);
+        return finalCost.matched ? finalCost.d : Integer.MAX_VALUE;
+    }
+
+    static List<Match> getMatches(Collection<String> needles, String haystack) {
+        String spacedHaystack = haystack.replace(' ', '_');
+        return needles.stream()
+                .map(needle -> new Match(needle, calculateModifiedLevenshteinDistance(needle, spacedHaystack, '_')))
+                .sorted(Match::compareTo)
+                .collect(Collectors.toList());
+    }
+
+    static String randomString(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder string = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            string.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return string.toString();
+    }
+
+    static List<String> randomStrings(Random random, int count, int maxLength) {
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            strings.add(randomString(random, maxLength));
+        }
+        return strings;
+    }
+}
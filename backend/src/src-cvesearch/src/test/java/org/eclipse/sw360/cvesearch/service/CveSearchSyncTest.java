@@ -0,0 +1,177 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.cvesearch.service;
+
+import org.eclipse.sw360.cvesearch.datasink.VulnerabilityConnector;
+import org.eclipse.sw360.cvesearch.datasource.CveSearchApi;
+import org.eclipse.sw360.cvesearch.datasource.CveSearchData;
+import org.eclipse.sw360.cvesearch.datasource.CveSearchWrapper;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.components.Release;
+import org.eclipse.sw360.datahandler.thrift.cvesearch.CveSearchState;
+import org.eclipse.sw360.datahandler.thrift.cvesearch.VulnerabilityUpdateStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CveSearchSyncTest {
+
+    private static final int RELEASES = 40;
+    private static final int WORKERS = 8;
+    private static final long RECHECK_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+    @Mock
+    private VulnerabilityConnector vulnerabilityConnector;
+
+    private SlowCveSearchApi cveSearchApi;
+    private CveSearchSync cveSearchSync;
+    private Map<String, CveSearchState> savedStates;
+
+    /**
+     * Stand-in for a remote cve-search host, which answers every request after a delay
+     */
+    private static class SlowCveSearchApi implements CveSearchApi {
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        private <T> T respond(T response) throws IOException {
+            requests.incrementAndGet();
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                return response;
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        @Override
+        public List<CveSearchData> search(String vendor, String product) throws IOException {
+            return respond(Collections.emptyList());
+        }
+
+        @Override
+        public List<CveSearchData> cvefor(String cpe) throws IOException {
+            return respond(Collections.emptyList());
+        }
+
+        @Override
+        public CveSearchData cve(String cve) throws IOException {
+            return respond(null);
+        }
+
+        @Override
+        public List<String> allVendorNames() throws IOException {
+            return respond(Collections.emptyList());
+        }
+
+        @Override
+        public List<String> allProductsOfVendor(String vendorName) throws IOException {
+            return respond(Collections.emptyList());
+        }
+    }
+
+    @Before
+    public void setUp() {
+        cveSearchApi = new SlowCveSearchApi();
+        cveSearchSync = new CveSearchSync(new CveSearchWrapper(cveSearchApi), vulnerabilityConnector, WORKERS, RECHECK_INTERVAL);
+
+        savedStates = new HashMap<>();
+        when(vulnerabilityConnector.getCveSearchStatesByReleaseId()).thenAnswer(invocation -> new HashMap<>(savedStates));
+        when(vulnerabilityConnector.saveCveSearchStates(anyCollection())).thenAnswer(invocation -> {
+            Collection<CveSearchState> states = (Collection<CveSearchState>) invocation.getArguments()[0];
+            states.forEach(state -> savedStates.put(state.getReleaseId(), state.deepCopy()));
+            return RequestStatus.SUCCESS;
+        });
+        when(vulnerabilityConnector.addOrUpdate(anyList(), any(VulnerabilityUpdateStatus.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[1]);
+    }
+
+    private static List<Release> makeReleases() {
+        List<Release> releases = new ArrayList<>();
+        for (int i = 0; i < RELEASES; i++) {
+            releases.add(new Release().setId("r" + i).setName("component" + i).setVersion("1." + i)
+                    .setCpeid("cpe:2.3:a:vendor:component" + i + ":1." + i));
+        }
+        return releases;
+    }
+
+    @Test
+    public void testFullUpdateSearchesInParallel() {
+        List<Release> releases = makeReleases();
+
+        VulnerabilityUpdateStatus status = cveSearchSync.fullUpdate(releases);
+
+        assertThat(status.getRequestStatus(), is(RequestStatus.SUCCESS));
+        assertThat(cveSearchApi.maxRunning.get(), greaterThan(1));
+        assertThat(savedStates.size(), is(RELEASES));
+    }
+
+    @Test
+    public void testFullUpdateOnlySearchesChangedReleases() {
+        List<Release> releases = makeReleases();
+        cveSearchSync.fullUpdate(releases);
+        int requestsOfFirstUpdate = cveSearchApi.requests.get();
+
+        releases.get(0).setVersion("2.0");
+        releases.get(1).setCpeid("cpe:2.3:a:othervendor:component1:1.1");
+        cveSearchSync.fullUpdate(releases);
+
+        assertThat(cveSearchApi.requests.get() - requestsOfFirstUpdate, is(2));
+    }
+
+    @Test
+    public void testFullUpdateSearchesAgainAfterRecheckInterval() {
+        List<Release> releases = makeReleases();
+        cveSearchSync.fullUpdate(releases);
+        int requestsOfFirstUpdate = cveSearchApi.requests.get();
+
+        savedStates.get("r0").setLastChecked(System.currentTimeMillis() - RECHECK_INTERVAL);
+        cveSearchSync.fullUpdate(releases);
+
+        assertThat(cveSearchApi.requests.get() - requestsOfFirstUpdate, is(1));
+    }
+
+    @Test
+    public void testFullUpdateKeepsStatesOfOtherReleasesIfSearchFails() {
+        List<Release> releases = makeReleases();
+        Release failingRelease = releases.get(RELEASES / 2);
+        CveSearchWrapper cveSearchWrapper = mock(CveSearchWrapper.class);
+        when(cveSearchWrapper.searchForRelease(any(Release.class))).thenReturn(Optional.of(Collections.emptyList()));
+        when(cveSearchWrapper.searchForRelease(failingRelease)).thenThrow(new IllegalStateException("unexpected response"));
+        cveSearchSync = new CveSearchSync(cveSearchWrapper, vulnerabilityConnector, WORKERS, RECHECK_INTERVAL);
+
+        VulnerabilityUpdateStatus status = cveSearchSync.fullUpdate(releases);
+
+        assertThat(status.getRequestStatus(), is(RequestStatus.FAILURE));
+        assertThat(savedStates.size(), is(RELEASES - 1));
+        assertThat(savedStates.containsKey(failingRelease.getId()), is(false));
+    }
+}
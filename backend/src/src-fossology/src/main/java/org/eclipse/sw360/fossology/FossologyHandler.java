@@ -464,7 +464,8 @@ public class FossologyHandler implements FossologyService.Iface {
         Attachment attachment = CommonUtils.getNewAttachment(user, attachmentContent.getId(),
                 attachmentContent.getFilename());
         attachment.setAttachmentType(AttachmentType.COMPONENT_LICENSE_INFO_XML);
-        attachment.setSha1(attachmentConnector.getSha1FromAttachmentContentId(attachmentContent.getId()));
+        attachment.setSha1(attachmentContent.isSetSha1() ? attachmentContent.getSha1()
+                : attachmentConnector.getSha1FromAttachmentContentId(attachmentContent.getId()));
 
         // get release again because it has been updated in the meantime so version
         // changed and update might otherwise result in update conflict
@@ -16,6 +16,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
@@ -27,9 +28,11 @@ import org.eclipse.sw360.datahandler.db.AttachmentDatabaseHandler;
 import org.eclipse.sw360.datahandler.db.ComponentDatabaseHandler;
 import org.eclipse.sw360.datahandler.db.DatabaseHandlerUtil;
 import org.eclipse.sw360.datahandler.db.ProjectDatabaseHandler;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.ThriftClients;
 import org.eclipse.sw360.datahandler.thrift.ThriftUtils;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 import org.eclipse.sw360.datahandler.thrift.components.*;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.*;
 import org.eclipse.sw360.datahandler.thrift.licenses.ObligationType;
@@ -45,10 +48,23 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TException;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -70,16 +86,35 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
     private static final String DEFAULT_OBLIGATIONS_FILE = "/DefaultObligations.txt";
     private static final String DEFAULT_OBLIGATIONS_TEXT = SW360Utils.dropCommentedLine(LicenseInfoHandler.class, DEFAULT_OBLIGATIONS_FILE);
     private static final String MSG_NO_RELEASE_GIVEN = "No release given";
+    private static final String PROPERTIES_FILE_PATH = "/sw360.properties";
+    private static final String TEMPORARY_FILE_PREFIX = "licenseinfo";
+    private static final int PARSING_THREADS;
+    private static final long PARSING_TIMEOUT_SECONDS;
+    private static final ExecutorService PARSING_EXECUTOR;
+    private static final long PARSING_RESULT_CACHE_MAX_BYTES;
+    private static final String PARSING_RESULT_CACHE_DIRECTORY;
+    private static final long PARSING_RESULT_CACHE_MAX_DIRECTORY_BYTES;
+
+    static {
+        Properties props = CommonUtils.loadProperties(LicenseInfoHandler.class, PROPERTIES_FILE_PATH);
+        PARSING_THREADS = Integer.parseInt(props.getProperty("licenseinfo.parsing.threads", "4"));
+        PARSING_TIMEOUT_SECONDS = Long.parseLong(props.getProperty("licenseinfo.parsing.timeout.seconds", "600"));
+        PARSING_EXECUTOR = Executors.newFixedThreadPool(PARSING_THREADS,
+                new ThreadFactoryBuilder().setNameFormat("sw360-licenseinfo-parser-%d").setDaemon(true).build());
+        PARSING_RESULT_CACHE_MAX_BYTES = Long.parseLong(props.getProperty("licenseinfo.cache.max.bytes", "67108864"));
+        PARSING_RESULT_CACHE_DIRECTORY = props.getProperty("licenseinfo.cache.spill.dir", "");
+        PARSING_RESULT_CACHE_MAX_DIRECTORY_BYTES = Long.parseLong(props.getProperty("licenseinfo.cache.spill.max.bytes", "1073741824"));
+    }
 
     protected List<LicenseInfoParser> parsers;
     protected List<OutputGenerator<?>> outputGenerators;
+    protected AttachmentDatabaseHandler attachmentDatabaseHandler;
     protected ComponentDatabaseHandler componentDatabaseHandler;
     protected ProjectDatabaseHandler projectDatabaseHandler;
-    protected Cache<Object[], List<LicenseInfoParsingResult>> licenseInfoCache;
-    protected Cache<String, LicenseInfoParsingResult> licenseInfoCacheForEvaluation;
-    protected Cache<String, List<ObligationParsingResult>> obligationCache;
-    protected Cache<String, List<ObligationParsingResult>> obligationCacheForEvaluation;
+    protected ParsingResultCache parsingResultCache;
     protected Cache<String, LicenseInfoParsingResult> licenseObligationMappingCache;
+    protected ExecutorService parsingExecutor = PARSING_EXECUTOR;
+    protected long parsingTimeoutMillis = TimeUnit.SECONDS.toMillis(PARSING_TIMEOUT_SECONDS);
 
     public LicenseInfoHandler() throws MalformedURLException {
         this(new AttachmentDatabaseHandler(DatabaseSettings.getConfiguredClient(), DatabaseSettings.COUCH_DB_DATABASE, DatabaseSettings.COUCH_DB_ATTACHMENTS),
@@ -90,16 +125,12 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
     @VisibleForTesting
     protected LicenseInfoHandler(AttachmentDatabaseHandler attachmentDatabaseHandler,
                               ComponentDatabaseHandler componentDatabaseHandler, ProjectDatabaseHandler projectDatabaseHandler) throws MalformedURLException {
+        this.attachmentDatabaseHandler = attachmentDatabaseHandler;
         this.componentDatabaseHandler = componentDatabaseHandler;
         this.projectDatabaseHandler = projectDatabaseHandler;
-        this.licenseInfoCache = CacheBuilder.newBuilder().expireAfterWrite(CACHE_TIMEOUT_MINUTES, TimeUnit.MINUTES)
-                .maximumSize(CACHE_MAX_ITEMS).build();
-        this.obligationCache = CacheBuilder.newBuilder().expireAfterWrite(CACHE_TIMEOUT_MINUTES, TimeUnit.MINUTES)
-                .maximumSize(CACHE_MAX_ITEMS).build();
-        this.licenseInfoCacheForEvaluation = CacheBuilder.newBuilder().expireAfterWrite(CACHE_TIMEOUT_MINUTES, TimeUnit.MINUTES)
-                .maximumSize(CACHE_MAX_ITEMS).build();
-        this.obligationCacheForEvaluation = CacheBuilder.newBuilder().expireAfterWrite(CACHE_TIMEOUT_MINUTES, TimeUnit.MINUTES)
-                .maximumSize(CACHE_MAX_ITEMS).build();
+        this.parsingResultCache = new ParsingResultCache(PARSING_RESULT_CACHE_MAX_BYTES,
+                StringUtils.isBlank(PARSING_RESULT_CACHE_DIRECTORY) ? null : new File(PARSING_RESULT_CACHE_DIRECTORY),
+                PARSING_RESULT_CACHE_MAX_DIRECTORY_BYTES);
         this.licenseObligationMappingCache = CacheBuilder.newBuilder().expireAfterWrite(CACHE_TIMEOUT_MINUTES, TimeUnit.MINUTES)
                 .maximumSize(CACHE_MAX_ITEMS).build();
 
@@ -127,6 +158,23 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
             Map<String, Map<String, Boolean>> releaseIdsToSelectedAttachmentIds,
             Map<String, Set<LicenseNameWithText>> excludedLicensesPerAttachment, String externalIds, String fileName)
             throws TException {
+        return getLicenseInfoFile(project, user, outputGenerator, releaseIdsToSelectedAttachmentIds,
+                excludedLicensesPerAttachment, externalIds, fileName, false);
+    }
+
+    @Override
+    public LicenseInfoFile getLicenseInfoFileAsAttachment(Project project, User user, String outputGenerator,
+            Map<String, Map<String, Boolean>> releaseIdsToSelectedAttachmentIds,
+            Map<String, Set<LicenseNameWithText>> excludedLicensesPerAttachment, String externalIds, String fileName)
+            throws TException {
+        return getLicenseInfoFile(project, user, outputGenerator, releaseIdsToSelectedAttachmentIds,
+                excludedLicensesPerAttachment, externalIds, fileName, true);
+    }
+
+    private LicenseInfoFile getLicenseInfoFile(Project project, User user, String outputGenerator,
+            Map<String, Map<String, Boolean>> releaseIdsToSelectedAttachmentIds,
+            Map<String, Set<LicenseNameWithText>> excludedLicensesPerAttachment, String externalIds, String fileName,
+            boolean asAttachment) throws TException {
         assertNotNull(project);
         assertNotNull(user);
         assertNotNull(outputGenerator);
@@ -135,9 +183,16 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
 
         Map<Release, Map<String, Boolean>> releaseToAttachmentId = mapKeysToReleases(releaseIdsToSelectedAttachmentIds,
                 user);
-        Collection<LicenseInfoParsingResult> projectLicenseInfoResults = getAllReleaseLicenseInfos(
-                releaseToAttachmentId, user, excludedLicensesPerAttachment);
-        Collection<ObligationParsingResult> obligationsResults = getAllReleaseObligations(releaseToAttachmentId, user);
+        List<AttachmentParsingResults> attachmentResults = getAllReleaseParsingResults(releaseToAttachmentId, user);
+        Collection<LicenseInfoParsingResult> projectLicenseInfoResults = Lists.newArrayList();
+        Collection<ObligationParsingResult> obligationsResults = Lists.newArrayList();
+        for (AttachmentParsingResults attachmentResult : attachmentResults) {
+            Set<LicenseNameWithText> licencesToExclude = excludedLicensesPerAttachment
+                    .getOrDefault(attachmentResult.attachmentContentId, Sets.newHashSet());
+            attachmentResult.licenseInfos.stream().map(result -> filterLicenses(result, licencesToExclude))
+                    .forEach(projectLicenseInfoResults::add);
+            obligationsResults.addAll(attachmentResult.obligations);
+        }
 
         String[] outputGeneratorClassnameAndVariant = outputGenerator.split("::");
         if (outputGeneratorClassnameAndVariant.length != 2) {
@@ -169,19 +224,70 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
                     .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
         }
 
-        Object output = generator.generateOutputFile(projectLicenseInfoResults, project, obligationsResults, user,
-                filteredExtIdMap, obligationsStatusInfoMap, fileName);
-        if (output instanceof byte[]) {
-            licenseInfoFile.setGeneratedOutput((byte[]) output);
-        } else if (output instanceof String) {
-            licenseInfoFile.setGeneratedOutput(((String) output).getBytes());
+        final Map<String, String> selectedExternalIds = filteredExtIdMap;
+        final Map<String, ObligationStatusInfo> obligationsStatus = obligationsStatusInfoMap;
+        OutputWriter outputWriter = out -> generator.writeOutputFile(projectLicenseInfoResults, project,
+                obligationsResults, user, selectedExternalIds, obligationsStatus, fileName, out);
+        if (asAttachment) {
+            licenseInfoFile.setGeneratedOutputAttachmentContentId(writeToTemporaryAttachment(generator, outputWriter));
         } else {
-            throw new TException("Unsupported output generator result: " + output.getClass().getSimpleName());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outputWriter.write(out);
+            licenseInfoFile.setGeneratedOutput(out.toByteArray());
         }
 
         return licenseInfoFile;
     }
 
+    @FunctionalInterface
+    interface OutputWriter {
+        void write(OutputStream out) throws SW360Exception;
+    }
+
+    /**
+     * Spools the output to a temporary file, as the attachment is uploaded from a stream, and uploads it as a new
+     * attachment content which is not referenced by any document
+     *
+     * @return the id of the attachment content
+     */
+    @VisibleForTesting
+    String writeToTemporaryAttachment(OutputGenerator<?> generator, OutputWriter outputWriter) throws TException {
+        String filename = TEMPORARY_FILE_PREFIX + "." + generator.getOutputType();
+        Path file = null;
+        try {
+            file = Files.createTempFile(TEMPORARY_FILE_PREFIX, "." + generator.getOutputType());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                outputWriter.write(out);
+            }
+
+            AttachmentContent attachmentContent = attachmentDatabaseHandler.add(new AttachmentContent()
+                    .setFilename(filename)
+                    .setContentType(generator.getOutputMimeType()));
+            try (InputStream in = Files.newInputStream(file)) {
+                attachmentDatabaseHandler.getAttachmentConnector().uploadAttachment(attachmentContent, in);
+            } catch (IOException | TException | RuntimeException e) {
+                attachmentDatabaseHandler.deleteAttachmentContent(attachmentContent.getId());
+                throw e;
+            }
+            return attachmentContent.getId();
+        } catch (IOException e) {
+            throw new SW360Exception("Could not store the license info file: " + e.getMessage());
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete temporary file " + file, e);
+        }
+    }
+
     public Map<String, Map<String, String>> evaluateAttachments(String releaseId, User user) throws TException {
         Release release = componentDatabaseHandler.getRelease(releaseId, user);
         Map<Attachment, LicenseInfoParsingResult> parsedResults = new HashMap<Attachment, LicenseInfoParsingResult>();
@@ -564,17 +670,6 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
             return Collections.singletonList(noSourceParsingResult(MSG_NO_RELEASE_GIVEN));
         }
 
-        if (licenseInfoCache != null) {
-            for (Entry<Object[], List<LicenseInfoParsingResult>> entry : licenseInfoCache.asMap().entrySet()) {
-                Object[] key = entry.getKey();
-                List<LicenseInfoParsingResult> cachedValue = entry.getValue();
-                if (attachmentContentId.equals(key[0].toString()) && includeConcludedLicense == (boolean) key[1]
-                        && cachedValue != null) {
-                    return cachedValue;
-                }
-            }
-        }
-
         Attachment attachment = nullToEmptySet(release.getAttachments()).stream()
                 .filter(a -> a.getAttachmentContentId().equals(attachmentContentId)).findFirst().orElseThrow(() -> {
                     String message = String.format(
@@ -583,6 +678,14 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
                     return new IllegalStateException(message);
                 });
 
+        ParsingResultCache.Key cacheKey = new ParsingResultCache.Key(attachmentContentId, attachment.getSha1(),
+                includeConcludedLicense, ParsingResultCache.ResultType.LICENSE_INFO);
+        List<LicenseInfoParsingResult> cachedResults = parsingResultCache.get(cacheKey);
+        if (cachedResults != null) {
+            return assignComponentToLicenseInfoParsingResults(
+                    assignReleaseToLicenseInfoParsingResults(cachedResults, release), release, user);
+        }
+
         try {
 
             List<LicenseInfoParser> applicableParsers = parsers.stream()
@@ -606,12 +709,10 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
                 return parser.getLicenseInfos(attachment, user, release);
             })).flatMap(Collection::stream).collect(Collectors.toList());
             filterEmptyLicenses(results);
+            parsingResultCache.put(cacheKey, results);
 
             results = assignReleaseToLicenseInfoParsingResults(results, release);
             results = assignComponentToLicenseInfoParsingResults(results, release, user);
-
-            Object[] cacheKey = new Object[] { attachmentContentId, includeConcludedLicense };
-            licenseInfoCache.put(cacheKey, results);
             return results;
         } catch (WrappedTException exception) {
             throw exception.getCause();
@@ -776,11 +877,6 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
                                                     .setMessage(MSG_NO_RELEASE_GIVEN));
         }
 
-        List<ObligationParsingResult> cachedResults = obligationCache.getIfPresent(attachmentContentId);
-        if (cachedResults != null) {
-            return cachedResults;
-        }
-
         Attachment attachment = nullToEmptySet(release.getAttachments()).stream()
                 .filter(a -> a.getAttachmentContentId().equals(attachmentContentId)).findFirst().orElseThrow(() -> {
                     String message = String.format(
@@ -789,6 +885,13 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
                     return new IllegalStateException(message);
                 });
 
+        ParsingResultCache.Key cacheKey = new ParsingResultCache.Key(attachmentContentId, attachment.getSha1(), false,
+                ParsingResultCache.ResultType.OBLIGATIONS);
+        List<ObligationParsingResult> cachedResults = parsingResultCache.get(cacheKey);
+        if (cachedResults != null) {
+            return assignReleaseToObligationParsingResults(cachedResults, release);
+        }
+
         try {
 
             List<LicenseInfoParser> applicableParsers = parsers.stream()
@@ -806,11 +909,9 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
             List<ObligationParsingResult> results = applicableParsers.stream()
                     .map(parser -> wrapTException(() -> parser.getObligations(attachment, user, release)))
                     .collect(Collectors.toList());
+            parsingResultCache.put(cacheKey, results);
 
-            results = assignReleaseToObligationParsingResults(results, release);
-
-            obligationCache.put(attachmentContentId, results);
-            return results;
+            return assignReleaseToObligationParsingResults(results, release);
         } catch (WrappedTException exception) {
             throw exception.getCause();
         }
@@ -857,41 +958,142 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
         }
     }
 
-    protected Collection<LicenseInfoParsingResult> getAllReleaseLicenseInfos(Map<Release, Map<String,Boolean>> releaseToSelectedAttachmentIds,
-            User user, Map<String, Set<LicenseNameWithText>> excludedLicensesPerAttachment) throws TException {
-        List<LicenseInfoParsingResult> results = Lists.newArrayList();
-
-        for (Entry<Release, Map<String,Boolean>> entry : releaseToSelectedAttachmentIds.entrySet()) {
+    /**
+     * Parses the license infos and obligations of all selected attachments on the parsing pool. The results are
+     * ordered by release name, version and id, then by attachment content id, independent of completion order.
+     */
+    @VisibleForTesting
+    List<AttachmentParsingResults> getAllReleaseParsingResults(
+            Map<Release, Map<String, Boolean>> releaseToSelectedAttachmentIds, User user) throws TException {
+        List<Entry<Release, Entry<String, Boolean>>> selectedAttachments = Lists.newArrayList();
+        for (Entry<Release, Map<String, Boolean>> entry : releaseToSelectedAttachmentIds.entrySet()) {
             for (Entry<String, Boolean> attachmentIdUseLicenseInfoFromFileEntry : entry.getValue().entrySet()) {
-                String attachmentContentId = attachmentIdUseLicenseInfoFromFileEntry.getKey();
-                if (attachmentContentId != null) {
-                    Set<LicenseNameWithText> licencesToExclude = excludedLicensesPerAttachment.getOrDefault(attachmentContentId,
-                            Sets.newHashSet());
-                    List<LicenseInfoParsingResult> parsedLicenses = getLicenseInfoForAttachment(entry.getKey(),
-                            attachmentContentId, attachmentIdUseLicenseInfoFromFileEntry.getValue(), user);
-
-                    results.addAll(
-                            parsedLicenses.stream().map(result -> filterLicenses(result, licencesToExclude)).collect(Collectors.toList()));
+                if (attachmentIdUseLicenseInfoFromFileEntry.getKey() != null) {
+                    selectedAttachments.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), attachmentIdUseLicenseInfoFromFileEntry));
                 }
             }
         }
-
+        selectedAttachments.sort(Comparator
+                .<Entry<Release, Entry<String, Boolean>>, String>comparing(e -> e.getKey().getName(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(e -> e.getKey().getVersion(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(e -> e.getKey().getId(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(e -> e.getValue().getKey()));
+
+        List<Future<AttachmentParsingResults>> futures = selectedAttachments.stream()
+                .map(e -> parsingExecutor.submit(() -> getParsingResultsForAttachment(e.getKey(),
+                        e.getValue().getKey(), e.getValue().getValue(), user)))
+                .collect(Collectors.toList());
+
+        List<AttachmentParsingResults> results = Lists.newArrayList();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(parsingTimeoutMillis);
+        try {
+            for (Future<AttachmentParsingResults> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (TimeoutException e) {
+            throw new SW360Exception("Parsing of " + futures.size() + " attachments did not finish within "
+                    + parsingTimeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SW360Exception("Interrupted while parsing attachments");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TException) {
+                throw (TException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new TException(cause);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
         return results;
     }
 
-    private Collection<ObligationParsingResult> getAllReleaseObligations(Map<Release, Map<String,Boolean>> releaseToSelectedAttachmentIds, User user)
-            throws TException {
-        List<ObligationParsingResult> results = Lists.newArrayList();
+    /**
+     * Returns the license infos and obligations of the attachment. If neither is cached, each applicable parser reads
+     * the attachment once for both.
+     */
+    private AttachmentParsingResults getParsingResultsForAttachment(Release release, String attachmentContentId,
+            boolean includeConcludedLicense, User user) throws TException {
+        Attachment attachment = nullToEmptySet(release.getAttachments()).stream()
+                .filter(a -> a.getAttachmentContentId().equals(attachmentContentId)).findFirst().orElseThrow(() -> {
+                    String message = String.format(
+                            "Attachment selected for license info generation is not found in release's attachments. Release id: %s. Attachment content id: %s",
+                            release.getId(), attachmentContentId);
+                    return new IllegalStateException(message);
+                });
 
-        for (Entry<Release, Map<String,Boolean>> entry : releaseToSelectedAttachmentIds.entrySet()) {
-            for (String attachmentContentId : entry.getValue().keySet()) {
-                if (attachmentContentId != null) {
-                    results.addAll(getObligationsForAttachment(entry.getKey(), attachmentContentId, user));
-                }
+        ParsingResultCache.Key licenseInfoKey = new ParsingResultCache.Key(attachmentContentId, attachment.getSha1(),
+                includeConcludedLicense, ParsingResultCache.ResultType.LICENSE_INFO);
+        ParsingResultCache.Key obligationsKey = new ParsingResultCache.Key(attachmentContentId, attachment.getSha1(),
+                false, ParsingResultCache.ResultType.OBLIGATIONS);
+        List<LicenseInfoParsingResult> cachedLicenseInfos = parsingResultCache.get(licenseInfoKey);
+        List<ObligationParsingResult> cachedObligations = parsingResultCache.get(obligationsKey);
+        if (cachedLicenseInfos != null || cachedObligations != null) {
+            return new AttachmentParsingResults(attachmentContentId,
+                    cachedLicenseInfos != null
+                            ? assignComponentToLicenseInfoParsingResults(
+                                    assignReleaseToLicenseInfoParsingResults(cachedLicenseInfos, release), release, user)
+                            : getLicenseInfoForAttachment(release, attachmentContentId, includeConcludedLicense, user),
+                    cachedObligations != null
+                            ? assignReleaseToObligationParsingResults(cachedObligations, release)
+                            : getObligationsForAttachment(release, attachmentContentId, user));
+        }
+
+        try {
+            List<LicenseInfoParser> applicableParsers = parsers.stream()
+                    .filter(parser -> wrapTException(() -> parser.isApplicableTo(attachment, user, release))).collect(Collectors.toList());
+
+            if (applicableParsers.size() == 0) {
+                LOGGER.warn("No applicable parser has been found for the attachment selected for license information");
+                return new AttachmentParsingResults(attachmentContentId,
+                        assignReleaseToLicenseInfoParsingResult(assignFileNameToLicenseInfoParsingResult(
+                                noSourceParsingResult("No applicable parser has been found for the attachment"),
+                                attachment.getFilename()), release),
+                        Collections.singletonList(new ObligationParsingResult()
+                                .setStatus(ObligationInfoRequestStatus.NO_APPLICABLE_SOURCE)
+                                .setMessage("No applicable parser has been found for the attachment.")));
+            } else if (applicableParsers.size() > 1) {
+                LOGGER.info("More than one parser claims to be able to parse attachment with contend id " + attachmentContentId);
             }
+
+            List<LicenseInfoParser.ParsingResults> parsingResults = applicableParsers.stream()
+                    .map(parser -> wrapTException(() -> parser.getLicenseInfosAndObligations(attachment,
+                            includeConcludedLicense, user, release)))
+                    .collect(Collectors.toList());
+
+            List<LicenseInfoParsingResult> licenseInfos = parsingResults.stream()
+                    .map(LicenseInfoParser.ParsingResults::getLicenseInfos).flatMap(Collection::stream)
+                    .collect(Collectors.toList());
+            filterEmptyLicenses(licenseInfos);
+            parsingResultCache.put(licenseInfoKey, licenseInfos);
+            licenseInfos = assignReleaseToLicenseInfoParsingResults(licenseInfos, release);
+            licenseInfos = assignComponentToLicenseInfoParsingResults(licenseInfos, release, user);
+
+            List<ObligationParsingResult> obligations = parsingResults.stream()
+                    .map(LicenseInfoParser.ParsingResults::getObligations).collect(Collectors.toList());
+            parsingResultCache.put(obligationsKey, obligations);
+            obligations = assignReleaseToObligationParsingResults(obligations, release);
+
+            return new AttachmentParsingResults(attachmentContentId, licenseInfos, obligations);
+        } catch (WrappedTException exception) {
+            throw exception.getCause();
         }
+    }
 
-        return results;
+    @VisibleForTesting
+    static class AttachmentParsingResults {
+        final String attachmentContentId;
+        final List<LicenseInfoParsingResult> licenseInfos;
+        final List<ObligationParsingResult> obligations;
+
+        private AttachmentParsingResults(String attachmentContentId, List<LicenseInfoParsingResult> licenseInfos,
+                List<ObligationParsingResult> obligations) {
+            this.attachmentContentId = attachmentContentId;
+            this.licenseInfos = licenseInfos;
+            this.obligations = obligations;
+        }
     }
 
     protected LicenseInfoParsingResult filterLicenses(LicenseInfoParsingResult result, Set<LicenseNameWithText> licencesToExclude) {
@@ -946,6 +1148,9 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
     }
 
     private List<LicenseInfoParsingResult> assignComponentToLicenseInfoParsingResults(List<LicenseInfoParsingResult> parsingResults, Release release, User user) throws TException {
+        if (parsingResults.isEmpty()) {
+            return parsingResults;
+        }
         final ComponentService.Iface componentClient = new ThriftClients().makeComponentClient();
         final Component component = componentClient.getComponentById(release.getComponentId(), user);
 
@@ -1004,15 +1209,15 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
 
     private LicenseInfoParsingResult getLicenseInfoForAttachment(Release release, Attachment attachment, User user)
             throws TException {
+        ParsingResultCache.Key cacheKey = new ParsingResultCache.Key(attachment.getAttachmentContentId(),
+                attachment.getSha1(), false, ParsingResultCache.ResultType.LICENSE_INFO_WITH_FILE_HASHES);
+        List<LicenseInfoParsingResult> cachedResults = parsingResultCache.get(cacheKey);
+        if (cachedResults != null) {
+            return assignComponentToLicenseInfoParsingResults(
+                    assignReleaseToLicenseInfoParsingResults(cachedResults, release), release, user).get(0);
+        }
+
         try {
-            if (licenseInfoCacheForEvaluation != null) {
-                for (Entry<String, LicenseInfoParsingResult> entry : licenseInfoCacheForEvaluation.asMap().entrySet()) {
-                    LicenseInfoParsingResult cachedValue = entry.getValue();
-                    if (attachment.getAttachmentContentId().equals(entry.getKey()) && cachedValue != null) {
-                        return cachedValue;
-                    }
-                }
-            }
 
             List<LicenseInfoParser> applicableParsers = parsers.stream()
                     .filter(parser -> wrapTException(() -> parser.isApplicableTo(attachment, user, release)))
@@ -1040,10 +1245,10 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
 
             })).flatMap(Collection::stream).collect(Collectors.toList());
             filterEmptyLicenses(results);
+            parsingResultCache.put(cacheKey, results.subList(0, 1));
 
             results = assignReleaseToLicenseInfoParsingResults(results, release);
             results = assignComponentToLicenseInfoParsingResults(results, release, user);
-            licenseInfoCacheForEvaluation.put(attachment.getAttachmentContentId(), results.get(0));
             return results.get(0);
         } catch (WrappedTException exception) {
             throw exception.getCause();
@@ -1052,10 +1257,11 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
 
     public ObligationParsingResult getObligationsForCLIAttachment(Release release, Attachment attachment, User user)
             throws TException {
-        List<ObligationParsingResult> cachedResults = obligationCacheForEvaluation
-                .getIfPresent(attachment.getAttachmentContentId());
+        ParsingResultCache.Key cacheKey = new ParsingResultCache.Key(attachment.getAttachmentContentId(),
+                attachment.getSha1(), false, ParsingResultCache.ResultType.CLI_OBLIGATIONS);
+        List<ObligationParsingResult> cachedResults = parsingResultCache.get(cacheKey);
         if (cachedResults != null) {
-            return cachedResults.get(0);
+            return assignReleaseToObligationParsingResults(cachedResults, release).get(0);
         }
 
         try {
@@ -1081,11 +1287,9 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
                             .setMessage("The attachment/Parser is not CLI?parser file. Hence not applicable for evaluation");
                 }
             })).collect(Collectors.toList());
+            parsingResultCache.put(cacheKey, results.subList(0, 1));
 
-            results = assignReleaseToObligationParsingResults(results, release);
-
-            obligationCache.put(attachment.getAttachmentContentId(), results);
-            return results.get(0);
+            return assignReleaseToObligationParsingResults(results, release).get(0);
         } catch (WrappedTException exception) {
             throw exception.getCause();
         }
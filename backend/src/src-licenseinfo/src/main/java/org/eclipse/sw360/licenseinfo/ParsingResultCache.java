@@ -0,0 +1,338 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.licenseinfo;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoParsingResult;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.ObligationInfoRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.ObligationParsingResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyString;
+
+/**
+ * Cache for the results of parsing attachments. The content of an attachment never changes for its content id and
+ * checksum, so entries do not expire. Only successful results are cached, failures may be transient (e.g. an
+ * attachment which could not be read) and are parsed again on the next request. Results are kept serialized in
+ * memory, bounded by their size in bytes. If a spill directory is given, results are also written there and read back
+ * after they were evicted or after a restart. The spill directory is bounded as well, the oldest files are deleted
+ * first. Every lookup returns new copies, so callers may modify them.
+ */
+public class ParsingResultCache {
+    private static final Logger LOGGER = LogManager.getLogger(ParsingResultCache.class);
+    // increase if the parsers change their results, so that old files on disk are not used anymore
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_PREFIX = "v" + FORMAT_VERSION + "-";
+    private static final String FILE_SUFFIX = ".bin";
+
+    public enum ResultType {
+        LICENSE_INFO(LicenseInfoParsingResult::new, ResultType::isSuccessfulLicenseInfo),
+        LICENSE_INFO_WITH_FILE_HASHES(LicenseInfoParsingResult::new, ResultType::isSuccessfulLicenseInfo),
+        OBLIGATIONS(ObligationParsingResult::new, ResultType::isSuccessfulObligation),
+        CLI_OBLIGATIONS(ObligationParsingResult::new, ResultType::isSuccessfulObligation);
+
+        private final Supplier<? extends TBase<?, ?>> factory;
+        private final Predicate<TBase<?, ?>> isSuccess;
+
+        ResultType(Supplier<? extends TBase<?, ?>> factory, Predicate<TBase<?, ?>> isSuccess) {
+            this.factory = factory;
+            this.isSuccess = isSuccess;
+        }
+
+        private static boolean isSuccessfulLicenseInfo(TBase<?, ?> result) {
+            return result instanceof LicenseInfoParsingResult
+                    && ((LicenseInfoParsingResult) result).getStatus() == LicenseInfoRequestStatus.SUCCESS;
+        }
+
+        private static boolean isSuccessfulObligation(TBase<?, ?> result) {
+            return result instanceof ObligationParsingResult
+                    && ((ObligationParsingResult) result).getStatus() == ObligationInfoRequestStatus.SUCCESS;
+        }
+    }
+
+    public static final class Key {
+        private final String attachmentContentId;
+        private final String sha1;
+        private final boolean includeConcludedLicense;
+        private final ResultType resultType;
+
+        public Key(String attachmentContentId, String sha1, boolean includeConcludedLicense, ResultType resultType) {
+            this.attachmentContentId = attachmentContentId;
+            this.sha1 = nullToEmptyString(sha1);
+            this.includeConcludedLicense = includeConcludedLicense;
+            this.resultType = resultType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return includeConcludedLicense == key.includeConcludedLicense
+                    && attachmentContentId.equals(key.attachmentContentId) && sha1.equals(key.sha1)
+                    && resultType == key.resultType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(attachmentContentId, sha1, includeConcludedLicense, resultType);
+        }
+
+        @Override
+        public String toString() {
+            return attachmentContentId + ":" + sha1 + ":" + includeConcludedLicense + ":" + resultType;
+        }
+
+        private String getFileName() {
+            return FILE_PREFIX + Hashing.sha256().hashString(toString(), StandardCharsets.UTF_8) + FILE_SUFFIX;
+        }
+    }
+
+    private final Cache<Key, byte[]> memoryCache;
+    private final File spillDirectory;
+    private final long maxSpillBytes;
+    private final AtomicLong spillBytes = new AtomicLong();
+
+    /**
+     * @param maxBytes       upper bound for the serialized size of all results kept in memory
+     * @param spillDirectory directory to persist results in, or null to keep them in memory only
+     * @param maxSpillBytes  upper bound for the size of all files in the spill directory
+     */
+    public ParsingResultCache(long maxBytes, File spillDirectory, long maxSpillBytes) {
+        this.memoryCache = CacheBuilder.newBuilder().maximumWeight(maxBytes)
+                .weigher((Key key, byte[] value) -> value.length).build();
+        if (spillDirectory != null && !spillDirectory.isDirectory() && !spillDirectory.mkdirs()) {
+            LOGGER.error("Could not create directory " + spillDirectory + ", parsing results are kept in memory only");
+            spillDirectory = null;
+        }
+        this.spillDirectory = spillDirectory;
+        this.maxSpillBytes = maxSpillBytes;
+        if (spillDirectory != null) {
+            cleanSpillDirectory();
+        }
+    }
+
+    public ParsingResultCache(long maxBytes, File spillDirectory) {
+        this(maxBytes, spillDirectory, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return copies of the cached results, or null if there are none
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends TBase<?, ?>> List<T> get(Key key) {
+        byte[] serialized = memoryCache.getIfPresent(key);
+        if (serialized == null) {
+            serialized = readFromDisk(key);
+            if (serialized == null) {
+                return null;
+            }
+            memoryCache.put(key, serialized);
+        }
+        try {
+            return (List<T>) deserialize(serialized, key.resultType);
+        } catch (TException | IOException e) {
+            LOGGER.error("Could not read cached parsing result for " + key, e);
+            invalidate(key);
+            return null;
+        }
+    }
+
+    /**
+     * Caches the results if all of them are successful, does nothing otherwise.
+     */
+    public void put(Key key, List<? extends TBase<?, ?>> results) {
+        if (!isCacheable(key.resultType, results)) {
+            return;
+        }
+        byte[] serialized;
+        try {
+            serialized = serialize(results);
+        } catch (TException | IOException e) {
+            LOGGER.error("Could not cache parsing result for " + key, e);
+            return;
+        }
+        memoryCache.put(key, serialized);
+        writeToDisk(key, serialized);
+    }
+
+    public void invalidate(Key key) {
+        memoryCache.invalidate(key);
+        if (spillDirectory != null) {
+            deleteFromDisk(new File(spillDirectory, key.getFileName()));
+        }
+    }
+
+    static boolean isCacheable(ResultType resultType, List<? extends TBase<?, ?>> results) {
+        return results != null && !results.isEmpty() && results.stream().allMatch(resultType.isSuccess);
+    }
+
+    private byte[] readFromDisk(Key key) {
+        if (spillDirectory == null) {
+            return null;
+        }
+        File file = new File(spillDirectory, key.getFileName());
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("Could not read cached parsing result from " + file, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(Key key, byte[] serialized) {
+        if (spillDirectory == null) {
+            return;
+        }
+        if (serialized.length > maxSpillBytes) {
+            return;
+        }
+        File targetFile = new File(spillDirectory, key.getFileName());
+        Path target = targetFile.toPath();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(spillDirectory.toPath(), "parsing", ".tmp");
+            Files.write(temp, serialized);
+            long replacedBytes = targetFile.length();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (spillBytes.addAndGet(serialized.length - replacedBytes) > maxSpillBytes) {
+                trimSpillDirectory();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not write cached parsing result to " + target, e);
+            if (temp != null) {
+                temp.toFile().delete();
+            }
+        }
+    }
+
+    private void deleteFromDisk(File file) {
+        long length = file.length();
+        if (file.delete()) {
+            spillBytes.addAndGet(-length);
+        }
+    }
+
+    /**
+     * Deletes files of older format versions and temporary files left behind by a crash, then trims the directory to
+     * its size bound.
+     */
+    private void cleanSpillDirectory() {
+        File[] files = spillDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            if (!file.isFile()) {
+                continue;
+            }
+            String name = file.getName();
+            if (name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX)) {
+                total += file.length();
+            } else if (isStaleFile(name) && !file.delete()) {
+                LOGGER.warn("Could not delete stale file " + file + " from the parsing result cache");
+            }
+        }
+        spillBytes.set(total);
+        if (total > maxSpillBytes) {
+            trimSpillDirectory();
+        }
+    }
+
+    private static boolean isStaleFile(String name) {
+        return name.matches("v\\d+-[0-9a-f]+\\" + FILE_SUFFIX) || name.matches("parsing.*\\.tmp");
+    }
+
+    /**
+     * Deletes the least recently written files until the spill directory fits its size bound.
+     */
+    private synchronized void trimSpillDirectory() {
+        File[] files = spillDirectory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long total = Arrays.stream(files).mapToLong(File::length).sum();
+        for (int i = 0; i < files.length && total > maxSpillBytes; i++) {
+            long length = files[i].length();
+            if (files[i].delete()) {
+                total -= length;
+            }
+        }
+        spillBytes.set(total);
+    }
+
+    private static byte[] serialize(List<? extends TBase<?, ?>> results) throws TException, IOException {
+        TSerializer serializer = new TSerializer(new TCompactProtocol.Factory());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(results.size());
+            for (TBase<?, ?> result : results) {
+                byte[] serialized = serializer.serialize(result);
+                out.writeInt(serialized.length);
+                out.write(serialized);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<TBase<?, ?>> deserialize(byte[] serialized, ResultType resultType) throws TException, IOException {
+        TDeserializer deserializer = new TDeserializer(new TCompactProtocol.Factory());
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            int size = in.readInt();
+            List<TBase<?, ?>> results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                byte[] element = new byte[in.readInt()];
+                in.readFully(element);
+                TBase<?, ?> result = resultType.factory.get();
+                deserializer.deserialize(result, element);
+                results.add(result);
+            }
+            return results;
+        }
+    }
+}
@@ -46,8 +46,8 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.util.*;
 import java.util.function.Consumer;
@@ -102,9 +102,13 @@ public class DocxGenerator extends OutputGenerator<byte[]> {
 
     @Override
     public byte[] generateOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, Project project, Collection<ObligationParsingResult> obligationResults, User user, Map<String, String> externalIds, Map<String, ObligationStatusInfo> obligationsStatus, String fileName) throws SW360Exception {
+        return generateOutputBytes(projectLicenseInfoResults, project, obligationResults, user, externalIds, obligationsStatus, fileName);
+    }
+
+    @Override
+    public void writeOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, Project project, Collection<ObligationParsingResult> obligationResults, User user, Map<String, String> externalIds, Map<String, ObligationStatusInfo> obligationsStatus, String fileName, OutputStream out) throws SW360Exception {
         String licenseInfoHeaderText = project.getLicenseInfoHeaderText();
 
-        ByteArrayOutputStream docxOutputStream = new ByteArrayOutputStream();
         Optional<byte[]> docxTemplateFile;
         XWPFDocument xwpfDocument;
         try {
@@ -151,8 +155,8 @@ public class DocxGenerator extends OutputGenerator<byte[]> {
                 default:
                     throw new IllegalArgumentException("Unknown generator variant type: " + getOutputVariant());
             }
-            xwpfDocument.write(docxOutputStream);
-            docxOutputStream.close();
+            xwpfDocument.write(out);
+            out.flush();
         } catch (XmlException e) {
             throw new SW360Exception("Got XmlException while generating docx document: " + e.getMessage());
         } catch (IOException e) {
@@ -160,7 +164,6 @@ public class DocxGenerator extends OutputGenerator<byte[]> {
         } catch (TException e) {
             throw new SW360Exception("Error reading sw360 licenses: " + e.getMessage());
         }
-        return docxOutputStream.toByteArray();
     }
 
     private void fillDisclosureDocument(
@@ -14,7 +14,6 @@ package org.eclipse.sw360.licenseinfo.outputGenerators;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import org.apache.commons.io.IOUtils;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.Velocity;
 import org.apache.velocity.runtime.RuntimeConstants;
@@ -31,7 +30,10 @@ import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.licenseinfo.util.LicenseNameWithTextUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.StringWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -66,6 +68,19 @@ public abstract class OutputGenerator<T> {
 
     public abstract T generateOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, Project project, Collection<ObligationParsingResult> obligationResults, User user, Map<String,String> externalIds, Map<String, ObligationStatusInfo> obligationsStatus, String fileName) throws SW360Exception;
 
+    /**
+     * Writes the output file to the given stream, which is flushed but not closed. Unlike
+     * {@link #generateOutputFile}, this does not keep the whole output in memory. If the file cannot be generated,
+     * parts of it may already be written to the stream when the exception is thrown.
+     */
+    public abstract void writeOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, Project project, Collection<ObligationParsingResult> obligationResults, User user, Map<String,String> externalIds, Map<String, ObligationStatusInfo> obligationsStatus, String fileName, OutputStream out) throws SW360Exception;
+
+    protected byte[] generateOutputBytes(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, Project project, Collection<ObligationParsingResult> obligationResults, User user, Map<String,String> externalIds, Map<String, ObligationStatusInfo> obligationsStatus, String fileName) throws SW360Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeOutputFile(projectLicenseInfoResults, project, obligationResults, user, externalIds, obligationsStatus, fileName, out);
+        return out.toByteArray();
+    }
+
     public String getOutputType() {
         return outputType;
     }
@@ -228,10 +243,12 @@ public abstract class OutputGenerator<T> {
      * @param file
      *            name of template file
      * @param externalIds
-     * @return rendered template
+     * @param writer
+     *            the template is rendered to, is flushed but not closed
      */
-    protected String renderTemplateWithDefaultValues(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String file,
-                                                     String projectTitle, String licenseInfoHeaderText, String obligationsText, Map<String, String> externalIds) {
+    protected void renderTemplateWithDefaultValues(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String file,
+                                                   String projectTitle, String licenseInfoHeaderText, String obligationsText, Map<String, String> externalIds,
+                                                   Writer writer) throws IOException {
         VelocityContext vc = getConfiguredVelocityContext();
         // set header
         vc.put(LICENSE_INFO_PROJECT_TITLE, projectTitle);
@@ -271,10 +288,8 @@ public abstract class OutputGenerator<T> {
 
         vc.put(EXTERNAL_IDS, externalIds);
 
-        StringWriter sw = new StringWriter();
-        Velocity.mergeTemplate(file, "utf-8", vc, sw);
-        IOUtils.closeQuietly(sw);
-        return sw.toString();
+        Velocity.mergeTemplate(file, "utf-8", vc, writer);
+        writer.flush();
     }
 
     /**
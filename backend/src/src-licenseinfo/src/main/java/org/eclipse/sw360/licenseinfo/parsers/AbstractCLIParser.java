@@ -25,9 +25,11 @@ import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseNameWithText;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.ObligationAtProject;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -72,6 +74,19 @@ public abstract class AbstractCLIParser extends LicenseInfoParser {
     private static final String OBLIGATION_TOPIC_ELEMENT_NAME = "Topic";
     private static final String OBLIGATION_TEXT_ELEMENT_NAME = "Text";
     private static final String OBLIGATION_LICENSE_ELEMENT_NAME = "Licenses";
+    private static final String REPORT_CDATA_PROPERTY = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    protected static final XMLInputFactory XML_INPUT_FACTORY = createXMLInputFactory();
+    private static final ThreadLocal<XPath> XPATH = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+
+    private static XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // keep CDATA sections apart from surrounding text, as the DOM parser does
+        if (factory.isPropertySupported(REPORT_CDATA_PROPERTY)) {
+            factory.setProperty(REPORT_CDATA_PROPERTY, true);
+        }
+        return factory;
+    }
 
     public AbstractCLIParser(AttachmentConnector attachmentConnector, AttachmentContentProvider attachmentContentProvider) {
         super(attachmentConnector, attachmentContentProvider);
@@ -112,12 +127,11 @@ public abstract class AbstractCLIParser extends LicenseInfoParser {
     }
 
     protected <T> boolean hasThisXMLRootElement(AttachmentContent content, String rootElementNamespace, String rootElementName, User user, T context) throws TException {
-        XMLInputFactory xmlif = XMLInputFactory.newFactory();
         XMLStreamReader xmlStreamReader = null;
         InputStream attachmentStream = null;
         try {
             attachmentStream = attachmentConnector.getAttachmentStream(content, user, context);
-            xmlStreamReader = xmlif.createXMLStreamReader(attachmentStream);
+            xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(attachmentStream);
 
             //skip to first element
             while (xmlStreamReader.hasNext() && xmlStreamReader.next() != XMLStreamConstants.START_ELEMENT) ;
@@ -144,11 +158,78 @@ public abstract class AbstractCLIParser extends LicenseInfoParser {
     }
 
     protected NodeList getNodeListByXpath(Document doc, String xpathString) throws XPathExpressionException {
-        XPath xpath = XPathFactory.newInstance().newXPath();
-        XPathExpression xpathExpression = xpath.compile(xpathString);
+        XPathExpression xpathExpression = XPATH.get().compile(xpathString);
         return (NodeList) xpathExpression.evaluate(doc, XPathConstants.NODESET);
     }
 
+    protected static String getQualifiedName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        return StringUtils.isEmpty(prefix) ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    protected static Optional<String> findNamedAttribute(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String localName = reader.getAttributeLocalName(i);
+            if (name.equals(StringUtils.isEmpty(prefix) ? localName : prefix + ":" + localName)) {
+                return Optional.of(reader.getAttributeValue(i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads the element the reader is positioned at, including all its children, into a detached DOM element of the
+     * given document. Afterwards the reader is positioned at the end of the element. This allows to evaluate single
+     * elements of a large file with the DOM helpers without holding the whole document in memory.
+     */
+    protected static Element readElement(XMLStreamReader reader, Document owner) throws XMLStreamException {
+        Element element = createElement(reader, owner);
+        Node current = element;
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    Element child = createElement(reader, owner);
+                    current.appendChild(child);
+                    current = child;
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    current = current.getParentNode();
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    // the reader may split one text node into several events
+                    Node last = current.getLastChild();
+                    if (last != null && last.getNodeType() == Node.TEXT_NODE) {
+                        ((Text) last).appendData(reader.getText());
+                    } else {
+                        current.appendChild(owner.createTextNode(reader.getText()));
+                    }
+                    break;
+                case XMLStreamConstants.CDATA:
+                    current.appendChild(owner.createCDATASection(reader.getText()));
+                    break;
+                default:
+                    // comments and processing instructions are not evaluated
+            }
+        }
+        return element;
+    }
+
+    private static Element createElement(XMLStreamReader reader, Document owner) {
+        Element element = owner.createElement(getQualifiedName(reader));
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String localName = reader.getAttributeLocalName(i);
+            element.setAttribute(StringUtils.isEmpty(prefix) ? localName : prefix + ":" + localName,
+                    reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
     protected Set<String> nodeListToStringSet(NodeList nodes) {
         Set<String> strings = Sets.newHashSet();
         for (int i = 0; i < nodes.getLength(); i++) {
@@ -28,11 +28,16 @@ import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoRequestStatus
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseNameWithText;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 
+import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.xpath.XPathExpressionException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -42,6 +47,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
 import static org.eclipse.sw360.datahandler.common.CommonUtils.closeQuietly;
@@ -61,8 +67,30 @@ public class CLIParser extends AbstractCLIParser {
     private static final String CLI_ROOT_XPATH = "/ComponentLicenseInformation";
     private static final String CLI_ROOT_ELEMENT_NAMESPACE = null;
 
+    private static final String COPYRIGHT_ELEMENT_NAME = "Copyright";
+    private static final String LICENSE_ELEMENT_NAME = "License";
+    private static final String OBLIGATION_ELEMENT_NAME = "Obligation";
+    private static final String PROPERTIES_FILE_PATH = "/sw360.properties";
+    private static final boolean STREAMING_DEFAULT;
+
+    static {
+        Properties props = CommonUtils.loadProperties(CLIParser.class, PROPERTIES_FILE_PATH);
+        STREAMING_DEFAULT = Boolean.parseBoolean(props.getProperty("licenseinfo.cli.parser.streaming", "true"));
+    }
+
+    private final boolean streaming;
+
     public CLIParser(AttachmentConnector attachmentConnector, AttachmentContentProvider attachmentContentProvider) {
+        this(attachmentConnector, attachmentContentProvider, STREAMING_DEFAULT);
+    }
+
+    /**
+     * @param streaming read the file with StAX one top level element at a time instead of building the whole DOM
+     */
+    public CLIParser(AttachmentConnector attachmentConnector, AttachmentContentProvider attachmentContentProvider,
+            boolean streaming) {
         super(attachmentConnector, attachmentContentProvider);
+        this.streaming = streaming;
     }
 
     @Override
@@ -78,72 +106,153 @@ public class CLIParser extends AbstractCLIParser {
     @Override
     public <T> List<LicenseInfoParsingResult> getLicenseInfos(Attachment attachment, User user, T context,
             boolean includeFilesHash) throws TException {
-        return getLicenseInfosDelegated(attachment, user, context, includeFilesHash);
+        return getLicenseInfosAndObligations(attachment, user, context, includeFilesHash).getLicenseInfos();
     }
 
     @Override
     public <T> List<LicenseInfoParsingResult> getLicenseInfos(Attachment attachment, User user, T context)
             throws TException {
-        return getLicenseInfosDelegated(attachment, user, context, false);
+        return getLicenseInfosAndObligations(attachment, user, context, false).getLicenseInfos();
     }
 
     @Override
     public <T> ObligationParsingResult getObligations(Attachment attachment, User user, T context) throws TException {
-        AttachmentContent attachmentContent = attachmentContentProvider.getAttachmentContent(attachment);
-        ObligationParsingResult result = new ObligationParsingResult();
+        return getLicenseInfosAndObligations(attachment, user, context, false).getObligations();
+    }
+
+    @Override
+    public <T> ParsingResults getLicenseInfosAndObligations(Attachment attachment, boolean includeConcludedLicense,
+            User user, T context) throws TException {
+        return getLicenseInfosAndObligations(attachment, user, context, false);
+    }
 
+    private <T> ParsingResults getLicenseInfosAndObligations(Attachment attachment, User user, T context,
+            boolean includeFilesHash) throws TException {
+        AttachmentContent attachmentContent = attachmentContentProvider.getAttachmentContent(attachment);
+        LicenseInfo licenseInfo = new LicenseInfo().setFilenames(Arrays.asList(attachmentContent.getFilename()));
+        LicenseInfoParsingResult licenseResult = new LicenseInfoParsingResult().setLicenseInfo(licenseInfo);
+        ObligationParsingResult obligationResult = new ObligationParsingResult();
         InputStream attachmentStream = null;
 
         try {
             attachmentStream = attachmentConnector.getAttachmentStream(attachmentContent, user, context);
-            Document doc = getDocument(attachmentStream);
-            result.setSha1Hash(getSha1Hash(doc));
-            result.setObligationsAtProject(getObligations(doc));
-            result.setAttachmentContentId(attachment.getAttachmentContentId());
-            result.setStatus(ObligationInfoRequestStatus.SUCCESS);
-        } catch (ParserConfigurationException | IOException | XPathExpressionException | SAXException | SW360Exception e) {
+            CLIContent cli = streaming ? readCLI(attachmentStream, includeFilesHash)
+                    : readCLI(getDocument(attachmentStream), includeFilesHash);
+
+            licenseInfo.setCopyrights(cli.copyrights);
+            if (includeFilesHash) {
+                licenseInfo.setCopyrightsWithFilesHash(cli.copyrightsWithFilesHash);
+            }
+            licenseInfo.setLicenseNamesWithTexts(cli.licenseNamesWithTexts);
+            licenseInfo.setSha1Hash(cli.sha1Hash);
+            licenseInfo.setComponentName(cli.component);
+            licenseResult.setAttachmentContentId(attachment.getAttachmentContentId());
+            licenseResult.setStatus(LicenseInfoRequestStatus.SUCCESS);
+
+            obligationResult.setSha1Hash(cli.sha1Hash);
+            obligationResult.setObligationsAtProject(cli.obligations);
+            obligationResult.setAttachmentContentId(attachment.getAttachmentContentId());
+            obligationResult.setStatus(ObligationInfoRequestStatus.SUCCESS);
+        } catch (ParserConfigurationException | IOException | XPathExpressionException | SAXException
+                | XMLStreamException | SW360Exception e) {
             log.error(e);
-            result.setStatus(ObligationInfoRequestStatus.FAILURE).setMessage("Error while parsing CLI file: " + e.toString());
+            licenseResult.setStatus(LicenseInfoRequestStatus.FAILURE).setMessage("Error while parsing CLI file: " + e.toString());
+            obligationResult.setStatus(ObligationInfoRequestStatus.FAILURE).setMessage("Error while parsing CLI file: " + e.toString());
         } finally {
             closeQuietly(attachmentStream, log);
         }
-        return result;
+        return new ParsingResults(Collections.singletonList(licenseResult), obligationResult);
     }
 
-    private <T> List<LicenseInfoParsingResult> getLicenseInfosDelegated(Attachment attachment, User user, T context, boolean includeFilesHash) throws TException {
-        AttachmentContent attachmentContent = attachmentContentProvider.getAttachmentContent(attachment);
-        LicenseInfo licenseInfo = new LicenseInfo().setFilenames(Arrays.asList(attachmentContent.getFilename()));
-        LicenseInfoParsingResult result = new LicenseInfoParsingResult().setLicenseInfo(licenseInfo);
-        InputStream attachmentStream = null;
+    private static class CLIContent {
+        private String component = "";
+        private String sha1Hash = "";
+        private Set<String> copyrights = new HashSet<>();
+        private Map<String, Set<String>> copyrightsWithFilesHash = new HashMap<>();
+        private Set<LicenseNameWithText> licenseNamesWithTexts = Sets.newHashSet();
+        private List<ObligationAtProject> obligations = Lists.newArrayList();
+    }
+
+    private CLIContent readCLI(Document doc, boolean includeFilesHash) throws XPathExpressionException {
+        CLIContent cli = new CLIContent();
+        if (includeFilesHash) {
+            cli.copyrightsWithFilesHash = getCopyrightsWithFileHash(doc);
+            cli.copyrights = cli.copyrightsWithFilesHash.keySet();
+        } else {
+            cli.copyrights = getCopyrights(doc);
+        }
+        cli.licenseNamesWithTexts = getLicenseNameWithTexts(doc, includeFilesHash);
+        cli.obligations = getObligations(doc);
+        cli.sha1Hash = getSha1Hash(doc);
+        cli.component = getComponent(doc);
+        return cli;
+    }
 
+    /**
+     * Reads the file in a single pass with StAX. Only one top level element is held as DOM at a time, the results
+     * are the same as with {@link #readCLI(Document, boolean)}.
+     */
+    private CLIContent readCLI(InputStream attachmentStream, boolean includeFilesHash) throws XMLStreamException, ParserConfigurationException {
+        CLIContent cli = new CLIContent();
+        Document owner = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(attachmentStream);
         try {
-            attachmentStream = attachmentConnector.getAttachmentStream(attachmentContent, user, context);
-            Document doc = getDocument(attachmentStream);
+            while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) ;
+            if (!reader.isStartElement()) {
+                return cli;
+            }
+            boolean isCLI = CLI_ROOT_ELEMENT_NAME.equals(getQualifiedName(reader));
+            if (isCLI) {
+                cli.sha1Hash = findNamedAttribute(reader, "componentSHA1").orElse("");
+                cli.component = findNamedAttribute(reader, "component").orElse("");
+            }
 
+            // read to the end in any case, so that malformed files fail as with the DOM parser
+            int depth = 1;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = getQualifiedName(reader);
+                    if (!isCLI || depth != 1) {
+                        depth++;
+                    } else if (LICENSE_ELEMENT_NAME.equals(name)) {
+                        Element license = readElement(reader, owner);
+                        cli.licenseNamesWithTexts.add(includeFilesHash ? getLicenseNameWithTextFromLicenseNodeAndFileHash(license)
+                                : getLicenseNameWithTextFromLicenseNode(license));
+                    } else if (COPYRIGHT_ELEMENT_NAME.equals(name)) {
+                        readCopyright(readElement(reader, owner), cli, includeFilesHash);
+                    } else if (OBLIGATION_ELEMENT_NAME.equals(name)) {
+                        cli.obligations.add(getObligationFromObligationNode(readElement(reader, owner)));
+                    } else {
+                        depth++;
+                    }
+                }
+            }
             if (includeFilesHash) {
-                Map<String, Set<String>> copyrightsWithFileHash = getCopyrightsWithFileHash(doc);
-                licenseInfo.setCopyrights(copyrightsWithFileHash.keySet());
-                licenseInfo.setCopyrightsWithFilesHash(copyrightsWithFileHash);
-            } else {
-                Set<String> copyrights = getCopyrights(doc);
-                licenseInfo.setCopyrights(copyrights);
+                cli.copyrights = cli.copyrightsWithFilesHash.keySet();
             }
-
-            licenseInfo.setLicenseNamesWithTexts(getLicenseNameWithTexts(doc, includeFilesHash));
-
-            licenseInfo.setSha1Hash(getSha1Hash(doc));
-            licenseInfo.setComponentName(getComponent(doc));
-
-            result.setAttachmentContentId(attachment.getAttachmentContentId());
-            result.setStatus(LicenseInfoRequestStatus.SUCCESS);
-        } catch (ParserConfigurationException | IOException | XPathExpressionException | SAXException | SW360Exception e) {
-            log.error(e);
-            result.setStatus(LicenseInfoRequestStatus.FAILURE).setMessage("Error while parsing CLI file: " + e.toString());
+            return cli;
         } finally {
-            closeQuietly(attachmentStream, log);
+            reader.close();
+        }
+    }
+
+    private void readCopyright(Element copyright, CLIContent cli, boolean includeFilesHash) {
+        if (includeFilesHash) {
+            cli.copyrightsWithFilesHash.putAll(getCopyrightWithFileHash(copyright));
+            return;
+        }
+        NodeList children = copyright.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE && LICENSE_CONTENT_ELEMENT_NAME.equals(child.getNodeName())) {
+                cli.copyrights.add(normalizeEscapedXhtml(child));
+            }
         }
-        return Collections.singletonList(result);
     }
+
     private List<ObligationAtProject> getObligations(Document doc) throws XPathExpressionException {
         NodeList obligationNodes = getNodeListByXpath(doc, OBLIGATIONS_XPATH);
         return nodeListToObligationList(obligationNodes);
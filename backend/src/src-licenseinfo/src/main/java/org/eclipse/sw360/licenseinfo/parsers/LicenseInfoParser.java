@@ -54,4 +54,31 @@ public abstract class LicenseInfoParser {
     public <T> ObligationParsingResult getObligations(Attachment attachment, User user, T context) throws TException {
         return new ObligationParsingResult().setStatus(ObligationInfoRequestStatus.NO_APPLICABLE_SOURCE);
     }
+
+    /**
+     * Returns the license infos and the obligations of the attachment. Parsers which can extract both from the same
+     * document should override this to read the attachment only once.
+     */
+    public <T> ParsingResults getLicenseInfosAndObligations(Attachment attachment, boolean includeConcludedLicense,
+            User user, T context) throws TException {
+        return new ParsingResults(getLicenseInfos(attachment, user, context), getObligations(attachment, user, context));
+    }
+
+    public static class ParsingResults {
+        private final List<LicenseInfoParsingResult> licenseInfos;
+        private final ObligationParsingResult obligations;
+
+        public ParsingResults(List<LicenseInfoParsingResult> licenseInfos, ObligationParsingResult obligations) {
+            this.licenseInfos = licenseInfos;
+            this.obligations = obligations;
+        }
+
+        public List<LicenseInfoParsingResult> getLicenseInfos() {
+            return licenseInfos;
+        }
+
+        public ObligationParsingResult getObligations() {
+            return obligations;
+        }
+    }
 }
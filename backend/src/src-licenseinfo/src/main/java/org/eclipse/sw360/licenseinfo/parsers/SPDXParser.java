@@ -69,6 +69,13 @@ public class SPDXParser extends LicenseInfoParser {
         return Collections.singletonList(getLicenseInfo(attachment, includeConcludedLicense, user, context));
     }
 
+    @Override
+    public <T> ParsingResults getLicenseInfosAndObligations(Attachment attachment, boolean includeConcludedLicense,
+            User user, T context) throws TException {
+        return new ParsingResults(getLicenseInfosIncludeConcludedLicense(attachment, includeConcludedLicense, user, context),
+                getObligations(attachment, user, context));
+    }
+
     public <T> LicenseInfoParsingResult getLicenseInfo(Attachment attachment, boolean includeConcludedLicense, User user,
             T context) throws TException {
         AttachmentContent attachmentContent = attachmentContentProvider.getAttachmentContent(attachment);
@@ -82,11 +82,11 @@ public class SPDXParserTools {
     private static final String SPDX_HAS_FILE = "hasFile";
     private static final String SPDX_DESCRIBES_PACKAGE = "describesPackage"; // old property name (pre 1.2 spec)
 
-    // Store spdx:License and spdx:ExtractedLicensingInfo index by their URI
-    private static HashMap<String, LicenseNameWithText> uriLicenseMap = new HashMap<String, LicenseNameWithText>();
+    // Store spdx:License and spdx:ExtractedLicensingInfo index by their URI, per thread as documents are parsed in parallel
+    private static final ThreadLocal<HashMap<String, LicenseNameWithText>> uriLicenseMap = ThreadLocal.withInitial(HashMap::new);
 
     // Store spdx:referencesFile index by their nodeID
-    private static HashMap<String, Element> nodeIDFileMap = new HashMap<String, Element>();
+    private static final ThreadLocal<HashMap<String, Element>> nodeIDFileMap = ThreadLocal.withInitial(HashMap::new);
 
     static {
         Properties properties = CommonUtils.loadProperties(SPDXParserTools.class, PROPERTIES_FILE_PATH);
@@ -394,8 +394,8 @@ public class SPDXParserTools {
             if (isNullEmptyOrWhitespace(uri))
                 uri = e.getAttributeNS(RDF_NAMESPACE, RDF_NODEID);
 
-            if (!isNullEmptyOrWhitespace(uri) && uriLicenseMap.containsKey(uri))
-                return uriLicenseMap.get(uri);
+            if (!isNullEmptyOrWhitespace(uri) && uriLicenseMap.get().containsKey(uri))
+                return uriLicenseMap.get().get(uri);
         }
 
         return null;
@@ -408,8 +408,8 @@ public class SPDXParserTools {
         if (node instanceof Element) {
             Element e = (Element) node;
             String uri = e.getAttributeNS(RDF_NAMESPACE, RDF_NODEID);
-            if (!isNullEmptyOrWhitespace(uri) && nodeIDFileMap.containsKey(uri))
-                return nodeIDFileMap.get(uri);
+            if (!isNullEmptyOrWhitespace(uri) && nodeIDFileMap.get().containsKey(uri))
+                return nodeIDFileMap.get().get(uri);
         }
 
         return null;
@@ -613,16 +613,22 @@ public class SPDXParserTools {
         licenseInfo.setCopyrights(new HashSet<>());
         Set<String> concludedLicenseIds = Sets.newHashSet();
 
-        uriLicenseMap = getLicenseTextFromMetadata(doc);
-        nodeIDFileMap = getFileFromMetadata(doc);
+        uriLicenseMap.set(getLicenseTextFromMetadata(doc));
+        nodeIDFileMap.set(getFileFromMetadata(doc));
 
-        for (Node spdxItem : getDocumentDescribes(doc)) {
-            licenseInfo.getLicenseNamesWithTexts()
-                    .addAll(getAllLicenseTexts(spdxItem, USE_LICENSE_INFO_FROM_FILES, includeConcludedLicense));
-            licenseInfo.getCopyrights().addAll(getAllCopyrights(spdxItem).collect(Collectors.toSet()));
-            if (getNodeName(spdxItem).equals(SPDX_PACKAGE)) {
-                concludedLicenseIds.addAll(getAllConcludedLicenseIds(getLicenseConcluded(spdxItem)));
+        try {
+            for (Node spdxItem : getDocumentDescribes(doc)) {
+                licenseInfo.getLicenseNamesWithTexts()
+                        .addAll(getAllLicenseTexts(spdxItem, USE_LICENSE_INFO_FROM_FILES, includeConcludedLicense));
+                licenseInfo.getCopyrights().addAll(getAllCopyrights(spdxItem).collect(Collectors.toSet()));
+                if (getNodeName(spdxItem).equals(SPDX_PACKAGE)) {
+                    concludedLicenseIds.addAll(getAllConcludedLicenseIds(getLicenseConcluded(spdxItem)));
+                }
             }
+        } finally {
+            // do not keep the document alive in pooled threads
+            uriLicenseMap.remove();
+            nodeIDFileMap.remove();
         }
         licenseInfo.setConcludedLicenseIds(concludedLicenseIds);
 
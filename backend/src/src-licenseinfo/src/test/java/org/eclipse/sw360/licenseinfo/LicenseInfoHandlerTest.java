@@ -11,16 +11,25 @@
 package org.eclipse.sw360.licenseinfo;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.apache.thrift.TException;
 import org.eclipse.sw360.datahandler.db.AttachmentDatabaseHandler;
 import org.eclipse.sw360.datahandler.couchdb.AttachmentConnector;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfo;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoParsingResult;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseNameWithText;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.ObligationInfoRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.ObligationParsingResult;
+import org.eclipse.sw360.licenseinfo.outputGenerators.OutputGenerator;
+import org.eclipse.sw360.licenseinfo.parsers.LicenseInfoParser;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.hamcrest.Matchers;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -31,13 +40,44 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class LicenseInfoHandlerTest {
 
+    private static final long TIMEOUT_SECONDS = 10;
+
     private LicenseInfoHandler handler;
 
+    private ExecutorService parsingExecutor;
+
     @Mock
     private AttachmentDatabaseHandler attachmentDatabaseHandler;
 
@@ -56,12 +96,217 @@ public class LicenseInfoHandlerTest {
         handler = new LicenseInfoHandler(attachmentDatabaseHandler, null, null);
     }
 
+    @After
+    public void tearDown() {
+        if (parsingExecutor != null) {
+            parsingExecutor.shutdownNow();
+        }
+    }
+
     @Test(expected = IllegalStateException.class)
     public void testThatAttachmentMustBePartOfTheRelease() throws TException {
         Release release = Mockito.mock(Release.class);
         handler.getLicenseInfoForAttachment(release, "123", true, user);
     }
 
+    @Test
+    public void testThatFailedParsingResultsAreNotServedFromTheCache() throws TException {
+        Attachment attachment = new Attachment("content", "file.xml").setSha1("sha1");
+        Release release = new Release().setId("release").setAttachments(ImmutableSet.of(attachment));
+        LicenseInfoParser parser = Mockito.mock(LicenseInfoParser.class);
+        when(parser.isApplicableTo(any(Attachment.class), any(User.class), anyObject())).thenReturn(true);
+        when(parser.getObligations(any(Attachment.class), any(User.class), anyObject())).thenReturn(
+                new ObligationParsingResult().setStatus(ObligationInfoRequestStatus.FAILURE),
+                new ObligationParsingResult().setStatus(ObligationInfoRequestStatus.SUCCESS));
+        handler.parsers = ImmutableList.of(parser);
+
+        Assert.assertEquals(ObligationInfoRequestStatus.FAILURE,
+                handler.getObligationsForAttachment(release, "content", user).get(0).getStatus());
+        Assert.assertEquals(ObligationInfoRequestStatus.SUCCESS,
+                handler.getObligationsForAttachment(release, "content", user).get(0).getStatus());
+        Assert.assertEquals(ObligationInfoRequestStatus.SUCCESS,
+                handler.getObligationsForAttachment(release, "content", user).get(0).getStatus());
+
+        verify(parser, times(2)).getObligations(any(Attachment.class), any(User.class), anyObject());
+    }
+
+    @Test
+    public void testWriteToTemporaryAttachment() throws TException {
+        OutputGenerator<?> generator = mockGenerator();
+        when(attachmentDatabaseHandler.add(any(AttachmentContent.class)))
+                .thenAnswer(invocation -> ((AttachmentContent) invocation.getArguments()[0]).setId("tmp"));
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        doAnswer(invocation -> {
+            ((InputStream) invocation.getArguments()[1]).transferTo(uploaded);
+            return null;
+        }).when(connector).uploadAttachment(any(AttachmentContent.class), any(InputStream.class));
+
+        String id = handler.writeToTemporaryAttachment(generator,
+                out -> writeQuietly(out, "license info"));
+
+        Assert.assertEquals("tmp", id);
+        Assert.assertEquals("license info", new String(uploaded.toByteArray(), StandardCharsets.UTF_8));
+        verify(attachmentDatabaseHandler).add(new AttachmentContent().setId("tmp").setFilename("licenseinfo.txt")
+                .setContentType("text/plain"));
+        verify(attachmentDatabaseHandler, never()).deleteAttachmentContent(anyString());
+    }
+
+    @Test
+    public void testWriteToTemporaryAttachmentDeletesContentIfUploadFails() throws TException {
+        OutputGenerator<?> generator = mockGenerator();
+        when(attachmentDatabaseHandler.add(any(AttachmentContent.class)))
+                .thenAnswer(invocation -> ((AttachmentContent) invocation.getArguments()[0]).setId("tmp"));
+        doThrow(new SW360Exception("upload failed")).when(connector)
+                .uploadAttachment(any(AttachmentContent.class), any(InputStream.class));
+
+        try {
+            handler.writeToTemporaryAttachment(generator, out -> writeQuietly(out, "license info"));
+            Assert.fail("expected the upload failure to be rethrown");
+        } catch (SW360Exception e) {
+            Assert.assertEquals("upload failed", e.getWhy());
+        }
+        verify(attachmentDatabaseHandler).deleteAttachmentContent("tmp");
+    }
+
+    @Test
+    public void testWriteToTemporaryAttachmentDoesNotCreateContentIfGeneratingFails() throws TException {
+        OutputGenerator<?> generator = mockGenerator();
+
+        try {
+            handler.writeToTemporaryAttachment(generator, out -> {
+                throw new SW360Exception("generating failed");
+            });
+            Assert.fail("expected the generator failure to be rethrown");
+        } catch (SW360Exception e) {
+            Assert.assertEquals("generating failed", e.getWhy());
+        }
+        verify(attachmentDatabaseHandler, never()).add(any(AttachmentContent.class));
+    }
+
+    @Test
+    public void testAttachmentsAreParsedInParallel() throws TException {
+        handler.parsingExecutor = parsingExecutor = Executors.newFixedThreadPool(2);
+        CountDownLatch allParsersStarted = new CountDownLatch(2);
+        Set<String> parsingThreads = ConcurrentHashMap.newKeySet();
+        handler.parsers = ImmutableList.of(mockParser(attachment -> {
+            parsingThreads.add(Thread.currentThread().getName());
+            allParsersStarted.countDown();
+            // only completes if the other attachment is parsed at the same time
+            if (!allParsersStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new SW360Exception("attachments were not parsed in parallel");
+            }
+        }));
+        Map<Release, Map<String, Boolean>> selectedAttachments = ImmutableMap.of(
+                release("r1", "release", "1", "content1"), ImmutableMap.of("content1", false),
+                release("r2", "release", "2", "content2"), ImmutableMap.of("content2", false));
+
+        List<LicenseInfoHandler.AttachmentParsingResults> results = handler.getAllReleaseParsingResults(
+                selectedAttachments, user);
+
+        Assert.assertEquals(ImmutableList.of("content1", "content2"), attachmentContentIds(results));
+        Assert.assertEquals(2, parsingThreads.size());
+    }
+
+    @Test
+    public void testParsingResultsAreOrderedByReleaseAndAttachment() throws TException {
+        handler.parsingExecutor = parsingExecutor = Executors.newFixedThreadPool(4);
+        CountDownLatch otherAttachmentsParsed = new CountDownLatch(3);
+        handler.parsers = ImmutableList.of(mockParser(attachment -> {
+            // the attachment to be returned first is parsed last
+            if (attachment.getAttachmentContentId().equals("a1")) {
+                otherAttachmentsParsed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } else {
+                otherAttachmentsParsed.countDown();
+            }
+        }));
+        Map<Release, Map<String, Boolean>> selectedAttachments = new LinkedHashMap<>();
+        selectedAttachments.put(release("r3", "b", "1", "b2", "b1"), ImmutableMap.of("b2", false, "b1", false));
+        selectedAttachments.put(release("r2", "a", "2", "a2"), ImmutableMap.of("a2", false));
+        selectedAttachments.put(release("r1", "a", "1", "a1"), ImmutableMap.of("a1", false));
+
+        List<LicenseInfoHandler.AttachmentParsingResults> results = handler.getAllReleaseParsingResults(
+                selectedAttachments, user);
+
+        Assert.assertEquals(ImmutableList.of("a1", "a2", "b1", "b2"), attachmentContentIds(results));
+        Assert.assertEquals("a1", results.get(0).obligations.get(0).getMessage());
+        Assert.assertEquals("r1", results.get(0).obligations.get(0).getRelease().getId());
+    }
+
+    @Test
+    public void testParsingIsCancelledAfterTimeout() throws TException, InterruptedException {
+        handler.parsingExecutor = parsingExecutor = Executors.newFixedThreadPool(1);
+        handler.parsingTimeoutMillis = 100;
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        CountDownLatch parserInterrupted = new CountDownLatch(1);
+        handler.parsers = ImmutableList.of(mockParser(attachment -> {
+            try {
+                neverReleased.await();
+            } catch (InterruptedException e) {
+                parserInterrupted.countDown();
+                throw e;
+            }
+        }));
+        Map<Release, Map<String, Boolean>> selectedAttachments = ImmutableMap.of(
+                release("r1", "release", "1", "content1"), ImmutableMap.of("content1", false),
+                release("r2", "release", "2", "content2"), ImmutableMap.of("content2", false));
+
+        try {
+            handler.getAllReleaseParsingResults(selectedAttachments, user);
+            Assert.fail("expected the parsing to time out");
+        } catch (SW360Exception e) {
+            Assert.assertEquals("Parsing of 2 attachments did not finish within 100 ms", e.getWhy());
+        }
+        Assert.assertTrue(parserInterrupted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private interface ParsingAction {
+        void run(Attachment attachment) throws Exception;
+    }
+
+    /**
+     * Returns a parser applicable to all attachments, which runs the given action and returns no license infos and
+     * one successful obligation result whose message is the attachment content id
+     */
+    private static LicenseInfoParser mockParser(ParsingAction action) throws TException {
+        LicenseInfoParser parser = Mockito.mock(LicenseInfoParser.class);
+        when(parser.isApplicableTo(any(Attachment.class), any(User.class), anyObject())).thenReturn(true);
+        when(parser.getLicenseInfosAndObligations(any(Attachment.class), anyBoolean(), any(User.class), anyObject()))
+                .thenAnswer(invocation -> {
+                    Attachment attachment = (Attachment) invocation.getArguments()[0];
+                    action.run(attachment);
+                    return new LicenseInfoParser.ParsingResults(Collections.emptyList(), new ObligationParsingResult()
+                            .setStatus(ObligationInfoRequestStatus.SUCCESS)
+                            .setMessage(attachment.getAttachmentContentId()));
+                });
+        return parser;
+    }
+
+    private static Release release(String id, String name, String version, String... attachmentContentIds) {
+        Set<Attachment> attachments = Arrays.stream(attachmentContentIds)
+                .map(contentId -> new Attachment(contentId, contentId + ".xml").setSha1("sha1-" + contentId))
+                .collect(Collectors.toSet());
+        return new Release().setId(id).setName(name).setVersion(version).setAttachments(attachments);
+    }
+
+    private static List<String> attachmentContentIds(List<LicenseInfoHandler.AttachmentParsingResults> results) {
+        return results.stream().map(result -> result.attachmentContentId).collect(Collectors.toList());
+    }
+
+    private static OutputGenerator<?> mockGenerator() {
+        OutputGenerator<?> generator = Mockito.mock(OutputGenerator.class);
+        when(generator.getOutputType()).thenReturn("txt");
+        when(generator.getOutputMimeType()).thenReturn("text/plain");
+        return generator;
+    }
+
+    private static void writeQuietly(OutputStream out, String text) throws SW360Exception {
+        try {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new SW360Exception(e.getMessage());
+        }
+    }
+
     @Test
     public void testThatEmptyLicensesAreFiltered() {
         LicenseInfoParsingResult emptyResult = new LicenseInfoParsingResult();
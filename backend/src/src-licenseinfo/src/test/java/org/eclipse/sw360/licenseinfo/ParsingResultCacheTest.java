@@ -0,0 +1,170 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.licenseinfo;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfo;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoParsingResult;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.ObligationInfoRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.ObligationParsingResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParsingResultCacheTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final ParsingResultCache.Key KEY = new ParsingResultCache.Key("content", "sha1", true,
+            ParsingResultCache.ResultType.LICENSE_INFO);
+
+    @Test
+    public void testKeyEquality() {
+        assertEquals(KEY, new ParsingResultCache.Key("content", "sha1", true, ParsingResultCache.ResultType.LICENSE_INFO));
+        assertEquals(KEY.hashCode(),
+                new ParsingResultCache.Key("content", "sha1", true, ParsingResultCache.ResultType.LICENSE_INFO).hashCode());
+    }
+
+    @Test
+    public void testGetReturnsCopies() {
+        ParsingResultCache cache = new ParsingResultCache(1024 * 1024, null);
+        LicenseInfoParsingResult result = createResult();
+        cache.put(KEY, Collections.singletonList(result));
+
+        List<LicenseInfoParsingResult> cached = cache.get(KEY);
+        assertEquals(Collections.singletonList(result), cached);
+        assertNotSame(result, cached.get(0));
+
+        cached.get(0).getLicenseInfo().setCopyrights(Collections.emptySet());
+        assertEquals(result, cache.<LicenseInfoParsingResult>get(KEY).get(0));
+    }
+
+    @Test
+    public void testOtherKeysDoNotMatch() {
+        ParsingResultCache cache = new ParsingResultCache(1024 * 1024, null);
+        cache.put(KEY, Collections.singletonList(createResult()));
+
+        assertNull(cache.get(new ParsingResultCache.Key("content", "sha1", false, ParsingResultCache.ResultType.LICENSE_INFO)));
+        assertNull(cache.get(new ParsingResultCache.Key("content", "other", true, ParsingResultCache.ResultType.LICENSE_INFO)));
+        assertNull(cache.get(new ParsingResultCache.Key("content", "sha1", true,
+                ParsingResultCache.ResultType.LICENSE_INFO_WITH_FILE_HASHES)));
+    }
+
+    @Test
+    public void testResultsAreReadFromSpillDirectory() throws Exception {
+        LicenseInfoParsingResult result = createResult();
+        new ParsingResultCache(1024 * 1024, folder.getRoot()).put(KEY, Collections.singletonList(result));
+
+        ParsingResultCache restarted = new ParsingResultCache(1024 * 1024, folder.getRoot());
+        assertEquals(Collections.singletonList(result), restarted.get(KEY));
+
+        restarted.invalidate(KEY);
+        assertNull(new ParsingResultCache(1024 * 1024, folder.getRoot()).get(KEY));
+    }
+
+    @Test
+    public void testEvictedResultsAreReadFromSpillDirectory() {
+        ParsingResultCache cache = new ParsingResultCache(1, folder.getRoot());
+        LicenseInfoParsingResult result = createResult();
+        cache.put(KEY, Collections.singletonList(result));
+
+        assertEquals(Collections.singletonList(result), cache.get(KEY));
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        ParsingResultCache cache = new ParsingResultCache(1024 * 1024, folder.getRoot());
+        LicenseInfoParsingResult failure = createResult().setStatus(LicenseInfoRequestStatus.FAILURE);
+        cache.put(KEY, Arrays.asList(createResult(), failure));
+
+        assertNull(cache.get(KEY));
+        assertNull(new ParsingResultCache(1024 * 1024, folder.getRoot()).get(KEY));
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testObligationsWithoutApplicableSourceAreNotCached() {
+        ParsingResultCache cache = new ParsingResultCache(1024 * 1024, null);
+        ParsingResultCache.Key key = new ParsingResultCache.Key("content", "sha1", false,
+                ParsingResultCache.ResultType.OBLIGATIONS);
+        cache.put(key, Collections.singletonList(
+                new ObligationParsingResult().setStatus(ObligationInfoRequestStatus.NO_APPLICABLE_SOURCE)));
+        assertNull(cache.get(key));
+
+        cache.put(key, Collections.singletonList(new ObligationParsingResult().setStatus(ObligationInfoRequestStatus.SUCCESS)));
+        assertNotNull(cache.get(key));
+    }
+
+    @Test
+    public void testStaleFilesAreDeletedOnStartUp() throws Exception {
+        File oldVersion = folder.newFile("v1-0123abcd.bin");
+        File leftOver = folder.newFile("parsing123.tmp");
+        File unrelated = folder.newFile("unrelated.txt");
+
+        new ParsingResultCache(1024 * 1024, folder.getRoot());
+
+        assertFalse(oldVersion.exists());
+        assertFalse(leftOver.exists());
+        assertTrue(unrelated.exists());
+    }
+
+    @Test
+    public void testSpillDirectoryIsBounded() {
+        ParsingResultCache.Key otherKey = new ParsingResultCache.Key("other", "sha1", true,
+                ParsingResultCache.ResultType.LICENSE_INFO);
+        ParsingResultCache cache = new ParsingResultCache(1, folder.getRoot(), 1);
+        cache.put(KEY, Collections.singletonList(createResult()));
+        assertEquals(0, folder.getRoot().list().length);
+
+        long resultSize = spillFileSize(KEY);
+        cache = new ParsingResultCache(1, folder.getRoot(), resultSize + resultSize / 2);
+        cache.put(KEY, Collections.singletonList(createResult()));
+        File[] files = folder.getRoot().listFiles();
+        assertEquals(1, files.length);
+        assertTrue(files[0].setLastModified(System.currentTimeMillis() - 60_000));
+
+        cache.put(otherKey, Collections.singletonList(createResult()));
+        assertEquals(1, folder.getRoot().list().length);
+        assertNull(cache.get(KEY));
+        assertNotNull(cache.get(otherKey));
+    }
+
+    private long spillFileSize(ParsingResultCache.Key key) {
+        ParsingResultCache unbounded = new ParsingResultCache(1, folder.getRoot());
+        unbounded.put(key, Collections.singletonList(createResult()));
+        File[] files = folder.getRoot().listFiles();
+        assertEquals(1, files.length);
+        long size = files[0].length();
+        unbounded.invalidate(key);
+        return size;
+    }
+
+    private static LicenseInfoParsingResult createResult() {
+        return new LicenseInfoParsingResult()
+                .setStatus(LicenseInfoRequestStatus.SUCCESS)
+                .setAttachmentContentId("content")
+                .setLicenseInfo(new LicenseInfo().setCopyrights(ImmutableSet.of("Copyright 2021 Foo")));
+    }
+}
@@ -11,6 +11,7 @@
  */
 package org.eclipse.sw360.licenseinfo.outputGenerators;
 
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.*;
 import org.eclipse.sw360.datahandler.thrift.projects.ObligationStatusInfo;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
@@ -25,14 +26,18 @@ import org.junit.Test;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.BinaryOperator;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.fail;
 
 public class XhtmlGeneratorTest {
     static Collection<LicenseInfoParsingResult> lipresults;
@@ -51,6 +56,7 @@ public class XhtmlGeneratorTest {
     static Document documentEmpty;
 
     static XhtmlGenerator xhtmlGenerator;
+    static Project project;
 
     static String cr = "cr";
     static String cr1 = "cr1";
@@ -129,6 +135,7 @@ public class XhtmlGeneratorTest {
         xhtmlGenerator = new XhtmlGenerator(OutputFormatVariant.DISCLOSURE, "License Disclosure as XHTML");
 
         Project p = new Project();
+        project = p;
         p.setName("myproject");
         p.setVersion("1.0");
         p.setLicenseInfoHeaderText("Lorem");
@@ -193,6 +200,35 @@ public class XhtmlGeneratorTest {
                 .setVersion(version);
     }
 
+    @Test
+    public void testWriteOutputFile() throws Exception {
+        boolean[] closed = {false};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        xhtmlGenerator.writeOutputFile(lipresults2, project, new HashSet<>(), null, Collections.emptyMap(),
+                Collections.emptyMap(), "", out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8.name()), is(xmlString2));
+        assertThat(closed[0], is(false));
+    }
+
+    @Test
+    public void testWriteOutputFileFailsWithoutWritingErrorText() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            xhtmlGenerator.writeOutputFile(Collections.singletonList(null), project, new HashSet<>(), null,
+                    Collections.emptyMap(), Collections.emptyMap(), "", out);
+            fail("Expected an SW360Exception");
+        } catch (SW360Exception e) {
+            assertThat(e.getWhy(), containsString("Could not generate xhtml license info file"));
+        }
+        assertThat(out.toString(StandardCharsets.UTF_8.name()), not(containsString("could not be generated")));
+    }
+
     @Test
     public void testGenerateOutputFile_EmptyCopyrightAndLicense() throws Exception {
         String copyrights = findCopyrights(documentEmpty, releaseNameString(vendorName, releaseName, version1));
@@ -154,6 +154,32 @@ public class CLIParserTest {
         assertThat(oblRes.getObligationsAtProject().get(1).getLicenseIDs(), containsInAnyOrder("GPL-1.0+", "GPL-2.0", "GPL-2.0+", "LGPL-2.1+"));
     }
 
+    @Test
+    public void testStreamingAndDomParsingGiveSameResults() throws Exception {
+        Attachment cliAttachment = new Attachment("A1", "a.xml");
+        when(connector.getAttachmentStream(anyObject(), anyObject(), anyObject()))
+                .thenAnswer(invocation -> new ReaderInputStream(new StringReader(CLI_TESTFILE)));
+        CLIParser streamingParser = new CLIParser(connector, attachment -> content, true);
+        CLIParser domParser = new CLIParser(connector, attachment -> content, false);
+
+        assertThat(streamingParser.getLicenseInfos(cliAttachment, new User(), new Project()),
+                equalTo(domParser.getLicenseInfos(cliAttachment, new User(), new Project())));
+        assertThat(streamingParser.getLicenseInfos(cliAttachment, new User(), new Project(), true),
+                equalTo(domParser.getLicenseInfos(cliAttachment, new User(), new Project(), true)));
+        assertThat(streamingParser.getObligations(cliAttachment, new User(), new Project()),
+                equalTo(domParser.getObligations(cliAttachment, new User(), new Project())));
+    }
+
+    @Test
+    public void testStreamingFailsOnMalformedXML() throws Exception {
+        Attachment cliAttachment = new Attachment("A1", "a.xml");
+        when(connector.getAttachmentStream(anyObject(), anyObject(), anyObject())).thenReturn(new ReaderInputStream(new StringReader(CLI_TESTFILE.replaceAll("</ComponentLicenseInformation>", ""))));
+        CLIParser streamingParser = new CLIParser(connector, attachment -> content, true);
+        LicenseInfoParsingResult res = streamingParser.getLicenseInfos(cliAttachment, new User(), new Project()).get(0);
+        assertThat(res.getStatus(), is(LicenseInfoRequestStatus.FAILURE));
+        assertThat(res.getLicenseInfo().getFilenames(), contains("a.xml"));
+    }
+
     @Test
     public void testGetCLIFailsOnMalformedXML() throws Exception {
         Attachment cliAttachment = new Attachment("A1", "a.xml");
@@ -21,6 +21,7 @@ import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.RequestSummary;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
+import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.components.ReleaseClearingStatusData;
 import org.eclipse.sw360.datahandler.thrift.projects.ClearingRequest;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectProjectRelationship;
@@ -62,16 +63,19 @@ public class ProjectHandler implements ProjectService.Iface {
     ProjectHandler() throws IOException {
         handler = new ProjectDatabaseHandler(DatabaseSettings.getConfiguredClient(), DatabaseSettings.COUCH_DB_DATABASE, DatabaseSettings.COUCH_DB_ATTACHMENTS);
         searchHandler = new ProjectSearchHandler(DatabaseSettings.getConfiguredHttpClient(), DatabaseSettings.getConfiguredClient(), DatabaseSettings.COUCH_DB_DATABASE);
+        handler.loadDependencyGraphIndex();
     }
 
     ProjectHandler(Supplier<CloudantClient> httpClient, String dbName, String attchmntDbName) throws IOException {
         handler = new ProjectDatabaseHandler(httpClient, dbName, attchmntDbName);
         searchHandler = new ProjectSearchHandler(DatabaseSettings.getConfiguredHttpClient(), DatabaseSettings.getConfiguredClient(), dbName);
+        handler.loadDependencyGraphIndex();
     }
 
     ProjectHandler(Supplier<CloudantClient> cClient,Supplier<HttpClient> hClient, String dbName, String changeLogsDbName, String attchmntDbName) throws IOException {
         handler = new ProjectDatabaseHandler(cClient, dbName, changeLogsDbName, attchmntDbName);
         searchHandler = new ProjectSearchHandler(hClient, cClient, dbName);
+        handler.loadDependencyGraphIndex();
     }
 
     /////////////////////
@@ -88,6 +92,14 @@ public class ProjectHandler implements ProjectService.Iface {
         return searchHandler.search(text, subQueryRestrictions, user);
     }
 
+    @Override
+    public Map<PaginationData, List<Project>> refineSearchWithPagination(String text,
+            Map<String, Set<String>> subQueryRestrictions, User user, PaginationData pageData) throws TException {
+        assertUser(user);
+        assertNotNull(pageData);
+        return searchHandler.search(text, subQueryRestrictions, user, pageData);
+    }
+
     @Override
     public List<Project> getMyProjects(User user, Map<String, Boolean> userRoles) throws TException {
         assertNotNull(user);
@@ -328,6 +340,22 @@ public class ProjectHandler implements ProjectService.Iface {
         return handler.getReleaseClearingStatuses(projectId, user);
     }
 
+    @Override
+    public Set<String> getReleaseIdsOfProjectTree(String projectId, User user) throws SW360Exception {
+        assertId(projectId);
+        assertUser(user);
+        return handler.getReleaseIdsOfProjectTree(projectId, user);
+    }
+
+    @Override
+    public Map<PaginationData, List<Release>> getReleasesOfProjectWithPagination(String projectId, boolean transitive,
+            User user, PaginationData pageData) throws SW360Exception {
+        assertId(projectId);
+        assertUser(user);
+        assertNotNull(pageData);
+        return handler.getReleasesOfProject(projectId, transitive, user, pageData);
+    }
+
     @Override
     public RequestStatus removeAttachmentFromProject(String projectId, User user, String attachmentContentId) throws TException {
         Project projectByIdForEdit = getProjectByIdForEdit(projectId, user);
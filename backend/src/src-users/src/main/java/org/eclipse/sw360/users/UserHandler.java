@@ -82,6 +82,17 @@ public class UserHandler implements UserService.Iface {
         return user;
     }
 
+    @Override
+    public List<User> getByEmails(Set<String> emails) throws TException {
+        assertNotNull(emails);
+        return db.getByEmails(emails);
+    }
+
+    @Override
+    public String getUsersUpdateSequence() {
+        return db.getUpdateSequence();
+    }
+
     @Override
     public User getByApiToken(String token) throws TException {
         assertNotEmpty(token);
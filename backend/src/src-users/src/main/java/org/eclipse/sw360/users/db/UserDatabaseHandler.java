@@ -90,6 +90,14 @@ public class UserDatabaseHandler {
                 ;
     }
 
+    public List<User> getByEmails(Set<String> emails) {
+        return repository.getByEmails(emails);
+    }
+
+    public String getUpdateSequence() {
+        return db.getUpdateSequence();
+    }
+
     public User getUser(String id) {
         return db.get(User.class, id);
     }
@@ -64,6 +64,10 @@ public class VendorDatabaseHandler {
         return repository.getAll();
     }
 
+    public List<Vendor> getVendorsByFullnames(Set<String> fullnames) {
+        return repository.getByFullnames(fullnames);
+    }
+
     public String addVendor(Vendor vendor) throws TException {
         prepareVendor(vendor);
         repository.add(vendor);
@@ -63,6 +63,12 @@ public class VendorHandler implements VendorService.Iface {
         return vendorDatabaseHandler.getAllVendors();
     }
 
+    @Override
+    public List<Vendor> getVendorsByFullnames(Set<String> fullnames) throws TException {
+        assertNotNull(fullnames);
+        return vendorDatabaseHandler.getVendorsByFullnames(fullnames);
+    }
+
     @Override
     public Set<String> getAllVendorNames() throws TException {
 
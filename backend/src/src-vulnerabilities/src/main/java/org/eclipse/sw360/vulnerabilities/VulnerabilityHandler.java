@@ -11,11 +11,13 @@
  */
 package org.eclipse.sw360.vulnerabilities;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.common.SW360Assert;
@@ -31,6 +33,7 @@ import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.*;
 import org.eclipse.sw360.vulnerabilities.common.VulnerabilityMapper;
+import org.eclipse.sw360.vulnerabilities.db.ReleaseVulnerabilityIndex;
 import org.eclipse.sw360.vulnerabilities.db.VulnerabilityDatabaseHandler;
 
 import org.apache.commons.lang.StringUtils;
@@ -41,6 +44,7 @@ import org.apache.thrift.TException;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -56,11 +60,16 @@ public class VulnerabilityHandler implements VulnerabilityService.Iface {
     private final VulnerabilityDatabaseHandler dbHandler;
     private final ComponentDatabaseHandler compHandler;
     private final ProjectDatabaseHandler projectDatabaseHandler;
+    private final DatabaseConnectorCloudant vmDatabaseConnector;
 
     public VulnerabilityHandler() throws IOException, SW360Exception {
         dbHandler = new VulnerabilityDatabaseHandler();
         compHandler = new ComponentDatabaseHandler(DatabaseSettings.getConfiguredClient(), DatabaseSettings.COUCH_DB_DATABASE, DatabaseSettings.COUCH_DB_ATTACHMENTS);
         projectDatabaseHandler = new ProjectDatabaseHandler(DatabaseSettings.getConfiguredClient(), DatabaseSettings.COUCH_DB_DATABASE, DatabaseSettings.COUCH_DB_ATTACHMENTS);
+        vmDatabaseConnector = new DatabaseConnectorCloudant(DatabaseSettings.getConfiguredClient(), DatabaseSettings.COUCH_DB_VM);
+        // the project dependency graph index and the release vulnerability index used by
+        // getVulnerabilitiesOfProjectWithPagination are loaded on its first call, so that the service starts without
+        // reading all documents
     }
 
     @Override
@@ -128,6 +137,137 @@ public class VulnerabilityHandler implements VulnerabilityService.Iface {
         return getVulsByReleaseIdsWithoutIncorrect(releaseIds, user);
     }
 
+    @Override
+    public Map<PaginationData, List<VulnerabilityDTO>> getVulnerabilitiesOfProjectWithPagination(String projectId,
+            boolean transitive, Set<String> priorities, Set<VulnerabilityRatingForProject> projectRelevances, User user,
+            PaginationData pageData) throws TException {
+        if (!PermissionUtils.isUserAtLeast(UserGroup.USER, user)) {
+            throw new SW360Exception("Access Denied").setErrorCode(403);
+        }
+        SW360Assert.assertNotNull(pageData);
+        Set<String> releaseIds = transitive ? projectDatabaseHandler.getReleaseIdsOfProjectTree(projectId, user)
+                : CommonUtils.nullToEmptyMap(projectDatabaseHandler.getProjectById(projectId, user).getReleaseIdToUsage()).keySet();
+
+        Map<String, Map<String, List<VulnerabilityCheckStatus>>> statusHistories = projectDatabaseHandler
+                .getProjectVulnerabilityRatingByProjectId(projectId).stream()
+                .findFirst()
+                .map(ProjectVulnerabilityRating::getVulnerabilityIdToReleaseIdToStatus)
+                .orElseGet(HashMap::new);
+        Function<ReleaseVulnerabilityIndex.Entry, VulnerabilityRatingForProject> projectRelevance =
+                entry -> getProjectRelevance(getCurrentCheckStatus(statusHistories, entry.getExternalId(), entry.getReleaseId()));
+
+        // filter, sort and page the lightweight index entries, so that only the documents of the page are read
+        List<ReleaseVulnerabilityIndex.Entry> entries = filterAndSortEntries(
+                getReleaseVulnerabilityIndex().getEntries(releaseIds), priorities, projectRelevances, projectRelevance,
+                pageData);
+        List<ReleaseVulnerabilityIndex.Entry> pageEntries = getPage(entries, pageData);
+
+        PaginationData resultPageData = pageData.deepCopy().setTotalRowCount(entries.size());
+        return Collections.singletonMap(resultPageData, getDtosFromEntries(pageEntries, statusHistories, user));
+    }
+
+    private ReleaseVulnerabilityIndex getReleaseVulnerabilityIndex() throws SW360Exception {
+        return ReleaseVulnerabilityIndex.getInstance(vmDatabaseConnector);
+    }
+
+    @VisibleForTesting
+    static List<ReleaseVulnerabilityIndex.Entry> filterAndSortEntries(List<ReleaseVulnerabilityIndex.Entry> entries,
+            Set<String> priorities, Set<VulnerabilityRatingForProject> projectRelevances,
+            Function<ReleaseVulnerabilityIndex.Entry, VulnerabilityRatingForProject> projectRelevance,
+            PaginationData pageData) throws SW360Exception {
+        return entries.stream()
+                .filter(entry -> CommonUtils.isNullOrEmptyCollection(priorities) || priorities.contains(entry.getPriority()))
+                .filter(entry -> CommonUtils.isNullOrEmptyCollection(projectRelevances) || projectRelevances.contains(projectRelevance.apply(entry)))
+                .sorted(getEntryComparator(pageData, projectRelevance))
+                .collect(Collectors.toList());
+    }
+
+    @VisibleForTesting
+    static <T> List<T> getPage(List<T> sortedElements, PaginationData pageData) {
+        int start = pageData.isSetDisplayStart() ? Math.max(pageData.getDisplayStart(), 0) : 0;
+        int rowsPerPage = pageData.isSetRowsPerPage() ? pageData.getRowsPerPage() : -1;
+        return sortedElements.stream()
+                .skip(start)
+                .limit(rowsPerPage < 0 ? Long.MAX_VALUE : rowsPerPage)
+                .collect(Collectors.toList());
+    }
+
+    private static Comparator<ReleaseVulnerabilityIndex.Entry> getEntryComparator(PaginationData pageData,
+            Function<ReleaseVulnerabilityIndex.Entry, VulnerabilityRatingForProject> projectRelevance) throws SW360Exception {
+        if (!pageData.isSetSortColumnNumber()) {
+            return withTieBreak(Comparator.comparing(ReleaseVulnerabilityIndex.Entry::getCvss,
+                    Comparator.nullsFirst(Comparator.<Double>naturalOrder())).reversed());
+        }
+        VulnerabilityDTO._Fields sortField = VulnerabilityDTO._Fields.findByThriftId(pageData.getSortColumnNumber());
+        Comparator<ReleaseVulnerabilityIndex.Entry> comparator;
+        if (VulnerabilityDTO._Fields.EXTERNAL_ID.equals(sortField)) {
+            comparator = Comparator.comparing(ReleaseVulnerabilityIndex.Entry::getExternalId, Comparator.nullsFirst(Comparator.naturalOrder()));
+        } else if (VulnerabilityDTO._Fields.TITLE.equals(sortField)) {
+            comparator = Comparator.comparing(ReleaseVulnerabilityIndex.Entry::getTitle, Comparator.nullsFirst(Comparator.naturalOrder()));
+        } else if (VulnerabilityDTO._Fields.PRIORITY.equals(sortField)) {
+            comparator = Comparator.comparing(ReleaseVulnerabilityIndex.Entry::getPriority, Comparator.nullsFirst(Comparator.naturalOrder()));
+        } else if (VulnerabilityDTO._Fields.CVSS.equals(sortField)) {
+            comparator = Comparator.comparing(ReleaseVulnerabilityIndex.Entry::getCvss, Comparator.nullsFirst(Comparator.naturalOrder()));
+        } else if (VulnerabilityDTO._Fields.PROJECT_RELEVANCE.equals(sortField)) {
+            comparator = Comparator.comparing(entry -> projectRelevance.apply(entry).toString());
+        } else {
+            throw new SW360Exception("Vulnerabilities cannot be sorted by column " + pageData.getSortColumnNumber()).setErrorCode(400);
+        }
+        return withTieBreak(!pageData.isSetAscending() || pageData.isAscending() ? comparator : comparator.reversed());
+    }
+
+    // entries which are equal in the sort column are ordered by vulnerability and release, so that pages do not overlap
+    private static Comparator<ReleaseVulnerabilityIndex.Entry> withTieBreak(Comparator<ReleaseVulnerabilityIndex.Entry> comparator) {
+        return comparator
+                .thenComparing(ReleaseVulnerabilityIndex.Entry::getExternalId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(ReleaseVulnerabilityIndex.Entry::getReleaseId);
+    }
+
+    private static VulnerabilityCheckStatus getCurrentCheckStatus(Map<String, Map<String, List<VulnerabilityCheckStatus>>> statusHistories,
+            String externalId, String releaseId) {
+        List<VulnerabilityCheckStatus> statusHistory = statusHistories.getOrDefault(externalId, Collections.emptyMap()).get(releaseId);
+        return CommonUtils.isNotEmpty(statusHistory) ? statusHistory.get(statusHistory.size() - 1) : null;
+    }
+
+    private static VulnerabilityRatingForProject getProjectRelevance(VulnerabilityCheckStatus checkStatus) {
+        return checkStatus != null ? checkStatus.getVulnerabilityRating() : VulnerabilityRatingForProject.NOT_CHECKED;
+    }
+
+    private List<VulnerabilityDTO> getDtosFromEntries(List<ReleaseVulnerabilityIndex.Entry> entries,
+            Map<String, Map<String, List<VulnerabilityCheckStatus>>> statusHistories, User user) {
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<String> relationIds = entries.stream().map(ReleaseVulnerabilityIndex.Entry::getRelationId).collect(Collectors.toSet());
+        Set<String> vulnerabilityIds = entries.stream().map(ReleaseVulnerabilityIndex.Entry::getVulnerabilityId).collect(Collectors.toSet());
+        Set<String> releaseIds = entries.stream().map(ReleaseVulnerabilityIndex.Entry::getReleaseId).collect(Collectors.toSet());
+
+        Map<String, ReleaseVulnerabilityRelation> relationMap = ThriftUtils.getIdMap(dbHandler.getByIds(ReleaseVulnerabilityRelation.class, relationIds));
+        Map<String, Vulnerability> vulnerabilityMap = ThriftUtils.getIdMap(dbHandler.getByIds(Vulnerability.class, vulnerabilityIds));
+
+        // the releases of the page are read at once, their components only if a release has no name
+        LoadingCache<String, Release> releaseCache = makeReleaseCache(user);
+        releaseCache.putAll(ThriftUtils.getIdMap(compHandler.getReleases(releaseIds)));
+        LoadingCache<String, Component> componentCache = makeComponentCache(user);
+
+        List<VulnerabilityDTO> dtos = new ArrayList<>();
+        for (ReleaseVulnerabilityIndex.Entry entry : entries) {
+            ReleaseVulnerabilityRelation relation = relationMap.get(entry.getRelationId());
+            Vulnerability vulnerability = vulnerabilityMap.get(entry.getVulnerabilityId());
+            if (relation == null || vulnerability == null) {
+                // deleted after the index has been updated the last time
+                continue;
+            }
+            VulnerabilityDTO dto = enrichVulnerabilityDTO(getDtoFromRelation(relation, vulnerability), componentCache, releaseCache);
+            VulnerabilityCheckStatus checkStatus = getCurrentCheckStatus(statusHistories, dto.getExternalId(), dto.getIntReleaseId());
+            dto.setProjectRelevance(getProjectRelevance(checkStatus).toString());
+            dto.setComment(checkStatus != null ? checkStatus.getComment() : "");
+            dto.setAction(checkStatus != null ? checkStatus.getProjectAction() : "");
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
     private List<VulnerabilityDTO> getVulsByReleaseIds(Collection<String> releaseIds, User user) {
         List<ReleaseVulnerabilityRelation> relations = getReleaseVulnerabilityRelationByReleaseIds(releaseIds);
         return getDtosFromRelations(relations, user);
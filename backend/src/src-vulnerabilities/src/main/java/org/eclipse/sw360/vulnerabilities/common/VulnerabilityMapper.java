@@ -58,7 +58,7 @@ public class VulnerabilityMapper {
 
     public static VulnerabilityDTO createVulnerabilityDTO(Vulnerability element){
         if (element != null){
-            return new VulnerabilityDTO(element.getExternalId())
+            VulnerabilityDTO dto = new VulnerabilityDTO(element.getExternalId())
                     .setId(element.getId())
                     .setTitle(element.getTitle())
                     .setDescription(element.getDescription())
@@ -70,6 +70,10 @@ public class VulnerabilityMapper {
                     .setLegalNotice(element.getLegalNotice())
                     .setCveReferences(element.getCveReferences())
                     .setReferences(element.getReferences());
+            if (element.isIsSetCvss()) {
+                dto.setCvss(element.getCvss());
+            }
+            return dto;
         }
         return null;
 
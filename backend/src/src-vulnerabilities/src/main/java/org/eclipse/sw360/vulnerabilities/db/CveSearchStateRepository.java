@@ -0,0 +1,28 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.vulnerabilities.db;
+
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseRepository;
+import org.eclipse.sw360.datahandler.thrift.cvesearch.CveSearchState;
+import org.ektorp.support.View;
+
+/**
+ * CRUD access for the CveSearchState class
+ */
+@View(name = "all", map = "function(doc) { if (doc.type == 'cvesearchstate') emit(null, doc._id) }")
+public class CveSearchStateRepository extends DatabaseRepository<CveSearchState> {
+
+    public CveSearchStateRepository(DatabaseConnector db) {
+        super(CveSearchState.class, db);
+
+        initStandardDesignDocument();
+    }
+}
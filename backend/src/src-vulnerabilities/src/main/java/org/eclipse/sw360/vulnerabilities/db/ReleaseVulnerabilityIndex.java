@@ -0,0 +1,304 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.vulnerabilities.db;
+
+import com.cloudant.client.api.model.ChangesResult;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.sw360.datahandler.cloudantclient.ChangesFollowerTracker;
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.vulnerabilities.ReleaseVulnerabilityRelation;
+import org.eclipse.sw360.datahandler.thrift.vulnerabilities.Vulnerability;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the vulnerabilities of releases, holding for each release the relations to its vulnerabilities
+ * together with the few vulnerability fields needed to filter and sort them (external id, title, priority and cvss).
+ *
+ * Combined with the project dependency graph index, it answers which vulnerabilities affect a whole project tree
+ * without reading any relation or vulnerability document. Like that index, it is loaded once from the database and is
+ * afterwards kept up to date by polling the CouchDB _changes feed, so it follows new, changed and deleted relations
+ * and vulnerabilities without further bookkeeping by the writers. The feed is filtered in the database to these two
+ * document types. Reads can lag behind the database by up to the poll interval of 5 seconds.
+ *
+ * There is one index per database which is shared by all handlers using it. If the initial load fails, no index is
+ * kept and the next access tries to load it again.
+ */
+public class ReleaseVulnerabilityIndex {
+
+    private static final Logger log = LogManager.getLogger(ReleaseVulnerabilityIndex.class);
+
+    private static final long CHANGES_POLL_INTERVAL_SECONDS = 5;
+    private static final int CHANGES_BATCH_SIZE = 1000;
+    private static final String TYPE_VULNERABILITY = "vulnerability";
+    private static final String TYPE_RELATION = "releasevulnerabilityrelation";
+    private static final List<String> INDEXED_TYPES = ImmutableList.of(TYPE_VULNERABILITY, TYPE_RELATION);
+
+    private static final Map<String, ReleaseVulnerabilityIndex> INSTANCES = new ConcurrentHashMap<>();
+
+    private final DatabaseConnectorCloudant db;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, IndexedVulnerability> vulnerabilities = new HashMap<>();
+    private final Map<String, IndexedRelation> relations = new HashMap<>();
+    private final Map<String, Set<String>> relationIdsByReleaseId = new HashMap<>();
+
+    private String lastSequence;
+
+    /**
+     * The fields of a vulnerability which are kept in memory
+     */
+    private static class IndexedVulnerability {
+        private final String externalId;
+        private final String title;
+        private final String priority;
+        private final Double cvss;
+
+        private IndexedVulnerability(String externalId, String title, String priority, Double cvss) {
+            this.externalId = externalId;
+            this.title = title;
+            this.priority = priority;
+            this.cvss = cvss;
+        }
+    }
+
+    private static class IndexedRelation {
+        private final String releaseId;
+        private final String vulnerabilityId;
+
+        private IndexedRelation(String releaseId, String vulnerabilityId) {
+            this.releaseId = releaseId;
+            this.vulnerabilityId = vulnerabilityId;
+        }
+    }
+
+    /**
+     * One vulnerability of one release, i.e. one release vulnerability relation
+     */
+    public static class Entry {
+        private final String relationId;
+        private final String releaseId;
+        private final String vulnerabilityId;
+        private final IndexedVulnerability vulnerability;
+
+        private Entry(String relationId, IndexedRelation relation, IndexedVulnerability vulnerability) {
+            this.relationId = relationId;
+            this.releaseId = relation.releaseId;
+            this.vulnerabilityId = relation.vulnerabilityId;
+            this.vulnerability = vulnerability;
+        }
+
+        @VisibleForTesting
+        public Entry(String relationId, String releaseId, String vulnerabilityId, String externalId, String title,
+                String priority, Double cvss) {
+            this(relationId, new IndexedRelation(releaseId, vulnerabilityId),
+                    new IndexedVulnerability(externalId, title, priority, cvss));
+        }
+
+        public String getRelationId() {
+            return relationId;
+        }
+
+        public String getReleaseId() {
+            return releaseId;
+        }
+
+        public String getVulnerabilityId() {
+            return vulnerabilityId;
+        }
+
+        public String getExternalId() {
+            return vulnerability.externalId;
+        }
+
+        public String getTitle() {
+            return vulnerability.title;
+        }
+
+        public String getPriority() {
+            return vulnerability.priority;
+        }
+
+        /**
+         * @return the cvss score, or null if the vulnerability has none
+         */
+        public Double getCvss() {
+            return vulnerability.cvss;
+        }
+    }
+
+    @VisibleForTesting
+    ReleaseVulnerabilityIndex(DatabaseConnectorCloudant db) {
+        this.db = db;
+    }
+
+    /**
+     * Returns the index of the given database, loading it and starting to follow the _changes feed on first access
+     *
+     * @throws SW360Exception if the documents could not be read, the index stays unloaded then
+     */
+    public static ReleaseVulnerabilityIndex getInstance(DatabaseConnectorCloudant db) throws SW360Exception {
+        ReleaseVulnerabilityIndex index = INSTANCES.get(db.getDbName());
+        if (index != null) {
+            return index;
+        }
+        synchronized (INSTANCES) {
+            index = INSTANCES.get(db.getDbName());
+            if (index == null) {
+                index = new ReleaseVulnerabilityIndex(db);
+                index.load();
+                index.startFollowingChanges();
+                INSTANCES.put(db.getDbName(), index);
+            }
+            return index;
+        }
+    }
+
+    @VisibleForTesting
+    void load() throws SW360Exception {
+        String sequence;
+        List<Vulnerability> allVulnerabilities;
+        List<ReleaseVulnerabilityRelation> allRelations;
+        try {
+            // remember the sequence first, so that changes happening while loading are applied afterwards
+            sequence = db.getUpdateSequence();
+            allVulnerabilities = db.getAllOrThrow(Vulnerability.class);
+            allRelations = db.getAllOrThrow(ReleaseVulnerabilityRelation.class);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not load release vulnerability index of database " + db.getDbName(), e);
+            throw new SW360Exception("Could not load release vulnerability index: " + e.getMessage());
+        }
+        lock.writeLock().lock();
+        try {
+            for (Vulnerability vulnerability : allVulnerabilities) {
+                putVulnerability(vulnerability.getId(), vulnerability.getExternalId(), vulnerability.getTitle(),
+                        vulnerability.getPriority(), vulnerability.isIsSetCvss() ? vulnerability.getCvss() : null);
+            }
+            for (ReleaseVulnerabilityRelation relation : allRelations) {
+                putRelation(relation.getId(), relation.getReleaseId(), relation.getVulnerabilityId());
+            }
+            lastSequence = sequence;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded release vulnerability index of database " + db.getDbName() + " with " + allVulnerabilities.size()
+                + " vulnerabilities and " + allRelations.size() + " relations");
+    }
+
+    private void startFollowingChanges() {
+        ChangesFollowerTracker.follow("release-vulnerability-index-" + db.getDbName(), this::applyChanges,
+                CHANGES_POLL_INTERVAL_SECONDS);
+    }
+
+    @VisibleForTesting
+    void applyChanges() {
+        try {
+            ChangesResult changes;
+            do {
+                changes = db.getChanges(lastSequence, CHANGES_BATCH_SIZE, INDEXED_TYPES);
+                lock.writeLock().lock();
+                try {
+                    for (ChangesResult.Row row : changes.getResults()) {
+                        applyChange(row);
+                    }
+                    lastSequence = changes.getLastSeq();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } while (changes.getResults().size() >= CHANGES_BATCH_SIZE);
+        } catch (Exception e) {
+            log.error("Could not apply changes to release vulnerability index of database " + db.getDbName(), e);
+        }
+    }
+
+    private void applyChange(ChangesResult.Row row) {
+        JsonObject doc = row.getDoc();
+        if (row.isDeleted() || doc == null) {
+            vulnerabilities.remove(row.getId());
+            removeRelation(row.getId());
+            return;
+        }
+        String type = getString(doc, "type");
+        if (TYPE_VULNERABILITY.equals(type)) {
+            JsonElement isSetCvss = doc.get("isSetCvss");
+            JsonElement cvss = doc.get("cvss");
+            boolean hasCvss = isSetCvss != null && isSetCvss.isJsonPrimitive() && isSetCvss.getAsBoolean()
+                    && cvss != null && cvss.isJsonPrimitive();
+            putVulnerability(row.getId(), getString(doc, "externalId"), getString(doc, "title"),
+                    getString(doc, "priority"), hasCvss ? cvss.getAsDouble() : null);
+        } else if (TYPE_RELATION.equals(type)) {
+            putRelation(row.getId(), getString(doc, "releaseId"), getString(doc, "vulnerabilityId"));
+        }
+    }
+
+    private static String getString(JsonObject doc, String field) {
+        JsonElement value = doc.get(field);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    private void putVulnerability(String id, String externalId, String title, String priority, Double cvss) {
+        vulnerabilities.put(id, new IndexedVulnerability(externalId, title, priority, cvss));
+    }
+
+    private void putRelation(String id, String releaseId, String vulnerabilityId) {
+        if (releaseId == null || vulnerabilityId == null) {
+            return;
+        }
+        // the release of a relation is not expected to change, but it costs nothing to be safe
+        removeRelation(id);
+        relations.put(id, new IndexedRelation(releaseId, vulnerabilityId));
+        relationIdsByReleaseId.computeIfAbsent(releaseId, key -> new HashSet<>()).add(id);
+    }
+
+    private void removeRelation(String id) {
+        IndexedRelation relation = relations.remove(id);
+        if (relation != null) {
+            Set<String> relationIdsOfRelease = relationIdsByReleaseId.get(relation.releaseId);
+            relationIdsOfRelease.remove(id);
+            if (relationIdsOfRelease.isEmpty()) {
+                relationIdsByReleaseId.remove(relation.releaseId);
+            }
+        }
+    }
+
+    /**
+     * Returns one entry for each relation of the given releases. Relations to vulnerabilities which do not exist
+     * (anymore) in the database are not contained.
+     */
+    public List<Entry> getEntries(Collection<String> releaseIds) {
+        lock.readLock().lock();
+        try {
+            List<Entry> entries = new ArrayList<>();
+            for (String releaseId : releaseIds) {
+                for (String relationId : relationIdsByReleaseId.getOrDefault(releaseId, Collections.emptySet())) {
+                    IndexedRelation relation = relations.get(relationId);
+                    IndexedVulnerability vulnerability = vulnerabilities.get(relation.vulnerabilityId);
+                    if (vulnerability != null) {
+                        entries.add(new Entry(relationId, relation, vulnerability));
+                    }
+                }
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -18,12 +18,14 @@ import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.VerificationStateInfo;
+import org.eclipse.sw360.datahandler.thrift.cvesearch.CveSearchState;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.CVEReference;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.ReleaseVulnerabilityRelation;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.VendorAdvisory;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.Vulnerability;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.VulnerabilityWithReleaseRelations;
 import org.eclipse.sw360.vulnerabilities.common.VulnerabilityMapper;
+import org.ektorp.DocumentOperationResult;
 import org.ektorp.http.HttpClient;
 import org.apache.http.HttpStatus;
 import org.apache.commons.lang.StringUtils;
@@ -33,6 +35,7 @@ import org.apache.thrift.TBase;
 
 import java.net.MalformedURLException;
 import java.util.*;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -46,6 +49,7 @@ public class VulnerabilityDatabaseHandler {
 
     private final VulnerabilityRepository vulRepo;
     private final VulnerabilityRelationRepository relationRepo;
+    private final CveSearchStateRepository cveSearchStateRepo;
 
     public VulnerabilityDatabaseHandler() throws MalformedURLException {
         DatabaseConnector db = new DatabaseConnector(DatabaseSettings.getConfiguredHttpClient(),
@@ -53,12 +57,14 @@ public class VulnerabilityDatabaseHandler {
 
         vulRepo = new VulnerabilityRepository(db);
         relationRepo = new VulnerabilityRelationRepository(db);
+        cveSearchStateRepo = new CveSearchStateRepository(db);
     }
 
     public VulnerabilityDatabaseHandler(Supplier<HttpClient> client, String vmDbName) throws MalformedURLException {
         DatabaseConnector db = new DatabaseConnector(client, vmDbName);
         vulRepo = new VulnerabilityRepository(db);
         relationRepo = new VulnerabilityRelationRepository(db);
+        cveSearchStateRepo = new CveSearchStateRepository(db);
     }
 
     public <T extends TBase> RequestStatus add(T element) {
@@ -94,6 +100,8 @@ public class VulnerabilityDatabaseHandler {
                 vulRepo.executeBulk(elements);
             } else if (ReleaseVulnerabilityRelation.class.isAssignableFrom(type)) {
                 relationRepo.executeBulk(elements);
+            } else if (CveSearchState.class.isAssignableFrom(type)) {
+                cveSearchStateRepo.executeBulk(elements);
             } else {
                 throw new IllegalArgumentException("unknown type " + type.getSimpleName());
             }
@@ -106,6 +114,46 @@ public class VulnerabilityDatabaseHandler {
         }
     }
 
+    /**
+     * Creates the elements without revision and updates the others with a single bulk request.
+     *
+     * @return the result of each element which could not be written, e.g. because of a conflicting revision. Created
+     * elements have their id set afterwards.
+     */
+    public <T extends TBase> List<DocumentOperationResult> addOrUpdate(Class<T> type, Collection<T> elements) {
+        if (elements.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<DocumentOperationResult> failures;
+        Function<T, String> getId;
+        if (Vulnerability.class.isAssignableFrom(type)) {
+            elements.stream()
+                    .map(Vulnerability.class::cast)
+                    .filter(Vulnerability::isSetRevision)
+                    .forEach(VulnerabilityMapper::setLastUpdate);
+            failures = vulRepo.executeBulk(elements);
+            getId = element -> ((Vulnerability) element).getId();
+        } else if (ReleaseVulnerabilityRelation.class.isAssignableFrom(type)) {
+            failures = relationRepo.executeBulk(elements);
+            getId = element -> ((ReleaseVulnerabilityRelation) element).getId();
+        } else {
+            throw new IllegalArgumentException("unknown type " + type.getSimpleName());
+        }
+
+        if (failures == null) {
+            // the whole request failed, the cause has been logged by the repository
+            failures = new ArrayList<>();
+            for (T element : elements) {
+                failures.add(DocumentOperationResult.newInstance(getId.apply(element), "error", "bulk request failed"));
+            }
+        }
+        for (DocumentOperationResult failure : failures) {
+            log.warn("Could not write " + type.getSimpleName() + " " + failure.getId() + ": " + failure.getError()
+                    + " (" + failure.getReason() + ")");
+        }
+        return failures;
+    }
+
     public RequestStatus addRelationIfNecessary(String releaseId, String vulnerabilityId, Optional<String> usedNeedle) {
         ReleaseVulnerabilityRelation relation = getRelationByIds(releaseId, vulnerabilityId);
         if (relation != null) {
@@ -203,6 +251,8 @@ public class VulnerabilityDatabaseHandler {
             return (List<T>) vulRepo.getAll();
         } else if (ReleaseVulnerabilityRelation.class.isAssignableFrom(type)) {
             return (List<T>) relationRepo.getAll();
+        } else if (CveSearchState.class.isAssignableFrom(type)) {
+            return (List<T>) cveSearchStateRepo.getAll();
         } else {
             throw new IllegalArgumentException("unknown type " + type.getSimpleName());
         }
@@ -236,6 +286,13 @@ public class VulnerabilityDatabaseHandler {
         }
     }
 
+    public List<Vulnerability> getByExternalIds(Collection<String> externalIds) {
+        if (externalIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return vulRepo.getVulnerabilitiesByExternalIds(externalIds);
+    }
+
     public List<Vulnerability> getByExternalIdOrVulnerableConfig(String externalId, String vulnerableConfig) {
         return vulRepo.getVulnerabilitiesByExternalIdOrVulnerableConfig(externalId, vulnerableConfig);
     }
@@ -0,0 +1,146 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.vulnerabilities;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.vulnerabilities.VulnerabilityDTO;
+import org.eclipse.sw360.datahandler.thrift.vulnerabilities.VulnerabilityRatingForProject;
+import org.eclipse.sw360.vulnerabilities.db.ReleaseVulnerabilityIndex;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class VulnerabilityHandlerTest {
+
+    private static final List<ReleaseVulnerabilityIndex.Entry> ENTRIES = ImmutableList.of(
+            entry("rel1", "r1", "CVE-1", "b title", "high", 7.5),
+            entry("rel2", "r2", "CVE-1", "b title", "high", 7.5),
+            entry("rel3", "r1", "CVE-2", "a title", "low", 2.0),
+            entry("rel4", "r1", "CVE-3", "c title", "critical", 9.8),
+            entry("rel5", "r2", "CVE-4", "d title", "low", null));
+
+    private static final Map<String, VulnerabilityRatingForProject> RELEVANCES = ImmutableMap.of(
+            "rel1", VulnerabilityRatingForProject.APPLICABLE,
+            "rel4", VulnerabilityRatingForProject.IRRELEVANT);
+
+    private static final Function<ReleaseVulnerabilityIndex.Entry, VulnerabilityRatingForProject> PROJECT_RELEVANCE =
+            entry -> RELEVANCES.getOrDefault(entry.getRelationId(), VulnerabilityRatingForProject.NOT_CHECKED);
+
+    @Test
+    public void testDefaultOrderIsByCvssDescending() throws Exception {
+        List<ReleaseVulnerabilityIndex.Entry> sorted = VulnerabilityHandler.filterAndSortEntries(ENTRIES, null, null,
+                PROJECT_RELEVANCE, new PaginationData());
+
+        // equal cvss scores are ordered by external id and release, entries without a score come last
+        assertThat(relationIds(sorted), contains("rel4", "rel1", "rel2", "rel3", "rel5"));
+    }
+
+    @Test
+    public void testSortByTitleDescending() throws Exception {
+        PaginationData pageData = new PaginationData()
+                .setSortColumnNumber(VulnerabilityDTO._Fields.TITLE.getThriftFieldId()).setAscending(false);
+
+        List<ReleaseVulnerabilityIndex.Entry> sorted = VulnerabilityHandler.filterAndSortEntries(ENTRIES, null, null,
+                PROJECT_RELEVANCE, pageData);
+
+        assertThat(relationIds(sorted), contains("rel5", "rel4", "rel1", "rel2", "rel3"));
+    }
+
+    @Test
+    public void testSortByUnknownColumnFails() {
+        PaginationData pageData = new PaginationData()
+                .setSortColumnNumber(VulnerabilityDTO._Fields.ID.getThriftFieldId());
+
+        try {
+            VulnerabilityHandler.filterAndSortEntries(ENTRIES, null, null, PROJECT_RELEVANCE, pageData);
+            fail("expected sorting by id to be rejected");
+        } catch (SW360Exception e) {
+            assertThat(e.getErrorCode(), is(400));
+        }
+    }
+
+    @Test
+    public void testFilterByPriority() throws Exception {
+        List<ReleaseVulnerabilityIndex.Entry> filtered = VulnerabilityHandler.filterAndSortEntries(ENTRIES,
+                ImmutableSet.of("low", "critical"), Collections.emptySet(), PROJECT_RELEVANCE, new PaginationData());
+
+        assertThat(relationIds(filtered), contains("rel4", "rel3", "rel5"));
+    }
+
+    @Test
+    public void testFilterByProjectRelevance() throws Exception {
+        List<ReleaseVulnerabilityIndex.Entry> filtered = VulnerabilityHandler.filterAndSortEntries(ENTRIES,
+                Collections.emptySet(), ImmutableSet.of(VulnerabilityRatingForProject.APPLICABLE,
+                        VulnerabilityRatingForProject.NOT_CHECKED), PROJECT_RELEVANCE, new PaginationData());
+
+        assertThat(relationIds(filtered), contains("rel1", "rel2", "rel3", "rel5"));
+    }
+
+    @Test
+    public void testFilterByPriorityAndProjectRelevance() throws Exception {
+        List<ReleaseVulnerabilityIndex.Entry> filtered = VulnerabilityHandler.filterAndSortEntries(ENTRIES,
+                ImmutableSet.of("high", "critical"), ImmutableSet.of(VulnerabilityRatingForProject.NOT_CHECKED),
+                PROJECT_RELEVANCE, new PaginationData());
+
+        assertThat(relationIds(filtered), contains("rel2"));
+    }
+
+    @Test
+    public void testPageBoundaries() throws Exception {
+        List<ReleaseVulnerabilityIndex.Entry> sorted = VulnerabilityHandler.filterAndSortEntries(ENTRIES, null, null,
+                PROJECT_RELEVANCE, new PaginationData());
+
+        assertThat(relationIds(VulnerabilityHandler.getPage(sorted, page(0, 2))), contains("rel4", "rel1"));
+        assertThat(relationIds(VulnerabilityHandler.getPage(sorted, page(2, 2))), contains("rel2", "rel3"));
+        // last, partial page
+        assertThat(relationIds(VulnerabilityHandler.getPage(sorted, page(4, 2))), contains("rel5"));
+        assertThat(VulnerabilityHandler.getPage(sorted, page(5, 2)), is(empty()));
+        assertThat(VulnerabilityHandler.getPage(sorted, page(10, 2)), is(empty()));
+    }
+
+    @Test
+    public void testPageWithoutLimitContainsTheRest() throws Exception {
+        List<ReleaseVulnerabilityIndex.Entry> sorted = VulnerabilityHandler.filterAndSortEntries(ENTRIES, null, null,
+                PROJECT_RELEVANCE, new PaginationData());
+
+        assertThat(relationIds(VulnerabilityHandler.getPage(sorted, page(3, -1))), contains("rel3", "rel5"));
+        assertThat(VulnerabilityHandler.getPage(sorted, new PaginationData()).size(), is(5));
+        assertThat(relationIds(VulnerabilityHandler.getPage(sorted, page(-1, 1))), contains("rel4"));
+    }
+
+    private static PaginationData page(int start, int rowsPerPage) {
+        return new PaginationData().setDisplayStart(start).setRowsPerPage(rowsPerPage);
+    }
+
+    private static List<String> relationIds(List<ReleaseVulnerabilityIndex.Entry> entries) {
+        return entries.stream().map(ReleaseVulnerabilityIndex.Entry::getRelationId).collect(Collectors.toList());
+    }
+
+    private static ReleaseVulnerabilityIndex.Entry entry(String relationId, String releaseId, String externalId,
+            String title, String priority, Double cvss) {
+        return new ReleaseVulnerabilityIndex.Entry(relationId, releaseId, "id-" + externalId, externalId, title,
+                priority, cvss);
+    }
+}
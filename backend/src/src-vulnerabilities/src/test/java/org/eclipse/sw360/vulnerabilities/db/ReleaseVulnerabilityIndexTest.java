@@ -0,0 +1,233 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.vulnerabilities.db;
+
+import com.cloudant.client.api.model.ChangesResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonObject;
+
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.vulnerabilities.ReleaseVulnerabilityRelation;
+import org.eclipse.sw360.datahandler.thrift.vulnerabilities.Vulnerability;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReleaseVulnerabilityIndexTest {
+
+    private static final List<String> TYPES = ImmutableList.of("vulnerability", "releasevulnerabilityrelation");
+
+    @Mock
+    private DatabaseConnectorCloudant db;
+
+    private ReleaseVulnerabilityIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        when(db.getDbName()).thenReturn("sw360vm");
+        when(db.getUpdateSequence()).thenReturn("1");
+        when(db.getAllOrThrow(Vulnerability.class)).thenReturn(ImmutableList.of(
+                vulnerability("v1", "CVE-1", "high", 7.5),
+                vulnerability("v2", "CVE-2", "low", null)));
+        when(db.getAllOrThrow(ReleaseVulnerabilityRelation.class)).thenReturn(ImmutableList.of(
+                relation("rel1", "r1", "v1"),
+                relation("rel2", "r1", "v2"),
+                relation("rel3", "r2", "v1"),
+                relation("rel4", "r3", "unknown")));
+        index = new ReleaseVulnerabilityIndex(db);
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        index.load();
+
+        Map<String, ReleaseVulnerabilityIndex.Entry> entries = getEntriesByRelationId(ImmutableSet.of("r1", "r3"));
+        assertThat(entries.keySet(), containsInAnyOrder("rel1", "rel2"));
+        ReleaseVulnerabilityIndex.Entry entry = entries.get("rel1");
+        assertThat(entry.getReleaseId(), is("r1"));
+        assertThat(entry.getVulnerabilityId(), is("v1"));
+        assertThat(entry.getExternalId(), is("CVE-1"));
+        assertThat(entry.getTitle(), is("title of CVE-1"));
+        assertThat(entry.getPriority(), is("high"));
+        assertThat(entry.getCvss(), is(7.5));
+        assertThat(entries.get("rel2").getCvss(), is(nullValue()));
+    }
+
+    @Test
+    public void testLoadFailsIfDocumentsCannotBeRead() throws Exception {
+        when(db.getAllOrThrow(ReleaseVulnerabilityRelation.class)).thenThrow(new IOException("connection reset"));
+
+        try {
+            index.load();
+            fail("expected the load to fail");
+        } catch (SW360Exception e) {
+            assertThat(e.getWhy(), is("Could not load release vulnerability index: connection reset"));
+        }
+    }
+
+    @Test
+    public void testGetInstanceRetriesFailedLoad() throws Exception {
+        when(db.getDbName()).thenReturn("sw360vm-retry");
+        when(db.getAllOrThrow(Vulnerability.class)).thenThrow(new IOException("connection reset"))
+                .thenReturn(ImmutableList.of(vulnerability("v1", "CVE-1", "high", 7.5)));
+        ChangesResult noChanges = changes("1");
+        when(db.getChanges(anyString(), anyInt(), anyCollectionOf(String.class))).thenReturn(noChanges);
+
+        try {
+            ReleaseVulnerabilityIndex.getInstance(db);
+            fail("expected the load to fail");
+        } catch (SW360Exception e) {
+            // the index is not kept
+        }
+        ReleaseVulnerabilityIndex loaded = ReleaseVulnerabilityIndex.getInstance(db);
+
+        assertThat(loaded.getEntries(Collections.singleton("r2")).size(), is(1));
+        assertThat(ReleaseVulnerabilityIndex.getInstance(db), is(sameInstance(loaded)));
+    }
+
+    @Test
+    public void testChangesAreApplied() throws Exception {
+        index.load();
+        JsonObject changedVulnerability = vulnerabilityDoc("CVE-2", "critical", 9.8);
+        JsonObject newVulnerability = vulnerabilityDoc("CVE-3", "medium", null);
+        JsonObject newRelation = relationDoc("r2", "v3");
+        JsonObject otherDocument = new JsonObject();
+        otherDocument.addProperty("type", "cvesearchdata");
+        ChangesResult changes = changes("2",
+                row("v2", changedVulnerability),
+                row("v3", newVulnerability),
+                row("rel5", newRelation),
+                deletedRow("rel1"),
+                row("other", otherDocument));
+        when(db.getChanges("1", 1000, TYPES)).thenReturn(changes);
+
+        index.applyChanges();
+
+        Map<String, ReleaseVulnerabilityIndex.Entry> entries = getEntriesByRelationId(ImmutableSet.of("r1", "r2"));
+        assertThat(entries.keySet(), containsInAnyOrder("rel2", "rel3", "rel5"));
+        assertThat(entries.get("rel2").getPriority(), is("critical"));
+        assertThat(entries.get("rel2").getCvss(), is(9.8));
+        assertThat(entries.get("rel5").getExternalId(), is("CVE-3"));
+        assertThat(entries.get("rel5").getCvss(), is(nullValue()));
+
+        // the next poll continues after the last sequence, deleting a vulnerability hides its relations
+        ChangesResult nextChanges = changes("3", deletedRow("v1"));
+        when(db.getChanges("2", 1000, TYPES)).thenReturn(nextChanges);
+        index.applyChanges();
+
+        assertThat(getEntriesByRelationId(ImmutableSet.of("r1", "r2")).keySet(), containsInAnyOrder("rel2", "rel5"));
+    }
+
+    @Test
+    public void testFailedPollKeepsSequence() throws Exception {
+        index.load();
+        ChangesResult changes = changes("2", deletedRow("rel1"));
+        when(db.getChanges("1", 1000, TYPES)).thenThrow(new RuntimeException("connection reset")).thenReturn(changes);
+
+        index.applyChanges();
+        assertThat(getEntriesByRelationId(Collections.singleton("r1")).size(), is(2));
+
+        index.applyChanges();
+        assertThat(getEntriesByRelationId(Collections.singleton("r1")).keySet(), containsInAnyOrder("rel2"));
+    }
+
+    @Test
+    public void testReleasesWithoutRelations() throws Exception {
+        index.load();
+
+        assertThat(index.getEntries(ImmutableSet.of("r4")), is(empty()));
+    }
+
+    private Map<String, ReleaseVulnerabilityIndex.Entry> getEntriesByRelationId(Set<String> releaseIds) {
+        return index.getEntries(releaseIds).stream()
+                .collect(Collectors.toMap(ReleaseVulnerabilityIndex.Entry::getRelationId, entry -> entry));
+    }
+
+    private static Vulnerability vulnerability(String id, String externalId, String priority, Double cvss) {
+        Vulnerability vulnerability = new Vulnerability(externalId).setId(id).setTitle("title of " + externalId)
+                .setPriority(priority);
+        if (cvss != null) {
+            vulnerability.setCvss(cvss).setIsSetCvss(true);
+        }
+        return vulnerability;
+    }
+
+    private static ReleaseVulnerabilityRelation relation(String id, String releaseId, String vulnerabilityId) {
+        return new ReleaseVulnerabilityRelation(releaseId, vulnerabilityId).setId(id);
+    }
+
+    private static JsonObject vulnerabilityDoc(String externalId, String priority, Double cvss) {
+        JsonObject doc = new JsonObject();
+        doc.addProperty("type", "vulnerability");
+        doc.addProperty("externalId", externalId);
+        doc.addProperty("title", "title of " + externalId);
+        doc.addProperty("priority", priority);
+        if (cvss != null) {
+            doc.addProperty("cvss", cvss);
+            doc.addProperty("isSetCvss", true);
+        }
+        return doc;
+    }
+
+    private static JsonObject relationDoc(String releaseId, String vulnerabilityId) {
+        JsonObject doc = new JsonObject();
+        doc.addProperty("type", "releasevulnerabilityrelation");
+        doc.addProperty("releaseId", releaseId);
+        doc.addProperty("vulnerabilityId", vulnerabilityId);
+        return doc;
+    }
+
+    private static ChangesResult.Row row(String id, JsonObject doc) {
+        ChangesResult.Row row = mock(ChangesResult.Row.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getDoc()).thenReturn(doc);
+        return row;
+    }
+
+    private static ChangesResult.Row deletedRow(String id) {
+        ChangesResult.Row row = mock(ChangesResult.Row.class);
+        when(row.getId()).thenReturn(id);
+        when(row.isDeleted()).thenReturn(true);
+        return row;
+    }
+
+    private static ChangesResult changes(String lastSequence, ChangesResult.Row... rows) {
+        ChangesResult changes = mock(ChangesResult.class);
+        List<ChangesResult.Row> results = ImmutableList.copyOf(rows);
+        when(changes.getResults()).thenReturn(results);
+        when(changes.getLastSeq()).thenReturn(lastSequence);
+        return changes;
+    }
+}
@@ -10,6 +10,7 @@
 
 package org.eclipse.sw360;
 
+import org.eclipse.sw360.datahandler.cloudantclient.ChangesFollowerTracker;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseInstanceTracker;
 import org.ektorp.http.IdleConnectionMonitor;
 
@@ -26,6 +27,7 @@ public class SW360ServiceContextListener implements ServletContextListener {
 
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
+        ChangesFollowerTracker.destroy();
         DatabaseInstanceTracker.destroy();
         IdleConnectionMonitor.shutdown();
     }
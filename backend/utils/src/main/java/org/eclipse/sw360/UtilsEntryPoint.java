@@ -9,6 +9,8 @@
  */
 package org.eclipse.sw360;
 
+import org.eclipse.sw360.attachments.db.AttachmentChecksumBackfill;
+import org.eclipse.sw360.attachments.db.AttachmentDataMigration;
 import org.eclipse.sw360.attachments.db.RemoteAttachmentDownloader;
 import org.apache.commons.cli.*;
 
@@ -21,6 +23,8 @@ public class UtilsEntryPoint {
 
     private static final String OPTION_HELP = "h";
     private static final String OPTION_DOWNLOAD = "d";
+    private static final String OPTION_CHECKSUMS = "s";
+    private static final String OPTION_MIGRATE_DATA = "f";
 
     public static void main(String[] args) throws MalformedURLException {
         CommandLine cmd;
@@ -42,6 +46,10 @@ public class UtilsEntryPoint {
 
         if (cmd.hasOption(OPTION_DOWNLOAD)) {
             runRemoteAttachmentDownloader(leftArgs);
+        } else if (cmd.hasOption(OPTION_CHECKSUMS)) {
+            runAttachmentChecksumBackfill(leftArgs);
+        } else if (cmd.hasOption(OPTION_MIGRATE_DATA)) {
+            runAttachmentDataMigration(leftArgs);
         } else {
             printHelp();
         }
@@ -51,6 +59,14 @@ public class UtilsEntryPoint {
         RemoteAttachmentDownloader.main(args);
     }
 
+    private static void runAttachmentChecksumBackfill(String[] args) throws MalformedURLException {
+        AttachmentChecksumBackfill.main(args);
+    }
+
+    private static void runAttachmentDataMigration(String[] args) throws MalformedURLException {
+        AttachmentDataMigration.main(args);
+    }
+
     private static CommandLine parseArgs(String[] args) throws ParseException {
         Options options = getOptions();
 
@@ -65,6 +81,8 @@ public class UtilsEntryPoint {
     private static Options getOptions() {
         Options options = new Options();
         options.addOption(OPTION_DOWNLOAD, false, "download remote attachments");
+        options.addOption(OPTION_CHECKSUMS, false, "compute missing sha1 checksums of attachments and store duplicate data only once");
+        options.addOption(OPTION_MIGRATE_DATA, false, "move the data of attachments from CouchDB to the file system");
         options.addOption(OPTION_HELP, false, "show this help");
         return options;
     }
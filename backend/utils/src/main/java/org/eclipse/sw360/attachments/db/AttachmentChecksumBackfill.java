@@ -0,0 +1,75 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.sw360.attachments.db;
+
+import org.apache.logging.log4j.Logger;
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.common.DatabaseSettings;
+import org.eclipse.sw360.datahandler.common.Duration;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentConnector;
+import org.eclipse.sw360.datahandler.db.AttachmentContentRepository;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+
+import com.cloudant.client.api.CloudantClient;
+
+import java.net.MalformedURLException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.apache.logging.log4j.LogManager.getLogger;
+import static org.eclipse.sw360.datahandler.common.Duration.durationOf;
+
+/**
+ * Utility to compute and record the sha1 checksums of attachment contents uploaded before checksums were recorded
+ * on upload, and to store their data only once for all contents with the same checksum. Contents which are only
+ * available remotely are skipped.
+ */
+public class AttachmentChecksumBackfill {
+    private static final Logger log = getLogger(AttachmentChecksumBackfill.class);
+
+    public static void main(String[] args) throws MalformedURLException {
+        Duration downloadTimeout = durationOf(30, TimeUnit.SECONDS);
+        backfillChecksums(DatabaseSettings.getConfiguredClient(), DatabaseSettings.COUCH_DB_ATTACHMENTS, downloadTimeout);
+    }
+
+    public static int backfillChecksums(Supplier<CloudantClient> httpClient, String dbAttachments, Duration downloadTimeout) throws MalformedURLException {
+        AttachmentConnector attachmentConnector = new AttachmentConnector(httpClient, dbAttachments, downloadTimeout);
+        AttachmentContentRepository attachmentContentRepository = new AttachmentContentRepository(new DatabaseConnectorCloudant(httpClient, dbAttachments));
+
+        Set<String> attachmentContentIds = attachmentContentRepository.getAttachmentContentIdsWithoutBlob();
+        log.info("we have {} attachments not stored as blob", attachmentContentIds.size());
+
+        int count = 0;
+        for (String attachmentContentId : attachmentContentIds) {
+            String sha1 = attachmentConnector.getSha1FromAttachmentContentId(attachmentContentId);
+            if (isNullOrEmpty(sha1)) {
+                log.error("cannot compute sha1 checksum of attachment {}", attachmentContentId);
+                continue;
+            }
+            try {
+                if (!attachmentConnector.storeAsBlob(attachmentContentId)) {
+                    log.error("cannot store attachment {} as blob", attachmentContentId);
+                    continue;
+                }
+            } catch (SW360Exception e) {
+                log.error("cannot read attachment {}", attachmentContentId, e);
+                continue;
+            }
+            log.info("recorded sha1 checksum {} of attachment {}", sha1, attachmentContentId);
+            count++;
+        }
+
+        log.info("recorded sha1 checksums of {} attachments", count);
+        return count;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.sw360.attachments.db;
+
+import org.apache.logging.log4j.Logger;
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.common.DatabaseSettings;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentDataStore;
+import org.eclipse.sw360.datahandler.couchdb.CouchDbAttachmentDataStore;
+import org.eclipse.sw360.datahandler.couchdb.FileSystemAttachmentDataStore;
+import org.eclipse.sw360.datahandler.db.AttachmentContentRepository;
+
+import com.cloudant.client.api.CloudantClient;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+/**
+ * Utility to move the data of attachment contents from CouchDB attachments to the directory of the file system store.
+ * The metadata of the contents stays in CouchDB. The data of a content is removed from CouchDB only after all its data
+ * was written completely, contents which fail are kept as they are and are moved by the next run. Data added to a
+ * content while it is moved is kept in CouchDB and moved as well.
+ */
+public class AttachmentDataMigration {
+    private static final Logger log = getLogger(AttachmentDataMigration.class);
+    private static final int MAX_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        if (!AttachmentDataStore.FILESYSTEM.equalsIgnoreCase(DatabaseSettings.ATTACHMENT_STORE_BACKEND)) {
+            log.error("attachment.store.backend has to be set to {} before moving the data, otherwise it cannot be read any more",
+                    AttachmentDataStore.FILESYSTEM);
+            return;
+        }
+        migrate(DatabaseSettings.getConfiguredClient(), DatabaseSettings.COUCH_DB_ATTACHMENTS,
+                Paths.get(DatabaseSettings.ATTACHMENT_STORE_DIRECTORY));
+    }
+
+    public static int migrate(Supplier<CloudantClient> httpClient, String dbAttachments, Path directory) {
+        DatabaseConnectorCloudant connector = new DatabaseConnectorCloudant(httpClient, dbAttachments);
+        AttachmentContentRepository attachmentContentRepository = new AttachmentContentRepository(connector);
+        CouchDbAttachmentDataStore couchDbStore = new CouchDbAttachmentDataStore(connector);
+        FileSystemAttachmentDataStore fileSystemStore = new FileSystemAttachmentDataStore(directory, null);
+
+        Set<String> attachmentContentIds = attachmentContentRepository.getAttachmentContentIdsWithDataInDb();
+        log.info("we have {} attachments with data in CouchDB", attachmentContentIds.size());
+
+        int count = 0;
+        for (String attachmentContentId : attachmentContentIds) {
+            try {
+                if (migrate(connector, couchDbStore, fileSystemStore, attachmentContentId)) {
+                    count++;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("cannot move the data of attachment {}", attachmentContentId, e);
+            }
+        }
+
+        log.info("moved the data of {} attachments to {}", count, directory);
+        return count;
+    }
+
+    private static boolean migrate(DatabaseConnectorCloudant connector, CouchDbAttachmentDataStore couchDbStore,
+            FileSystemAttachmentDataStore fileSystemStore, String attachmentContentId) throws IOException {
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            Map<String, JsonObject> stubs = connector.getAttachmentStubs(attachmentContentId);
+            Map<String, String> digests = new HashMap<>();
+            for (Map.Entry<String, JsonObject> attachment : stubs.entrySet()) {
+                String name = attachment.getKey();
+                try (InputStream data = couchDbStore.read(attachmentContentId, name)) {
+                    fileSystemStore.write(attachmentContentId, name, data);
+                }
+                long expectedSize = attachment.getValue().get("length").getAsLong();
+                long size = fileSystemStore.size(attachmentContentId, name);
+                if (size != expectedSize) {
+                    log.error("data {} of attachment {} has {} bytes instead of {}, keeping it in CouchDB", name,
+                            attachmentContentId, size, expectedSize);
+                    return false;
+                }
+                digests.put(name, attachment.getValue().get("digest").getAsString());
+            }
+
+            // only the data read above is removed, data added or replaced in the meantime is moved in the next round
+            Set<String> keptNames = connector.removeAttachments(attachmentContentId, digests);
+            if (keptNames.isEmpty()) {
+                log.info("moved {} files of attachment {}", digests.size(), attachmentContentId);
+                return true;
+            }
+            log.info("data {} of attachment {} changed while moving it, moving it again", keptNames, attachmentContentId);
+        }
+        log.warn("data of attachment {} kept changing, it is moved by the next run", attachmentContentId);
+        return false;
+    }
+}
@@ -20,6 +20,7 @@ import com.liferay.portal.kernel.json.JSONObject;
 import com.liferay.portal.kernel.language.LanguageUtil;
 import com.liferay.portal.kernel.portlet.PortletResponseUtil;
 import com.liferay.portal.kernel.portlet.bridges.mvc.MVCPortlet;
+import com.liferay.portal.kernel.servlet.HttpHeaders;
 import com.liferay.portal.kernel.servlet.SessionErrors;
 import com.liferay.portal.kernel.servlet.SessionMessages;
 import com.liferay.portal.kernel.util.PortalUtil;
@@ -34,6 +35,7 @@ import org.eclipse.sw360.datahandler.thrift.users.RequestedAction;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.datahandler.thrift.users.UserService;
 import org.eclipse.sw360.datahandler.thrift.vendors.VendorService;
+import org.eclipse.sw360.exporter.ExcelExporter;
 import org.eclipse.sw360.exporter.LicsExporter;
 import org.eclipse.sw360.exporter.utils.ZipTools;
 import org.eclipse.sw360.portal.common.ErrorMessages;
@@ -55,13 +57,17 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.zip.ZipOutputStream;
 
 import javax.portlet.*;
+import javax.servlet.http.HttpServletResponse;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.eclipse.sw360.datahandler.common.SW360Constants.CONTENT_TYPE_OPENXML_SPREADSHEET;
 
 
 abstract public class Sw360Portlet extends MVCPortlet {
@@ -429,6 +435,39 @@ abstract public class Sw360Portlet extends MVCPortlet {
         PortletResponseUtil.sendFile(request, response, "LicensesBackup.lics", zipFile, "application/zip");
     }
 
+    /**
+     * Writes the Excel export of the documents directly to the response, without keeping the file in memory
+     */
+    protected <T> void sendExcelExport(ResourceResponse response, String filename, ExcelExporter<T, ?> exporter,
+            Iterable<T> documents) throws IOException, SW360Exception {
+        setFileHeaders(response, filename, CONTENT_TYPE_OPENXML_SPREADSHEET);
+        exporter.writeExcelExport(documents, response.getPortletOutputStream());
+        response.flushBuffer();
+    }
+
+    /**
+     * Answers a failed Excel export with an internal server error. If parts of the file were already sent, the status
+     * cannot be changed anymore and the download ends with a truncated file.
+     */
+    protected void handleExcelExportFailure(ResourceResponse response, Exception e, Logger log) {
+        if (response.isCommitted()) {
+            log.error("The Excel export failed after parts of it were sent, the downloaded file is truncated", e);
+        } else {
+            log.error("An error occurred while generating the Excel export", e);
+            response.setProperty(ResourceResponse.HTTP_STATUS_CODE,
+                    Integer.toString(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+        }
+    }
+
+    /**
+     * Sets the headers to download a file which is written to the portlet output stream afterwards
+     */
+    protected static void setFileHeaders(ResourceResponse response, String filename, String contentType) {
+        response.setContentType(contentType);
+        response.setProperty(HttpHeaders.CONTENT_DISPOSITION, HttpHeaders.CONTENT_DISPOSITION_ATTACHMENT
+                + "; filename*=UTF-8''" + URLEncoder.encode(filename, StandardCharsets.UTF_8).replace("+", "%20"));
+    }
+
     public static TSerializer getJsonSerializer() {
         try {
             return new TSerializer(new TSimpleJSONProtocol.Factory());
@@ -14,7 +14,6 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Sets;
 import com.liferay.portal.kernel.portlet.LiferayPortletURL;
-import com.liferay.portal.kernel.portlet.PortletResponseUtil;
 import com.liferay.portal.kernel.portlet.PortletURLFactoryUtil;
 import com.liferay.portal.kernel.theme.ThemeDisplay;
 import com.liferay.portal.kernel.util.ContentTypes;
@@ -52,7 +51,6 @@ import javax.portlet.*;
 import javax.servlet.http.HttpServletResponse;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static org.eclipse.sw360.datahandler.common.SW360Constants.CONTENT_TYPE_OPENXML_SPREADSHEET;
 import static org.eclipse.sw360.portal.common.PortalConstants.*;
 
 @org.osgi.service.component.annotations.Component(
@@ -109,11 +107,9 @@ public class VendorPortlet extends Sw360Portlet {
             VendorService.Iface client = thriftClients.makeVendorClient();
             List<Vendor> vendors = client.getAllVendors();
             String filename = String.format("vendors-%s.xlsx", SW360Utils.getCreatedOn());
-            PortletResponseUtil.sendFile(request, response, filename, exporter.makeExcelExport(vendors), CONTENT_TYPE_OPENXML_SPREADSHEET);
+            sendExcelExport(response, filename, exporter, vendors);
         } catch (IOException | TException e) {
-            log.error("An error occurred while generating the Excel export", e);
-            response.setProperty(ResourceResponse.HTTP_STATUS_CODE,
-                    Integer.toString(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+            handleExcelExportFailure(response, e, log);
         }
     }
 
@@ -14,7 +14,6 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import com.liferay.portal.kernel.portlet.PortletResponseUtil;
 import com.liferay.portal.kernel.servlet.SessionMessages;
 import com.liferay.portal.kernel.util.ResourceBundleUtil;
 import com.liferay.portal.kernel.language.LanguageUtil;
@@ -47,12 +46,10 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.portlet.*;
-import javax.servlet.http.HttpServletResponse;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.TMP_OBLIGATION_ID_PREFIX;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyList;
-import static org.eclipse.sw360.datahandler.common.SW360Constants.CONTENT_TYPE_OPENXML_SPREADSHEET;
 import static org.eclipse.sw360.portal.common.PortalConstants.*;
 
 @org.osgi.service.component.annotations.Component(
@@ -125,11 +122,9 @@ public class LicensesPortlet extends Sw360Portlet {
             LicenseService.Iface client = thriftClients.makeLicenseClient();
             List<License> licenses = client.getLicenseSummaryForExport();
 
-            PortletResponseUtil.sendFile(request, response, "Licenses.xlsx", exporter.makeExcelExport(licenses), CONTENT_TYPE_OPENXML_SPREADSHEET);
+            sendExcelExport(response, "Licenses.xlsx", exporter, licenses);
         } catch (IOException | TException e) {
-            log.error("An error occurred while generating the Excel export", e);
-            response.setProperty(ResourceResponse.HTTP_STATUS_CODE,
-                    Integer.toString(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+            handleExcelExportFailure(response, e, log);
         }
     }
 
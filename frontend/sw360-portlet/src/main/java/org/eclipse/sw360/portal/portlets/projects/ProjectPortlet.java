@@ -89,7 +89,6 @@ import static com.google.common.base.Strings.nullToEmpty;
 import static com.liferay.portal.kernel.json.JSONFactoryUtil.createJSONArray;
 import static com.liferay.portal.kernel.json.JSONFactoryUtil.createJSONObject;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.*;
-import static org.eclipse.sw360.datahandler.common.SW360Constants.CONTENT_TYPE_OPENXML_SPREADSHEET;
 import static org.eclipse.sw360.datahandler.common.SW360Utils.printName;
 import static org.eclipse.sw360.datahandler.common.WrappedException.wrapTException;
 import static org.eclipse.sw360.portal.common.PortalConstants.*;
@@ -625,14 +624,16 @@ public class ProjectPortlet extends FossologyAwarePortlet {
         });
 
         try {
-            final LicenseInfoService.Iface licenseInfoClient = thriftClients.makeLicenseInfoClient();
-            LicenseInfoFile licenseInfoFile = licenseInfoClient.getLicenseInfoFile(project, user, outputGenerator,
-                    releaseIdsToSelectedAttachmentIds, excludedLicensesPerAttachmentId, externalIds, fileName);
-
+            // save the selection before generating, the generated file is a temporary attachment which is only deleted
+            // once it has been sent
             saveLicenseInfoAttachmentUsages(project, user, filteredSelectedAttachmentIdsWithPath,
                     excludedLicensesPerAttachmentIdWithPath, includeConcludedLicenseList,
                     isOnlyApprovedAttachmentSelected);
             saveSelectedReleaseAndProjectRelations(projectId, listOfSelectedRelationships, listOfSelectedProjectRelationships, isLinkedProjectPresent);
+
+            final LicenseInfoService.Iface licenseInfoClient = thriftClients.makeLicenseInfoClient();
+            LicenseInfoFile licenseInfoFile = licenseInfoClient.getLicenseInfoFileAsAttachment(project, user, outputGenerator,
+                    releaseIdsToSelectedAttachmentIds, excludedLicensesPerAttachmentId, externalIds, fileName);
             sendLicenseInfoResponse(request, response, project, licenseInfoFile);
         } catch (TException e) {
             log.error("Error getting LicenseInfo file for project with id " + projectId + " and generator " + outputGenerator, e);
@@ -642,7 +643,7 @@ public class ProjectPortlet extends FossologyAwarePortlet {
 
     private void downloadEmptyLicenseInfo(ResourceRequest request, ResourceResponse response, Project project, User user, String outputGenerator, String fileName) throws TException, IOException {
         final LicenseInfoService.Iface licenseInfoClient = thriftClients.makeLicenseInfoClient();
-        LicenseInfoFile licenseInfoFile = licenseInfoClient.getLicenseInfoFile(project, user, outputGenerator,
+        LicenseInfoFile licenseInfoFile = licenseInfoClient.getLicenseInfoFileAsAttachment(project, user, outputGenerator,
                 Collections.emptyMap(), Collections.emptyMap(), "", fileName);
         sendLicenseInfoResponse(request, response, project, licenseInfoFile);
     }
@@ -781,7 +782,7 @@ public class ProjectPortlet extends FossologyAwarePortlet {
         return selectedReleaseRelationships;
     }
 
-    private void sendLicenseInfoResponse(ResourceRequest request, ResourceResponse response, Project project, LicenseInfoFile licenseInfoFile) throws IOException {
+    private void sendLicenseInfoResponse(ResourceRequest request, ResourceResponse response, Project project, LicenseInfoFile licenseInfoFile) throws TException, IOException {
         OutputFormatInfo outputFormatInfo = licenseInfoFile.getOutputFormatInfo();
         String documentVariant = licenseInfoFile.getOutputFormatInfo().getVariant() == OutputFormatVariant.DISCLOSURE ? "LicenseInfo" : "ProjectClearingReport";
         String filename = String.format("%s-%s%s-%s.%s", documentVariant, project.getName(),
@@ -792,7 +793,10 @@ public class ProjectPortlet extends FossologyAwarePortlet {
     	if (isNullOrEmpty(mimetype)) {
     		mimetype = URLConnection.guessContentTypeFromName(filename);
     	}
-        PortletResponseUtil.sendFile(request, response, filename, licenseInfoFile.getGeneratedOutput(), mimetype);
+        setFileHeaders(response, filename, mimetype);
+        new AttachmentPortletUtils().transferTemporaryAttachment(licenseInfoFile.getGeneratedOutputAttachmentContentId(),
+                response.getPortletOutputStream());
+        response.flushBuffer();
     }
 
     private void saveLicenseInfoAttachmentUsages(Project project, User user, Set<String> selectedAttachmentIdsWithPath,
@@ -980,13 +984,10 @@ public class ProjectPortlet extends FossologyAwarePortlet {
                     thriftClients.makeComponentClient(),
                     thriftClients.makeProjectClient(),
                     user,
-                    projects,
                     extendedByReleases);
-            PortletResponseUtil.sendFile(request, response, filename, exporter.makeExcelExport(projects), CONTENT_TYPE_OPENXML_SPREADSHEET);
+            sendExcelExport(response, filename, exporter, projects);
         } catch (IOException | SW360Exception e) {
-            log.error("An error occurred while generating the Excel export", e);
-            response.setProperty(ResourceResponse.HTTP_STATUS_CODE,
-                    Integer.toString(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+            handleExcelExportFailure(response, e, log);
         }
     }
 
@@ -1002,17 +1003,15 @@ public class ProjectPortlet extends FossologyAwarePortlet {
             if (project != null) {
                 List<ReleaseClearingStatusData> releaseStringMap = client.getReleaseClearingStatuses(id, user);
                 List<Release> releases = releaseStringMap.stream().map(ReleaseClearingStatusData::getRelease).sorted(Comparator.comparing(SW360Utils::printFullname)).collect(Collectors.toList());
-                ReleaseExporter exporter = new ReleaseExporter(thriftClients.makeComponentClient(), releases,
-                        user, releaseStringMap);
+                ReleaseExporter exporter = new ReleaseExporter(thriftClients.makeComponentClient(), user,
+                        releaseStringMap);
 
-                PortletResponseUtil.sendFile(request, response,
+                sendExcelExport(response,
                         String.format("releases-%s-%s-%s.xlsx", project.getName(), project.getVersion(), SW360Utils.getCreatedOn()),
-                        exporter.makeExcelExport(releases), CONTENT_TYPE_OPENXML_SPREADSHEET);
+                        exporter, releases);
             }
         } catch (IOException | TException e) {
-            log.error("An error occurred while generating the Excel export", e);
-            response.setProperty(ResourceResponse.HTTP_STATUS_CODE,
-                    Integer.toString(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+            handleExcelExportFailure(response, e, log);
         }
     }
 
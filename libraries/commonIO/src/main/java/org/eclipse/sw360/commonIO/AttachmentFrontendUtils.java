@@ -25,8 +25,10 @@ import org.eclipse.sw360.datahandler.thrift.users.User;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -104,6 +106,21 @@ public class AttachmentFrontendUtils {
         return null;
     }
 
+    /**
+     * Copies the data of a temporary attachment content, e.g. a generated license info file, to the given stream and
+     * deletes the attachment content afterwards, also if copying failed
+     */
+    public void transferTemporaryAttachment(String attachmentContentId, OutputStream out) throws TException, IOException {
+        try {
+            AttachmentContent attachmentContent = getAttachmentContent(attachmentContentId);
+            try (InputStream attachmentStream = getConnector().unsafeGetAttachmentStream(attachmentContent)) {
+                attachmentStream.transferTo(out);
+            }
+        } finally {
+            deleteAttachments(Collections.singleton(attachmentContentId));
+        }
+    }
+
     public void deleteAttachments(Set<String> attachmentContentIds){
         try {
             for(String id: attachmentContentIds) {
@@ -121,7 +138,11 @@ public class AttachmentFrontendUtils {
         if (attachmentContent != null) {
             try {
                 attachmentStreamConnector.uploadAttachment(attachmentContent, fileStream);
-                return CommonUtils.getNewAttachment(sw360User, attachmentContent.getId(), attachmentContent.getFilename());
+                Attachment attachment = CommonUtils.getNewAttachment(sw360User, attachmentContent.getId(), attachmentContent.getFilename());
+                if (attachmentContent.isSetSha1()) {
+                    attachment.setSha1(attachmentContent.getSha1());
+                }
+                return attachment;
             } catch (TException e) {
                 log.error("Error saving attachment part", e);
             }
@@ -68,14 +68,16 @@ public class ComponentExporter extends ExcelExporter<Component, ComponentHelper>
 
     public static List<String> HEADERS_EXTENDED_BY_RELEASES = ExporterHelper.addSubheadersWithPrefixesAsNeeded(HEADERS, ReleaseExporter.HEADERS, "release: ");
 
-    public ComponentExporter(ComponentService.Iface componentClient, List<Component> components, User user,
-            boolean extendedByReleases) throws SW360Exception {
+    private final boolean extendedByReleases;
+
+    public ComponentExporter(ComponentService.Iface componentClient, User user, boolean extendedByReleases)
+            throws SW360Exception {
         super(new ComponentHelper(extendedByReleases, new ReleaseHelper(componentClient, user)));
-        preloadLinkedReleasesFor(components, extendedByReleases);
+        this.extendedByReleases = extendedByReleases;
     }
 
-    private void preloadLinkedReleasesFor(List<Component> components, boolean extendedByReleases)
-            throws SW360Exception {
+    @Override
+    protected void preloadRelatedDataFor(List<Component> components) throws SW360Exception {
         Set<String> linkedReleaseIds = components
                 .stream()
                 .map(Component::getReleaseIds)
@@ -83,6 +85,7 @@ public class ComponentExporter extends ExcelExporter<Component, ComponentHelper>
                 .flatMap(Set::stream)
                 .collect(Collectors.toSet());
 
+        helper.clearPreloadedLinkedReleases();
         Map<String, Release> releasesById = ThriftUtils.getIdMap(helper.getReleases(linkedReleaseIds));
         helper.setPreloadedLinkedReleases(releasesById, extendedByReleases);
     }
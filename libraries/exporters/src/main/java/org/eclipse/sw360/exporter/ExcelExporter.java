@@ -18,10 +18,9 @@ import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.exporter.helper.ExporterHelper;
 import org.eclipse.sw360.exporter.utils.SubTable;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,15 +30,30 @@ import java.util.List;
  */
 public class ExcelExporter<T, U extends ExporterHelper<T>> {
 
+    /**
+     * Number of documents whose rows are made together, after loading the data they refer to
+     */
+    public static final int CHUNK_SIZE = 200;
+    /**
+     * Number of rows kept in memory, older rows are flushed to a temporary file of the workbook
+     */
+    private static final int ROW_WINDOW_SIZE = 100;
+
     protected final U helper;
 
     public ExcelExporter(U helper) {
         this.helper = helper;
     }
 
-    public InputStream makeExcelExport(List<T> documents) throws IOException, SW360Exception {
-        final SXSSFWorkbook workbook = new SXSSFWorkbook();
-        final ByteArrayInputStream stream;
+    /**
+     * Writes the export of the documents to the given stream, which is not closed. The documents are processed in
+     * chunks of {@link #CHUNK_SIZE}, the data they refer to is loaded for one chunk at a time and only a window of
+     * rows is kept in memory, so that memory does not grow with the number of documents. The documents may be
+     * provided lazily, e.g. fetched page by page.
+     */
+    public void writeExcelExport(Iterable<T> documents, OutputStream out) throws IOException, SW360Exception {
+        final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW_SIZE);
+        workbook.setCompressTempFiles(true);
         try {
             SXSSFSheet sheet = workbook.createSheet("Data");
 
@@ -53,28 +67,45 @@ public class ExcelExporter<T, U extends ExporterHelper<T>> {
             fillRow(headerRow, headerNames, headerStyle);
 
             /** Create data rows */
-            fillValues(sheet, documents, cellStyle);
+            int nextExcelSheetRow = 1;
+            List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (T document : documents) {
+                chunk.add(document);
+                if (chunk.size() >= CHUNK_SIZE) {
+                    nextExcelSheetRow = fillValues(sheet, chunk, cellStyle, nextExcelSheetRow);
+                    chunk.clear();
+                }
+            }
+            fillValues(sheet, chunk, cellStyle, nextExcelSheetRow);
 
             // removed autosizing of spreadsheet columns for performance reasons
 
-            /** Copy the streams */
-            final ByteArrayOutputStream out = new ByteArrayOutputStream();
             workbook.write(out);
-            stream = new ByteArrayInputStream(out.toByteArray());
-        }finally{
+            out.flush();
+        } finally {
             workbook.dispose();
         }
-        return stream;
     }
 
     /**
-     * Convert all documents to
+     * Loads the data the rows of the given documents refer to, before their rows are made. Called once per chunk of
+     * documents, so that linked documents are fetched with one call per chunk and dropped with the chunk.
+     */
+    protected void preloadRelatedDataFor(List<T> documents) throws SW360Exception {
+    }
+
+    /**
+     * Convert all documents to rows, starting at the given row
+     *
+     * @return the next free row
      */
-    private void fillValues(Sheet sheet, List<T> documents, CellStyle style) throws SW360Exception {
-        int numberoOfDocuments = documents.size();
-        int nextExcelSheetRow = 1;
-        for (int currentDocNumber = 0; currentDocNumber < numberoOfDocuments; currentDocNumber++) {
-            T document = documents.get(currentDocNumber);
+    private int fillValues(Sheet sheet, List<T> documents, CellStyle style, int firstExcelSheetRow) throws SW360Exception {
+        if (documents.isEmpty()) {
+            return firstExcelSheetRow;
+        }
+        preloadRelatedDataFor(documents);
+        int nextExcelSheetRow = firstExcelSheetRow;
+        for (T document : documents) {
             SubTable table = helper.makeRows(document);
             for(int currentTableRow = 0; currentTableRow < table.getnRows(); currentTableRow ++){
                 List<String> rowValues = table.getRow(currentTableRow);
@@ -83,6 +114,7 @@ public class ExcelExporter<T, U extends ExporterHelper<T>> {
                 fillRow(row, rowValues, style);
             }
         }
+        return nextExcelSheetRow;
     }
 
     /**
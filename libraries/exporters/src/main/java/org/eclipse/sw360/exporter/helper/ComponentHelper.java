@@ -113,4 +113,8 @@ public class ComponentHelper implements ExporterHelper<Component> {
             throws SW360Exception {
         releaseHelper.setPreloadedLinkedReleases(preloadedLinkedReleases, componentsNeeded);
     }
+
+    public void clearPreloadedLinkedReleases() {
+        releaseHelper.clearPreloadedLinkedReleases();
+    }
 }
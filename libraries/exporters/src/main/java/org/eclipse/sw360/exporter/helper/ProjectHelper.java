@@ -139,6 +139,14 @@ public class ProjectHelper implements ExporterHelper<Project> {
         releaseHelper.setPreloadedLinkedReleases(preloadedLinkedReleases, componentsNeeded);
     }
 
+    /**
+     * Drops the preloaded projects and releases, so that the next calls fetch them
+     */
+    public void clearPreloadedData() {
+        preloadedLinkedProjects = null;
+        releaseHelper.clearPreloadedLinkedReleases();
+    }
+
     public List<Release> getReleases(Project project) throws SW360Exception {
         return getReleases(nullToEmptyMap(project.getReleaseIdToUsage()).keySet());
     }
@@ -268,6 +268,14 @@ public class ReleaseHelper implements ExporterHelper<Release> {
         }
     }
 
+    /**
+     * Drops the preloaded releases, so that the next call to {@link #getReleases(Set)} fetches the releases, e.g.
+     * when preloading the releases of the next chunk of an export
+     */
+    public void clearPreloadedLinkedReleases() {
+        this.preloadedLinkedReleases = null;
+    }
+
     private void batchloadComponents(Set<String> cIds) throws SW360Exception {
         try {
             List<Component> componentsShort = cClient.getComponentsShort(cIds);
@@ -0,0 +1,80 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.exporter;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.eclipse.sw360.datahandler.thrift.vendors.Vendor;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ExcelExporterTest {
+
+    private static final int NUMBER_OF_VENDORS = 2 * ExcelExporter.CHUNK_SIZE + 7;
+
+    @Test
+    public void testAllRowsAreWrittenInChunks() throws Exception {
+        List<Vendor> vendors = makeVendors();
+        List<Integer> chunkSizes = new ArrayList<>();
+        VendorExporter exporter = new VendorExporter() {
+            @Override
+            protected void preloadRelatedDataFor(List<Vendor> documents) {
+                chunkSizes.add(documents.size());
+            }
+        };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.writeExcelExport(vendors, out);
+
+        assertThat(chunkSizes, is(List.of(ExcelExporter.CHUNK_SIZE, ExcelExporter.CHUNK_SIZE, 7)));
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Data");
+            assertThat(sheet.getLastRowNum(), is(NUMBER_OF_VENDORS));
+            assertThat(sheet.getRow(0).getCell(0).getStringCellValue(), is("Vendor Fullname"));
+            assertThat(sheet.getRow(1).getCell(0).getStringCellValue(), is("vendor 0"));
+            assertThat(sheet.getRow(NUMBER_OF_VENDORS).getCell(1).getStringCellValue(),
+                    is("v" + (NUMBER_OF_VENDORS - 1)));
+        }
+    }
+
+    @Test
+    public void testLazyDocumentsAreWrittenToOpenStream() throws Exception {
+        List<Vendor> vendors = makeVendors();
+        boolean[] closed = {false};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        new VendorExporter().writeExcelExport(vendors::iterator, out);
+
+        assertThat(closed[0], is(false));
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(workbook.getSheet("Data").getLastRowNum(), is(NUMBER_OF_VENDORS));
+        }
+    }
+
+    private static List<Vendor> makeVendors() {
+        return IntStream.range(0, NUMBER_OF_VENDORS)
+                .mapToObj(i -> new Vendor("v" + i, "vendor " + i, "https://vendor" + i + ".org"))
+                .collect(Collectors.toList());
+    }
+}
@@ -17,8 +17,6 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
-import java.util.Collections;
-
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
@@ -39,7 +37,7 @@ public class ProjectExporterTest {
     @Test
     public void testEveryRenderedProjectFieldHasAHeader() throws Exception {
         ProjectExporter exporter = new ProjectExporter(componentClient,
-                projectClient, user, Collections.emptyList(), false);
+                projectClient, user, false);
         assertThat(ProjectExporter.PROJECT_RENDERED_FIELDS.size(), is(ProjectExporter.HEADERS.size()));
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.cloudantclient;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the tasks polling the _changes feed of a database and stops them when the service is destroyed
+ */
+public class ChangesFollowerTracker {
+    private static ConcurrentLinkedQueue<ScheduledExecutorService> trackedExecutors = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Runs the poll on its own daemon thread with the given name, waiting the interval between two polls
+     */
+    public static void follow(String threadName, Runnable poll, long intervalSeconds) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(poll, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        trackedExecutors.add(executor);
+    }
+
+    public static void destroy() {
+        ScheduledExecutorService trackedExecutor;
+        while ((trackedExecutor = trackedExecutors.poll()) != null) {
+            trackedExecutor.shutdownNow();
+        }
+    }
+}
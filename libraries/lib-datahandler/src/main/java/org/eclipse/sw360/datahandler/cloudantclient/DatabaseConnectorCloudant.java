@@ -11,11 +11,13 @@ package org.eclipse.sw360.datahandler.cloudantclient;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
@@ -34,6 +36,8 @@ import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 import com.cloudant.client.api.CloudantClient;
 import com.cloudant.client.api.Database;
 import com.cloudant.client.api.DesignDocumentManager;
+import com.cloudant.client.api.model.ChangesResult;
+import com.cloudant.client.api.model.DesignDocument;
 import com.cloudant.client.api.model.Response;
 import com.cloudant.client.api.query.QueryResult;
 import com.cloudant.client.api.views.Key;
@@ -41,10 +45,13 @@ import com.cloudant.client.api.views.ViewRequest;
 import com.cloudant.client.api.views.ViewRequestBuilder;
 import com.cloudant.client.api.views.ViewResponse;
 import com.cloudant.client.api.views.ViewResponse.Row;
+import com.cloudant.client.org.lightcouch.DocumentConflictException;
 import com.cloudant.client.org.lightcouch.NoDocumentException;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 
 /**
  * Database Connector to a CouchDB database
@@ -55,10 +62,19 @@ public class DatabaseConnectorCloudant {
     private final Logger log = LogManager.getLogger(DatabaseConnectorCloudant.class);
     private static final ImmutableList<String> entitiesWithNonMatchingStructType = ImmutableList
             .of("moderation", "attachment", "usedReleaseRelation");
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+    private static final String CHANGES_FILTER_DESIGN_DOCUMENT = "changes";
+    private static final String BY_TYPE_FILTER_NAME = "bytype";
+    // deletions always pass, as their tombstones do not carry the type of the deleted document
+    private static final String BY_TYPE_FILTER =
+            "function(doc, req) {" +
+            "  return doc._deleted || (req.query.types || '').split(',').indexOf(doc.type) >= 0;" +
+            "}";
 
     private final String dbName;
     private final DatabaseInstanceCloudant instance;
     private final Database database;
+    private volatile boolean changesFilterCreated;
 
     public DatabaseConnectorCloudant(Supplier<CloudantClient> client, String dbName) {
         this.instance = new DatabaseInstanceCloudant(client);
@@ -149,14 +165,21 @@ public class DatabaseConnectorCloudant {
     public <T> List<T> getAll(Class<T> type) {
         List<T> list = Lists.newArrayList();
         try {
-            list = database.getViewRequestBuilder(type.getSimpleName(), "all").newRequest(Key.Type.STRING, Object.class)
-                    .includeDocs(true).build().getResponse().getDocsAs(type);
+            list = getAllOrThrow(type);
         } catch (Exception e) {
             log.error("Error getting documents", e);
         }
         return list;
     }
 
+    /**
+     * Like {@link #getAll(Class)}, but fails instead of returning an empty list if the documents cannot be read
+     */
+    public <T> List<T> getAllOrThrow(Class<T> type) throws IOException {
+        return database.getViewRequestBuilder(type.getSimpleName(), "all").newRequest(Key.Type.STRING, Object.class)
+                .includeDocs(true).build().getResponse().getDocsAs(type);
+    }
+
     public boolean remove(String id) {
         Response resp = database.remove(id);
         boolean success = resp.getStatusCode() == HttpStatus.SC_OK ? true : false;
@@ -256,6 +279,119 @@ public class DatabaseConnectorCloudant {
         database.saveAttachment(attachmentInputStream, fileName, contentType, attachmentContentId, revision);
     }
 
+    /**
+     * Sets top level string fields of a document. Unlike {@link #update(Object)}, the attachments of the document are
+     * kept as they are and do not need to be uploaded again.
+     */
+    public void updateFields(String docId, Map<String, String> fields) {
+        updateFields(docId, fields, false);
+    }
+
+    /**
+     * Sets top level string fields of a document and removes all its attachments in the same update
+     */
+    public void updateFieldsAndRemoveAttachments(String docId, Map<String, String> fields) {
+        updateFields(docId, fields, true);
+    }
+
+    private void updateFields(String docId, Map<String, String> fields, boolean removeAttachments) {
+        JsonObject document = database.find(JsonObject.class, docId);
+        fields.forEach((name, value) -> document.add(name, new JsonPrimitive(value)));
+        if (removeAttachments) {
+            document.remove("_attachments");
+        }
+        database.update(document);
+    }
+
+    /**
+     * @return the stubs of the attachments of the document by attachment name, with their length and digest
+     */
+    public Map<String, JsonObject> getAttachmentStubs(String docId) {
+        JsonObject document = database.find(JsonObject.class, docId);
+        JsonObject attachments = document.getAsJsonObject("_attachments");
+        if (attachments == null) {
+            return Collections.emptyMap();
+        }
+        return attachments.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getAsJsonObject()));
+    }
+
+    /**
+     * Removes those attachments of the document which still have the given digests. Attachments added or replaced
+     * since the digests were read are kept. The update is retried if the document is changed concurrently.
+     *
+     * @param digests the digests of the attachments to remove by attachment name
+     * @return the names of the attachments the document keeps
+     * @throws DocumentConflictException if the document kept being changed concurrently
+     */
+    public Set<String> removeAttachments(String docId, Map<String, String> digests) {
+        for (int attempt = 1; ; attempt++) {
+            JsonObject document = database.find(JsonObject.class, docId);
+            JsonObject attachments = document.getAsJsonObject("_attachments");
+            if (attachments == null) {
+                return Collections.emptySet();
+            }
+            boolean removed = false;
+            for (Map.Entry<String, String> digest : digests.entrySet()) {
+                JsonObject stub = attachments.getAsJsonObject(digest.getKey());
+                if (stub != null && stub.has("digest") && stub.get("digest").getAsString().equals(digest.getValue())) {
+                    attachments.remove(digest.getKey());
+                    removed = true;
+                }
+            }
+            Set<String> keptNames = attachments.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+            if (!removed) {
+                return keptNames;
+            }
+            if (keptNames.isEmpty()) {
+                document.remove("_attachments");
+            }
+            try {
+                Response response = database.update(document);
+                if (response.getError() != null) {
+                    throw new IllegalStateException("Could not remove the attachments of " + docId + ": "
+                            + response.getError() + " " + response.getReason());
+                }
+                return keptNames;
+            } catch (DocumentConflictException e) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Document " + docId + " was changed concurrently, retrying to remove its attachments");
+            }
+        }
+    }
+
+    /**
+     * @return those of the given ids for which a document exists, regardless of its type
+     * @throws UncheckedIOException if the database could not be queried, so that no document is taken as missing
+     */
+    public Set<String> getExistingIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        try {
+            return database.getAllDocsRequestBuilder().includeDocs(true).keys(ids.toArray(new String[0])).build()
+                    .getResponse().getDocsAs(JsonObject.class).stream()
+                    .filter(Objects::nonNull)
+                    .map(document -> document.get("_id").getAsString())
+                    .collect(Collectors.toSet());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not check which documents exist", e);
+        }
+    }
+
+    /**
+     * @return the document with the given id, or null if there is none
+     */
+    public <T> T getIfExists(Class<T> type, String id) {
+        try {
+            return database.find(type, id);
+        } catch (NoDocumentException e) {
+            return null;
+        }
+    }
+
     public <T> boolean deleteById(Class<T> type, String id) {
         Response result = null;
         if (database.contains(id)) {
@@ -305,4 +441,48 @@ public class DatabaseConnectorCloudant {
         }
         return Collections.emptySet();
     }
+
+    /**
+     * Reads the distinct keys of a view with a reduce function, grouping by key so that only one row per key is
+     * transferred
+     */
+    public <T> Set<String> getDistinctSortedStringKeysOfGroupedView(Class<T> type, String viewName) {
+        ViewRequest<String, Object> request = database.getViewRequestBuilder(type.getSimpleName(), viewName)
+                .newRequest(Key.Type.STRING, Object.class).reduce(true).group(true).build();
+        try {
+            ViewResponse<String, Object> response = request.getResponse();
+            return response.getKeys().stream().filter(Objects::nonNull).collect(Collectors.toCollection(TreeSet::new));
+        } catch (IOException e) {
+            log.error("Error in getting distinct keys of view " + viewName, e);
+        }
+        return Collections.emptySet();
+    }
+
+    public String getUpdateSequence() {
+        return database.info().getUpdateSeq();
+    }
+
+    /**
+     * Reads one batch of the _changes feed (including the changed documents) starting after the given sequence,
+     * restricted to documents of the given types. Deletions of documents of any type are contained, as CouchDB
+     * does not know the type of a deleted document.
+     */
+    public ChangesResult getChanges(String since, int limit, Collection<String> types) {
+        createChangesFilter();
+        return database.changes().since(since).limit(limit).includeDocs(true)
+                .filter(CHANGES_FILTER_DESIGN_DOCUMENT + "/" + BY_TYPE_FILTER_NAME)
+                .parameter("types", String.join(",", types))
+                .getChanges();
+    }
+
+    private void createChangesFilter() {
+        if (!changesFilterCreated) {
+            DesignDocument ddoc = new DesignDocument();
+            ddoc.setId("_design/" + CHANGES_FILTER_DESIGN_DOCUMENT);
+            ddoc.setFilters(Collections.singletonMap(BY_TYPE_FILTER_NAME, BY_TYPE_FILTER));
+            // only writes the design document if it does not exist yet or differs
+            database.getDesignDocumentManager().put(ddoc);
+            changesFilterCreated = true;
+        }
+    }
 }
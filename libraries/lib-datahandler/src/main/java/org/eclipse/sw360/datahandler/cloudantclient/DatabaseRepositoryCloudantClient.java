@@ -10,6 +10,7 @@
 package org.eclipse.sw360.datahandler.cloudantclient;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.Source;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 
@@ -186,6 +188,31 @@ public class DatabaseRepositoryCloudantClient<T> {
         return ids.stream().map(Object::toString).collect(Collectors.toSet());
     }
 
+    /**
+     * Returns the ids of the documents of one page of the rows of the given request, keeping the order of the view.
+     * The page starts at the display start of the pagination data and contains at most rows per page rows, or all
+     * remaining rows if rows per page is negative.
+     */
+    public List<String> queryForIdsOfPage(UnpaginatedRequestBuilder<?, ?> query, PaginationData pageData) {
+        List<String> ids = new ArrayList<>();
+        int start = pageData.isSetDisplayStart() ? Math.max(pageData.getDisplayStart(), 0) : 0;
+        int rowsPerPage = pageData.isSetRowsPerPage() ? pageData.getRowsPerPage() : -1;
+        if (rowsPerPage == 0) {
+            return ids;
+        }
+        query = query.includeDocs(false).skip(start);
+        if (rowsPerPage > 0) {
+            query = query.limit(rowsPerPage);
+        }
+        ViewResponse<Object, Object> response = queryQueryResponse(query);
+        if (response != null) {
+            for (ViewResponse.Row<Object, Object> row : response.getRows()) {
+                ids.add(row.getId());
+            }
+        }
+        return ids;
+    }
+
     public List<T> queryByPrefix(String viewName, String key) {
         return queryView(viewName, key, key + HIGH_VALUE_UNICODE_CHARACTER);
     }
@@ -46,6 +46,13 @@ public class DatabaseSettings {
 
     public static final int LUCENE_SEARCH_LIMIT;
     public static final boolean LUCENE_LEADING_WILDCARD;
+    public static final int LUCENE_MAX_CONCURRENT_QUERIES;
+    public static final int LUCENE_QUERY_TIMEOUT_MILLIS;
+    public static final int ATTACHMENT_BUNDLE_MAX_CONCURRENT;
+    public static final int ATTACHMENT_BUNDLE_PREFETCH;
+    public static final int ATTACHMENT_BUNDLE_PREFETCH_MEMORY;
+    public static final String ATTACHMENT_STORE_BACKEND;
+    public static final String ATTACHMENT_STORE_DIRECTORY;
 
     private static final String COUCH_DB_USERNAME;
     private static final String COUCH_DB_PASSWORD;
@@ -66,6 +73,14 @@ public class DatabaseSettings {
 
         LUCENE_SEARCH_LIMIT = Integer.parseInt(props.getProperty("lucenesearch.limit", "25"));
         LUCENE_LEADING_WILDCARD = Boolean.parseBoolean(props.getProperty("lucenesearch.leading.wildcard", "false"));
+        LUCENE_MAX_CONCURRENT_QUERIES = Integer.parseInt(props.getProperty("lucenesearch.max.concurrent.queries", "20"));
+        LUCENE_QUERY_TIMEOUT_MILLIS = Integer.parseInt(props.getProperty("lucenesearch.query.timeout", "30000"));
+
+        ATTACHMENT_BUNDLE_MAX_CONCURRENT = Integer.parseInt(props.getProperty("attachment.bundle.max.concurrent", "4"));
+        ATTACHMENT_BUNDLE_PREFETCH = Integer.parseInt(props.getProperty("attachment.bundle.prefetch", "4"));
+        ATTACHMENT_BUNDLE_PREFETCH_MEMORY = Integer.parseInt(props.getProperty("attachment.bundle.prefetch.memory", "4194304"));
+        ATTACHMENT_STORE_BACKEND = props.getProperty("attachment.store.backend", "couchdb");
+        ATTACHMENT_STORE_DIRECTORY = props.getProperty("attachment.store.backend.directory", "/var/lib/sw360/attachments");
     }
 
     public static Supplier<HttpClient> getConfiguredHttpClient() throws MalformedURLException {
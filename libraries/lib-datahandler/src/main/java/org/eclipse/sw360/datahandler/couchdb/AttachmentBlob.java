@@ -0,0 +1,86 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.gson.annotations.SerializedName;
+
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+
+/**
+ * Record of attachment data which is stored only once for all attachment contents with the same sha1 and size. The
+ * data is kept by the attachment content which was uploaded first, the others link to it. The record counts the
+ * attachment contents using the data, including the one keeping it.
+ */
+public class AttachmentBlob {
+    public static final String TYPE = "attachmentBlob";
+
+    @SerializedName("_id")
+    private String id;
+    @SerializedName("_rev")
+    private String revision;
+    private String type = TYPE;
+    private String contentId;
+    private String filename;
+    private String partsCount;
+    private int references;
+
+    public AttachmentBlob() {
+    }
+
+    AttachmentBlob(AttachmentContent holder) {
+        this.id = idOf(holder.getSha1(), holder.getSize());
+        this.contentId = holder.getId();
+        this.filename = holder.getFilename();
+        this.partsCount = holder.getPartsCount();
+        this.references = 1;
+    }
+
+    public static String idOf(String sha1, String size) {
+        return TYPE + "-" + sha1 + "-" + size;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return id of the attachment content keeping the data
+     */
+    public String getContentId() {
+        return contentId;
+    }
+
+    /**
+     * @return file name the data is stored under in the attachment content keeping it
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    public String getPartsCount() {
+        return partsCount;
+    }
+
+    public int getReferences() {
+        return references;
+    }
+
+    void setReferences(int references) {
+        this.references = references;
+    }
+}
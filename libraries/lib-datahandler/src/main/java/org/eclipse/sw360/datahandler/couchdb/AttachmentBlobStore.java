@@ -0,0 +1,194 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.cloudant.client.org.lightcouch.DocumentConflictException;
+import com.google.common.collect.ImmutableMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * Content addressed store for the data of attachment contents. Contents whose sha1 and size match an already stored
+ * blob drop their own copy of the data and link to the blob instead. Deleting a content only decrements the reference
+ * count of its blob, the content keeping the data is detached then and kept until no other content links to it. Blobs
+ * without references are deleted by {@link #delete(AttachmentBlob)}.
+ *
+ * The reference counts are updated with the revision read before, conflicting updates are retried.
+ */
+public class AttachmentBlobStore {
+    private static final Logger log = LogManager.getLogger(AttachmentBlobStore.class);
+
+    /**
+     * Type of attachment contents which were deleted but still keep the data of a blob
+     */
+    public static final String DETACHED_TYPE = "detachedAttachment";
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final String TYPE_FIELD = AttachmentContent._Fields.TYPE.getFieldName();
+    private static final String BLOB_ID_FIELD = AttachmentContent._Fields.BLOB_ID.getFieldName();
+
+    private final DatabaseConnectorCloudant connector;
+    private final AttachmentDataStore dataStore;
+
+    public AttachmentBlobStore(DatabaseConnectorCloudant connector) {
+        this(connector, AttachmentDataStore.configured(connector));
+    }
+
+    public AttachmentBlobStore(DatabaseConnectorCloudant connector, AttachmentDataStore dataStore) {
+        this.connector = connector;
+        this.dataStore = dataStore;
+    }
+
+    /**
+     * Stores the data of the given content, whose sha1 and size have to be recorded already. If a blob with the same
+     * sha1 and size exists, the content is linked to it and its own copy of the data is removed. Otherwise the
+     * content keeps the data for the new blob. Failing to do so is not an error, the content keeps its data then.
+     *
+     * @return the id of the blob, or null if the content was not stored as blob
+     */
+    public String store(AttachmentContent content) {
+        if (content.isSetBlobId() || isNullOrEmpty(content.getSha1()) || isNullOrEmpty(content.getSize())) {
+            return content.getBlobId();
+        }
+
+        String blobId = AttachmentBlob.idOf(content.getSha1(), content.getSize());
+        try {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                AttachmentBlob blob = connector.getIfExists(AttachmentBlob.class, blobId);
+                try {
+                    if (blob == null) {
+                        return keepData(content, new AttachmentBlob(content));
+                    } else if (blob.getContentId().equals(content.getId())) {
+                        return blobId;
+                    } else {
+                        blob.setReferences(blob.getReferences() + 1);
+                        connector.update(blob);
+                        return link(content, blobId);
+                    }
+                } catch (DocumentConflictException e) {
+                    log.debug("Blob " + blobId + " was changed concurrently, retrying");
+                }
+            }
+            log.warn("Could not store attachment " + content.getId() + " as blob " + blobId + " due to concurrent changes");
+        } catch (RuntimeException e) {
+            log.warn("Could not store attachment " + content.getId() + " as blob " + blobId, e);
+        }
+        return null;
+    }
+
+    private String keepData(AttachmentContent content, AttachmentBlob blob) {
+        if (!connector.add(blob)) {
+            return null;
+        }
+        try {
+            connector.updateFields(content.getId(), ImmutableMap.of(BLOB_ID_FIELD, blob.getId()));
+        } catch (RuntimeException e) {
+            // the blob must not be linked to a content which does not know about it
+            AttachmentBlob added = connector.getIfExists(AttachmentBlob.class, blob.getId());
+            if (added != null) {
+                connector.remove(added);
+            }
+            throw e;
+        }
+        content.setBlobId(blob.getId());
+        return blob.getId();
+    }
+
+    private String link(AttachmentContent content, String blobId) {
+        try {
+            connector.updateFieldsAndRemoveAttachments(content.getId(), ImmutableMap.of(BLOB_ID_FIELD, blobId));
+        } catch (RuntimeException e) {
+            decrementReferences(blobId);
+            throw e;
+        }
+        dataStore.delete(content.getId());
+        content.setBlobId(blobId);
+        return blobId;
+    }
+
+    /**
+     * @return the blob the content is stored as, or null if the content keeps its own data
+     */
+    public AttachmentBlob getBlob(AttachmentContent content) {
+        return content.isSetBlobId() ? connector.getIfExists(AttachmentBlob.class, content.getBlobId()) : null;
+    }
+
+    /**
+     * Removes the reference of the given content to its blob. The content keeping the data of the blob is detached
+     * instead of deleted, so that the data stays available for the contents linking to it.
+     *
+     * @return true if the content can be deleted now
+     */
+    public boolean release(AttachmentContent content) {
+        if (!content.isSetBlobId()) {
+            return true;
+        }
+        AttachmentBlob blob = decrementReferences(content.getBlobId());
+        if (blob == null) {
+            return true;
+        }
+        if (blob.getContentId().equals(content.getId())) {
+            connector.updateFields(content.getId(), ImmutableMap.of(TYPE_FIELD, DETACHED_TYPE));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the blob after decrementing, or null if there is no such blob
+     */
+    private AttachmentBlob decrementReferences(String blobId) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            AttachmentBlob blob = connector.getIfExists(AttachmentBlob.class, blobId);
+            if (blob == null) {
+                return null;
+            }
+            try {
+                blob.setReferences(Math.max(blob.getReferences() - 1, 0));
+                connector.update(blob);
+                return blob;
+            } catch (DocumentConflictException e) {
+                log.debug("Blob " + blobId + " was changed concurrently, retrying");
+            }
+        }
+        throw new IllegalStateException("Could not release blob " + blobId + " due to concurrent changes");
+    }
+
+    /**
+     * Deletes the given blob along with the detached content keeping its data, if no content references it any more.
+     * Blobs which were referenced again in the meantime are kept.
+     *
+     * @return true if the blob was deleted
+     */
+    public boolean delete(AttachmentBlob blob) {
+        if (blob.getReferences() > 0) {
+            return false;
+        }
+        try {
+            // removing the record first ensures that no content is linked to the data while it is deleted
+            connector.remove(blob);
+        } catch (DocumentConflictException e) {
+            log.info("Blob " + blob.getId() + " was referenced again and is kept");
+            return false;
+        }
+
+        AttachmentContent holder = connector.getIfExists(AttachmentContent.class, blob.getContentId());
+        if (holder != null && DETACHED_TYPE.equals(holder.getType())) {
+            connector.remove(holder);
+            dataStore.delete(holder.getId());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.common.DatabaseSettings;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes attachment bundles as zip streams. The bundles are written by a fixed number of threads shared by all
+ * downloads, further downloads wait for a free slot. While one attachment is written, the next ones are already read
+ * from the database in the background, into memory or into a temporary file if they are large. Attachments which are
+ * compressed archives already are stored without compressing them again.
+ */
+public class AttachmentBundleWriter {
+    private static final Logger log = LogManager.getLogger(AttachmentBundleWriter.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PIPE_SIZE = 1024 * 1024;
+    private static final long BUNDLE_SLOT_WAIT_MILLIS = 30000;
+    private static final Set<String> COMPRESSED_EXTENSIONS = ImmutableSet.of("gz", "tgz", "bz2", "tbz", "tbz2", "xz",
+            "txz", "lz", "lzma", "zst", "7z", "rar", "zip", "jar", "war", "ear", "apk", "whl", "nupkg", "gem", "rpm",
+            "deb", "png", "jpg", "jpeg", "gif");
+
+    private static final AttachmentBundleWriter INSTANCE = new AttachmentBundleWriter(
+            DatabaseSettings.ATTACHMENT_BUNDLE_MAX_CONCURRENT, DatabaseSettings.ATTACHMENT_BUNDLE_PREFETCH,
+            DatabaseSettings.ATTACHMENT_BUNDLE_PREFETCH_MEMORY, BUNDLE_SLOT_WAIT_MILLIS);
+
+    private final ExecutorService bundleExecutor;
+    private final ExecutorService prefetchExecutor;
+    private final Semaphore bundleSlots;
+    private final int prefetchCount;
+    private final int prefetchMemoryBytes;
+    private final long slotWaitMillis;
+
+    @FunctionalInterface
+    public interface EntryContent {
+        InputStream open() throws TException;
+    }
+
+    public static final class Entry {
+        private final String name;
+        private final EntryContent content;
+
+        public Entry(String name, EntryContent content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+
+    private static final class PrefetchedContent implements Closeable {
+        private static final PrefetchedContent EMPTY = new PrefetchedContent(new byte[0], null, 0, 0);
+
+        private final byte[] data;
+        private final File file;
+        private final long size;
+        private final long crc;
+
+        private PrefetchedContent(byte[] data, File file, long size, long crc) {
+            this.data = data;
+            this.file = file;
+            this.size = size;
+            this.crc = crc;
+        }
+
+        private InputStream openStream() throws IOException {
+            return data != null ? new ByteArrayInputStream(data) : new FileInputStream(file);
+        }
+
+        @Override
+        public void close() {
+            deleteFile(file);
+        }
+    }
+
+    public static AttachmentBundleWriter getInstance() {
+        return INSTANCE;
+    }
+
+    AttachmentBundleWriter(int maxConcurrentBundles, int prefetchCount, int prefetchMemoryBytes, long slotWaitMillis) {
+        this.bundleSlots = new Semaphore(maxConcurrentBundles, true);
+        this.prefetchCount = Math.max(prefetchCount, 0);
+        this.prefetchMemoryBytes = prefetchMemoryBytes;
+        this.slotWaitMillis = slotWaitMillis;
+        this.bundleExecutor = Executors.newFixedThreadPool(maxConcurrentBundles,
+                new ThreadFactoryBuilder().setNameFormat("sw360-attachment-bundle-%d").setDaemon(true).build());
+        this.prefetchExecutor = Executors.newFixedThreadPool(maxConcurrentBundles * Math.max(this.prefetchCount, 1),
+                new ThreadFactoryBuilder().setNameFormat("sw360-attachment-prefetch-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Starts writing the entries in the given order and returns the zip stream. Entries whose content cannot be
+     * opened are written empty. It is highly recommended to close this stream after using, closing it early stops
+     * the writing.
+     *
+     * @throws SW360Exception if the maximum number of bundles is written for too long already
+     */
+    public InputStream write(List<Entry> entries) throws IOException, SW360Exception {
+        try {
+            if (!bundleSlots.tryAcquire(slotWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new SW360Exception("Too many attachment bundles are downloaded at the moment, please try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SW360Exception("Interrupted while waiting to write attachment bundle");
+        }
+
+        PipedInputStream in = new PipedInputStream(PIPE_SIZE);
+        PipedOutputStream out;
+        try {
+            out = new PipedOutputStream(in);
+            bundleExecutor.execute(() -> writeBundle(new ArrayList<>(entries), out));
+        } catch (IOException | RuntimeException e) {
+            bundleSlots.release();
+            throw e;
+        }
+        return in;
+    }
+
+    public int getAvailableBundleSlots() {
+        return bundleSlots.availablePermits();
+    }
+
+    private void writeBundle(List<Entry> entries, PipedOutputStream out) {
+        Deque<Future<PrefetchedContent>> prefetched = new ArrayDeque<>();
+        int next = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE))) {
+            for (Entry entry : entries) {
+                while (next < entries.size() && prefetched.size() <= prefetchCount) {
+                    Entry toPrefetch = entries.get(next++);
+                    prefetched.add(prefetchExecutor.submit(() -> prefetch(toPrefetch)));
+                }
+                try (PrefetchedContent content = getPrefetched(prefetched.poll())) {
+                    writeEntry(zip, entry.name, content);
+                }
+            }
+        } catch (IOException e) {
+            log.error("failed to write zip stream", e);
+        } finally {
+            prefetched.forEach(AttachmentBundleWriter::discard);
+            closeQuietly(out);
+            bundleSlots.release();
+        }
+    }
+
+    private PrefetchedContent prefetch(Entry entry) throws IOException, TException {
+        CRC32 crc = new CRC32();
+        DeferredFileOutputStream buffer = new DeferredFileOutputStream(prefetchMemoryBytes, "sw360-bundle-", ".tmp", null);
+        long size = 0;
+        try (InputStream in = entry.content.open(); OutputStream out = buffer) {
+            byte[] bytes = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = in.read(bytes)) >= 0) {
+                crc.update(bytes, 0, length);
+                out.write(bytes, 0, length);
+                size += length;
+            }
+        } catch (IOException | TException | RuntimeException e) {
+            deleteFile(buffer.getFile());
+            throw e;
+        }
+
+        PrefetchedContent content = new PrefetchedContent(buffer.isInMemory() ? buffer.getData() : null,
+                buffer.getFile(), size, crc.getValue());
+        if (Thread.currentThread().isInterrupted()) {
+            // the bundle was aborted while reading
+            content.close();
+            throw new InterruptedIOException("Writing attachment bundle was stopped");
+        }
+        return content;
+    }
+
+    private static PrefetchedContent getPrefetched(Future<PrefetchedContent> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing attachment bundle");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            log.error("failed to get AttachmentStream, maybe due to permission problems", e.getCause());
+            return PrefetchedContent.EMPTY;
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream zip, String name, PrefetchedContent content) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(name);
+        if (isCompressed(name)) {
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(content.size);
+            zipEntry.setCompressedSize(content.size);
+            zipEntry.setCrc(content.crc);
+        }
+
+        zip.putNextEntry(zipEntry);
+        try (InputStream in = content.openStream()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                zip.write(buffer, 0, length);
+            }
+        }
+        zip.closeEntry();
+    }
+
+    static boolean isCompressed(String fileName) {
+        int index = fileName.lastIndexOf('.');
+        return index >= 0 && COMPRESSED_EXTENSIONS.contains(fileName.substring(index + 1).toLowerCase());
+    }
+
+    private static void discard(Future<PrefetchedContent> future) {
+        if (!future.cancel(true)) {
+            try {
+                future.get().close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ignored) {
+                // nothing was kept
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("failed to close zip stream", e);
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (file != null && file.exists() && !file.delete()) {
+            log.warn("Could not delete temporary file " + file);
+        }
+    }
+}
@@ -10,7 +10,9 @@
 package org.eclipse.sw360.datahandler.couchdb;
 
 import com.cloudant.client.api.CloudantClient;
+import com.cloudant.client.api.model.Response;
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
@@ -23,6 +25,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -32,7 +37,6 @@ import static org.eclipse.sw360.datahandler.common.CommonUtils.closeQuietly;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyCollection;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptySet;
 import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotEmpty;
-import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
 
 import org.eclipse.sw360.datahandler.thrift.attachments.CheckStatus;
 
@@ -50,6 +54,10 @@ public class AttachmentConnector extends AttachmentStreamConnector {
         super(databaseConnectorCloudant, downloadTimeout);
     }
 
+    public AttachmentConnector(DatabaseConnectorCloudant databaseConnectorCloudant, AttachmentDataStore dataStore, Duration downloadTimeout) {
+        super(databaseConnectorCloudant, dataStore, new AttachmentContentDownloader(), downloadTimeout);
+    }
+
     /**
      * @todo remove this mess of constructors and use dependency injection
      */
@@ -74,7 +82,7 @@ public class AttachmentConnector extends AttachmentStreamConnector {
     }
 
     public void deleteAttachment(String id) {
-        connector.deleteById(AttachmentContent.class, id);
+        deleteAttachmentsByIds(Collections.singleton(id));
     }
 
     public void deleteAttachments(Collection<Attachment> attachments) {
@@ -82,8 +90,36 @@ public class AttachmentConnector extends AttachmentStreamConnector {
         deleteAttachmentsByIds(attachmentContentIds);
     }
 
-    private void deleteAttachmentsByIds(Collection<String> attachmentContentIds) {
-        connector.deleteIds(AttachmentContent.class, attachmentContentIds);
+    /**
+     * Contents stored as blob only release their reference to it, the content keeping the data of a blob is deleted
+     * once no other content links to it any more
+     *
+     * @return the results of deleting the contents which are not kept for their blob
+     */
+    public List<Response> deleteAttachmentsByIds(Collection<String> attachmentContentIds) {
+        Set<String> keptIds = connector.get(AttachmentContent.class, attachmentContentIds).stream()
+                .filter(AttachmentContent::isSetBlobId)
+                .filter(attachmentContent -> !releaseBlob(attachmentContent))
+                .map(AttachmentContent::getId)
+                .collect(Collectors.toSet());
+        Set<String> idsToDelete = new HashSet<>(attachmentContentIds);
+        idsToDelete.removeAll(keptIds);
+        List<Response> results = connector.deleteIds(AttachmentContent.class, idsToDelete);
+        // the data of contents which could not be deleted is still needed
+        results.stream()
+                .filter(result -> result.getError() == null)
+                .map(Response::getId)
+                .forEach(dataStore::delete);
+        return results;
+    }
+
+    private boolean releaseBlob(AttachmentContent attachmentContent) {
+        try {
+            return blobStore.release(attachmentContent);
+        } catch (RuntimeException e) {
+            log.error("Could not release the blob of attachment " + attachmentContent.getId() + ", keeping it", e);
+            return false;
+        }
     }
 
     public Set<String> getAttachmentContentIds(Collection<Attachment> attachments) {
@@ -108,12 +144,23 @@ public class AttachmentConnector extends AttachmentStreamConnector {
                 getAttachmentContentIds(attachmentsAfter));
     }
 
+    /**
+     * Returns the sha1 recorded for the content. Content uploaded before checksums were recorded is read once to
+     * compute it, which is recorded then as well.
+     */
     public String getSha1FromAttachmentContentId(String attachmentContentId) {
         InputStream attachmentStream = null;
         try {
             AttachmentContent attachmentContent = getAttachmentContent(attachmentContentId);
-            attachmentStream = readAttachmentStream(attachmentContent);
-            return sha1Hex(attachmentStream);
+            if (!isNullOrEmpty(attachmentContent.getSha1())) {
+                return attachmentContent.getSha1();
+            }
+            Checksum checksum = new Checksum();
+            attachmentStream = checksum.wrap(readAttachmentStream(attachmentContent));
+            ByteStreams.exhaust(attachmentStream);
+            String sha1 = checksum.getSha1();
+            recordChecksum(attachmentContent, sha1, checksum.getSize());
+            return sha1;
         } catch (SW360Exception e) {
             log.error("Problem retrieving content of attachment", e);
             return "";
@@ -125,6 +172,16 @@ public class AttachmentConnector extends AttachmentStreamConnector {
         }
     }
 
+    /**
+     * Stores the data of the content, whose sha1 has to be recorded already, only once for all contents with the
+     * same data
+     *
+     * @return true if the content is stored as blob
+     */
+    public boolean storeAsBlob(String attachmentContentId) throws SW360Exception {
+        return blobStore.store(getAttachmentContent(attachmentContentId)) != null;
+    }
+
     public void setSha1ForAttachments(Set<Attachment> attachments){
         for(Attachment attachment : attachments){
             if(isNullOrEmpty(attachment.getSha1())){
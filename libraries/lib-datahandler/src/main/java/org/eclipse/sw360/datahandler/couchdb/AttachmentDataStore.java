@@ -0,0 +1,55 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.common.DatabaseSettings;
+
+import java.io.InputStream;
+import java.nio.file.Paths;
+
+/**
+ * Storage of the data of attachment contents. The metadata of the contents is always kept in CouchDB, the data is
+ * stored by name for each content, e.g. the file name or the names of the parts of an upload in several parts.
+ *
+ * The store is selected per deployment with the property attachment.store.backend in couchdb.properties.
+ */
+public interface AttachmentDataStore {
+    String COUCHDB = "couchdb";
+    String FILESYSTEM = "filesystem";
+
+    /**
+     * Stores the data under the given name, replacing data stored before under the same name
+     */
+    void write(String attachmentContentId, String name, InputStream data);
+
+    /**
+     * It is highly recommended to close this stream after using to avoid resource leaks
+     *
+     * @throws com.cloudant.client.org.lightcouch.NoDocumentException if there is no data with the given name
+     */
+    InputStream read(String attachmentContentId, String name);
+
+    /**
+     * Deletes all data of the content which is not deleted along with its metadata
+     */
+    void delete(String attachmentContentId);
+
+    /**
+     * @return the store configured for the deployment, using the given connector for data kept in CouchDB
+     */
+    static AttachmentDataStore configured(DatabaseConnectorCloudant connector) {
+        AttachmentDataStore couchDbStore = new CouchDbAttachmentDataStore(connector);
+        if (FILESYSTEM.equalsIgnoreCase(DatabaseSettings.ATTACHMENT_STORE_BACKEND)) {
+            return new FileSystemAttachmentDataStore(Paths.get(DatabaseSettings.ATTACHMENT_STORE_DIRECTORY), couchDbStore);
+        }
+        return couchDbStore;
+    }
+}
@@ -10,6 +10,13 @@
  */
 package org.eclipse.sw360.datahandler.couchdb;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.CountingInputStream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TException;
@@ -27,15 +34,17 @@ import com.cloudant.client.org.lightcouch.NoDocumentException;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
 import java.net.MalformedURLException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import static org.eclipse.sw360.datahandler.common.CommonUtils.getExtensionFromFileName;
 import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotNull;
@@ -49,7 +58,13 @@ import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotNull;
 public class AttachmentStreamConnector {
     private static Logger log = LogManager.getLogger(AttachmentStreamConnector.class);
 
+    // checksums of the parts uploaded so far, the parts of an upload are expected one after the other
+    private static final Cache<String, Checksum> PARTIAL_CHECKSUMS = CacheBuilder.newBuilder()
+            .expireAfterAccess(1, TimeUnit.HOURS).maximumSize(1000).build();
+
     protected final DatabaseConnectorCloudant connector;
+    protected final AttachmentDataStore dataStore;
+    protected final AttachmentBlobStore blobStore;
     private final AttachmentContentDownloader attachmentContentDownloader;
     private final Duration downloadTimeout;
 
@@ -67,7 +82,14 @@ public class AttachmentStreamConnector {
     }
 
     public AttachmentStreamConnector(DatabaseConnectorCloudant connector, AttachmentContentDownloader attachmentContentDownloader, Duration downloadTimeout) {
+        this(connector, AttachmentDataStore.configured(connector), attachmentContentDownloader, downloadTimeout);
+    }
+
+    public AttachmentStreamConnector(DatabaseConnectorCloudant connector, AttachmentDataStore dataStore,
+            AttachmentContentDownloader attachmentContentDownloader, Duration downloadTimeout) {
         this.connector = connector;
+        this.dataStore = dataStore;
+        this.blobStore = new AttachmentBlobStore(connector, dataStore);
         this.attachmentContentDownloader = attachmentContentDownloader;
         this.downloadTimeout = downloadTimeout;
     }
@@ -106,46 +128,26 @@ public class AttachmentStreamConnector {
     public <T> InputStream getAttachmentBundleStream(Set<AttachmentContent> attachments, User user, T context) throws IOException, SW360Exception {
         assertNotNull(context);
 
-        PipedInputStream in = new PipedInputStream();
-        PipedOutputStream out = new PipedOutputStream(in);
-
-        new Thread(() -> {
-            Map<String, Integer> fileNameUsageMap = new HashMap<>();
-            byte[] buffer = new byte[1024];
-            int length;
-
-            try(ZipOutputStream zip = new ZipOutputStream(out)){
-                for(AttachmentContent attachment : attachments) {
-                    ZipEntry zipEntry;
-
-                    String originalFileName = attachment.getFilename();
-                    if (!fileNameUsageMap.containsKey(originalFileName)) {
-                        fileNameUsageMap.put(originalFileName, 0);
-                        zipEntry = new ZipEntry(originalFileName);
-                    } else {
-                        int count = fileNameUsageMap.get(originalFileName);
-                        count += 1;
-                        fileNameUsageMap.put(originalFileName, count);
-                        zipEntry = getDeduplicatedZipEntry(originalFileName, fileNameUsageMap);
-                    }
-
-                    zip.putNextEntry(zipEntry);
-                    try(InputStream attachmentStream = unsafeGetAttachmentStream(attachment)) {
-                        while ((length = attachmentStream.read(buffer)) >= 0) {
-                            zip.write(buffer, 0, length);
-                        }
-                    } catch (TException e) {
-                        log.error("failed to get AttachmentStream, maybe due to permission problems", e);
-                    }
-
-                    zip.closeEntry();
-                }
-            } catch (IOException e) {
-                log.error("failed to write zip stream", e);
+        Map<String, Integer> fileNameUsageMap = new HashMap<>();
+        List<AttachmentBundleWriter.Entry> entries = new ArrayList<>();
+        for (AttachmentContent attachment : attachments) {
+            ZipEntry zipEntry;
+
+            String originalFileName = attachment.getFilename();
+            if (!fileNameUsageMap.containsKey(originalFileName)) {
+                fileNameUsageMap.put(originalFileName, 0);
+                zipEntry = new ZipEntry(originalFileName);
+            } else {
+                int count = fileNameUsageMap.get(originalFileName);
+                count += 1;
+                fileNameUsageMap.put(originalFileName, count);
+                zipEntry = getDeduplicatedZipEntry(originalFileName, fileNameUsageMap);
             }
-        }).start();
 
-        return in;
+            entries.add(new AttachmentBundleWriter.Entry(zipEntry.getName(), () -> unsafeGetAttachmentStream(attachment)));
+        }
+
+        return AttachmentBundleWriter.getInstance().write(entries);
     }
 
     protected ZipEntry getDeduplicatedZipEntry(String fileName, Map<String, Integer> fileNameUsageMap) {
@@ -187,21 +189,32 @@ public class AttachmentStreamConnector {
         return attachmentContent;
     }
 
+    /**
+     * Reads the data of the attachment, which is the data of the content keeping it for contents linked to a blob
+     */
     public InputStream readAttachmentStream(AttachmentContent attachment) {
+        AttachmentBlob blob = blobStore.getBlob(attachment);
+        if (blob != null && !blob.getContentId().equals(attachment.getId())) {
+            return readAttachmentStream(blob.getContentId(), blob.getFilename(), blob.getPartsCount());
+        }
+        return readAttachmentStream(attachment.getId(), attachment.getFilename(), attachment.getPartsCount());
+    }
+
+    private InputStream readAttachmentStream(String attachmentId, String filename, String partsCountValue) {
         int partsCount = -1;
 
-        if (attachment.isSetPartsCount()) {
-            partsCount = CommonUtils.toUnsignedInt(attachment.getPartsCount());
+        if (partsCountValue != null) {
+            partsCount = CommonUtils.toUnsignedInt(partsCountValue);
         }
 
         if (partsCount < 0) {
-            return connector.getAttachment(attachment.getId(), attachment.getFilename());
+            return dataStore.read(attachmentId, filename);
         } else {
-            return getConcatenatedAttachmentPartsStream(attachment, partsCount);
+            return getConcatenatedAttachmentPartsStream(attachmentId, filename, partsCount);
         }
     }
 
-    protected InputStream getConcatenatedAttachmentPartsStream(final AttachmentContent attachment, final int partsCount) {
+    protected InputStream getConcatenatedAttachmentPartsStream(final String attachmentId, final String filename, final int partsCount) {
         Iterator<InputStream> streams = new Iterator<InputStream>() {
             int part = 1; // the first is part 1 not 0!
 
@@ -212,11 +225,10 @@ public class AttachmentStreamConnector {
 
             @Override
             public InputStream next() {
-                String attachmentId = attachment.getId();
-                String partFileName = getPartFileName(attachment, part);
+                String partFileName = getPartFileName(filename, part);
                 part++;
                 try {
-                    return connector.getAttachment(attachmentId, partFileName);
+                    return dataStore.read(attachmentId, partFileName);
                 } catch (NoDocumentException e) {
                     log.error("Cannot find part " + (part - 1) + " of attachment " + attachmentId, e);
                     return null;
@@ -233,28 +245,89 @@ public class AttachmentStreamConnector {
     }
 
     /**
-     * Upload a single part attachment using the provided metadata
+     * Upload a single part attachment using the provided metadata. The sha1 and size of the content are recorded
+     * along with it and set on the given attachment.
      */
     public void uploadAttachment(AttachmentContent attachment, InputStream stream) throws SW360Exception {
-        addAttachmentTo(attachment.getId(), attachment.getFilename(), stream);
+        Checksum checksum = new Checksum();
+        addAttachmentTo(attachment.getId(), attachment.getFilename(), checksum.wrap(stream));
+        recordChecksum(attachment, checksum.getSha1(), checksum.getSize());
     }
 
     /**
-     * Upload a part of an attachment using the provided metadata
+     * Upload a part of an attachment using the provided metadata. If all parts were uploaded one after the other, the
+     * sha1 and size of the whole content are recorded with the last part.
      */
     public void uploadAttachmentPart(AttachmentContent attachmentContent, int part, InputStream stream) throws SW360Exception {
         // Extract required data
         assertNotNull(attachmentContent);
 
         String partFileName = getPartFileName(attachmentContent, part);
+        String attachmentContentId = attachmentContent.getId();
+
+        Checksum checksum = part == 1 ? new Checksum() : PARTIAL_CHECKSUMS.getIfPresent(attachmentContentId);
+        PARTIAL_CHECKSUMS.invalidate(attachmentContentId);
+        if (checksum == null || checksum.nextPart != part) {
+            // parts were skipped or repeated, the checksum is computed when it is needed
+            addAttachmentTo(attachmentContentId, partFileName, stream);
+            return;
+        }
 
-        addAttachmentTo(attachmentContent.getId(), partFileName, stream);
+        addAttachmentTo(attachmentContentId, partFileName, checksum.wrap(stream));
+        checksum.nextPart++;
+        int partsCount = attachmentContent.isSetPartsCount() ? CommonUtils.toUnsignedInt(attachmentContent.getPartsCount()) : -1;
+        if (part == partsCount) {
+            recordChecksum(attachmentContent, checksum.getSha1(), checksum.getSize());
+        } else {
+            PARTIAL_CHECKSUMS.put(attachmentContentId, checksum);
+        }
     }
 
-    private void addAttachmentTo(String attachmentContentId, String filename, InputStream stream) {
-        String contentType = "application/octet-stream";
+    /**
+     * Stores the checksum of the whole content with the attachment, without uploading it again. Failing to do so does
+     * not fail the upload, as the checksum can be computed later on. If the same data is stored already, the
+     * attachment is linked to it instead of keeping a copy.
+     */
+    protected void recordChecksum(AttachmentContent attachment, String sha1, long sizeInBytes) {
+        String size = Long.toString(sizeInBytes);
+        try {
+            connector.updateFields(attachment.getId(), ImmutableMap.of(AttachmentContent._Fields.SHA1.getFieldName(), sha1,
+                    AttachmentContent._Fields.SIZE.getFieldName(), size));
+            attachment.setSha1(sha1);
+            attachment.setSize(size);
+        } catch (RuntimeException e) {
+            log.warn("Could not record the sha1 checksum of attachment " + attachment.getId(), e);
+            return;
+        }
+        blobStore.store(attachment);
+    }
+
+    /**
+     * Computes sha1 and size of everything read through the streams it wrapped
+     */
+    protected static class Checksum {
+        private final MessageDigest digest = DigestUtils.getSha1Digest();
+        private long sizeOfPreviousParts;
+        private CountingInputStream current;
+        private int nextPart = 1;
+
+        protected InputStream wrap(InputStream stream) {
+            sizeOfPreviousParts = getSize();
+            current = new CountingInputStream(stream);
+            return new DigestInputStream(current, digest);
+        }
 
-        connector.createAttachment(attachmentContentId, filename, stream, contentType);
+        protected String getSha1() {
+            return Hex.encodeHexString(digest.digest());
+        }
+
+        protected long getSize() {
+            return sizeOfPreviousParts + (current == null ? 0 : current.getCount());
+        }
+    }
+
+    private void addAttachmentTo(String attachmentContentId, String filename, InputStream stream) {
+        dataStore.write(attachmentContentId, filename, stream);
     }
 
     /**
@@ -262,10 +335,14 @@ public class AttachmentStreamConnector {
      */
     public InputStream getAttachmentPartStream(AttachmentContent attachment, int part) throws SW360Exception {
         assertNotNull(attachment);
-        return connector.getAttachment(attachment.getId(), getPartFileName(attachment, part));
+        return dataStore.read(attachment.getId(), getPartFileName(attachment, part));
     }
 
     private String getPartFileName(AttachmentContent attachment, int part) {
-        return attachment.getFilename() + "_part" + part;
+        return getPartFileName(attachment.getFilename(), part);
+    }
+
+    private static String getPartFileName(String filename, int part) {
+        return filename + "_part" + part;
     }
 }
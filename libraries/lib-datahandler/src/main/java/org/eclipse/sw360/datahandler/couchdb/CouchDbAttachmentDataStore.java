@@ -0,0 +1,42 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+
+import java.io.InputStream;
+
+/**
+ * Keeps the data as CouchDB attachments of the attachment content documents
+ */
+public class CouchDbAttachmentDataStore implements AttachmentDataStore {
+    private static final String CONTENT_TYPE = "application/octet-stream";
+
+    private final DatabaseConnectorCloudant connector;
+
+    public CouchDbAttachmentDataStore(DatabaseConnectorCloudant connector) {
+        this.connector = connector;
+    }
+
+    @Override
+    public void write(String attachmentContentId, String name, InputStream data) {
+        connector.createAttachment(attachmentContentId, name, data, CONTENT_TYPE);
+    }
+
+    @Override
+    public InputStream read(String attachmentContentId, String name) {
+        return connector.getAttachment(attachmentContentId, name);
+    }
+
+    @Override
+    public void delete(String attachmentContentId) {
+        // the attachments are deleted along with the document
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.cloudant.client.org.lightcouch.NoDocumentException;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the data of attachment contents in a local directory, in one directory per content. The content directories
+ * are sharded by the first characters of the sha1 of their id, so that no directory gets too many entries. Data is
+ * written to a temporary file first, which is renamed atomically once it is complete, so that readers never see
+ * partially written data. Data which is not found in the directory is read from the fallback store, which allows to
+ * switch existing deployments and migrate the data afterwards.
+ */
+public class FileSystemAttachmentDataStore implements AttachmentDataStore {
+    private static final Logger log = LogManager.getLogger(FileSystemAttachmentDataStore.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FILE_NAME_LENGTH = 200;
+    private static final int ID_BATCH_SIZE = 100;
+    private static final String TEMP_PREFIX = ".";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path root;
+    private final AttachmentDataStore fallback;
+
+    /**
+     * @param fallback store to read data from which is not in the directory, or null
+     */
+    public FileSystemAttachmentDataStore(Path root, AttachmentDataStore fallback) {
+        this.root = root;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void write(String attachmentContentId, String name, InputStream data) {
+        Path directory = getContentDirectory(attachmentContentId);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE)) {
+                data.transferTo(out);
+                out.flush();
+                channel.force(false);
+            }
+            Files.move(temp, directory.resolve(getFileName(name)), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Could not store data " + name + " of attachment " + attachmentContentId, e);
+        }
+    }
+
+    @Override
+    public InputStream read(String attachmentContentId, String name) {
+        Path file = getContentDirectory(attachmentContentId).resolve(getFileName(name));
+        try {
+            return new FileChannelInputStream(FileChannel.open(file, StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            if (fallback != null) {
+                return fallback.read(attachmentContentId, name);
+            }
+            throw new NoDocumentException("No data " + name + " of attachment " + attachmentContentId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read data " + name + " of attachment " + attachmentContentId, e);
+        }
+    }
+
+    /**
+     * @return the size of the data in bytes, or -1 if it is not in the directory
+     */
+    public long size(String attachmentContentId, String name) {
+        try {
+            return Files.size(getContentDirectory(attachmentContentId).resolve(getFileName(name)));
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void delete(String attachmentContentId) {
+        deleteRecursively(getContentDirectory(attachmentContentId));
+    }
+
+    /**
+     * Deletes the data of contents which do not exist any more. The data of contents deleted along with their metadata
+     * is deleted right away, this catches the data of contents deleted in bulk.
+     *
+     * @param existingIds returns which of the given content ids still exist, throws if that cannot be determined
+     * @param minAgeMillis directories changed more recently are kept, as their content might be created just now
+     * @return the number of deleted content directories
+     */
+    public int deleteDataOfMissingContents(Function<Set<String>, Set<String>> existingIds, long minAgeMillis) {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        long threshold = System.currentTimeMillis() - minAgeMillis;
+        Map<String, Path> batch = new HashMap<>();
+        int deleted = 0;
+        try (Stream<Path> directories = Files.find(root, 3, (path, attributes) -> attributes.isDirectory()
+                && root.relativize(path).getNameCount() == 3 && attributes.lastModifiedTime().toMillis() < threshold)) {
+            for (Path directory : (Iterable<Path>) directories::iterator) {
+                batch.put(decode(directory.getFileName().toString()), directory);
+                if (batch.size() >= ID_BATCH_SIZE) {
+                    deleted += deleteMissing(batch, existingIds);
+                    batch.clear();
+                }
+            }
+            deleted += deleteMissing(batch, existingIds);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not delete the data of deleted attachments in " + root, e);
+        }
+        return deleted;
+    }
+
+    private static int deleteMissing(Map<String, Path> directoriesById, Function<Set<String>, Set<String>> existingIds) {
+        if (directoriesById.isEmpty()) {
+            return 0;
+        }
+        Set<String> existing = existingIds.apply(directoriesById.keySet());
+        List<Path> missing = directoriesById.entrySet().stream()
+                .filter(entry -> !existing.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        missing.forEach(FileSystemAttachmentDataStore::deleteRecursively);
+        return missing.size();
+    }
+
+    private Path getContentDirectory(String attachmentContentId) {
+        String shard = DigestUtils.sha1Hex(attachmentContentId);
+        return root.resolve(shard.substring(0, 2)).resolve(shard.substring(2, 4)).resolve(encode(attachmentContentId));
+    }
+
+    private static String getFileName(String name) {
+        String fileName = encode(name);
+        return fileName.length() <= MAX_FILE_NAME_LENGTH ? fileName : DigestUtils.sha1Hex(name);
+    }
+
+    /**
+     * Encodes everything which is not allowed in file names, including the leading dot of "." and ".." and of the
+     * temporary files
+     */
+    private static String encode(String value) {
+        String encoded = URLEncoder.encode(value, StandardCharsets.UTF_8);
+        return encoded.startsWith(".") ? "%2E" + encoded.substring(1) : encoded;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static void deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(FileSystemAttachmentDataStore::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not delete attachment data in " + directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete " + path, e);
+        }
+    }
+
+    /**
+     * Stream of a file which hands the file over to the target with {@link FileChannel#transferTo} when it is
+     * copied with {@link #transferTo(OutputStream)}
+     */
+    private static final class FileChannelInputStream extends FilterInputStream {
+        private final FileChannel channel;
+
+        private FileChannelInputStream(FileChannel channel) {
+            super(Channels.newInputStream(channel));
+            this.channel = channel;
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            WritableByteChannel target = out instanceof FileOutputStream
+                    ? ((FileOutputStream) out).getChannel()
+                    : Channels.newChannel(out);
+            long position = channel.position();
+            long start = position;
+            long size = channel.size();
+            while (position < size) {
+                long transferred = channel.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+            channel.position(position);
+            return position - start;
+        }
+    }
+}
@@ -9,14 +9,12 @@
  */
 package org.eclipse.sw360.datahandler.couchdb.lucene;
 
-import com.github.ldriscoll.ektorplucene.EktorpLuceneObjectMapperFactory;
 import com.github.ldriscoll.ektorplucene.LuceneAwareCouchDbConnector;
 import com.github.ldriscoll.ektorplucene.LuceneQuery;
 import com.github.ldriscoll.ektorplucene.LuceneResult;
 import com.github.ldriscoll.ektorplucene.util.IndexUploader;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
-import java.net.HttpURLConnection;
-import java.net.URL;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -24,6 +22,8 @@ import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.permissions.ProjectPermissions;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.eclipse.sw360.datahandler.thrift.Visibility;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.ektorp.http.HttpClient;
@@ -32,12 +32,12 @@ import org.ektorp.support.DesignDocument;
 import java.io.IOException;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.cloudant.client.api.CloudantClient;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.base.Strings.nullToEmpty;
@@ -55,8 +55,17 @@ public class LuceneAwareDatabaseConnector extends LuceneAwareCouchDbConnector {
 
     private static final Joiner AND = Joiner.on(" AND ");
     private static final Joiner OR = Joiner.on(" OR ");
+    private static final int MIN_SCAN_BATCH_SIZE = 100;
+
+    /**
+     * Prefix of the fields a search function stores for checking the visibility of a hit without loading the document,
+     * see ProjectSearchHandler
+     */
+    public static final String PERMISSION_FIELD_PREFIX = "perm_";
+    private static final String PERMISSION_FIELDS_MARKER = PERMISSION_FIELD_PREFIX + "stored";
 
     private final DatabaseConnectorCloudant connector;
+    private final LuceneQueryClient queryClient;
 
     private static final List<String> LUCENE_SPECIAL_CHARACTERS = Arrays.asList("[\\\\\\+\\-\\!\\~\\*\\?\\\"\\^\\:\\(\\)\\{\\}\\[\\]]", "\\&\\&", "\\|\\|");
     private String dbNameForLuceneSearch;
@@ -77,10 +86,17 @@ public class LuceneAwareDatabaseConnector extends LuceneAwareCouchDbConnector {
      * Constructor using a Database connector
      */
     public LuceneAwareDatabaseConnector(DatabaseConnector connector, Supplier<CloudantClient> cClient) throws IOException {
+        this(connector, new DatabaseConnectorCloudant(cClient, connector.getDbName()), LuceneQueryClient.getInstance());
+    }
+
+    @VisibleForTesting
+    LuceneAwareDatabaseConnector(DatabaseConnector connector, DatabaseConnectorCloudant cloudantConnector,
+            LuceneQueryClient queryClient) {
         super(connector.getDbName(), connector.getInstance());
         this.dbNameForLuceneSearch = connector.getDbName();
         setResultLimit(DatabaseSettings.LUCENE_SEARCH_LIMIT);
-        this.connector = new DatabaseConnectorCloudant(cClient, connector.getDbName());
+        this.connector = cloudantConnector;
+        this.queryClient = queryClient;
     }
 
     public boolean addView(LuceneSearchView function) {
@@ -101,8 +117,19 @@ public class LuceneAwareDatabaseConnector extends LuceneAwareCouchDbConnector {
      * Search with lucene using the previously declared search function only for ids
      */
     public <T> List<String> searchIds(Class<T> type, LuceneSearchView function, String queryString) {
-        LuceneResult queryLuceneResult = searchView(function, queryString, false);
-        return getIdsFromResult(queryLuceneResult);
+        if (isNullOrEmpty(queryString)) {
+            return new ArrayList<>();
+        }
+
+        try {
+            List<LuceneQueryClient.Hit> hits = queryClient.queryHits(getLuceneQueryUrl(function, queryString, false));
+            if (hits != null) {
+                return hits.stream().map(LuceneQueryClient.Hit::getId).collect(Collectors.toList());
+            }
+        } catch (Exception exp) {
+            log.error("Error querying Lucene directly.", exp);
+        }
+        return new ArrayList<>();
     }
 
     /**
@@ -131,51 +158,29 @@ public class LuceneAwareDatabaseConnector extends LuceneAwareCouchDbConnector {
 
     private LuceneResult callLuceneDirectly(LuceneSearchView function, String queryString, boolean includeDocs)
             throws IOException {
+        return queryClient.query(getLuceneQueryUrl(function, queryString, includeDocs));
+    }
+
+    private String getLuceneQueryUrl(LuceneSearchView function, String queryString, boolean includeDocs) {
+        return getLuceneQueryUrl(function, queryString, includeDocs, 0, resultLimit);
+    }
+
+    private String getLuceneQueryUrl(LuceneSearchView function, String queryString, boolean includeDocs, int skip, int limit) {
         URI queryURI = URI.of("/");
         queryURI.append(DEFAULT_LUCENE_INDEX);
         queryURI.append(dbNameForLuceneSearch);
         queryURI.append(function.searchView.startsWith(DesignDocument.ID_PREFIX) ? function.searchView
                 : DesignDocument.ID_PREFIX + function.searchView);
         queryURI.append(function.searchFunction);
-        queryURI.param("include_docs", new Boolean(includeDocs).toString());
-        if (resultLimit > 0) {
-            queryURI.param("limit", resultLimit);
+        queryURI.param("include_docs", Boolean.toString(includeDocs));
+        if (skip > 0) {
+            queryURI.param("skip", skip);
         }
-        queryURI.param("q", queryString.toString());
-        URL luceneResourceUrl = new URL(DatabaseSettings.COUCH_DB_LUCENE_URL + queryURI.toString());
-        ObjectMapper objectMapper = new EktorpLuceneObjectMapperFactory().createObjectMapper();
-        HttpURLConnection connection = null;
-        try {
-            connection = makeLuceneRequest(luceneResourceUrl);
-            int responseCode = connection.getResponseCode();
-            if (responseCode == 200) {
-                return objectMapper.readValue(connection.getInputStream(), LuceneResult.class);
-            } else {
-                connection.disconnect();
-                log.error("Getting error with reponse code = " + responseCode + ".Retrying with stale parameter");
-                queryURI.param("stale", "ok");
-                luceneResourceUrl = new URL(DatabaseSettings.COUCH_DB_LUCENE_URL + queryURI.toString());
-                connection = makeLuceneRequest(luceneResourceUrl);
-                responseCode = connection.getResponseCode();
-                if (responseCode == 200) {
-                    return objectMapper.readValue(connection.getInputStream(), LuceneResult.class);
-                } else {
-                    log.error("Retried with stale parameter.Getting error with reponse code=" + responseCode);
-                }
-            }
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
+        if (limit > 0) {
+            queryURI.param("limit", limit);
         }
-        return null;
-    }
-
-    private HttpURLConnection makeLuceneRequest(URL luceneResourceUrl) throws IOException {
-        HttpURLConnection connection = (HttpURLConnection) luceneResourceUrl.openConnection();
-        connection.setRequestMethod("GET");
-        connection.connect();
-        return connection;
+        queryURI.param("q", queryString);
+        return DatabaseSettings.COUCH_DB_LUCENE_URL + queryURI.toString();
     }
 
     /////////////////////////
@@ -198,21 +203,141 @@ public class LuceneAwareDatabaseConnector extends LuceneAwareCouchDbConnector {
     // HELPER METHODS //
     ////////////////////
 
-    private static List<String> getIdsFromResult(LuceneResult result) {
-        List<String> ids = new ArrayList<>();
-        if (result != null) {
-            for (LuceneResult.Row row : result.getRows()) {
-                ids.add(row.getId());
+    /**
+     * Search the database for a given string and types
+     */
+    public <T> List<T> searchViewWithRestrictions(Class<T> type,LuceneSearchView luceneSearchView, String text, final Map<String , Set<String > > subQueryRestrictions) {
+        return searchView(type, luceneSearchView, getQueryWithRestrictions(text, subQueryRestrictions));
+    }
+
+    public List<Project> searchProjectViewWithRestrictionsAndFilter(LuceneSearchView luceneSearchView, String text,
+            final Map<String, Set<String>> subQueryRestrictions, User user) {
+        List<Project> projectList = searchViewWithRestrictions(Project.class, luceneSearchView, text,
+                subQueryRestrictions);
+        return projectList.stream().filter(ProjectPermissions.isVisible(user)).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns one page of the projects matching the text and restrictions which are visible to the user. The hits are
+     * read from Lucene in batches with skip and limit, their visibility is checked on the fields stored in the index,
+     * and only the documents of the requested page are loaded. Hits of an index without stored fields are checked on
+     * the loaded document. The projects are in the order of relevance, sorting is not supported.
+     *
+     * @return the page of projects, mapped by the page data with the total number of visible hits. If the page was
+     *         filled before all hits were read, the total is estimated from the share of visible hits read so far.
+     */
+    public Map<PaginationData, List<Project>> searchProjectViewWithRestrictionsAndFilter(LuceneSearchView luceneSearchView,
+            String text, final Map<String, Set<String>> subQueryRestrictions, User user, PaginationData pageData) {
+        String query = getQueryWithRestrictions(text, subQueryRestrictions);
+        int displayStart = Math.max(pageData.getDisplayStart(), 0);
+        int rowsPerPage = pageData.getRowsPerPage() > 0 ? pageData.getRowsPerPage() : Integer.MAX_VALUE;
+        int batchSize = pageData.getRowsPerPage() > 0 ? Math.max(MIN_SCAN_BATCH_SIZE, rowsPerPage) : MIN_SCAN_BATCH_SIZE;
+        Predicate<Project> isVisible = ProjectPermissions.isVisible(user);
+
+        List<String> pageIds = new ArrayList<>();
+        long visibleCount = 0;
+        long scanned = 0;
+        long totalRows = 0;
+        boolean exhausted = isNullOrEmpty(query);
+        while (!exhausted && pageIds.size() < rowsPerPage) {
+            LuceneQueryClient.Hits hits = queryHitPage(luceneSearchView, query, (int) scanned, batchSize);
+            if (hits == null) {
+                break;
+            }
+            totalRows = hits.getTotalRows();
+            List<LuceneQueryClient.Hit> batch = hits.getHits();
+            Map<String, Project> documentsWithoutStoredFields = getDocumentsWithoutStoredFields(batch);
+            int scannedInBatch = 0;
+            for (LuceneQueryClient.Hit hit : batch) {
+                scanned++;
+                scannedInBatch++;
+                Project project = documentsWithoutStoredFields.containsKey(hit.getId())
+                        ? documentsWithoutStoredFields.get(hit.getId())
+                        : projectFromStoredFields(hit);
+                if (project == null || !isVisible.test(project)) {
+                    continue;
+                }
+                if (visibleCount >= displayStart) {
+                    pageIds.add(hit.getId());
+                }
+                visibleCount++;
+                if (pageIds.size() >= rowsPerPage) {
+                    break;
+                }
             }
+            exhausted = scanned >= totalRows || (batch.size() < batchSize && scannedInBatch == batch.size());
+        }
+
+        long totalVisible = visibleCount;
+        if (!exhausted && scanned > 0 && scanned < totalRows) {
+            totalVisible += Math.round((double) (totalRows - scanned) * visibleCount / scanned);
         }
-        return ids;
+
+        Map<String, Project> projectsById = connector.get(Project.class, pageIds).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity(), (first, second) -> first));
+        // the index may lag behind changes of the permissions, so the loaded documents are checked again
+        List<Project> page = pageIds.stream().map(projectsById::get).filter(Objects::nonNull).filter(isVisible)
+                .collect(Collectors.toList());
+        return Collections.singletonMap(pageData.deepCopy().setTotalRowCount(totalVisible), page);
     }
 
+    private LuceneQueryClient.Hits queryHitPage(LuceneSearchView function, String queryString, int skip, int limit) {
+        try {
+            return queryClient.queryHitPage(getLuceneQueryUrl(function, queryString, false, skip, limit));
+        } catch (Exception exp) {
+            log.error("Error querying Lucene directly.", exp);
+            return null;
+        }
+    }
 
     /**
-     * Search the database for a given string and types
+     * Hits of documents which were indexed before the permission fields were stored or by another search function
+     * are checked on the documents themselves, loaded with one request
      */
-    public <T> List<T> searchViewWithRestrictions(Class<T> type,LuceneSearchView luceneSearchView, String text, final Map<String , Set<String > > subQueryRestrictions) {
+    private Map<String, Project> getDocumentsWithoutStoredFields(List<LuceneQueryClient.Hit> hits) {
+        List<String> ids = hits.stream().filter(hit -> !hit.getFields().containsKey(PERMISSION_FIELDS_MARKER))
+                .map(LuceneQueryClient.Hit::getId).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Project> documents = new HashMap<>();
+        connector.get(Project.class, ids).forEach(project -> documents.put(project.getId(), project));
+        ids.forEach(id -> documents.putIfAbsent(id, null));
+        return documents;
+    }
+
+    private static Project projectFromStoredFields(LuceneQueryClient.Hit hit) {
+        Map<String, List<String>> fields = hit.getFields();
+        Project project = new Project().setId(hit.getId());
+        String visibility = getFirstStoredValue(fields, Project._Fields.VISBILITY);
+        if (visibility != null) {
+            try {
+                project.setVisbility(Visibility.valueOf(visibility));
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown visibility " + visibility + " stored for project " + hit.getId());
+            }
+        }
+        project.setCreatedBy(getFirstStoredValue(fields, Project._Fields.CREATED_BY));
+        project.setLeadArchitect(getFirstStoredValue(fields, Project._Fields.LEAD_ARCHITECT));
+        project.setProjectResponsible(getFirstStoredValue(fields, Project._Fields.PROJECT_RESPONSIBLE));
+        project.setBusinessUnit(getFirstStoredValue(fields, Project._Fields.BUSINESS_UNIT));
+        List<String> moderators = fields.get(PERMISSION_FIELD_PREFIX + Project._Fields.MODERATORS.getFieldName());
+        if (moderators != null) {
+            project.setModerators(new HashSet<>(moderators));
+        }
+        List<String> contributors = fields.get(PERMISSION_FIELD_PREFIX + Project._Fields.CONTRIBUTORS.getFieldName());
+        if (contributors != null) {
+            project.setContributors(new HashSet<>(contributors));
+        }
+        return project;
+    }
+
+    private static String getFirstStoredValue(Map<String, List<String>> fields, Project._Fields field) {
+        List<String> values = fields.get(PERMISSION_FIELD_PREFIX + field.getFieldName());
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static String getQueryWithRestrictions(String text, final Map<String, Set<String>> subQueryRestrictions) {
         List <String> subQueries = new ArrayList<>();
         for (Map.Entry<String, Set<String>> restriction : subQueryRestrictions.entrySet()) {
 
@@ -229,15 +354,7 @@ public class LuceneAwareDatabaseConnector extends LuceneAwareCouchDbConnector {
             subQueries.add(prepareWildcardQuery(text));
         }
 
-        String query  = AND.join(subQueries);
-        return searchView(type, luceneSearchView, query);
-    }
-
-    public List<Project> searchProjectViewWithRestrictionsAndFilter(LuceneSearchView luceneSearchView, String text,
-            final Map<String, Set<String>> subQueryRestrictions, User user) {
-        List<Project> projectList = searchViewWithRestrictions(Project.class, luceneSearchView, text,
-                subQueryRestrictions);
-        return projectList.stream().filter(ProjectPermissions.isVisible(user)).collect(Collectors.toList());
+        return AND.join(subQueries);
     }
 
     private static String formatSubquery(Set<String> filterSet, final String fieldName) {
@@ -0,0 +1,315 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb.lucene;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ldriscoll.ektorplucene.EktorpLuceneObjectMapperFactory;
+import com.github.ldriscoll.ektorplucene.LuceneResult;
+import com.google.common.annotations.VisibleForTesting;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.sw360.datahandler.common.DatabaseSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client for queries against couchdb-lucene. Connections are pooled and kept alive, responses are read with one
+ * shared object mapper, and the number of concurrent queries is limited so that bursts of searches cannot take all
+ * connections of CouchDB. If a query fails, it is retried once with stale=ok.
+ */
+public class LuceneQueryClient {
+    private static final Logger log = LogManager.getLogger(LuceneQueryClient.class);
+    private static final LuceneQueryClient INSTANCE = new LuceneQueryClient(DatabaseSettings.LUCENE_MAX_CONCURRENT_QUERIES,
+            DatabaseSettings.LUCENE_QUERY_TIMEOUT_MILLIS);
+
+    private final ObjectMapper objectMapper = new EktorpLuceneObjectMapperFactory().createObjectMapper();
+    private final CloseableHttpClient httpClient;
+    private final Semaphore permits;
+    private final int timeoutMillis;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder failedQueries = new LongAdder();
+    private final LongAdder rejectedQueries = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    public static final class Hit {
+        private final String id;
+        private final double score;
+        private final Map<String, List<String>> fields;
+
+        Hit(String id, double score, Map<String, List<String>> fields) {
+            this.id = id;
+            this.score = score;
+            this.fields = fields;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * @return the values of the stored fields of the hit by field name, empty if the index stores none
+         */
+        public Map<String, List<String>> getFields() {
+            return fields;
+        }
+    }
+
+    public static final class Hits {
+        private final List<Hit> hits;
+        private final long totalRows;
+
+        Hits(List<Hit> hits, long totalRows) {
+            this.hits = hits;
+            this.totalRows = totalRows;
+        }
+
+        public List<Hit> getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the number of all hits of the query, regardless of skip and limit
+         */
+        public long getTotalRows() {
+            return totalRows;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(InputStream content) throws IOException;
+    }
+
+    public static LuceneQueryClient getInstance() {
+        return INSTANCE;
+    }
+
+    @VisibleForTesting
+    LuceneQueryClient(int maxConcurrentQueries, int timeoutMillis) {
+        this.permits = new Semaphore(maxConcurrentQueries, true);
+        this.timeoutMillis = timeoutMillis;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConcurrentQueries);
+        connectionManager.setDefaultMaxPerRoute(maxConcurrentQueries);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(timeoutMillis)
+                        .setSocketTimeout(timeoutMillis)
+                        .setConnectionRequestTimeout(timeoutMillis)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * @return the full result including the fields and documents of the hits, or null if the query failed
+     */
+    public LuceneResult query(String url) throws IOException {
+        return execute(url, content -> objectMapper.readValue(content, LuceneResult.class));
+    }
+
+    /**
+     * Reads only id and score of the hits from the response without building the whole result
+     *
+     * @return the hits in the order of the response, or null if the query failed
+     */
+    public List<Hit> queryHits(String url) throws IOException {
+        Hits hits = queryHitPage(url);
+        return hits == null ? null : hits.getHits();
+    }
+
+    /**
+     * Reads id, score and stored fields of the hits and the total number of hits from the response without building
+     * the whole result
+     *
+     * @return the hits in the order of the response, or null if the query failed
+     */
+    public Hits queryHitPage(String url) throws IOException {
+        return execute(url, this::readHits);
+    }
+
+    public long getQueryCount() {
+        return queries.sum();
+    }
+
+    public long getFailedQueryCount() {
+        return failedQueries.sum();
+    }
+
+    /**
+     * Number of queries which were not sent, because the concurrency limit was reached for too long
+     */
+    public long getRejectedQueryCount() {
+        return rejectedQueries.sum();
+    }
+
+    public long getAverageLatencyMillis() {
+        long count = queries.sum();
+        return count == 0 ? 0 : totalLatencyMillis.sum() / count;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis.get();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private <T> T execute(String url, ResponseReader<T> reader) throws IOException {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejectedQueries.increment();
+                log.error("Too many concurrent Lucene queries, dropping query " + url);
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            T result = request(url, reader);
+            if (result == null) {
+                log.error("Retrying with stale parameter");
+                result = request(url + "&stale=ok", reader);
+            }
+            if (result == null) {
+                failedQueries.increment();
+            }
+            return result;
+        } catch (IOException e) {
+            failedQueries.increment();
+            throw e;
+        } finally {
+            permits.release();
+            long latency = System.currentTimeMillis() - start;
+            queries.increment();
+            totalLatencyMillis.add(latency);
+            maxLatencyMillis.accumulateAndGet(latency, Math::max);
+            log.debug("Lucene query took " + latency + " ms: " + url);
+        }
+    }
+
+    private <T> T request(String url, ResponseReader<T> reader) throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(new HttpGet(url))) {
+            HttpEntity entity = response.getEntity();
+            int responseCode = response.getStatusLine().getStatusCode();
+            if (responseCode == 200 && entity != null) {
+                try (InputStream content = entity.getContent()) {
+                    return reader.read(content);
+                }
+            }
+            EntityUtils.consume(entity);
+            log.error("Getting error with reponse code = " + responseCode + ".");
+            return null;
+        }
+    }
+
+    private Hits readHits(InputStream content) throws IOException {
+        List<Hit> hits = new ArrayList<>();
+        long totalRows = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected Lucene response, expected an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("rows".equals(field) && parser.getCurrentToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        hits.add(readHit(parser));
+                    }
+                } else if ("total_rows".equals(field)) {
+                    totalRows = parser.getValueAsLong();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new Hits(hits, Math.max(totalRows, hits.size()));
+    }
+
+    private static Hit readHit(JsonParser parser) throws IOException {
+        String id = null;
+        double score = 0;
+        Map<String, List<String>> fields = Collections.emptyMap();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                id = parser.getValueAsString();
+            } else if ("score".equals(field)) {
+                score = parser.getValueAsDouble();
+            } else if ("fields".equals(field) && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+                fields = readFields(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Hit(id, score, fields);
+    }
+
+    /**
+     * Stored fields with a single value are sent as value, fields with several values as array
+     */
+    private static Map<String, List<String>> readFields(JsonParser parser) throws IOException {
+        Map<String, List<String>> fields = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            List<String> values = new ArrayList<>(1);
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.getCurrentToken().isScalarValue()) {
+                        values.add(parser.getValueAsString());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if (parser.getCurrentToken().isScalarValue()) {
+                values.add(parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+            fields.put(field, values);
+        }
+        return fields;
+    }
+}
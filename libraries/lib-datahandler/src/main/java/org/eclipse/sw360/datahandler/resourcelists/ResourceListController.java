@@ -40,6 +40,20 @@ public class ResourceListController<T> {
         return new PaginationResult<>(sortedResources.subList(fromIndex, toIndex), sortedResources.size(), paginationOptions);
     }
 
+    /**
+     * Wraps a page which has already been sorted and sliced by the backend, applying the same page index checks as
+     * {@link #applyPagingToList(List, PaginationOptions)}
+     */
+    public PaginationResult<T> createPaginationResultForPage(List<T> pageResources, int totalCount, PaginationOptions<T> paginationOptions) throws PaginationParameterException {
+        if (totalCount == 0 && paginationOptions.getPageNumber() == 0) {
+            return new PaginationResult<>(pageResources, 0, paginationOptions);
+        }
+        if (paginationOptions.getOffset() >= totalCount) {
+            throw new PaginationParameterException(PAGINATION_PARAMETER_EXCEPTION_MESSAGE);
+        }
+        return new PaginationResult<>(pageResources, totalCount, paginationOptions);
+    }
+
     private List<T> sortList(List<T> resources, Comparator<T> comparator) {
         if(comparator == null) {
             return resources;
@@ -13,9 +13,14 @@
 package org.eclipse.sw360.datahandler.thrift;
 
 import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.thrift.protocol.TCompactProtocol;
@@ -43,7 +48,12 @@ import org.eclipse.sw360.datahandler.thrift.vulnerabilities.VulnerabilityService
 
 import java.net.MalformedURLException;
 import java.net.*;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Created by bodet on 11/02/15.
@@ -61,6 +71,10 @@ public class ThriftClients {
     public static final String BACKEND_PROXY_URL;
     public static final int THRIFT_CONNECTION_TIMEOUT;
     public static final int THRIFT_READ_TIMEOUT;
+    public static final int THRIFT_POOL_MAX_TOTAL;
+    public static final int THRIFT_POOL_MAX_PER_ROUTE;
+    public static final long THRIFT_POOL_KEEP_ALIVE;
+    public static final long THRIFT_POOL_IDLE_EVICTION;
 
 	private static final String PROXY_HOST;
 	private static final String PROXY_PORT;
@@ -91,6 +105,10 @@ public class ThriftClients {
     public static final String DELETE_ATTACHMENT_SERVICE = "deleteattachmentService";
     public static final String IMPORT_DEPARTMENT_SERVICE = "importdepartmentService";
 
+    // one pooled http client per backend url, shared by all thrift transports to that backend
+    private static final Map<String, CloseableHttpClient> HTTP_CLIENTS = new ConcurrentHashMap<>();
+    private static final Map<String, PoolingHttpClientConnectionManager> CONNECTION_MANAGERS = new ConcurrentHashMap<>();
+
     static {
         Properties props = CommonUtils.loadProperties(ThriftClients.class, PROPERTIES_FILE_PATH);
 
@@ -100,6 +118,11 @@ public class ThriftClients {
         // maximum timeout for connecting and reading
         THRIFT_CONNECTION_TIMEOUT = Integer.valueOf(props.getProperty("backend.timeout.connection", "5000"));
         THRIFT_READ_TIMEOUT = Integer.valueOf(props.getProperty("backend.timeout.read", "600000"));
+        // pooling of the http connections to the backend, keep alive and idle eviction in ms
+        THRIFT_POOL_MAX_TOTAL = Integer.valueOf(props.getProperty("backend.pool.max.total", "200"));
+        THRIFT_POOL_MAX_PER_ROUTE = Integer.valueOf(props.getProperty("backend.pool.max.per.route", "50"));
+        THRIFT_POOL_KEEP_ALIVE = Long.valueOf(props.getProperty("backend.pool.keepalive", "60000"));
+        THRIFT_POOL_IDLE_EVICTION = Long.valueOf(props.getProperty("backend.pool.idle.eviction", "30000"));
 
         PROXY_HOST = props.getProperty("proxy.http.host", null);
         PROXY_PORT = props.getProperty("proxy.http.port", null);
@@ -110,7 +133,11 @@ public class ThriftClients {
             "\tURL                      : " + BACKEND_URL + "\n" +
             "\tProxy                    : " + BACKEND_PROXY_URL + "\n" +
             "\tTimeout Connecting (ms)  : " + THRIFT_CONNECTION_TIMEOUT + "\n" +
-            "\tTimeout Read (ms)        : " + THRIFT_READ_TIMEOUT + "\n");
+            "\tTimeout Read (ms)        : " + THRIFT_READ_TIMEOUT + "\n" +
+            "\tPool max total           : " + THRIFT_POOL_MAX_TOTAL + "\n" +
+            "\tPool max per route       : " + THRIFT_POOL_MAX_PER_ROUTE + "\n" +
+            "\tPool keep alive (ms)     : " + THRIFT_POOL_KEEP_ALIVE + "\n" +
+            "\tPool idle eviction (ms)  : " + THRIFT_POOL_IDLE_EVICTION + "\n");
     }
     public ThriftClients() {
     }
@@ -120,25 +147,64 @@ public class ThriftClients {
      */
     private static TProtocol makeProtocol(String url, String service) {
         THttpClient thriftClient = null;
-        final String destinationAddress = url + service;
         try {
-            if (BACKEND_PROXY_URL != null) {
+            thriftClient = makeTransport(url, service);
+        } catch (TTransportException e) {
+            log.error("cannot connect to backend on " + url + service, e);
+        }
+        return new TCompactProtocol(thriftClient);
+    }
+
+    /**
+     * Creates a Thrift http transport to the given service of the backend. The transport is cheap, the connections
+     * are kept alive and pooled by the http client shared by all transports to the same backend url.
+     *
+     * @throws TTransportException if the address of the service is not a valid url
+     */
+    public static THttpClient makeTransport(String url, String service) throws TTransportException {
+        return new THttpClient(url + service, HTTP_CLIENTS.computeIfAbsent(url, ThriftClients::makePooledHttpClient));
+    }
+
+    private static CloseableHttpClient makePooledHttpClient(String url) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(THRIFT_POOL_MAX_TOTAL);
+        connectionManager.setDefaultMaxPerRoute(THRIFT_POOL_MAX_PER_ROUTE);
+        CONNECTION_MANAGERS.put(url, connectionManager);
+
+        // timeouts are set here as THttpClient can not set them on a client built by HttpClientBuilder
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(THRIFT_CONNECTION_TIMEOUT)
+                .setConnectionRequestTimeout(THRIFT_CONNECTION_TIMEOUT)
+                .setSocketTimeout(THRIFT_READ_TIMEOUT)
+                .build();
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, THRIFT_POOL_KEEP_ALIVE) : THRIFT_POOL_KEEP_ALIVE;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(THRIFT_POOL_IDLE_EVICTION, TimeUnit.MILLISECONDS);
+        // the proxy is configured for the backend of the factory methods only
+        if (BACKEND_PROXY_URL != null && url.equals(BACKEND_URL)) {
+            try {
                 URL proxyUrl = new URL(BACKEND_PROXY_URL);
                 HttpHost proxy = new HttpHost(proxyUrl.getHost(), proxyUrl.getPort(), proxyUrl.getProtocol());
-                DefaultProxyRoutePlanner routePlanner = new DefaultProxyRoutePlanner(proxy);
-                CloseableHttpClient httpClient = HttpClients.custom().setRoutePlanner(routePlanner).build();
-                thriftClient = new THttpClient(destinationAddress, httpClient);
-            } else {
-                thriftClient = new THttpClient(destinationAddress);
+                builder.setRoutePlanner(new DefaultProxyRoutePlanner(proxy));
+            } catch (MalformedURLException e) {
+                log.error("cannot connect via http proxy (REASON:MalformedURLException) to thrift backend", e);
             }
-            thriftClient.setConnectTimeout(THRIFT_CONNECTION_TIMEOUT);
-            thriftClient.setReadTimeout(THRIFT_READ_TIMEOUT);
-        } catch (TTransportException e) {
-            log.error("cannot connect to backend on " + destinationAddress, e);
-        } catch (MalformedURLException e) {
-            log.error("cannot connect via http proxy (REASON:MalformedURLException) to thrift backend", e);
         }
-        return new TCompactProtocol(thriftClient);
+        return builder.build();
+    }
+
+    /**
+     * Statistics of the connection pools to the backends, keyed by backend url
+     */
+    public static Map<String, PoolStats> getConnectionPoolStats() {
+        return Collections.unmodifiableMap(CONNECTION_MANAGERS.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getTotalStats())));
     }
 
     private static void configProxy() {
@@ -82,6 +82,11 @@ struct AttachmentContent {
     20: required string filename,
     21: optional string contentType,
     22: optional string partsCount,
+    // sha1 and size in bytes of the whole content, recorded when it is uploaded
+    23: optional string sha1,
+    24: optional string size,
+    // id of the blob record of the content, if its data is stored once for all contents with the same sha1 and size
+    25: optional string blobId,
 }
 
 /**
@@ -383,6 +383,13 @@ service ComponentService {
      **/
     list<Component> getComponentSummary(1: User user);
 
+    /**
+     * summary of one page of all components, or of the components of type `componentType` if it is set, sorted by
+     * the component field whose thrift id is the sort column number of `pageData`. The total number of matching
+     * components is returned as total row count of the returned pagination data.
+     **/
+    map<PaginationData, list<Component>> getComponentSummaryWithPagination(1: User user, 2: ComponentType componentType, 3: PaginationData pageData);
+
     /**
      * summary of up to `limit` components reverse ordered by `createdOn`. Negative `limit` will result in
      * all components being returned
@@ -734,4 +741,11 @@ service ComponentService {
      * Gets all releases with complete details
      */
     list<Release> getAllReleasesForUser(1: User user);
+
+    /**
+     * Gets one page of all releases, or of the releases whose name equals `name` ignoring case if it is not empty,
+     * sorted by the release field whose thrift id is the sort column number of `pageData`. The total number of
+     * matching releases is returned as total row count of the returned pagination data.
+     */
+    map<PaginationData, list<Release>> getReleasesWithPagination(1: User user, 2: string name, 3: PaginationData pageData);
 }
@@ -29,6 +29,22 @@ struct VulnerabilityUpdateStatus {
     2: RequestStatus requestStatus;
 }
 
+/**
+ * Remembers for which release data and when a release was last searched for vulnerabilities, so that the
+ * full update only searches again for releases which changed or have not been checked for some time.
+ **/
+struct CveSearchState {
+    1: optional string id,
+    2: optional string revision,
+    3: optional string type = "cvesearchstate",
+
+    10: required string releaseId,
+    // release data the last search has been done with, see CveSearchSync
+    11: optional string searchKey,
+    // time of the last successful search in milliseconds since epoch
+    12: optional i64 lastChecked,
+}
+
 service CveSearchService {
     /**
     * applies cve search for given release, writes vulnerabilities to database and creates for each
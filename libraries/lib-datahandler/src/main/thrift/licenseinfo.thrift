@@ -106,7 +106,9 @@ struct ObligationAtProject {
 
 struct LicenseInfoFile {
     1: required OutputFormatInfo outputFormatInfo,
-    2: required binary              generatedOutput,
+    2: optional binary              generatedOutput,
+    // temporary attachment content holding the output, if it is not returned in generatedOutput
+    3: optional string generatedOutputAttachmentContentId,
 }
 
 struct LicenseObligationsStatusInfo {
@@ -143,6 +145,13 @@ service LicenseInfoService {
      */
     LicenseInfoFile getLicenseInfoFile(1: Project project, 2: User user, 3: string outputGeneratorClassName, 4: map<string, map<string, bool>> releaseIdsToSelectedAttachmentIds, 5: map<string, set<LicenseNameWithText>> excludedLicensesPerAttachment, 6: string externalIds, 7: string fileName);
 
+    /**
+     * same as getLicenseInfoFile, but the output is written to a temporary attachment content instead of being
+     * returned, so that it can be streamed to the client. The client has to delete the attachment content after
+     * reading it.
+     */
+    LicenseInfoFile getLicenseInfoFileAsAttachment(1: Project project, 2: User user, 3: string outputGeneratorClassName, 4: map<string, map<string, bool>> releaseIdsToSelectedAttachmentIds, 5: map<string, set<LicenseNameWithText>> excludedLicensesPerAttachment, 6: string externalIds, 7: string fileName);
+
     /**
       * returns all available output types
       */
@@ -245,7 +245,8 @@ service ProjectService {
     list<Project> getMyProjects(1: User user, 2:  map<string, bool> userRoles);
 
     /**
-     * get all projects as project summaries which are visible to user with pagination
+     * get all projects as project summaries which are visible to user with pagination,
+     * the returned pagination data carries the bookmark of the next page if there is one
      */
     map<PaginationData, list<Project>> getAccessibleProjectsSummaryWithPagination(1: User user, 2: PaginationData pageData);
 
@@ -272,6 +273,13 @@ service ProjectService {
      */
     list<Project> refineSearch(1: string text, 2: map<string,set<string>>  subQueryRestrictions, 3: User user);
 
+    /**
+     * returns the page `pageData` of the projects which match `text` and the
+     * `subQueryRestrictions` and are visible to the `user`, in the order of relevance.
+     * The total row count of the returned page data may be an estimate.
+     */
+    map<PaginationData, list<Project>> refineSearchWithPagination(1: string text, 2: map<string,set<string>> subQueryRestrictions, 3: User user, 4: PaginationData pageData);
+
     /**
      * list of projects which are visible to the `user` and match the `name`
      */
@@ -408,6 +416,18 @@ service ProjectService {
      */
     list<ReleaseClearingStatusData> getReleaseClearingStatuses(1: string projectId, 2: User user) throws (1: SW360Exception exp);
 
+    /**
+     * get the ids of all releases linked by the given project and its subprojects
+     */
+    set<string> getReleaseIdsOfProjectTree(1: string projectId, 2: User user) throws (1: SW360Exception exp);
+
+    /**
+     * get one page of the releases linked by the given project (and its subprojects if transitive is set), sorted by
+     * the release field whose thrift id is given as sortColumnNumber (by name if unset); the returned pagination data
+     * contains the total number of linked releases as totalRowCount
+     */
+    map<PaginationData, list<Release>> getReleasesOfProjectWithPagination(1: string projectId, 2: bool transitive, 3: User user, 4: PaginationData pageData) throws (1: SW360Exception exp);
+
     /**
      * get the count value of projects which have `id` in releaseIdToUsage
      */
@@ -211,7 +211,9 @@ struct PaginationData {
     2: optional i32 displayStart,
     3: optional bool ascending,
     4: optional i32 sortColumnNumber,
-    5: optional i64 totalRowCount
+    5: optional i64 totalRowCount,
+    // opaque cursor of the next page, if set it is used instead of displayStart
+    6: optional string bookmark
 }
 
 /**
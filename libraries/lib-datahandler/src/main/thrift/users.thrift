@@ -95,6 +95,16 @@ service UserService {
      **/
     User getByEmailOrExternalId(1:string email, 2:string externalId);
 
+    /**
+     * returns the SW360-users with the given emails (current or former ones), emails without a user are skipped
+     **/
+    list<User> getByEmails(1:set<string> emails);
+
+    /**
+     * returns a marker which changes whenever a SW360-user is added, updated or deleted
+     **/
+    string getUsersUpdateSequence();
+
     /**
      * get list of all SW360-users in database with name equal to parameter name
      **/
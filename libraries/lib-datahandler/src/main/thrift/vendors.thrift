@@ -41,6 +41,11 @@ service VendorService {
      **/
     list<Vendor> getAllVendors();
 
+    /**
+     * return list of the vendors with the given fullnames, fullnames without a vendor are skipped
+     **/
+    list<Vendor> getVendorsByFullnames(1: set<string> fullnames);
+
     /**
      * return set of names of all vendors in database, no duplicates
      **/
@@ -14,6 +14,7 @@ namespace java org.eclipse.sw360.datahandler.thrift.vulnerabilities
 namespace php sw360.thrift.vulnerabilities
 
 typedef sw360.RequestSummary RequestSummary
+typedef sw360.PaginationData PaginationData
 typedef users.User User
 typedef sw360.SW360Exception SW360Exception
 typedef sw360.RequestStatus RequestStatus
@@ -89,6 +90,7 @@ struct VulnerabilityDTO{
     20: optional string legalNotice,
     22: optional set<CVEReference> cveReferences,
     25: optional set<string> references,
+    26: optional double cvss,
 
     // additional DTO fields
     31: optional string intReleaseId
@@ -211,6 +213,17 @@ service VulnerabilityService {
       **/
     list<VulnerabilityDTO> getVulnerabilitiesByProjectIdWithoutIncorrect(1: string projectId, 2: User user);
 
+    /**
+      * returns one page of the vulnerabilities of all releases linked to the project (and to its subprojects if
+      * transitive is set) as DTOs, including the relevance, comment and action of the project's rating.
+      * Only vulnerabilities with one of the given priorities and project relevances are returned, unless these are
+      * empty. They are sorted by the VulnerabilityDTO field whose thrift id is given as sort column number (externalId,
+      * title, priority, cvss or projectRelevance), by descending cvss if unset. The total number of matching
+      * vulnerabilities is returned as total row count of the pagination data.
+      * throws SW360Exception if the user may not read the project or one of its subprojects
+      **/
+    map<PaginationData, list<VulnerabilityDTO>> getVulnerabilitiesOfProjectWithPagination(1: string projectId, 2: bool transitive, 3: set<string> priorities, 4: set<VulnerabilityRatingForProject> projectRelevances, 5: User user, 6: PaginationData pageData) throws (1: SW360Exception exp);
+
    /**
      * returns list with one ProjectVulnerabilityRating for given projectId
      * returns emptyList if none is found
@@ -0,0 +1,154 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.cloudant.client.org.lightcouch.DocumentConflictException;
+import com.google.common.collect.ImmutableMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AttachmentBlobStoreTest {
+    private static final String SHA1 = "2aae6c35c94fcfb415dbe95f408b9ce91ee846ed";
+    private static final String BLOB_ID = AttachmentBlob.idOf(SHA1, "11");
+
+    @Mock
+    private DatabaseConnectorCloudant connector;
+
+    private AttachmentBlobStore blobStore;
+
+    @Before
+    public void setUp() {
+        blobStore = new AttachmentBlobStore(connector);
+    }
+
+    @Test
+    public void testFirstContentKeepsData() {
+        when(connector.add(any(AttachmentBlob.class))).thenReturn(true);
+        AttachmentContent content = content("first");
+
+        assertThat(blobStore.store(content), is(BLOB_ID));
+
+        ArgumentCaptor<AttachmentBlob> blob = ArgumentCaptor.forClass(AttachmentBlob.class);
+        verify(connector).add(blob.capture());
+        assertThat(blob.getValue().getId(), is(BLOB_ID));
+        assertThat(blob.getValue().getContentId(), is("first"));
+        assertThat(blob.getValue().getReferences(), is(1));
+        verify(connector).updateFields("first", ImmutableMap.of("blobId", BLOB_ID));
+        verify(connector, never()).updateFieldsAndRemoveAttachments(anyString(), anyMapOf(String.class, String.class));
+        assertThat(content.getBlobId(), is(BLOB_ID));
+    }
+
+    @Test
+    public void testDuplicateContentIsLinked() {
+        AttachmentBlob blob = new AttachmentBlob(content("first"));
+        when(connector.getIfExists(AttachmentBlob.class, BLOB_ID)).thenReturn(blob);
+        AttachmentContent duplicate = content("second");
+
+        assertThat(blobStore.store(duplicate), is(BLOB_ID));
+
+        verify(connector).update(blob);
+        assertThat(blob.getReferences(), is(2));
+        verify(connector).updateFieldsAndRemoveAttachments("second", ImmutableMap.of("blobId", BLOB_ID));
+        verify(connector, never()).add(any());
+        assertThat(duplicate.getBlobId(), is(BLOB_ID));
+    }
+
+    @Test
+    public void testConcurrentUpdateIsRetried() {
+        when(connector.getIfExists(AttachmentBlob.class, BLOB_ID))
+                .thenReturn(new AttachmentBlob(content("first")), new AttachmentBlob(content("first")));
+        doThrow(new DocumentConflictException("conflict")).doNothing().when(connector).update(any(AttachmentBlob.class));
+
+        assertThat(blobStore.store(content("second")), is(BLOB_ID));
+
+        verify(connector, times(2)).update(any(AttachmentBlob.class));
+        verify(connector).updateFieldsAndRemoveAttachments("second", ImmutableMap.of("blobId", BLOB_ID));
+    }
+
+    @Test
+    public void testContentWithoutChecksumIsNotStored() {
+        assertThat(blobStore.store(new AttachmentContent("file.txt").setId("id")), is(nullValue()));
+
+        verifyZeroInteractions(connector);
+    }
+
+    @Test
+    public void testReleasingLinkedContentAllowsDeleting() {
+        AttachmentBlob blob = new AttachmentBlob(content("first"));
+        blob.setReferences(2);
+        when(connector.getIfExists(AttachmentBlob.class, BLOB_ID)).thenReturn(blob);
+
+        assertThat(blobStore.release(content("second").setBlobId(BLOB_ID)), is(true));
+
+        assertThat(blob.getReferences(), is(1));
+        verify(connector).update(blob);
+        verify(connector, never()).updateFields(anyString(), anyMapOf(String.class, String.class));
+    }
+
+    @Test
+    public void testReleasingContentKeepingDataDetachesIt() {
+        AttachmentBlob blob = new AttachmentBlob(content("first"));
+        blob.setReferences(2);
+        when(connector.getIfExists(AttachmentBlob.class, BLOB_ID)).thenReturn(blob);
+
+        assertThat(blobStore.release(content("first").setBlobId(BLOB_ID)), is(false));
+
+        assertThat(blob.getReferences(), is(1));
+        verify(connector).updateFields("first", ImmutableMap.of("type", AttachmentBlobStore.DETACHED_TYPE));
+    }
+
+    @Test
+    public void testReferencedBlobIsNotDeleted() {
+        assertThat(blobStore.delete(new AttachmentBlob(content("first"))), is(false));
+
+        verifyZeroInteractions(connector);
+    }
+
+    @Test
+    public void testUnreferencedBlobIsDeletedWithDetachedContent() {
+        AttachmentBlob blob = new AttachmentBlob(content("first"));
+        blob.setReferences(0);
+        AttachmentContent holder = content("first").setType(AttachmentBlobStore.DETACHED_TYPE);
+        when(connector.getIfExists(AttachmentContent.class, "first")).thenReturn(holder);
+
+        assertThat(blobStore.delete(blob), is(true));
+
+        verify(connector).remove(blob);
+        verify(connector).remove(holder);
+    }
+
+    @Test
+    public void testBlobReferencedAgainIsNotDeleted() {
+        AttachmentBlob blob = new AttachmentBlob(content("first"));
+        blob.setReferences(0);
+        when(connector.remove(blob)).thenThrow(new DocumentConflictException("conflict"));
+
+        assertThat(blobStore.delete(blob), is(false));
+
+        verify(connector, never()).getIfExists(eq(AttachmentContent.class), anyString());
+    }
+
+    private static AttachmentContent content(String id) {
+        return new AttachmentContent("file.txt").setId(id).setSha1(SHA1).setSize("11");
+    }
+}
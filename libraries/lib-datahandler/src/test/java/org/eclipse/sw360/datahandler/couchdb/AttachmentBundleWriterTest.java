@@ -0,0 +1,127 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class AttachmentBundleWriterTest {
+
+    @Test
+    public void testEntriesAreWrittenInOrder() throws Exception {
+        AttachmentBundleWriter writer = new AttachmentBundleWriter(1, 2, 4, 1000);
+        List<AttachmentBundleWriter.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            entries.add(entry("file" + i + ".txt", "content of file " + i));
+        }
+
+        List<ZipEntry> zipEntries = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        readZip(writer.write(entries), zipEntries, contents);
+
+        assertThat(zipEntries.size(), is(5));
+        for (int i = 0; i < 5; i++) {
+            assertThat(zipEntries.get(i).getName(), is("file" + i + ".txt"));
+            assertThat(zipEntries.get(i).getMethod(), is(ZipEntry.DEFLATED));
+            assertThat(contents.get(i), is("content of file " + i));
+        }
+    }
+
+    @Test
+    public void testCompressedArchivesAreStored() throws Exception {
+        AttachmentBundleWriter writer = new AttachmentBundleWriter(1, 1, 1024, 1000);
+        List<ZipEntry> zipEntries = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        readZip(writer.write(Arrays.asList(entry("source.tar.gz", "archive"), entry("source.JAR", "jar"),
+                entry("readme.md", "text"))), zipEntries, contents);
+
+        assertThat(zipEntries.get(0).getMethod(), is(ZipEntry.STORED));
+        assertThat(zipEntries.get(1).getMethod(), is(ZipEntry.STORED));
+        assertThat(zipEntries.get(2).getMethod(), is(ZipEntry.DEFLATED));
+        assertThat(contents, is(Arrays.asList("archive", "jar", "text")));
+    }
+
+    @Test
+    public void testEntryWhichCannotBeOpenedIsEmpty() throws Exception {
+        AttachmentBundleWriter writer = new AttachmentBundleWriter(1, 1, 1024, 1000);
+        AttachmentBundleWriter.Entry failing = new AttachmentBundleWriter.Entry("failing.txt", () -> {
+            throw new SW360Exception("no permission");
+        });
+
+        List<ZipEntry> zipEntries = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        readZip(writer.write(Arrays.asList(entry("a.txt", "a"), failing, entry("b.txt", "b"))), zipEntries, contents);
+
+        assertThat(contents, is(Arrays.asList("a", "", "b")));
+    }
+
+    @Test
+    public void testNumberOfConcurrentBundlesIsLimited() throws Exception {
+        AttachmentBundleWriter writer = new AttachmentBundleWriter(1, 1, 1024, 10);
+        CountDownLatch released = new CountDownLatch(1);
+        AttachmentBundleWriter.Entry blocking = new AttachmentBundleWriter.Entry("a.txt", () -> {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ByteArrayInputStream(new byte[0]);
+        });
+
+        try (InputStream first = writer.write(Arrays.asList(blocking))) {
+            try {
+                writer.write(Arrays.asList(entry("b.txt", "b")));
+                fail("expected Exception not thrown");
+            } catch (SW360Exception ignored) {
+
+            }
+            released.countDown();
+            IOUtils.toByteArray(first);
+        }
+    }
+
+    @Test
+    public void testIsCompressed() {
+        assertThat(AttachmentBundleWriter.isCompressed("source.tar.gz"), is(true));
+        assertThat(AttachmentBundleWriter.isCompressed("library.jar"), is(true));
+        assertThat(AttachmentBundleWriter.isCompressed("source.tar"), is(false));
+        assertThat(AttachmentBundleWriter.isCompressed("README"), is(false));
+    }
+
+    private static AttachmentBundleWriter.Entry entry(String name, String content) {
+        return new AttachmentBundleWriter.Entry(name,
+                () -> new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void readZip(InputStream bundle, List<ZipEntry> zipEntries, List<String> contents) throws Exception {
+        try (ZipInputStream zip = new ZipInputStream(bundle)) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                zipEntries.add(zipEntry);
+                contents.add(new String(IOUtils.toByteArray(zip), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
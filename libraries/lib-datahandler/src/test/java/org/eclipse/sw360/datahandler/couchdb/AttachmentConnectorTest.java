@@ -19,24 +19,39 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.cloudant.client.api.model.Response;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import static org.eclipse.sw360.datahandler.common.Duration.durationOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AttachmentConnectorTest {
 
+    private static final String SHA1 = "2aae6c35c94fcfb415dbe95f408b9ce91ee846ed";
+    private static final String BLOB_ID = AttachmentBlob.idOf(SHA1, "11");
+
     @Mock
     DatabaseConnectorCloudant connector;
 
+    @Mock
+    AttachmentDataStore dataStore;
+
     AttachmentConnector attachmentConnector;
 
     @Before
     public void setUp() throws Exception {
-        attachmentConnector = new AttachmentConnector(connector, durationOf(5, TimeUnit.SECONDS));
+        attachmentConnector = new AttachmentConnector(connector, dataStore, durationOf(5, TimeUnit.SECONDS));
     }
 
     @Test
@@ -97,5 +112,65 @@ public class AttachmentConnectorTest {
         verify(connector).deleteIds(AttachmentContent.class, expectedIdsToDelete);
     }
 
+    @Test
+    public void testDeletingContentKeepingSharedBlobDetachesIt() throws Exception {
+        AttachmentContent keeping = blobContent("first");
+        AttachmentBlob blob = new AttachmentBlob(keeping);
+        blob.setReferences(2);
+        when(connector.get(AttachmentContent.class, Collections.singletonList("first"))).thenReturn(Collections.singletonList(keeping));
+        when(connector.getIfExists(AttachmentBlob.class, BLOB_ID)).thenReturn(blob);
+
+        attachmentConnector.deleteAttachmentsByIds(Collections.singletonList("first"));
+
+        assertThat(blob.getReferences(), is(1));
+        verify(connector).updateFields("first", ImmutableMap.of("type", AttachmentBlobStore.DETACHED_TYPE));
+        verify(connector).deleteIds(AttachmentContent.class, Collections.emptySet());
+        verify(dataStore, never()).delete("first");
+    }
+
+    @Test
+    public void testDeletingBothContentsOfSharedBlobKeepsTheData() throws Exception {
+        AttachmentContent keeping = blobContent("first");
+        AttachmentContent linked = blobContent("second");
+        AttachmentBlob blob = new AttachmentBlob(keeping);
+        blob.setReferences(2);
+        when(connector.get(AttachmentContent.class, Arrays.asList("first", "second"))).thenReturn(Arrays.asList(keeping, linked));
+        when(connector.getIfExists(AttachmentBlob.class, BLOB_ID)).thenReturn(blob);
+        List<Response> deleted = Collections.singletonList(response("second", null));
+        when(connector.deleteIds(AttachmentContent.class, ImmutableSet.of("second"))).thenReturn(deleted);
+
+        attachmentConnector.deleteAttachmentsByIds(Arrays.asList("first", "second"));
+
+        // the blob is unreferenced now, its data stays with the detached content until the blob is deleted
+        assertThat(blob.getReferences(), is(0));
+        verify(connector).updateFields("first", ImmutableMap.of("type", AttachmentBlobStore.DETACHED_TYPE));
+        verify(connector).deleteIds(AttachmentContent.class, ImmutableSet.of("second"));
+        verify(dataStore).delete("second");
+        verify(dataStore, never()).delete("first");
+    }
 
+    @Test
+    public void testDataOfContentsWhichCouldNotBeDeletedIsKept() throws Exception {
+        when(connector.get(AttachmentContent.class, Arrays.asList("first", "second")))
+                .thenReturn(Arrays.asList(new AttachmentContent("a.txt").setId("first"),
+                        new AttachmentContent("b.txt").setId("second")));
+        List<Response> results = Arrays.asList(response("first", "conflict"), response("second", null));
+        when(connector.deleteIds(AttachmentContent.class, ImmutableSet.of("first", "second"))).thenReturn(results);
+
+        assertThat(attachmentConnector.deleteAttachmentsByIds(Arrays.asList("first", "second")), is(results));
+
+        verify(dataStore).delete("second");
+        verify(dataStore, never()).delete("first");
+    }
+
+    private static Response response(String id, String error) {
+        Response response = mock(Response.class);
+        when(response.getId()).thenReturn(id);
+        when(response.getError()).thenReturn(error);
+        return response;
+    }
+
+    private static AttachmentContent blobContent(String id) {
+        return new AttachmentContent("file.txt").setId(id).setSha1(SHA1).setSize("11").setBlobId(BLOB_ID);
+    }
 }
@@ -25,9 +25,14 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import com.cloudant.client.org.lightcouch.NoDocumentException;
+import com.google.common.collect.ImmutableMap;
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -48,6 +53,8 @@ public class AttachmentStreamConnectorTest {
     @Mock
     private AttachmentContentDownloader attachmentContentDownloader;
 
+    private static final String HELLO_WORLD_SHA1 = "2aae6c35c94fcfb415dbe95f408b9ce91ee846ed";
+
     private User dummyUser = new User().setEmail("dummy@some.domain");
 
     AttachmentStreamConnector attachmentStreamConnector;
@@ -195,6 +202,58 @@ public class AttachmentStreamConnectorTest {
         verify(part1).close();
     }
 
+    @Test
+    public void testReadLinkedAttachmentReadsDataOfBlob() throws Exception {
+        AttachmentContent holder = new AttachmentContent("original.txt").setId("holder").setSha1(HELLO_WORLD_SHA1)
+                .setSize("11").setPartsCount("2");
+        String blobId = AttachmentBlob.idOf(HELLO_WORLD_SHA1, "11");
+        when(connector.getIfExists(AttachmentBlob.class, blobId)).thenReturn(new AttachmentBlob(holder));
+        when(connector.getAttachment("holder", "original.txt_part1")).thenReturn(stream("hello "));
+        when(connector.getAttachment("holder", "original.txt_part2")).thenReturn(stream("world"));
+
+        AttachmentContent linked = new AttachmentContent("copy.txt").setId("linked").setBlobId(blobId);
+
+        assertThat(IOUtils.toString(attachmentStreamConnector.readAttachmentStream(linked), StandardCharsets.UTF_8),
+                is("hello world"));
+        verify(connector, never()).getAttachment(eq("linked"), anyString());
+    }
+
+    @Test
+    public void testUploadAttachmentRecordsChecksum() throws Exception {
+        consumeUploadedStreams();
+        AttachmentContent attachment = new AttachmentContent("file.txt").setId("id");
+
+        attachmentStreamConnector.uploadAttachment(attachment, stream("hello world"));
+
+        verify(connector).updateFields("id", ImmutableMap.of("sha1", HELLO_WORLD_SHA1, "size", "11"));
+        assertThat(attachment.getSha1(), is(HELLO_WORLD_SHA1));
+        assertThat(attachment.getSize(), is("11"));
+    }
+
+    @Test
+    public void testUploadAttachmentPartsRecordsChecksumWithLastPart() throws Exception {
+        consumeUploadedStreams();
+        AttachmentContent attachment = new AttachmentContent("file.txt").setId("parts").setPartsCount("2");
+
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 1, stream("hello "));
+        verify(connector, never()).updateFields(anyString(), anyMapOf(String.class, String.class));
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 2, stream("world"));
+
+        verify(connector).updateFields("parts", ImmutableMap.of("sha1", HELLO_WORLD_SHA1, "size", "11"));
+    }
+
+    @Test
+    public void testUploadAttachmentPartsOutOfOrderRecordsNoChecksum() throws Exception {
+        consumeUploadedStreams();
+        AttachmentContent attachment = new AttachmentContent("file.txt").setId("unordered").setPartsCount("3");
+
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 1, stream("a"));
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 3, stream("c"));
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 2, stream("b"));
+
+        verify(connector, never()).updateFields(anyString(), anyMapOf(String.class, String.class));
+    }
+
     @Test
     public void testPrintAcceptedZipEntryName() {
         assertThat(attachmentStreamConnector.printAcceptedZipEntryName("source.zip", 0), is("source (0).zip"));
@@ -213,4 +272,14 @@ public class AttachmentStreamConnectorTest {
         assertThat(zipEntry2.getName(), is("source (1).zip"));
     }
 
+    private void consumeUploadedStreams() {
+        doAnswer(invocation -> {
+            IOUtils.toByteArray((InputStream) invocation.getArguments()[2]);
+            return null;
+        }).when(connector).createAttachment(anyString(), anyString(), any(InputStream.class), anyString());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.cloudant.client.org.lightcouch.NoDocumentException;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FileSystemAttachmentDataStoreTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private FileSystemAttachmentDataStore store;
+
+    @Before
+    public void setUp() {
+        store = new FileSystemAttachmentDataStore(folder.getRoot().toPath(), null);
+    }
+
+    @Test
+    public void testWrittenDataIsRead() throws Exception {
+        store.write("content", "file.txt", stream("hello world"));
+
+        assertThat(read("content", "file.txt"), is("hello world"));
+        assertThat(store.size("content", "file.txt"), is(11L));
+    }
+
+    @Test
+    public void testWritingReplacesData() throws Exception {
+        store.write("content", "file.txt", stream("first"));
+        store.write("content", "file.txt", stream("second"));
+
+        assertThat(read("content", "file.txt"), is("second"));
+        assertThat(listFiles().size(), is(1));
+    }
+
+    @Test
+    public void testNamesAreKeptInsideTheContentDirectory() throws Exception {
+        store.write("content", "..", stream("dots"));
+        store.write("content", "../other/file.txt", stream("path"));
+        store.write("../content", ".", stream("id"));
+
+        assertThat(read("content", ".."), is("dots"));
+        assertThat(read("content", "../other/file.txt"), is("path"));
+        assertThat(read("../content", "."), is("id"));
+        for (Path file : listFiles()) {
+            assertThat(file.startsWith(folder.getRoot().toPath()), is(true));
+            assertThat(folder.getRoot().toPath().relativize(file).getNameCount(), is(4));
+        }
+    }
+
+    @Test
+    public void testMissingDataIsReadFromFallback() throws Exception {
+        AttachmentDataStore fallback = mock(AttachmentDataStore.class);
+        when(fallback.read("content", "file.txt")).thenReturn(stream("from fallback"));
+        store = new FileSystemAttachmentDataStore(folder.getRoot().toPath(), fallback);
+
+        assertThat(read("content", "file.txt"), is("from fallback"));
+    }
+
+    @Test(expected = NoDocumentException.class)
+    public void testMissingDataWithoutFallbackThrows() {
+        store.read("content", "file.txt");
+    }
+
+    @Test
+    public void testTransferToCopiesRemainingData() throws Exception {
+        store.write("content", "file.txt", stream("hello world"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = store.read("content", "file.txt")) {
+            assertThat(in.read(), is((int) 'h'));
+            assertThat(in.transferTo(out), is(10L));
+            assertThat(in.read(), is(-1));
+        }
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), is("ello world"));
+    }
+
+    @Test
+    public void testDeleteRemovesAllDataOfContent() throws Exception {
+        store.write("content", "file.txt_part1", stream("a"));
+        store.write("content", "file.txt_part2", stream("b"));
+        store.write("other", "file.txt", stream("c"));
+
+        store.delete("content");
+
+        assertThat(store.size("content", "file.txt_part1"), is(-1L));
+        assertThat(store.size("content", "file.txt_part2"), is(-1L));
+        assertThat(read("other", "file.txt"), is("c"));
+    }
+
+    @Test
+    public void testDataOfMissingContentsIsDeleted() throws Exception {
+        store.write("kept", "file.txt", stream("a"));
+        store.write("deleted", "file.txt", stream("b"));
+
+        assertThat(store.deleteDataOfMissingContents(ids -> ImmutableSet.of("kept"), 0), is(1));
+
+        assertThat(read("kept", "file.txt"), is("a"));
+        assertThat(store.size("deleted", "file.txt"), is(-1L));
+    }
+
+    @Test
+    public void testNothingIsDeletedIfContentsCannotBeChecked() throws Exception {
+        store.write("content", "file.txt", stream("a"));
+
+        assertThat(store.deleteDataOfMissingContents(ids -> {
+            throw new IllegalStateException("database not available");
+        }, 0), is(0));
+
+        assertThat(read("content", "file.txt"), is("a"));
+    }
+
+    private String read(String attachmentContentId, String name) throws Exception {
+        try (InputStream in = store.read(attachmentContentId, name)) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private List<Path> listFiles() throws Exception {
+        try (Stream<Path> paths = Files.walk(folder.getRoot().toPath())) {
+            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
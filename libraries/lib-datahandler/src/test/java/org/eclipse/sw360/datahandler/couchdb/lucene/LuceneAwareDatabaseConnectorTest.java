@@ -0,0 +1,361 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb.lucene;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.sw360.datahandler.cloudantclient.DatabaseConnectorCloudant;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseInstance;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.eclipse.sw360.datahandler.thrift.Visibility;
+import org.eclipse.sw360.datahandler.thrift.projects.Project;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LuceneAwareDatabaseConnectorTest {
+
+    private static final String USER_EMAIL = "user@sw360.org";
+    private static final String OTHER_EMAIL = "other@sw360.org";
+    private static final Pattern SKIP = Pattern.compile("[?&]skip=(\\d+)");
+    private static final Pattern LIMIT = Pattern.compile("[?&]limit=(\\d+)");
+
+    private final LuceneSearchView searchView = new LuceneSearchView("lucene", "projects", "function(doc) {}");
+    private final User user = new User(USER_EMAIL, "AB CD EF").setUserGroup(UserGroup.USER);
+
+    @Mock
+    private DatabaseConnector databaseConnector;
+    @Mock
+    private DatabaseInstance databaseInstance;
+    @Mock
+    private DatabaseConnectorCloudant cloudantConnector;
+    @Mock
+    private LuceneQueryClient queryClient;
+
+    private LuceneAwareDatabaseConnector connector;
+
+    /**
+     * The hits of the index in the order of relevance
+     */
+    private List<LuceneQueryClient.Hit> index;
+    /**
+     * The documents in the database by id
+     */
+    private Map<String, Project> documents;
+
+    @Before
+    public void setUp() throws Exception {
+        when(databaseConnector.getDbName()).thenReturn("sw360db");
+        when(databaseConnector.getInstance()).thenReturn(databaseInstance);
+        connector = new LuceneAwareDatabaseConnector(databaseConnector, cloudantConnector, queryClient);
+
+        index = new ArrayList<>();
+        documents = new HashMap<>();
+        when(queryClient.queryHitPage(anyString())).thenAnswer(invocation -> {
+            String url = (String) invocation.getArguments()[0];
+            int skip = getParameter(SKIP, url, 0);
+            int limit = getParameter(LIMIT, url, Integer.MAX_VALUE);
+            List<LuceneQueryClient.Hit> hits = index.subList(Math.min(skip, index.size()),
+                    (int) Math.min((long) skip + limit, index.size()));
+            return new LuceneQueryClient.Hits(new ArrayList<>(hits), index.size());
+        });
+        when(cloudantConnector.get(eq(Project.class), anyCollectionOf(String.class))).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Collection<String> ids = (Collection<String>) invocation.getArguments()[1];
+            return ids.stream().map(documents::get).filter(Objects::nonNull).collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    public void testHitsAreScannedInBatchesAcrossSkip() throws Exception {
+        // every second hit is visible, so the visible hits 110 to 119 are the hits 220 to 238
+        addProjects(250, i -> i % 2 == 0);
+
+        Map<PaginationData, List<Project>> result = search(110, 10);
+
+        assertThat(getIds(result), is(ids(IntStream.rangeClosed(220, 238).filter(i -> i % 2 == 0))));
+        ArgumentCaptor<String> urls = ArgumentCaptor.forClass(String.class);
+        verify(queryClient, times(3)).queryHitPage(urls.capture());
+        assertThat(urls.getAllValues().stream().map(url -> getParameter(SKIP, url, 0)).collect(Collectors.toList()),
+                contains(0, 100, 200));
+        assertThat(urls.getAllValues().stream().map(url -> getParameter(LIMIT, url, 0)).collect(Collectors.toList()),
+                contains(100, 100, 100));
+    }
+
+    @Test
+    public void testBatchIsAtLeastOnePage() throws Exception {
+        addProjects(500, i -> true);
+
+        Map<PaginationData, List<Project>> result = search(0, 250);
+
+        assertThat(getIds(result).size(), is(250));
+        ArgumentCaptor<String> url = ArgumentCaptor.forClass(String.class);
+        verify(queryClient, times(1)).queryHitPage(url.capture());
+        assertThat(getParameter(LIMIT, url.getValue(), 0), is(250));
+    }
+
+    @Test
+    public void testVisibilityIsCheckedOnStoredFieldsWithoutLoadingHits() throws Exception {
+        addProjects(20, i -> i % 4 == 0);
+
+        Map<PaginationData, List<Project>> result = search(1, 2);
+
+        assertThat(getIds(result), contains("p4", "p8"));
+        // only the documents of the page are loaded
+        verify(cloudantConnector, times(1)).get(eq(Project.class), anyCollectionOf(String.class));
+        verify(cloudantConnector).get(Project.class, ImmutableList.of("p4", "p8"));
+    }
+
+    @Test
+    public void testVisibilityIsCheckedOnAllStoredPermissionFields() throws Exception {
+        addProject("private", new Project().setVisbility(Visibility.PRIVATE).setCreatedBy(USER_EMAIL));
+        addProject("privateOfOther", new Project().setVisbility(Visibility.PRIVATE).setCreatedBy(OTHER_EMAIL));
+        addProject("moderator", new Project().setVisbility(Visibility.ME_AND_MODERATORS).setCreatedBy(OTHER_EMAIL)
+                .setModerators(new HashSet<>(ImmutableList.of("someone@sw360.org", USER_EMAIL))));
+        addProject("contributor", new Project().setVisbility(Visibility.ME_AND_MODERATORS).setCreatedBy(OTHER_EMAIL)
+                .setContributors(Collections.singleton(USER_EMAIL)));
+        addProject("leadArchitect", new Project().setVisbility(Visibility.ME_AND_MODERATORS)
+                .setCreatedBy(OTHER_EMAIL).setLeadArchitect(USER_EMAIL));
+        addProject("projectResponsible", new Project().setVisbility(Visibility.ME_AND_MODERATORS)
+                .setCreatedBy(OTHER_EMAIL).setProjectResponsible(USER_EMAIL));
+        addProject("notModerated", new Project().setVisbility(Visibility.ME_AND_MODERATORS)
+                .setCreatedBy(OTHER_EMAIL));
+        addProject("businessUnit", new Project().setVisbility(Visibility.BUISNESSUNIT_AND_MODERATORS)
+                .setCreatedBy(OTHER_EMAIL).setBusinessUnit("AB CD EF"));
+        addProject("otherBusinessUnit", new Project().setCreatedBy(OTHER_EMAIL).setBusinessUnit("AB CD FE"));
+        addProject("everyone", new Project().setVisbility(Visibility.EVERYONE).setCreatedBy(OTHER_EMAIL));
+
+        Map<PaginationData, List<Project>> result = search(0, 20);
+
+        assertThat(getIds(result), contains("private", "moderator", "contributor", "leadArchitect",
+                "projectResponsible", "businessUnit", "everyone"));
+        assertThat(getTotal(result), is(7L));
+        verify(cloudantConnector, times(1)).get(eq(Project.class), anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void testHitsWithoutStoredFieldsAreCheckedOnDocuments() throws Exception {
+        // documents indexed before the permission fields were stored
+        addProjectWithoutStoredFields("visible", new Project().setVisbility(Visibility.EVERYONE));
+        addProject("stored", new Project().setVisbility(Visibility.EVERYONE));
+        addProjectWithoutStoredFields("hidden", new Project().setVisbility(Visibility.PRIVATE).setCreatedBy(OTHER_EMAIL));
+        addProjectWithoutStoredFields("deleted", new Project().setVisbility(Visibility.EVERYONE));
+        documents.remove("deleted");
+
+        Map<PaginationData, List<Project>> result = search(0, 10);
+
+        assertThat(getIds(result), contains("visible", "stored"));
+        assertThat(getTotal(result), is(2L));
+        // the hits without stored fields are loaded with one request, then the page
+        verify(cloudantConnector).get(Project.class, ImmutableList.of("visible", "hidden", "deleted"));
+        verify(cloudantConnector).get(Project.class, ImmutableList.of("visible", "stored"));
+    }
+
+    @Test
+    public void testTotalIsExactWhenAllHitsWereRead() throws Exception {
+        addProjects(30, i -> i % 2 == 0);
+
+        Map<PaginationData, List<Project>> result = search(10, 10);
+
+        assertThat(getIds(result), contains("p20", "p22", "p24", "p26", "p28"));
+        assertThat(getTotal(result), is(15L));
+    }
+
+    @Test
+    public void testTotalIsExactWhenPageIsFilledWithLastHit() throws Exception {
+        addProjects(19, i -> i % 2 == 0);
+
+        Map<PaginationData, List<Project>> result = search(5, 5);
+
+        assertThat(getIds(result), contains("p10", "p12", "p14", "p16", "p18"));
+        assertThat(getTotal(result), is(10L));
+    }
+
+    @Test
+    public void testTotalIsExtrapolatedWhenPageWasFilledEarly() throws Exception {
+        // every fourth hit is visible, so the page is filled after the first 37 of 1000 hits
+        addProjects(1000, i -> i % 4 == 0);
+
+        Map<PaginationData, List<Project>> result = search(0, 10);
+
+        assertThat(getIds(result), is(ids(IntStream.rangeClosed(0, 36).filter(i -> i % 4 == 0))));
+        // 10 visible of 37 scanned hits, the remaining 963 hits are estimated to contain 260 visible ones
+        assertThat(getTotal(result), is(270L));
+        verify(queryClient, times(1)).queryHitPage(anyString());
+    }
+
+    @Test
+    public void testPageDataIsCopied() throws Exception {
+        addProjects(3, i -> true);
+        PaginationData pageData = new PaginationData().setDisplayStart(1).setRowsPerPage(1).setAscending(true);
+
+        Map<PaginationData, List<Project>> result = connector.searchProjectViewWithRestrictionsAndFilter(searchView,
+                "name", Collections.emptyMap(), user, pageData);
+
+        PaginationData resultPageData = result.keySet().iterator().next();
+        assertThat(resultPageData.getDisplayStart(), is(1));
+        assertThat(resultPageData.getRowsPerPage(), is(1));
+        assertThat(resultPageData.isAscending(), is(true));
+        assertThat(pageData.isSetTotalRowCount(), is(false));
+    }
+
+    @Test
+    public void testLoadedPageIsCheckedAgain() throws Exception {
+        addProjects(4, i -> true);
+        // the index lags behind a change of the visibility and a deletion
+        documents.put("p1", new Project().setId("p1").setVisbility(Visibility.PRIVATE).setCreatedBy(OTHER_EMAIL));
+        documents.remove("p2");
+
+        Map<PaginationData, List<Project>> result = search(0, 10);
+
+        assertThat(getIds(result), contains("p0", "p3"));
+    }
+
+    @Test
+    public void testEmptyQueryReturnsEmptyPage() throws Exception {
+        addProjects(3, i -> true);
+
+        Map<PaginationData, List<Project>> result = connector.searchProjectViewWithRestrictionsAndFilter(searchView,
+                "", Collections.emptyMap(), user, new PaginationData().setDisplayStart(0).setRowsPerPage(10));
+
+        assertThat(getIds(result), is(empty()));
+        assertThat(getTotal(result), is(0L));
+        verify(queryClient, never()).queryHitPage(anyString());
+    }
+
+    @Test
+    public void testFailedQueryReturnsEmptyPage() throws Exception {
+        addProjects(3, i -> true);
+        when(queryClient.queryHitPage(anyString())).thenReturn(null);
+
+        Map<PaginationData, List<Project>> result = search(0, 10);
+
+        assertThat(getIds(result), is(empty()));
+        assertThat(getTotal(result), is(0L));
+    }
+
+    @Test
+    public void testRestrictionsAreAddedToQuery() throws Exception {
+        connector.searchProjectViewWithRestrictionsAndFilter(searchView, "name",
+                ImmutableMap.of("businessUnit", Collections.singleton("AB CD EF")), user,
+                new PaginationData().setDisplayStart(0).setRowsPerPage(10));
+
+        ArgumentCaptor<String> url = ArgumentCaptor.forClass(String.class);
+        verify(queryClient).queryHitPage(url.capture());
+        assertThat(url.getValue(), containsString("sw360db"));
+        assertThat(url.getValue(), containsString("include_docs=false"));
+        assertThat(url.getValue(), not(containsString("skip=")));
+        assertThat(url.getValue(), containsString("limit=100"));
+        assertThat(url.getValue(), containsString("businessUnit"));
+    }
+
+    private Map<PaginationData, List<Project>> search(int displayStart, int rowsPerPage) {
+        return connector.searchProjectViewWithRestrictionsAndFilter(searchView, "name", Collections.emptyMap(), user,
+                new PaginationData().setDisplayStart(displayStart).setRowsPerPage(rowsPerPage));
+    }
+
+    /**
+     * Adds the projects p0 to p(count - 1), the visible ones are private projects of the user, the others private
+     * projects of another user
+     */
+    private void addProjects(int count, IntPredicate visible) {
+        for (int i = 0; i < count; i++) {
+            addProject("p" + i, new Project().setVisbility(Visibility.PRIVATE)
+                    .setCreatedBy(visible.test(i) ? USER_EMAIL : OTHER_EMAIL));
+        }
+    }
+
+    private void addProject(String id, Project project) {
+        project.setId(id).setName("name " + id);
+        index.add(new LuceneQueryClient.Hit(id, 1.0 / (index.size() + 1), storedFields(project)));
+        documents.put(id, project);
+    }
+
+    private void addProjectWithoutStoredFields(String id, Project project) {
+        project.setId(id).setName("name " + id);
+        index.add(new LuceneQueryClient.Hit(id, 1.0 / (index.size() + 1), Collections.emptyMap()));
+        documents.put(id, project);
+    }
+
+    /**
+     * The fields which the search function of ProjectSearchHandler stores for a project
+     */
+    private static Map<String, List<String>> storedFields(Project project) {
+        Map<String, List<String>> fields = new HashMap<>();
+        fields.put("perm_stored", ImmutableList.of("true"));
+        if (project.isSetVisbility()) {
+            fields.put("perm_visbility", ImmutableList.of(project.getVisbility().name()));
+        }
+        putIfSet(fields, "perm_createdBy", project.getCreatedBy());
+        putIfSet(fields, "perm_leadArchitect", project.getLeadArchitect());
+        putIfSet(fields, "perm_projectResponsible", project.getProjectResponsible());
+        putIfSet(fields, "perm_businessUnit", project.getBusinessUnit());
+        if (project.isSetModerators()) {
+            fields.put("perm_moderators", new ArrayList<>(project.getModerators()));
+        }
+        if (project.isSetContributors()) {
+            fields.put("perm_contributors", new ArrayList<>(project.getContributors()));
+        }
+        return fields;
+    }
+
+    private static void putIfSet(Map<String, List<String>> fields, String field, String value) {
+        if (value != null) {
+            fields.put(field, ImmutableList.of(value));
+        }
+    }
+
+    private static int getParameter(Pattern parameter, String url, int defaultValue) {
+        Matcher matcher = parameter.matcher(url);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : defaultValue;
+    }
+
+    private static List<String> getIds(Map<PaginationData, List<Project>> result) {
+        assertThat(result.size(), is(1));
+        return result.values().iterator().next().stream().map(Project::getId).collect(Collectors.toList());
+    }
+
+    private static long getTotal(Map<PaginationData, List<Project>> result) {
+        return result.keySet().iterator().next().getTotalRowCount();
+    }
+
+    private static List<String> ids(IntStream indexes) {
+        return indexes.mapToObj(i -> "p" + i).collect(Collectors.toList());
+    }
+}
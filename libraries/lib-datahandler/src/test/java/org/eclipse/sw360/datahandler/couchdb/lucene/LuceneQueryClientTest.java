@@ -0,0 +1,267 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.couchdb.lucene;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class LuceneQueryClientTest {
+
+    private static final String SEARCH_PATH = "/_fti/local/sw360db/_design/lucene/projects";
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile Handler handler;
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws Exception;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestURI().toString());
+            try {
+                handler.handle(exchange);
+            } catch (Exception e) {
+                exchange.sendResponseHeaders(500, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testHitsAreReadFromRecordedResponse() throws Exception {
+        String response = Resources.toString(Resources.getResource("lucene/projects-response.json"),
+                StandardCharsets.UTF_8);
+        handler = exchange -> respond(exchange, 200, response);
+        LuceneQueryClient client = new LuceneQueryClient(2, 1000);
+
+        LuceneQueryClient.Hits hits = client.queryHitPage(url("q=name*&limit=3"));
+
+        assertThat(hits, is(notNullValue()));
+        assertThat(hits.getTotalRows(), is(42L));
+        assertThat(hits.getHits().stream().map(LuceneQueryClient.Hit::getId).collect(Collectors.toList()),
+                contains("5e3f2a9c1f4b4d0e8a7c6b5d4e3f2a1b", "7a6b5c4d3e2f1a0b9c8d7e6f5a4b3c2d",
+                        "9f8e7d6c5b4a39281706f5e4d3c2b1a0"));
+        assertThat(hits.getHits().stream().map(LuceneQueryClient.Hit::getScore).collect(Collectors.toList()),
+                contains(2.5, 1.25, 0.5));
+        assertThat(client.getQueryCount(), is(1L));
+        assertThat(client.getFailedQueryCount(), is(0L));
+    }
+
+    @Test
+    public void testStoredFieldsAreReadFromRecordedResponse() throws Exception {
+        String response = Resources.toString(Resources.getResource("lucene/projects-response.json"),
+                StandardCharsets.UTF_8);
+        handler = exchange -> respond(exchange, 200, response);
+        LuceneQueryClient client = new LuceneQueryClient(2, 1000);
+
+        List<LuceneQueryClient.Hit> hits = client.queryHitPage(url("q=name*&limit=3")).getHits();
+
+        LuceneQueryClient.Hit first = hits.get(0);
+        assertThat(first.getFields().size(), is(6));
+        assertThat(first.getFields().get("perm_stored"), contains("true"));
+        assertThat(first.getFields().get("perm_visbility"), contains("BUISNESSUNIT_AND_MODERATORS"));
+        assertThat(first.getFields().get("perm_createdBy"), contains("admin@sw360.org"));
+        assertThat(first.getFields().get("perm_businessUnit"), contains("AB CD EF"));
+        // fields with several values are sent as array
+        assertThat(first.getFields().get("perm_moderators"), contains("moderator@sw360.org", "user@sw360.org"));
+        assertThat(first.getFields().get("default"), contains("name 1", "1.0", "true"));
+
+        LuceneQueryClient.Hit second = hits.get(1);
+        assertThat(second.getFields().get("perm_visbility"), contains("PRIVATE"));
+        assertThat(second.getFields().get("perm_contributors"), contains("contributor@sw360.org"));
+        // values which are no scalars are skipped, the document of the hit is not read
+        assertThat(second.getFields().get("nested"), is(empty()));
+        assertThat(second.getFields().get("mixed"), contains("value", "42"));
+        assertThat(second.getFields().size(), is(6));
+
+        assertThat(hits.get(2).getFields(), is(Collections.emptyMap()));
+    }
+
+    @Test
+    public void testQueryHitsReturnsHitsOfPage() throws Exception {
+        handler = exchange -> respond(exchange, 200,
+                "{\"rows\":[{\"id\":\"p1\",\"score\":1.0},{\"id\":\"p2\",\"score\":0.5}],\"total_rows\":10}");
+        LuceneQueryClient client = new LuceneQueryClient(2, 1000);
+
+        List<LuceneQueryClient.Hit> hits = client.queryHits(url("q=name*"));
+
+        assertThat(hits.stream().map(LuceneQueryClient.Hit::getId).collect(Collectors.toList()), contains("p1", "p2"));
+    }
+
+    @Test
+    public void testTotalIsNumberOfHitsIfMissing() throws Exception {
+        handler = exchange -> respond(exchange, 200, "{\"rows\":[{\"id\":\"p1\"},{\"id\":\"p2\"}]}");
+        LuceneQueryClient client = new LuceneQueryClient(2, 1000);
+
+        LuceneQueryClient.Hits hits = client.queryHitPage(url("q=name*"));
+
+        assertThat(hits.getTotalRows(), is(2L));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnexpectedResponseFails() throws Exception {
+        handler = exchange -> respond(exchange, 200, "[]");
+        LuceneQueryClient client = new LuceneQueryClient(2, 1000);
+
+        try {
+            client.queryHitPage(url("q=name*"));
+        } finally {
+            assertThat(client.getFailedQueryCount(), is(1L));
+            assertThat(client.getAvailablePermits(), is(2));
+        }
+    }
+
+    @Test
+    public void testFailedQueryIsRetriedWithStaleOk() throws Exception {
+        handler = exchange -> {
+            if (exchange.getRequestURI().getQuery().contains("stale=ok")) {
+                respond(exchange, 200, "{\"rows\":[{\"id\":\"p1\",\"score\":1.0}],\"total_rows\":1}");
+            } else {
+                respond(exchange, 500, "{\"reason\":\"timeout\"}");
+            }
+        };
+        LuceneQueryClient client = new LuceneQueryClient(2, 1000);
+
+        List<LuceneQueryClient.Hit> hits = client.queryHits(url("q=name*"));
+
+        assertThat(hits.stream().map(LuceneQueryClient.Hit::getId).collect(Collectors.toList()), contains("p1"));
+        assertThat(requests.size(), is(2));
+        assertThat(requests.get(0), endsWith("?q=name*"));
+        assertThat(requests.get(1), endsWith("?q=name*&stale=ok"));
+        assertThat(client.getQueryCount(), is(1L));
+        assertThat(client.getFailedQueryCount(), is(0L));
+    }
+
+    @Test
+    public void testQueryFailingWithStaleOkReturnsNull() throws Exception {
+        handler = exchange -> respond(exchange, 503, "");
+        LuceneQueryClient client = new LuceneQueryClient(2, 1000);
+
+        assertThat(client.queryHitPage(url("q=name*")), is(nullValue()));
+        assertThat(requests.size(), is(2));
+        assertThat(client.getFailedQueryCount(), is(1L));
+        assertThat(client.getAvailablePermits(), is(2));
+    }
+
+    @Test
+    public void testQueriesAboveConcurrencyLimitAreRejected() throws Exception {
+        CountDownLatch requestReceived = new CountDownLatch(1);
+        CountDownLatch responseReleased = new CountDownLatch(1);
+        handler = exchange -> {
+            if (exchange.getRequestURI().getQuery().contains("slow")) {
+                requestReceived.countDown();
+                // keeps the connection busy without running into the socket timeout
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream body = exchange.getResponseBody();
+                while (!responseReleased.await(50, TimeUnit.MILLISECONDS)) {
+                    body.write(' ');
+                    body.flush();
+                }
+                body.write("{\"rows\":[{\"id\":\"slow\"}],\"total_rows\":1}".getBytes(StandardCharsets.UTF_8));
+                body.close();
+            } else {
+                respond(exchange, 200, "{\"rows\":[{\"id\":\"fast\"}],\"total_rows\":1}");
+            }
+        };
+        LuceneQueryClient client = new LuceneQueryClient(1, 300);
+
+        Future<List<LuceneQueryClient.Hit>> slowQuery = executor.submit(() -> client.queryHits(url("q=slow")));
+        assertThat(requestReceived.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(client.getAvailablePermits(), is(0));
+
+        assertThat(client.queryHits(url("q=fast")), is(nullValue()));
+        assertThat(client.getRejectedQueryCount(), is(1L));
+
+        responseReleased.countDown();
+        assertThat(slowQuery.get(5, TimeUnit.SECONDS).get(0).getId(), is("slow"));
+        assertThat(client.getAvailablePermits(), is(1));
+        assertThat(client.queryHits(url("q=fast")).get(0).getId(), is("fast"));
+        assertThat(requests.stream().filter(request -> request.contains("fast")).count(), is(1L));
+        assertThat(client.getRejectedQueryCount(), is(1L));
+    }
+
+    @Test
+    public void testQueriesWithinConcurrencyLimitRunInParallel() throws Exception {
+        CountDownLatch requestsReceived = new CountDownLatch(2);
+        handler = exchange -> {
+            requestsReceived.countDown();
+            // answers only once both queries are sent
+            if (!requestsReceived.await(5, TimeUnit.SECONDS)) {
+                throw new TimeoutException();
+            }
+            respond(exchange, 200, "{\"rows\":[],\"total_rows\":0}");
+        };
+        LuceneQueryClient client = new LuceneQueryClient(2, 10000);
+
+        List<Future<LuceneQueryClient.Hits>> queries = ImmutableList.of(
+                executor.submit(() -> client.queryHitPage(url("q=first"))),
+                executor.submit(() -> client.queryHitPage(url("q=second"))));
+
+        for (Future<LuceneQueryClient.Hits> query : queries) {
+            assertThat(query.get(10, TimeUnit.SECONDS).getHits(), is(empty()));
+        }
+        assertThat(client.getRejectedQueryCount(), is(0L));
+        assertThat(client.getAvailablePermits(), is(2));
+    }
+
+    private String url(String query) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + SEARCH_PATH + "?" + query;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.datahandler.thrift;
+
+import org.apache.http.pool.PoolStats;
+import org.apache.thrift.transport.THttpClient;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+
+public class ThriftClientsTest {
+
+    private static final String BACKEND = "http://127.0.0.1:18080";
+    private static final String OTHER_BACKEND = "http://127.0.0.1:18081";
+
+    @Test
+    public void testTransportsToTheSameBackendSharePool() throws Exception {
+        THttpClient first = ThriftClients.makeTransport(BACKEND, "/projects/thrift");
+        THttpClient second = ThriftClients.makeTransport(BACKEND, "/components/thrift");
+
+        assertThat(first, is(notNullValue()));
+        assertThat(second, is(notNullValue()));
+        Map<String, PoolStats> stats = ThriftClients.getConnectionPoolStats();
+        assertThat(stats, hasKey(BACKEND));
+        assertThat(stats.get(BACKEND).getMax(), is(ThriftClients.THRIFT_POOL_MAX_TOTAL));
+        assertThat(stats.get(BACKEND).getLeased(), is(0));
+    }
+
+    @Test
+    public void testEachBackendGetsItsOwnPool() throws Exception {
+        ThriftClients.makeTransport(BACKEND, "/projects/thrift");
+        assertThat(ThriftClients.getConnectionPoolStats(), not(hasKey(OTHER_BACKEND)));
+
+        ThriftClients.makeTransport(OTHER_BACKEND, "/projects/thrift");
+
+        Map<String, PoolStats> stats = ThriftClients.getConnectionPoolStats();
+        assertThat(stats, hasKey(BACKEND));
+        assertThat(stats, hasKey(OTHER_BACKEND));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testConnectionPoolStatsCannotBeModified() throws Exception {
+        ThriftClients.makeTransport(BACKEND, "/projects/thrift");
+        ThriftClients.getConnectionPoolStats().clear();
+    }
+
+    @Test(expected = TTransportException.class)
+    public void testTransportToInvalidUrlFails() throws Exception {
+        ThriftClients.makeTransport("no url", "/projects/thrift");
+    }
+}
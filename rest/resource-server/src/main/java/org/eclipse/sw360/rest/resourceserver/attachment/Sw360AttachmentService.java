@@ -44,12 +44,12 @@ import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.Resources;
 import org.springframework.stereotype.Service;
-import org.springframework.util.FileCopyUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -62,6 +62,8 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+
 @Service
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class Sw360AttachmentService {
@@ -177,7 +179,10 @@ public class Sw360AttachmentService {
         try (InputStream attachmentStream = getStreamToAttachments(Collections.singleton(attachmentContent), sw360User, context)) {
             response.setContentType(contentType);
             response.setHeader("Content-Disposition", String.format("attachment; filename=\"%s\"", filename));
-            FileCopyUtils.copy(attachmentStream, response.getOutputStream());
+            if (!isNullOrEmpty(attachmentContent.getSize())) {
+                response.setContentLengthLong(Long.parseLong(attachmentContent.getSize()));
+            }
+            attachmentStream.transferTo(response.getOutputStream());
         } catch (TException | IOException e) {
             log.error(e.getMessage());
         }
@@ -187,6 +192,10 @@ public class Sw360AttachmentService {
         return new AttachmentFrontendUtils().getStreamToServeAFile(attachments, sw360User, context);
     }
 
+    public void transferTemporaryAttachment(String attachmentContentId, OutputStream out) throws IOException, TException {
+        new AttachmentFrontendUtils().transferTemporaryAttachment(attachmentContentId, out);
+    }
+
     public Attachment uploadAttachment(MultipartFile file, Attachment newAttachment, User sw360User) throws IOException, TException {
         String fileName = file.getOriginalFilename(); // TODO: shouldn't the fileName be taken from newAttachment?
         String contentType = file.getContentType();
@@ -194,7 +203,9 @@ public class Sw360AttachmentService {
 
         final AttachmentConnector attachmentConnector = getConnector();
         Attachment attachment = new AttachmentFrontendUtils().uploadAttachmentContent(attachmentContent, file.getInputStream(), sw360User);
-        attachment.setSha1(attachmentConnector.getSha1FromAttachmentContentId(attachmentContent.getId()));
+        if (isNullOrEmpty(attachment.getSha1())) {
+            attachment.setSha1(attachmentConnector.getSha1FromAttachmentContentId(attachmentContent.getId()));
+        }
 
         AttachmentType attachmentType = newAttachment.getAttachmentType();
         if (attachmentType != null) {
@@ -18,6 +18,7 @@ import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.transport.THttpClient;
 import org.apache.thrift.transport.TTransportException;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
 import org.eclipse.sw360.datahandler.thrift.changelogs.ChangeLogs;
 import org.eclipse.sw360.datahandler.thrift.changelogs.ChangeLogsService;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -36,7 +37,7 @@ public class Sw360ChangeLogService {
     private String thriftServerUrl;
 
     private ChangeLogsService.Iface getThriftChangeLogClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/changelogs/thrift");
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/changelogs/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new ChangeLogsService.Client(protocol);
     }
@@ -16,6 +16,7 @@ import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.transport.THttpClient;
 import org.apache.thrift.transport.TTransportException;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
 import org.eclipse.sw360.datahandler.thrift.moderation.ModerationService;
 import org.eclipse.sw360.datahandler.thrift.projects.ClearingRequest;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -34,7 +35,7 @@ public class Sw360ClearingRequestService {
     private String thriftServerUrl;
 
     private ModerationService.Iface getThriftModerationClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/moderation/thrift");
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/moderation/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new ModerationService.Client(protocol);
     }
@@ -16,10 +16,12 @@ import org.eclipse.sw360.datahandler.common.SW360Constants;
 import org.eclipse.sw360.datahandler.resourcelists.PaginationParameterException;
 import org.eclipse.sw360.datahandler.resourcelists.PaginationResult;
 import org.eclipse.sw360.datahandler.resourcelists.ResourceClassNotFoundException;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.Source;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
+import org.eclipse.sw360.datahandler.thrift.components.ComponentType;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -66,6 +68,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
 
@@ -105,22 +108,27 @@ public class ComponentController implements ResourceProcessor<RepositoryLinksRes
 
         User sw360User = restControllerHelper.getSw360UserFromAuthentication();
 
-        List<Component> allComponents = new ArrayList<>();
+        PaginationResult<Component> paginationResult;
         if (name != null && !name.isEmpty()) {
-            allComponents.addAll(componentService.searchComponentByName(name));
+            List<Component> allComponents = componentService.searchComponentByName(name).stream()
+                    .filter(component -> componentType == null || (component.isSetComponentType() && componentType.equals(component.getComponentType().name())))
+                    .collect(Collectors.toList());
+            paginationResult = restControllerHelper.createPaginationResult(request, pageable, allComponents, SW360Constants.TYPE_COMPONENT);
+        } else if (componentType != null && !isComponentType(componentType)) {
+            paginationResult = restControllerHelper.createPaginationResultForPage(request, pageable, new ArrayList<>(), 0, SW360Constants.TYPE_COMPONENT);
         } else {
-            allComponents.addAll(componentService.getComponentsForUser(sw360User));
+            PaginationData pageData = restControllerHelper.paginationDataFromPageable(request, pageable, Component._Fields::findByName);
+            Map.Entry<PaginationData, List<Component>> page = componentService.getComponentsForUser(sw360User,
+                    componentType == null ? null : ComponentType.valueOf(componentType), pageData).entrySet().iterator().next();
+            paginationResult = restControllerHelper.createPaginationResultForPage(request, pageable, page.getValue(),
+                    (int) page.getKey().getTotalRowCount(), SW360Constants.TYPE_COMPONENT);
         }
 
-        PaginationResult<Component> paginationResult = restControllerHelper.createPaginationResult(request, pageable, allComponents, SW360Constants.TYPE_COMPONENT);
-
         List<Resource<Component>> componentResources = new ArrayList<>();
-        paginationResult.getResources().stream()
-                .filter(component -> componentType == null || (component.isSetComponentType() && componentType.equals(component.componentType.name())))
-                .forEach(c -> {
-                    Component embeddedComponent = restControllerHelper.convertToEmbeddedComponent(c, fields);
-                    componentResources.add(new Resource<>(embeddedComponent));
-                });
+        paginationResult.getResources().forEach(c -> {
+            Component embeddedComponent = restControllerHelper.convertToEmbeddedComponent(c, fields);
+            componentResources.add(new Resource<>(embeddedComponent));
+        });
 
         Resources resources;
         if (componentResources.size() == 0) {
@@ -131,6 +139,10 @@ public class ComponentController implements ResourceProcessor<RepositoryLinksRes
         return new ResponseEntity<>(resources, HttpStatus.OK);
     }
 
+    private static boolean isComponentType(String componentType) {
+        return Arrays.stream(ComponentType.values()).anyMatch(type -> type.name().equals(componentType));
+    }
+
     @RequestMapping(value = COMPONENTS_URL + "/usedBy" + "/{id}", method = RequestMethod.GET)
     public ResponseEntity<Resources<Resource>> getUsedByResourceDetails(@PathVariable("id") String id)
             throws TException {
@@ -326,7 +338,13 @@ public class ComponentController implements ResourceProcessor<RepositoryLinksRes
 
     private HalResource<Component> createHalComponent(Component sw360Component, User user) throws TException {
         HalResource<Component> halComponent = new HalResource<>(sw360Component);
-        User componentCreator = restControllerHelper.getUserByEmail(sw360Component.getCreatedBy());
+        Set<String> userEmails = new HashSet<>();
+        userEmails.add(sw360Component.getCreatedBy());
+        if (sw360Component.getModerators() != null) {
+            userEmails.addAll(sw360Component.getModerators());
+        }
+        Map<String, User> users = restControllerHelper.getUsersByEmails(userEmails);
+        User componentCreator = users.get(sw360Component.getCreatedBy());
 
         if (sw360Component.getReleaseIds() != null) {
             Set<String> releases = sw360Component.getReleaseIds();
@@ -340,7 +358,7 @@ public class ComponentController implements ResourceProcessor<RepositoryLinksRes
 
         if (sw360Component.getModerators() != null) {
             Set<String> moderators = sw360Component.getModerators();
-            restControllerHelper.addEmbeddedModerators(halComponent, moderators);
+            restControllerHelper.addEmbeddedModerators(halComponent, moderators, users);
         }
 
         if (!isNullOrEmpty(sw360Component.getDefaultVendorId())) {
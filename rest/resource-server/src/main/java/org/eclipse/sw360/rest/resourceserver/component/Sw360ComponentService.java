@@ -22,9 +22,12 @@ import org.apache.thrift.transport.TTransportException;
 import org.eclipse.sw360.datahandler.common.SW360Utils;
 import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestStatus;
 import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestSummary;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
 import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
+import org.eclipse.sw360.datahandler.thrift.components.ComponentType;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectService;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
@@ -61,6 +64,15 @@ public class Sw360ComponentService implements AwareOfRestServices<Component> {
         return sw360ComponentClient.getComponentSummary(sw360User);
     }
 
+    /**
+     * Returns one page of all components, or of the components of the given type if it is not null, together with
+     * the total number of matching components as total row count of the pagination data.
+     */
+    public Map<PaginationData, List<Component>> getComponentsForUser(User sw360User, ComponentType componentType, PaginationData pageData) throws TException {
+        ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
+        return sw360ComponentClient.getComponentSummaryWithPagination(sw360User, componentType, pageData);
+    }
+
     public Release getReleaseById(String id, User sw360User) {
         try {
             ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
@@ -150,13 +162,13 @@ public class Sw360ComponentService implements AwareOfRestServices<Component> {
     }
 
     private ComponentService.Iface getThriftComponentClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/components/thrift");
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/components/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new ComponentService.Client(protocol);
     }
 
     private ProjectService.Iface getThriftProjectClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/projects/thrift");
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/projects/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new ProjectService.Client(protocol);
     }
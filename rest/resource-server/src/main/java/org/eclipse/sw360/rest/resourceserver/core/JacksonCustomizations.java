@@ -652,7 +652,8 @@ public class JacksonCustomizations {
                 "referencesIterator",
                 "cveReferencesIterator",
                 "setProjectRelevance",
-                "setComment"
+                "setComment",
+                "setCvss"
         })
         static abstract class VulnerabilityDTOMixin extends VulnerabilityDTO {
             @Override
@@ -674,6 +675,10 @@ public class JacksonCustomizations {
             @Override
             @JsonProperty(access = Access.WRITE_ONLY)
             abstract public String getExternalId();
+
+            @Override
+            @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+            abstract public double getCvss();
         }
 
         @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -32,8 +32,10 @@ import org.eclipse.sw360.rest.resourceserver.project.ProjectController;
 import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectService;
 import org.eclipse.sw360.datahandler.thrift.MainlineState;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.ProjectReleaseRelationship;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.ThriftUtils;
 import org.eclipse.sw360.rest.resourceserver.obligation.ObligationController;
 import org.eclipse.sw360.rest.resourceserver.project.Sw360ProjectService;
 import org.eclipse.sw360.rest.resourceserver.release.ReleaseController;
@@ -75,6 +77,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.util.*;
+import java.util.function.Function;
 
 import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.isNullEmptyOrWhitespace;
@@ -129,6 +132,38 @@ public class RestControllerHelper<T> {
         return paginationResult;
     }
 
+    public PaginationResult<T> createPaginationResultForPage(HttpServletRequest request, Pageable pageable, List<T> pageResources, int totalCount, String resourceType) throws ResourceClassNotFoundException, PaginationParameterException {
+        PaginationResult<T> paginationResult;
+        if (requestContainsPaging(request)) {
+            PaginationOptions<T> paginationOptions = paginationOptionsFromPageable(pageable, resourceType);
+            paginationResult = resourceListController.createPaginationResultForPage(pageResources, totalCount, paginationOptions);
+        } else {
+            paginationResult = new PaginationResult<>(pageResources);
+        }
+        return paginationResult;
+    }
+
+    /**
+     * Translates paging and sorting of the request into {@link PaginationData} for paging done by the backend. The
+     * sort property is passed as thrift id of the field found by the given lookup, no paging requests all rows.
+     */
+    public PaginationData paginationDataFromPageable(HttpServletRequest request, Pageable pageable, Function<String, ? extends TFieldIdEnum> fieldLookup) {
+        PaginationData pageData = new PaginationData().setDisplayStart(0).setRowsPerPage(-1);
+        if (requestContainsPaging(request)) {
+            PaginationOptions<T> paginationOptions = new PaginationOptions<>(pageable.getPageNumber(), pageable.getPageSize(), null);
+            pageData.setDisplayStart(paginationOptions.getOffset()).setRowsPerPage(paginationOptions.getPageSize());
+            Sort.Order order = firstOrderFromPageable(pageable);
+            if (order != null) {
+                TFieldIdEnum field = fieldLookup.apply(order.getProperty());
+                if (field != null) {
+                    pageData.setSortColumnNumber(field.getThriftFieldId());
+                }
+                pageData.setAscending(!order.isDescending());
+            }
+        }
+        return pageData;
+    }
+
     private boolean requestContainsPaging(HttpServletRequest request) {
         return request.getParameterMap().containsKey(PAGINATION_PARAM_PAGE) || request.getParameterMap().containsKey(PAGINATION_PARAM_PAGE_ENTRIES);
     }
@@ -220,10 +255,15 @@ public class RestControllerHelper<T> {
     }
 
     public void addEmbeddedModerators(HalResource halResource, Set<String> moderators) {
+        addEmbeddedModerators(halResource, moderators, getUsersByEmails(moderators));
+    }
 
+    /**
+     * @param users the users of the moderators, as returned by {@link #getUsersByEmails(Collection)}
+     */
+    public void addEmbeddedModerators(HalResource halResource, Set<String> moderators, Map<String, User> users) {
         for (String moderatorEmail : moderators) {
-            User sw360User = getUserByEmail(moderatorEmail);
-            addEmbeddedUser(halResource, sw360User, "sw360:moderators");
+            addEmbeddedUser(halResource, users.get(moderatorEmail), "sw360:moderators");
         }
     }
 
@@ -232,17 +272,45 @@ public class RestControllerHelper<T> {
         try {
             sw360User = userService.getUserByEmail(emailId);
         } catch (RuntimeException e) {
-            sw360User = new User();
-            sw360User.setId(emailId).setEmail(emailId);
+            sw360User = createUserOfUnknownEmail(emailId);
             LOGGER.debug("Could not get user object from backend with email: " + emailId);
         }
         return sw360User;
     }
 
+    /**
+     * Looks up the users of all given emails at once, so that all users embedded into one response cost at most one
+     * call to the users service. Emails without a user are mapped to a user which only carries the email.
+     */
+    public Map<String, User> getUsersByEmails(Collection<String> emails) {
+        Map<String, User> users;
+        try {
+            users = userService.getUsersByEmails(emails);
+        } catch (RuntimeException e) {
+            users = Collections.emptyMap();
+            LOGGER.debug("Could not get user objects from backend with emails: " + emails);
+        }
+        Map<String, User> usersByEmail = new HashMap<>();
+        for (String email : emails) {
+            usersByEmail.put(email, users.containsKey(email) ? users.get(email) : createUserOfUnknownEmail(email));
+        }
+        return usersByEmail;
+    }
+
+    private static User createUserOfUnknownEmail(String email) {
+        return new User().setId(email).setEmail(email);
+    }
+
     public void addEmbeddedContributors(HalResource halResource, Set<String> contributors) {
+        addEmbeddedContributors(halResource, contributors, getUsersByEmails(contributors));
+    }
+
+    /**
+     * @param users the users of the contributors, as returned by {@link #getUsersByEmails(Collection)}
+     */
+    public void addEmbeddedContributors(HalResource halResource, Set<String> contributors, Map<String, User> users) {
         for (String contributorEmail : contributors) {
-            User sw360User = getUserByEmail(contributorEmail);
-            addEmbeddedUser(halResource, sw360User, "sw360:contributors");
+            addEmbeddedUser(halResource, users.get(contributorEmail), "sw360:contributors");
         }
     }
 
@@ -256,8 +324,13 @@ public class RestControllerHelper<T> {
             Set<String> releases,
             Sw360ReleaseService sw360ReleaseService,
             User user) throws TException {
+        Map<String, Release> releasesById = ThriftUtils.getIdMap(sw360ReleaseService.getReleasesForUserByIds(releases, user));
         for (String releaseId : releases) {
-            final Release release = sw360ReleaseService.getReleaseForUserById(releaseId, user);
+            final Release release = releasesById.get(releaseId);
+            if (release == null) {
+                LOGGER.error("cannot embed release with id: " + releaseId);
+                continue;
+            }
             addEmbeddedRelease(halResource, release);
         }
     }
@@ -283,17 +356,34 @@ public class RestControllerHelper<T> {
     }
 
     public void addEmbeddedVendors(HalResource<Component> halComponent, Set<String> vendorFullnames) {
+        Map<String, Vendor> vendorsByFullName = new HashMap<>();
+        try {
+            for (Vendor vendor : vendorService.getVendorsByFullNames(vendorFullnames)) {
+                vendorsByFullName.putIfAbsent(vendor.getFullname(), vendor);
+            }
+        } catch (Exception e) {
+            LOGGER.error("cannot get vendors with full names: " + vendorFullnames, e);
+        }
         for (String vendorFullName : vendorFullnames) {
-            HalResource<Vendor> vendorHalResource = addEmbeddedVendor(vendorFullName);
+            HalResource<Vendor> vendorHalResource = createHalVendor(vendorFullName, vendorsByFullName.get(vendorFullName));
             halComponent.addEmbeddedResource("sw360:vendors", vendorHalResource);
         }
     }
 
     public HalResource<Vendor> addEmbeddedVendor(String vendorFullName) {
+        Vendor vendorByFullName = null;
+        try {
+            vendorByFullName = vendorService.getVendorByFullName(vendorFullName);
+        } catch (Exception e) {
+            LOGGER.error("cannot get vendor with full name: " + vendorFullName, e);
+        }
+        return createHalVendor(vendorFullName, vendorByFullName);
+    }
+
+    private HalResource<Vendor> createHalVendor(String vendorFullName, Vendor vendorByFullName) {
         Vendor embeddedVendor = convertToEmbeddedVendor(vendorFullName);
         HalResource<Vendor> halVendor = new HalResource<>(embeddedVendor);
         try {
-            Vendor vendorByFullName = vendorService.getVendorByFullName(vendorFullName);
             Link vendorSelfLink = linkTo(UserController.class)
                     .slash("api" + VendorController.VENDORS_URL + "/" + vendorByFullName.getId()).withSelfRel();
             halVendor.add(vendorSelfLink);
@@ -305,18 +395,23 @@ public class RestControllerHelper<T> {
     }
 
     public void addEmbeddedLicenses(HalResource<Release> halComponent, Set<String> licenseIds) {
+        Map<String, License> licensesById = new HashMap<>();
+        try {
+            licensesById = ThriftUtils.getIdMap(licenseService.getLicensesByIds(licenseIds));
+        } catch (Exception e) {
+            LOGGER.error("cannot get licenses with ids: " + licenseIds, e);
+        }
         for (String licenseId : licenseIds) {
-            HalResource<License> licenseHalResource = addEmbeddedLicense(licenseId);
+            HalResource<License> licenseHalResource = createHalLicense(licenseId, licensesById.get(licenseId));
             halComponent.addEmbeddedResource("sw360:licenses", licenseHalResource);
         }
     }
 
-    private HalResource<License> addEmbeddedLicense(String licenseId) {
+    private HalResource<License> createHalLicense(String licenseId, License licenseById) {
         License embeddedLicense = convertToEmbeddedLicense(licenseId);
         HalResource<License> halLicense = new HalResource<>(embeddedLicense);
 
         try {
-            License licenseById = licenseService.getLicenseById(licenseId);
             embeddedLicense.setFullname(licenseById.getFullname());
             Link licenseSelfLink = linkTo(UserController.class)
                     .slash("api" + LicenseController.LICENSES_URL + "/" + licenseById.getId()).withSelfRel();
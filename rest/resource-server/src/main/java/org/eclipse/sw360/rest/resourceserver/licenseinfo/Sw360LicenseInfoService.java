@@ -19,6 +19,7 @@ import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.transport.THttpClient;
 import org.apache.thrift.transport.TTransportException;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoFile;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoParsingResult;
@@ -59,6 +60,17 @@ public class Sw360LicenseInfoService {
         }
     }
 
+    public LicenseInfoFile getLicenseInfoFileAsAttachment(Project project, User sw360User, String generatorClassNameWithVariant,
+            Map<String, Map<String, Boolean>> selectedReleaseAndAttachmentIds,
+            Map<String, Set<LicenseNameWithText>> excludedLicenses, String externalIds, String fileName) {
+        try {
+            LicenseInfoService.Iface sw360LicenseInfoClient = getThriftLicenseInfoClient();
+            return sw360LicenseInfoClient.getLicenseInfoFileAsAttachment(project, sw360User, generatorClassNameWithVariant, selectedReleaseAndAttachmentIds, excludedLicenses, externalIds, fileName);
+        } catch (TException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public List<LicenseInfoParsingResult> getLicenseInfoForAttachment(Release release, User sw360User, String attachmentContentId, boolean includeConcludedLicense) {
         try {
             LicenseInfoService.Iface sw360LicenseInfoClient = getThriftLicenseInfoClient();
@@ -69,7 +81,7 @@ public class Sw360LicenseInfoService {
     }
 
     private LicenseInfoService.Iface getThriftLicenseInfoClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/licenseinfo/thrift");
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/licenseinfo/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new LicenseInfoService.Client(protocol);
     }
@@ -28,6 +28,7 @@ import org.eclipse.sw360.datahandler.common.SW360Utils;
 import org.eclipse.sw360.datahandler.common.ThriftEnumUtils;
 import org.eclipse.sw360.datahandler.couchdb.lucene.LuceneAwareDatabaseConnector;
 import org.eclipse.sw360.datahandler.thrift.MainlineState;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.ProjectReleaseRelationship;
 import org.eclipse.sw360.datahandler.thrift.ReleaseRelationship;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
@@ -192,6 +193,7 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
         boolean isSearchByGroup = CommonUtils.isNotNullEmptyOrWhitespace(group);
         List<Project> sw360Projects = new ArrayList<>();
         Map<String, Set<String>> filterMap = new HashMap<>();
+        int luceneTotalCount = 0;
         if (luceneSearch) {
             if (CommonUtils.isNotNullEmptyOrWhitespace(projectType)) {
                 Set<String> values = CommonUtils.splitToSet(projectType);
@@ -213,7 +215,11 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
                 filterMap.put(Project._Fields.NAME.getFieldName(), values);
             }
 
-            sw360Projects.addAll(projectService.refineSearch(filterMap, sw360User));
+            PaginationData pageData = restControllerHelper.paginationDataFromPageable(request, pageable, Project._Fields::findByName);
+            Entry<PaginationData, List<Project>> page = projectService.refineSearch(filterMap, sw360User, pageData)
+                    .entrySet().iterator().next();
+            sw360Projects.addAll(page.getValue());
+            luceneTotalCount = (int) page.getKey().getTotalRowCount();
         } else {
             if (isSearchByName) {
                 sw360Projects.addAll(projectService.searchProjectByName(name, sw360User));
@@ -228,7 +234,10 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
             }
         }
         sw360Projects.stream().forEach(prj -> mapOfProjects.put(prj.getId(), prj));
-        PaginationResult<Project> paginationResult = restControllerHelper.createPaginationResult(request, pageable, sw360Projects, SW360Constants.TYPE_PROJECT);
+        // lucene searches are paged by the backend, which only loads the projects of the requested page
+        PaginationResult<Project> paginationResult = luceneSearch
+                ? restControllerHelper.createPaginationResultForPage(request, pageable, sw360Projects, luceneTotalCount, SW360Constants.TYPE_PROJECT)
+                : restControllerHelper.createPaginationResult(request, pageable, sw360Projects, SW360Constants.TYPE_PROJECT);
 
         List<Resource<Project>> projectResources = new ArrayList<>();
         Consumer<Project> consumer = p -> {
@@ -366,17 +375,15 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
             @RequestParam(value = "transitive", required = false) String transitive,HttpServletRequest request) throws TException, URISyntaxException, PaginationParameterException, ResourceClassNotFoundException {
 
         final User sw360User = restControllerHelper.getSw360UserFromAuthentication();
-        final Set<String> releaseIds = projectService.getReleaseIds(id, sw360User, transitive);
         final Set<String> releaseIdsInBranch = new HashSet<>();
         boolean isTransitive = Boolean.parseBoolean(transitive);
 
-        List<Release> releases = releaseIds.stream().map(relId -> wrapTException(() -> {
-            final Release sw360Release = releaseService.getReleaseForUserById(relId, sw360User);
-            return sw360Release;
-        })).collect(Collectors.toList());
+        PaginationData pageData = restControllerHelper.paginationDataFromPageable(request, pageable, Release._Fields::findByName);
+        Map<PaginationData, List<Release>> releasesOfPage = projectService.getReleasesOfProject(id, isTransitive, sw360User, pageData);
+        Entry<PaginationData, List<Release>> page = releasesOfPage.entrySet().iterator().next();
 
-        PaginationResult<Release> paginationResult = restControllerHelper.createPaginationResult(request, pageable,
-                releases, SW360Constants.TYPE_RELEASE);
+        PaginationResult<Release> paginationResult = restControllerHelper.createPaginationResultForPage(request, pageable,
+                page.getValue(), (int) page.getKey().getTotalRowCount(), SW360Constants.TYPE_RELEASE);
 
         final List<Resource<Release>> releaseResources = paginationResult.getResources().stream()
                 .map(sw360Release -> wrapTException(() -> {
@@ -466,47 +473,41 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
     public ResponseEntity<Resources<Resource<VulnerabilityDTO>>> getVulnerabilitiesOfReleases(
             Pageable pageable,
             @PathVariable("id") String id, @RequestParam(value = "priority") Optional<String> priority,
-            @RequestParam(value = "projectRelevance") Optional<String> projectRelevance, HttpServletRequest request) throws URISyntaxException, PaginationParameterException, ResourceClassNotFoundException {
+            @RequestParam(value = "projectRelevance") Optional<String> projectRelevance,
+            @RequestParam(value = "transitive", required = false) String transitive, HttpServletRequest request) throws TException, URISyntaxException, PaginationParameterException, ResourceClassNotFoundException {
         final User sw360User = restControllerHelper.getSw360UserFromAuthentication();
-        final List<VulnerabilityDTO> allVulnerabilityDTOs = vulnerabilityService.getVulnerabilitiesByProjectId(id, sw360User);
-
-        Optional<ProjectVulnerabilityRating> projectVulnerabilityRating = wrapThriftOptionalReplacement(vulnerabilityService.getProjectVulnerabilityRatingByProjectId(id, sw360User));
-        Map<String, Map<String, List<VulnerabilityCheckStatus>>> vulnerabilityIdToStatusHistory = projectVulnerabilityRating
-                .map(ProjectVulnerabilityRating::getVulnerabilityIdToReleaseIdToStatus).orElseGet(HashMap::new);
-
-        final List<Resource<VulnerabilityDTO>> vulnerabilityResources = new ArrayList<>();
-        for (final VulnerabilityDTO vulnerabilityDTO : allVulnerabilityDTOs) {
-            String comment = "", action = "";
-            Map<String, Map<String, VulnerabilityRatingForProject>> vulRatingProj = vulnerabilityService.fillVulnerabilityMetadata(vulnerabilityDTO, projectVulnerabilityRating);
-            vulnerabilityDTO.setProjectRelevance(vulRatingProj.get(vulnerabilityDTO.externalId).get(vulnerabilityDTO.intReleaseId).toString());
-            Map<String, List<VulnerabilityCheckStatus>> relIdToCheckStatus = vulnerabilityIdToStatusHistory.get(vulnerabilityDTO.externalId);
-            if(null != relIdToCheckStatus && relIdToCheckStatus.containsKey(vulnerabilityDTO.intReleaseId)) {
-                List<VulnerabilityCheckStatus> checkStatus = relIdToCheckStatus.get(vulnerabilityDTO.intReleaseId);
-                comment = checkStatus.get(checkStatus.size()-1).getComment();
-                action = checkStatus.get(checkStatus.size()-1).getProjectAction();
-            }
-            vulnerabilityDTO.setComment(comment);
-            vulnerabilityDTO.setAction(action);
-            final Resource<VulnerabilityDTO> vulnerabilityDTOResource = new Resource<>(vulnerabilityDTO);
-            vulnerabilityResources.add(vulnerabilityDTOResource);
+        Set<String> priorities = priority.isPresent() ? Sets.newHashSet(priority.get().split(",")) : Sets.newHashSet();
+        Set<VulnerabilityRatingForProject> projectRelevances = projectRelevance.isPresent()
+                ? Arrays.stream(projectRelevance.get().split(","))
+                        .map(relevance -> ThriftEnumUtils.stringToEnum(relevance, VulnerabilityRatingForProject.class))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())
+                : Sets.newHashSet();
+
+        List<VulnerabilityDTO> vulDtos;
+        int totalCount;
+        if (projectRelevance.isPresent() && projectRelevances.isEmpty()) {
+            // none of the requested relevances exists, so no vulnerability can match
+            vulDtos = Collections.emptyList();
+            totalCount = 0;
+        } else {
+            PaginationData pageData = restControllerHelper.paginationDataFromPageable(request, pageable, VulnerabilityDTO._Fields::findByName);
+            Map<PaginationData, List<VulnerabilityDTO>> vulnerabilitiesOfPage = vulnerabilityService.getVulnerabilitiesOfProject(id,
+                    Boolean.parseBoolean(transitive), priorities, projectRelevances, sw360User, pageData);
+            Entry<PaginationData, List<VulnerabilityDTO>> page = vulnerabilitiesOfPage.entrySet().iterator().next();
+            vulDtos = page.getValue();
+            totalCount = (int) page.getKey().getTotalRowCount();
         }
 
-        List<String> priorityList = priority.isPresent() ? Lists.newArrayList(priority.get().split(",")) : Lists.newArrayList();
-        List<String> projectRelevanceList = projectRelevance.isPresent() ? Lists.newArrayList(projectRelevance.get().split(",")) : Lists.newArrayList();
-        final List<Resource<VulnerabilityDTO>> vulnResources = vulnerabilityResources.stream()
-                .filter(vulRes -> projectRelevance.isEmpty() || projectRelevanceList.contains(vulRes.getContent().getProjectRelevance()))
-                .filter(vulRes -> priority.isEmpty() || priorityList.contains(vulRes.getContent().getPriority()))
-                .collect(Collectors.toList());
-
-        List<VulnerabilityDTO> vulDtos = vulnResources.stream().map(res -> res.getContent()).collect(Collectors.toList());
-        PaginationResult<VulnerabilityDTO> paginationResult = restControllerHelper.createPaginationResult(request, pageable, vulDtos, SW360Constants.TYPE_VULNERABILITYDTO);
+        PaginationResult<VulnerabilityDTO> paginationResult = restControllerHelper.createPaginationResultForPage(request, pageable,
+                vulDtos, totalCount, SW360Constants.TYPE_VULNERABILITYDTO);
         List<Resource<VulnerabilityDTO>> paginatedVulnResources = Lists.newArrayList();
         for (VulnerabilityDTO vd: paginationResult.getResources()) {
             Resource<VulnerabilityDTO> vDTOResource = new Resource<>(vd);
             paginatedVulnResources.add(vDTOResource);
         }
         Resources resources;
-        if (vulnResources.size() == 0) {
+        if (totalCount == 0) {
             resources = restControllerHelper.emptyPageResource(VulnerabilityDTO.class, paginationResult);
         } else {
             resources = restControllerHelper.generatePagesResource(paginationResult, paginatedVulnResources);
@@ -725,11 +726,10 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
             fileName = orgToTemplate.get(template);
         }
 
-        final LicenseInfoFile licenseInfoFile = licenseInfoService.getLicenseInfoFile(sw360Project, sw360User, outputGeneratorClassNameWithVariant, selectedReleaseAndAttachmentIds, excludedLicensesPerAttachments, externalIds, fileName);
-        byte[] byteContent = licenseInfoFile.bufferForGeneratedOutput().array();
+        final LicenseInfoFile licenseInfoFile = licenseInfoService.getLicenseInfoFileAsAttachment(sw360Project, sw360User, outputGeneratorClassNameWithVariant, selectedReleaseAndAttachmentIds, excludedLicensesPerAttachments, externalIds, fileName);
         response.setContentType(outputFormatInfo.getMimeType());
         response.setHeader("Content-Disposition", String.format("attachment; filename=\"%s\"", filename));
-        FileCopyUtils.copy(byteContent, response.getOutputStream());
+        attachmentService.transferTemporaryAttachment(licenseInfoFile.getGeneratedOutputAttachmentContentId(), response.getOutputStream());
     }
 
     private Set<LicenseNameWithText> getExcludedLicenses(Set<String> excludedLicenseIds,
@@ -916,8 +916,8 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
 
     private HalResource<Project> createHalProject(Project sw360Project, User sw360User) throws TException {
         HalResource<Project> halProject = new HalResource<>(sw360Project);
-        User projectCreator = restControllerHelper.getUserByEmail(sw360Project.getCreatedBy());
-        restControllerHelper.addEmbeddedUser(halProject, projectCreator, "createdBy");
+        Map<String, User> users = restControllerHelper.getUsersByEmails(getEmbeddedUserEmails(sw360Project));
+        restControllerHelper.addEmbeddedUser(halProject, users.get(sw360Project.getCreatedBy()), "createdBy");
 
         Map<String, ProjectReleaseRelationship> releaseIdToUsage = sw360Project.getReleaseIdToUsage();
         if (releaseIdToUsage != null) {
@@ -931,7 +931,7 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
 
         if (sw360Project.getModerators() != null) {
             Set<String> moderators = sw360Project.getModerators();
-            restControllerHelper.addEmbeddedModerators(halProject, moderators);
+            restControllerHelper.addEmbeddedModerators(halProject, moderators, users);
         }
 
         if (sw360Project.getAttachments() != null) {
@@ -939,17 +939,32 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
         }
 
         if(sw360Project.getLeadArchitect() != null) {
-            restControllerHelper.addEmbeddedLeadArchitect(halProject, sw360Project.getLeadArchitect());
+            restControllerHelper.addEmbeddedUser(halProject, users.get(sw360Project.getLeadArchitect()), "leadArchitect");
         }
 
         if (sw360Project.getContributors() != null) {
             Set<String> contributors = sw360Project.getContributors();
-            restControllerHelper.addEmbeddedContributors(halProject, contributors);
+            restControllerHelper.addEmbeddedContributors(halProject, contributors, users);
         }
 
         return halProject;
     }
 
+    private static Set<String> getEmbeddedUserEmails(Project sw360Project) {
+        Set<String> emails = new HashSet<>();
+        emails.add(sw360Project.getCreatedBy());
+        if (sw360Project.getModerators() != null) {
+            emails.addAll(sw360Project.getModerators());
+        }
+        if (sw360Project.getLeadArchitect() != null) {
+            emails.add(sw360Project.getLeadArchitect());
+        }
+        if (sw360Project.getContributors() != null) {
+            emails.addAll(sw360Project.getContributors());
+        }
+        return emails;
+    }
+
     private RequestStatus addOrPatchReleasesToProject(String id, Object releasesInRequestBody, boolean patch)
             throws URISyntaxException, TException {
         User sw360User = restControllerHelper.getSw360UserFromAuthentication();
@@ -36,7 +36,6 @@ import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentType;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
-import org.eclipse.sw360.datahandler.thrift.components.ReleaseClearingStatusData;
 import org.eclipse.sw360.datahandler.thrift.components.ReleaseLink;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectData;
@@ -110,21 +109,18 @@ public class Sw360ProjectService implements AwareOfRestServices<Project> {
 
     public Set<Project> getProjectsForUser(User sw360User) throws TException {
         ProjectService.Iface sw360ProjectClient = getThriftProjectClient();
-        int total = sw360ProjectClient.getMyAccessibleProjectCounts(sw360User);
         PaginationData pageData = new PaginationData();
         pageData.setAscending(true);
-        Map<PaginationData, List<Project>> pageDtToProjects;
+        pageData.setDisplayStart(0);
+        pageData.setRowsPerPage(500);
         Set<Project> projects = new HashSet<>();
-        int displayStart = 0;
-        int rowsPerPage = 500;
-        while (0 < total) {
-            pageData.setDisplayStart(displayStart);
-            pageData.setRowsPerPage(rowsPerPage);
-            displayStart = displayStart + rowsPerPage;
-            pageDtToProjects = sw360ProjectClient.getAccessibleProjectsSummaryWithPagination(sw360User, pageData);
-            projects.addAll(pageDtToProjects.entrySet().iterator().next().getValue());
-            total = total - rowsPerPage;
-        }
+        do {
+            Map<PaginationData, List<Project>> pageDtToProjects = sw360ProjectClient
+                    .getAccessibleProjectsSummaryWithPagination(sw360User, pageData);
+            Entry<PaginationData, List<Project>> page = pageDtToProjects.entrySet().iterator().next();
+            projects.addAll(page.getValue());
+            pageData.setBookmark(page.getKey().getBookmark());
+        } while (pageData.isSetBookmark());
         return projects;
     }
 
@@ -256,14 +252,19 @@ public class Sw360ProjectService implements AwareOfRestServices<Project> {
     public Set<String> getReleaseIds(String projectId, User sw360User, String transitive) throws TException {
         ProjectService.Iface sw360ProjectClient = getThriftProjectClient();
         if (Boolean.parseBoolean(transitive)) {
-            List<ReleaseClearingStatusData> releaseClearingStatusData = sw360ProjectClient.getReleaseClearingStatuses(projectId, sw360User);
-            return releaseClearingStatusData.stream().map(r -> r.release.getId()).collect(Collectors.toSet());
+            return sw360ProjectClient.getReleaseIdsOfProjectTree(projectId, sw360User);
         } else {
             final Project project = getProjectForUserById(projectId, sw360User);
             return project.getReleaseIdToUsage().keySet();
         }
     }
 
+    public Map<PaginationData, List<Release>> getReleasesOfProject(String projectId, boolean transitive, User sw360User,
+            PaginationData pageData) throws TException {
+        ProjectService.Iface sw360ProjectClient = getThriftProjectClient();
+        return sw360ProjectClient.getReleasesOfProjectWithPagination(projectId, transitive, sw360User, pageData);
+    }
+
     public void addEmbeddedlinkedRelease(Release sw360Release, User sw360User, HalResource<Release> releaseResource,
             Sw360ReleaseService releaseService, Set<String> releaseIdsInBranch) throws TException {
         releaseIdsInBranch.add(sw360Release.getId());
@@ -299,7 +300,7 @@ public class Sw360ProjectService implements AwareOfRestServices<Project> {
     }
 
     public ProjectService.Iface getThriftProjectClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/projects/thrift");
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/projects/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new ProjectService.Client(protocol);
     }
@@ -420,6 +421,12 @@ public class Sw360ProjectService implements AwareOfRestServices<Project> {
         return sw360ProjectClient.refineSearch(null, filterMap, sw360User);
     }
 
+    public Map<PaginationData, List<Project>> refineSearch(Map<String, Set<String>> filterMap, User sw360User,
+            PaginationData pageData) throws TException {
+        ProjectService.Iface sw360ProjectClient = getThriftProjectClient();
+        return sw360ProjectClient.refineSearchWithPagination(null, filterMap, sw360User, pageData);
+    }
+
     public void copyLinkedObligationsForClonedProject(Project createDuplicateProject, Project sw360Project, User user)
             throws TException {
         SW360Utils.copyLinkedObligationsForClonedProject(createDuplicateProject, sw360Project, getThriftProjectClient(),
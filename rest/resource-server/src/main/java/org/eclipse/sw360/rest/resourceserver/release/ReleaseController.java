@@ -21,6 +21,7 @@ import org.eclipse.sw360.datahandler.common.SW360Constants;
 import org.eclipse.sw360.datahandler.resourcelists.PaginationParameterException;
 import org.eclipse.sw360.datahandler.resourcelists.PaginationResult;
 import org.eclipse.sw360.datahandler.resourcelists.ResourceClassNotFoundException;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.ReleaseRelationship;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.Source;
@@ -77,7 +78,6 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import static java.util.Arrays.asList;
-import static org.eclipse.sw360.datahandler.common.WrappedException.wrapTException;
 import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
 
 @BasePathAwareController
@@ -119,20 +119,21 @@ public class ReleaseController implements ResourceProcessor<RepositoryLinksResou
             @RequestParam(value = "allDetails", required = false) boolean allDetails, HttpServletRequest request) throws TException, URISyntaxException, PaginationParameterException, ResourceClassNotFoundException {
 
         User sw360User = restControllerHelper.getSw360UserFromAuthentication();
-        List<Release> sw360Releases = new ArrayList<>();
+        PaginationResult<Release> paginationResult;
 
         if (sha1 != null && !sha1.isEmpty()) {
-            sw360Releases.addAll(searchReleasesBySha1(sha1, sw360User));
+            List<Release> sw360Releases = searchReleasesBySha1(sha1, sw360User).stream()
+                    .filter(release -> name == null || name.isEmpty() || release.getName().equalsIgnoreCase(name))
+                    .collect(Collectors.toList());
+            paginationResult = restControllerHelper.createPaginationResult(request, pageable, sw360Releases, SW360Constants.TYPE_RELEASE);
         } else {
-            sw360Releases.addAll(releaseService.getReleasesForUser(sw360User));
+            PaginationData pageData = restControllerHelper.paginationDataFromPageable(request, pageable, Release._Fields::findByName);
+            Entry<PaginationData, List<Release>> page = releaseService.getReleasesForUser(sw360User, name, pageData)
+                    .entrySet().iterator().next();
+            paginationResult = restControllerHelper.createPaginationResultForPage(request, pageable, page.getValue(),
+                    (int) page.getKey().getTotalRowCount(), SW360Constants.TYPE_RELEASE);
         }
 
-        sw360Releases = sw360Releases.stream()
-                .filter(release -> name == null || name.isEmpty() || release.getName().equalsIgnoreCase(name))
-                .collect(Collectors.toList());
-
-        PaginationResult<Release> paginationResult = restControllerHelper.createPaginationResult(request, pageable, sw360Releases, SW360Constants.TYPE_RELEASE);
-
         List<Resource> releaseResources = new ArrayList<>();
         for (Release sw360Release : paginationResult.getResources()) {
             Resource<Release> releaseResource = null;
@@ -174,11 +175,7 @@ public class ReleaseController implements ResourceProcessor<RepositoryLinksResou
         HalResource halRelease = createHalReleaseResource(sw360Release, true);
         Map<String, ReleaseRelationship> releaseIdToRelationship = sw360Release.getReleaseIdToRelationship();
         if (releaseIdToRelationship != null) {
-            List<Release> listOfLinkedRelease = releaseIdToRelationship.keySet().stream()
-                    .map(linkedReleaseId -> wrapTException(
-                            () -> releaseService.getReleaseForUserById(linkedReleaseId, sw360User)))
-                    .collect(Collectors.toList());
-            restControllerHelper.addEmbeddedReleases(halRelease, listOfLinkedRelease);
+            restControllerHelper.addEmbeddedReleases(halRelease, releaseIdToRelationship.keySet(), releaseService, sw360User);
         }
         return new ResponseEntity<>(halRelease, HttpStatus.OK);
     }
@@ -24,9 +24,12 @@ import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.SW360Utils;
 import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestStatus;
 import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestSummary;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentType;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
 import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
@@ -51,14 +54,13 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.FileCopyUtils;
 
 import static org.eclipse.sw360.datahandler.common.CommonUtils.isNullEmptyOrWhitespace;
 import static org.eclipse.sw360.datahandler.common.WrappedException.wrapTException;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -96,6 +98,24 @@ public class Sw360ReleaseService implements AwareOfRestServices<Release> {
         return sw360ComponentClient.getAllReleasesForUser(sw360User);
     }
 
+    /**
+     * Returns one page of all releases, or of the releases with the given name (ignoring case) if it is not empty,
+     * together with the total number of matching releases as total row count of the pagination data.
+     */
+    public Map<PaginationData, List<Release>> getReleasesForUser(User sw360User, String name, PaginationData pageData) throws TException {
+        ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
+        return sw360ComponentClient.getReleasesWithPagination(sw360User, name, pageData);
+    }
+
+    /**
+     * Returns short summaries of the releases with the given ids, as needed to embed them into other resources.
+     * Ids of releases which do not exist are skipped.
+     */
+    public List<Release> getReleasesForUserByIds(Set<String> releaseIds, User sw360User) throws TException {
+        ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
+        return sw360ComponentClient.getReleasesById(releaseIds, sw360User);
+    }
+
     public Release getReleaseForUserById(String releaseId, User sw360User) throws TException {
         ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
         Release releaseById = null;
@@ -340,17 +360,21 @@ public class Sw360ReleaseService implements AwareOfRestServices<Release> {
 
     private int getAttachmentSizeInMB(Sw360AttachmentService attachmentService, String attachmentId, Release release,
             User user) throws TException {
-        int attachmentSizeinBytes = 0;
-        try (ByteArrayOutputStream attachmentOutputStream = new ByteArrayOutputStream();
-                InputStream streamToAttachments = attachmentService.getStreamToAttachments(
-                        Collections.singleton(attachmentService.getAttachmentContent(attachmentId)), user, release)) {
-            attachmentSizeinBytes = FileCopyUtils.copy(streamToAttachments, attachmentOutputStream);
+        AttachmentContent attachmentContent = attachmentService.getAttachmentContent(attachmentId);
+        if (!isNullEmptyOrWhitespace(attachmentContent.getSize())) {
+            return (int) ((Long.parseLong(attachmentContent.getSize()) / 1024) / 1024);
+        }
+
+        long attachmentSizeinBytes = 0;
+        try (InputStream streamToAttachments = attachmentService.getStreamToAttachments(
+                Collections.singleton(attachmentContent), user, release)) {
+            attachmentSizeinBytes = streamToAttachments.transferTo(OutputStream.nullOutputStream());
         } catch (IOException exp) {
             log.error("Release : " + release.getId()
                     + " .Error occured while calculation attachment size.Attachment ID : " + attachmentId);
         }
 
-        return (attachmentSizeinBytes / 1024) / 1024;
+        return (int) ((attachmentSizeinBytes / 1024) / 1024);
     }
 
     private void triggerUploadScanAndReportStep(Sw360AttachmentService attachmentService,
@@ -611,14 +635,14 @@ public class Sw360ReleaseService implements AwareOfRestServices<Release> {
     }
 
     private ComponentService.Iface getThriftComponentClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/components/thrift");
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/components/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new ComponentService.Client(protocol);
     }
 
     private FossologyService.Iface getThriftFossologyClient() throws TTransportException {
         if (fossologyClient == null) {
-            THttpClient thriftClient = new THttpClient(thriftServerUrl + "/fossology/thrift");
+            THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/fossology/thrift");
             TProtocol protocol = new TCompactProtocol(thriftClient);
             fossologyClient = new FossologyService.Client(protocol);
         }
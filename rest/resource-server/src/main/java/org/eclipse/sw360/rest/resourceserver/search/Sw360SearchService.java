@@ -19,6 +19,7 @@ import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.transport.THttpClient;
 import org.apache.thrift.transport.TTransportException;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
 import org.eclipse.sw360.datahandler.thrift.search.SearchResult;
 import org.eclipse.sw360.datahandler.thrift.search.SearchService;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -39,7 +40,7 @@ public class Sw360SearchService {
     private String thriftServerUrl;
 
     private SearchService.Iface getThriftSearchClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/search/thrift");
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/search/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new SearchService.Client(protocol);
     }
@@ -10,23 +10,68 @@
 
 package org.eclipse.sw360.rest.resourceserver.user;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.transport.THttpClient;
 import org.apache.thrift.transport.TTransportException;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.datahandler.thrift.users.UserService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Access to the users of the thrift users service.
+ *
+ * The users looked up by email or external id are kept in a bounded cache for a short time, since every request
+ * resolves its authenticated user and most responses embed further users. The cache is dropped as soon as the users
+ * service reports that any user changed, which is checked at most once per update check interval.
+ */
 @Service
 public class Sw360UserService {
+    private static final Logger log = LogManager.getLogger(Sw360UserService.class);
+
     @Value("${sw360.thrift-server-url:http://localhost:8080}")
     private String thriftServerUrl;
 
+    @Value("${sw360.user-cache.max-size:1000}")
+    private long userCacheMaxSize;
+
+    @Value("${sw360.user-cache.expire-after-seconds:60}")
+    private long userCacheExpireAfterSeconds;
+
+    @Value("${sw360.user-cache.update-check-interval-seconds:5}")
+    private long userCacheUpdateCheckIntervalSeconds;
+
+    private Cache<String, User> usersByEmail;
+    private Cache<String, User> usersByExternalId;
+    private final AtomicLong lastUpdateCheck = new AtomicLong();
+    private volatile String lastUpdateSequence;
+
+    @PostConstruct
+    public void initUserCache() {
+        usersByEmail = CacheBuilder.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(userCacheExpireAfterSeconds, TimeUnit.SECONDS)
+                .build();
+        usersByExternalId = CacheBuilder.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(userCacheExpireAfterSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
     public List<User> getAllUsers() {
         try {
             UserService.Iface sw360UserClient = getThriftUserClient();
@@ -37,21 +82,67 @@ public class Sw360UserService {
     }
 
     public User getUserByEmail(String email) {
+        invalidateCacheIfUsersChanged();
+        User user = usersByEmail.getIfPresent(email);
+        if (user != null) {
+            return user;
+        }
+        try {
+            UserService.Iface sw360UserClient = getThriftUserClient();
+            user = sw360UserClient.getByEmail(email);
+        } catch (TException e) {
+            throw new RuntimeException(e);
+        }
+        cacheUser(user, email);
+        return user;
+    }
+
+    /**
+     * Looks up the users of all given emails with at most one call to the users service.
+     *
+     * @return the users by the given emails, emails without a user are not contained
+     */
+    public Map<String, User> getUsersByEmails(Collection<String> emails) {
+        invalidateCacheIfUsersChanged();
+        Set<String> missingEmails = new HashSet<>(emails);
+        missingEmails.remove(null);
+        Map<String, User> users = new HashMap<>(usersByEmail.getAllPresent(missingEmails));
+        missingEmails.removeAll(users.keySet());
+        if (missingEmails.isEmpty()) {
+            return users;
+        }
+        List<User> missingUsers;
         try {
             UserService.Iface sw360UserClient = getThriftUserClient();
-            return sw360UserClient.getByEmail(email);
+            missingUsers = sw360UserClient.getByEmails(missingEmails);
         } catch (TException e) {
             throw new RuntimeException(e);
         }
+        for (User user : missingUsers) {
+            for (String email : getEmailsOf(user)) {
+                if (missingEmails.contains(email)) {
+                    users.put(email, user);
+                    cacheUser(user, email);
+                }
+            }
+        }
+        return users;
     }
 
     public User getUserByEmailOrExternalId(String userIdentifier) {
+        invalidateCacheIfUsersChanged();
+        User user = getCachedUserByEmailOrExternalId(userIdentifier);
+        if (user != null) {
+            return user;
+        }
         try {
             UserService.Iface sw360UserClient = getThriftUserClient();
-            return sw360UserClient.getByEmailOrExternalId(userIdentifier, userIdentifier);
+            user = sw360UserClient.getByEmailOrExternalId(userIdentifier, userIdentifier);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        cacheUser(user, getEmailsOf(user).contains(userIdentifier) ? userIdentifier : null);
+        return user;
     }
 
     public User getUser(String id) {
@@ -72,8 +163,74 @@ public class Sw360UserService {
         }
     }
 
-    private UserService.Iface getThriftUserClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/users/thrift");
+    /**
+     * Mirrors the lookup of the users service, which prefers a user with the given email over one with the given
+     * external id and does not return deactivated users
+     */
+    private User getCachedUserByEmailOrExternalId(String userIdentifier) {
+        User user = usersByEmail.getIfPresent(userIdentifier);
+        if (user == null) {
+            user = usersByExternalId.getIfPresent(userIdentifier.toLowerCase());
+        }
+        return user != null && !user.isDeactivated() ? user : null;
+    }
+
+    private void cacheUser(User user, String lookedUpEmail) {
+        if (user == null) {
+            return;
+        }
+        if (user.isSetEmail()) {
+            usersByEmail.put(user.getEmail(), user);
+        }
+        if (lookedUpEmail != null) {
+            usersByEmail.put(lookedUpEmail, user);
+        }
+        if (user.isSetExternalid() && !user.getExternalid().isEmpty()) {
+            usersByExternalId.put(user.getExternalid().toLowerCase(), user);
+        }
+    }
+
+    private static Set<String> getEmailsOf(User user) {
+        Set<String> emails = new HashSet<>();
+        if (user != null) {
+            if (user.isSetEmail()) {
+                emails.add(user.getEmail());
+            }
+            if (user.isSetFormerEmailAddresses()) {
+                emails.addAll(user.getFormerEmailAddresses());
+            }
+        }
+        return emails;
+    }
+
+    /**
+     * Asks the users service at most once per update check interval whether any user changed since the last check
+     * and drops all cached users if so. If the users service cannot be asked, the cached users are dropped as well,
+     * since their changes could not be noticed.
+     */
+    private void invalidateCacheIfUsersChanged() {
+        long now = System.currentTimeMillis();
+        long lastCheck = lastUpdateCheck.get();
+        if (now - lastCheck < TimeUnit.SECONDS.toMillis(userCacheUpdateCheckIntervalSeconds)
+                || !lastUpdateCheck.compareAndSet(lastCheck, now)) {
+            return;
+        }
+        String updateSequence = null;
+        try {
+            updateSequence = getThriftUserClient().getUsersUpdateSequence();
+        } catch (TException e) {
+            log.warn("Could not check for changed users, dropping all cached users", e);
+        }
+        if (updateSequence == null || !updateSequence.equals(lastUpdateSequence)) {
+            usersByEmail.invalidateAll();
+            usersByExternalId.invalidateAll();
+        }
+        lastUpdateSequence = updateSequence;
+    }
+
+    @VisibleForTesting
+    UserService.Iface getThriftUserClient() throws TTransportException {
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/users/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new UserService.Client(protocol);
     }
@@ -14,6 +14,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.http.HttpStatus;
 import org.apache.thrift.TException;
@@ -23,8 +24,10 @@ import org.apache.thrift.transport.THttpClient;
 import org.apache.thrift.transport.TTransportException;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.SW360Utils;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.CVEReference;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.ProjectVulnerabilityRating;
@@ -113,8 +116,16 @@ public class Sw360VulnerabilityService {
         }
     }
 
+    public Map<PaginationData, List<VulnerabilityDTO>> getVulnerabilitiesOfProject(String projectId, boolean transitive,
+            Set<String> priorities, Set<VulnerabilityRatingForProject> projectRelevances, User sw360User,
+            PaginationData pageData) throws TException {
+        VulnerabilityService.Iface sw360VulnerabilityClient = getThriftVulnerabilityClient();
+        return sw360VulnerabilityClient.getVulnerabilitiesOfProjectWithPagination(projectId, transitive, priorities,
+                projectRelevances, sw360User, pageData);
+    }
+
     private VulnerabilityService.Iface getThriftVulnerabilityClient() throws TTransportException {
-        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/vulnerabilities/thrift");
+        THttpClient thriftClient = ThriftClients.makeTransport(thriftServerUrl, "/vulnerabilities/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new VulnerabilityService.Client(protocol);
     }
@@ -14,6 +14,7 @@ package org.eclipse.sw360.rest.resourceserver.integration;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.Source;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
@@ -94,12 +95,14 @@ public class ComponentTest extends TestIntegrationBase {
         component.setCreatedBy("admin@sw360.org");
         componentList.add(component);
 
-        given(this.componentServiceMock.getComponentsForUser(anyObject())).willReturn(componentList);
+        given(this.componentServiceMock.getComponentsForUser(anyObject(), anyObject(), anyObject()))
+                .willReturn(Collections.singletonMap(new PaginationData().setTotalRowCount(componentList.size()), componentList));
 
         User user = TestHelper.getTestUser();
 
         given(this.userServiceMock.getUserByEmailOrExternalId("admin@sw360.org")).willReturn(user);
         given(this.userServiceMock.getUserByEmail("admin@sw360.org")).willReturn(user);
+        given(this.userServiceMock.getUsersByEmails(anyObject())).willReturn(Collections.singletonMap("admin@sw360.org", user));
     }
 
     @Test
@@ -117,7 +120,8 @@ public class ComponentTest extends TestIntegrationBase {
 
     @Test
     public void should_get_all_components_empty_list() throws IOException, TException {
-        given(this.componentServiceMock.getComponentsForUser(anyObject())).willReturn(new ArrayList<>());
+        given(this.componentServiceMock.getComponentsForUser(anyObject(), anyObject(), anyObject()))
+                .willReturn(Collections.singletonMap(new PaginationData().setTotalRowCount(0), new ArrayList<>()));
         HttpHeaders headers = getHeaders(port);
         ResponseEntity<String> response =
                 new TestRestTemplate().exchange("http://localhost:" + port + "/api/components",
@@ -131,7 +135,7 @@ public class ComponentTest extends TestIntegrationBase {
 
     @Test
     public void should_get_all_components_wrong_page() throws IOException, TException {
-        when(this.componentServiceMock.getComponentsForUser(anyObject())).thenThrow(ResourceNotFoundException.class);
+        when(this.componentServiceMock.getComponentsForUser(anyObject(), anyObject(), anyObject())).thenThrow(ResourceNotFoundException.class);
         HttpHeaders headers = getHeaders(port);
         ResponseEntity<String> response =
                 new TestRestTemplate().exchange("http://localhost:" + port + "/api/components?page=5&page_entries=10",
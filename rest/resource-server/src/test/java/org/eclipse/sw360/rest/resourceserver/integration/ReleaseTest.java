@@ -14,6 +14,7 @@ package org.eclipse.sw360.rest.resourceserver.integration;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.licenses.License;
@@ -89,19 +90,24 @@ public class ReleaseTest extends TestIntegrationBase {
         given(this.userServiceMock.getUserByEmailOrExternalId("admin@sw360.org")).willReturn(user);
 
         given(this.releaseServiceMock.getReleaseForUserById(eq(TestHelper.getDummyReleaseListForTest().get(0).getId()),eq(user))).willReturn(TestHelper.getDummyReleaseListForTest().get(0));
-        given(this.releaseServiceMock.getReleasesForUser(anyObject())).willReturn(TestHelper.getDummyReleaseListForTest());
+        given(this.releaseServiceMock.getReleasesForUser(anyObject(), anyObject(), anyObject())).willAnswer(invocation -> {
+            String name = (String) invocation.getArguments()[1];
+            List<Release> releasesByName = TestHelper.getDummyReleaseListForTest().stream()
+                    .filter(r -> name == null || name.isEmpty() || r.getName().equalsIgnoreCase(name))
+                    .collect(Collectors.toList());
+            return Collections.singletonMap(new PaginationData().setTotalRowCount(releasesByName.size()), releasesByName);
+        });
         given(this.releaseServiceMock.getReleaseForUserById(eq(TestHelper.getDummyReleaseListForTest().get(1).getId()),eq(user))).willReturn(TestHelper.getDummyReleaseListForTest().get(1));
 
-        given(this.licenseServiceMock.getLicenseById("Apache-2.0")).willReturn(
+        given(this.licenseServiceMock.getLicensesByIds(anyObject())).willReturn(Arrays.asList(
                 new License("Apache 2.0 License")
                         .setText("Dummy License Text")
                         .setShortname("Apache-2.0")
-                        .setId(UUID.randomUUID().toString()));
-        given(this.licenseServiceMock.getLicenseById("GPL-2.0-or-later")).willReturn(
+                        .setId("Apache-2.0"),
                 new License("GNU General Public License 2.0")
                         .setText("GNU General Public License 2.0 Text")
                         .setShortname("GPL-2.0-or-later")
-                        .setId(UUID.randomUUID().toString()));
+                        .setId("GPL-2.0-or-later")));
     }
 
     @Test
@@ -11,8 +11,10 @@
 
 package org.eclipse.sw360.rest.resourceserver.restdocs;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
@@ -43,6 +45,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
@@ -189,7 +192,13 @@ public class ComponentSpecTest extends TestRestDocsSpecBase {
                         .setCreatedBy("admin@sw360.org")
                         .setCreatedOn(new SimpleDateFormat("yyyy-MM-dd").format(new Date())));
 
-        given(this.componentServiceMock.getComponentsForUser(anyObject())).willReturn(componentList);
+        given(this.componentServiceMock.getComponentsForUser(anyObject(), anyObject(), anyObject())).willAnswer(invocation -> {
+            ComponentType componentType = (ComponentType) invocation.getArguments()[1];
+            List<Component> componentsOfType = componentList.stream()
+                    .filter(c -> componentType == null || componentType.equals(c.getComponentType()))
+                    .collect(Collectors.toList());
+            return Collections.singletonMap(new PaginationData().setTotalRowCount(componentsOfType.size()), componentsOfType);
+        });
         given(this.componentServiceMock.getComponentForUserById(eq("17653524"), anyObject())).willReturn(angularComponent);
         given(this.componentServiceMock.getComponentForUserById(eq("98745"), anyObject())).willReturn(testComponent);
         given(this.componentServiceMock.getProjectsByComponentId(eq("17653524"), anyObject())).willReturn(projectList);
@@ -216,6 +225,9 @@ public class ComponentSpecTest extends TestRestDocsSpecBase {
                 new User("admin@sw360.org", "sw360").setId("123456789"));
         given(this.userServiceMock.getUserByEmail("john@sw360.org")).willReturn(
                 new User("john@sw360.org", "sw360").setId("74427996"));
+        given(this.userServiceMock.getUsersByEmails(anyObject())).willReturn(ImmutableMap.of(
+                "admin@sw360.org", new User("admin@sw360.org", "sw360").setId("123456789"),
+                "john@sw360.org", new User("john@sw360.org", "sw360").setId("74427996")));
 
         List<Release> releaseList = new ArrayList<>();
         Release release = new Release();
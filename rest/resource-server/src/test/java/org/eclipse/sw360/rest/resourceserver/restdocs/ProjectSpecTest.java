@@ -12,6 +12,7 @@ package org.eclipse.sw360.rest.resourceserver.restdocs;
 import org.apache.thrift.TException;
 import org.eclipse.sw360.datahandler.common.SW360Utils;
 import org.eclipse.sw360.datahandler.thrift.MainlineState;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.ProjectReleaseRelationship;
 import org.eclipse.sw360.datahandler.thrift.ReleaseRelationship;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
@@ -71,11 +72,13 @@ import com.google.common.collect.Sets;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.eclipse.sw360.datahandler.thrift.MainlineState.MAINLINE;
 import static org.eclipse.sw360.datahandler.thrift.MainlineState.OPEN;
 import static org.eclipse.sw360.datahandler.thrift.ReleaseRelationship.CONTAINED;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
@@ -280,6 +283,8 @@ public class ProjectSpecTest extends TestRestDocsSpecBase {
         given(this.projectServiceMock.searchProjectByType(anyObject(), anyObject())).willReturn(new ArrayList<Project>(projectList));
         given(this.projectServiceMock.searchProjectByGroup(anyObject(), anyObject())).willReturn(new ArrayList<Project>(projectList));
         given(this.projectServiceMock.refineSearch(anyObject(), anyObject())).willReturn(projectListByName);
+        given(this.projectServiceMock.refineSearch(anyObject(), anyObject(), anyObject())).willReturn(
+                Collections.singletonMap(new PaginationData().setTotalRowCount(projectListByName.size()), projectListByName));
         given(this.projectServiceMock.getReleaseIds(eq(project.getId()), anyObject(), eq("false"))).willReturn(releaseIds);
         given(this.projectServiceMock.getReleaseIds(eq(project.getId()), anyObject(), eq("true"))).willReturn(releaseIdsTransitive);
         given(this.projectServiceMock.updateProjectReleaseRelationship(anyObject(), anyObject(), anyObject())).willReturn(projectReleaseRelationshipResponseBody);
@@ -366,6 +371,14 @@ public class ProjectSpecTest extends TestRestDocsSpecBase {
 
         given(this.releaseServiceMock.getReleaseForUserById(eq(release.getId()), anyObject())).willReturn(release);
         given(this.releaseServiceMock.getReleaseForUserById(eq(release2.getId()), anyObject())).willReturn(release2);
+        given(this.releaseServiceMock.getReleasesForUserByIds(anyObject(), anyObject())).willAnswer(invocation ->
+                Arrays.asList(release, release2).stream()
+                        .filter(r -> ((Set<String>) invocation.getArguments()[0]).contains(r.getId()))
+                        .collect(Collectors.toList()));
+        given(this.projectServiceMock.getReleasesOfProject(eq(project.getId()), eq(false), anyObject(), anyObject())).willReturn(
+                Collections.singletonMap(new PaginationData().setTotalRowCount(1), Collections.singletonList(release)));
+        given(this.projectServiceMock.getReleasesOfProject(eq(project.getId()), eq(true), anyObject(), anyObject())).willReturn(
+                Collections.singletonMap(new PaginationData().setTotalRowCount(2), Arrays.asList(release, release2)));
 
         given(this.userServiceMock.getUserByEmailOrExternalId("admin@sw360.org")).willReturn(
                 new User("admin@sw360.org", "sw360").setId("123456789"));
@@ -373,13 +386,16 @@ public class ProjectSpecTest extends TestRestDocsSpecBase {
                 new User("admin@sw360.org", "sw360").setId("123456789"));
         given(this.userServiceMock.getUserByEmail("jane@sw360.org")).willReturn(
                 new User("jane@sw360.org", "sw360").setId("209582812"));
+        given(this.userServiceMock.getUsersByEmails(anyObject())).willReturn(ImmutableMap.of(
+                "admin@sw360.org", new User("admin@sw360.org", "sw360").setId("123456789"),
+                "jane@sw360.org", new User("jane@sw360.org", "sw360").setId("209582812")));
         OutputFormatInfo outputFormatInfo = new OutputFormatInfo();
         outputFormatInfo.setFileExtension("html");
         given(this.licenseInfoMockService.getOutputFormatInfoForGeneratorClass(anyObject()))
                 .willReturn(outputFormatInfo);
         LicenseInfoFile licenseInfoFile = new LicenseInfoFile();
-        licenseInfoFile.setGeneratedOutput(new byte[0]);
-        given(this.licenseInfoMockService.getLicenseInfoFile(anyObject(), anyObject(), anyObject(), anyObject(),
+        licenseInfoFile.setGeneratedOutputAttachmentContentId("1a2b3c4d5e");
+        given(this.licenseInfoMockService.getLicenseInfoFileAsAttachment(anyObject(), anyObject(), anyObject(), anyObject(),
                 anyObject(),anyObject(), anyObject())).willReturn(licenseInfoFile);
 
         Source ownerSrc1 = Source.releaseId("9988776655");
@@ -429,6 +445,8 @@ public class ProjectSpecTest extends TestRestDocsSpecBase {
         vulDto1.setPriority("1 - critical");
         vulDtos.add(vulDto1);
         given(this.vulnerabilityMockService.getVulnerabilitiesByProjectId(anyObject(), anyObject())).willReturn(vulDtos);
+        given(this.vulnerabilityMockService.getVulnerabilitiesOfProject(anyObject(), anyBoolean(), anyObject(), anyObject(), anyObject(), anyObject()))
+                .willReturn(Collections.singletonMap(new PaginationData().setTotalRowCount(vulDtos.size()), vulDtos));
         VulnerabilityCheckStatus vulnCheckStatus = new VulnerabilityCheckStatus();
         vulnCheckStatus.setCheckedBy("admin@sw360.org");
         vulnCheckStatus.setCheckedOn(SW360Utils.getCreatedOn());
@@ -952,6 +970,7 @@ public class ProjectSpecTest extends TestRestDocsSpecBase {
                 .param("priority", "1 - critical")
                 .param("priority", "2 - major")
                 .param("projectRelevance", "IRRELEVANT")
+                .param("transitive", "true")
                 .param("page", "0")
                 .param("page_entries", "5")
                 .param("sort", "externalId,desc")
@@ -961,9 +980,10 @@ public class ProjectSpecTest extends TestRestDocsSpecBase {
                         requestParameters(
                                 parameterWithName("priority").description("The priority of vulnerability. For example: `1 - critical`, `2 - major`"),
                                 parameterWithName("projectRelevance").description("The relevance of project of the vulnerability, possible values are: " + Arrays.asList(VulnerabilityRatingForProject.values())),
+                                parameterWithName("transitive").description("Get the vulnerabilities of the releases of the subprojects as well. Possible values are `<true|false>`"),
                                 parameterWithName("page").description("Page of vulnerabilities"),
                                 parameterWithName("page_entries").description("Amount of vulnerability page"),
-                                parameterWithName("sort").description("Defines order of the vulnerability. It can be done based on " + Arrays.asList(VulnerabilityDTO._Fields.EXTERNAL_ID.getFieldName(), VulnerabilityDTO._Fields.TITLE.getFieldName(), VulnerabilityDTO._Fields.PRIORITY.getFieldName(), VulnerabilityDTO._Fields.PROJECT_RELEVANCE.getFieldName()))
+                                parameterWithName("sort").description("Defines order of the vulnerability. It can be done based on " + Arrays.asList(VulnerabilityDTO._Fields.EXTERNAL_ID.getFieldName(), VulnerabilityDTO._Fields.TITLE.getFieldName(), VulnerabilityDTO._Fields.PRIORITY.getFieldName(), VulnerabilityDTO._Fields.CVSS.getFieldName(), VulnerabilityDTO._Fields.PROJECT_RELEVANCE.getFieldName()) + ", by descending cvss if not given")
                         ),
                         links(
                                 linkWithRel("curies").description("Curies are used for online documentation"),
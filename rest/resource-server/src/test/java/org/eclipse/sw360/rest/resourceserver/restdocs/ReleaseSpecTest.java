@@ -15,6 +15,7 @@ import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentType;
 import org.eclipse.sw360.datahandler.thrift.attachments.CheckStatus;
 import org.eclipse.sw360.rest.resourceserver.attachment.AttachmentInfo;
 import org.eclipse.sw360.datahandler.thrift.MainlineState;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.ReleaseRelationship;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
@@ -56,6 +57,7 @@ import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
@@ -247,9 +249,19 @@ public class ReleaseSpecTest extends TestRestDocsSpecBase {
         project.setVersion("1.0.2");
         projectList.add(project);
 
-        given(this.releaseServiceMock.getReleasesForUser(anyObject())).willReturn(releaseList);
+        given(this.releaseServiceMock.getReleasesForUser(anyObject(), anyObject(), anyObject())).willAnswer(invocation -> {
+            String name = (String) invocation.getArguments()[1];
+            List<Release> releasesByName = releaseList.stream()
+                    .filter(r -> name == null || name.isEmpty() || r.getName().equalsIgnoreCase(name))
+                    .collect(Collectors.toList());
+            return Collections.singletonMap(new PaginationData().setTotalRowCount(releasesByName.size()), releasesByName);
+        });
         given(this.releaseServiceMock.getReleaseForUserById(eq(release.getId()), anyObject())).willReturn(release);
         given(this.releaseServiceMock.getReleaseForUserById(eq(testRelease.getId()), anyObject())).willReturn(testRelease);
+        given(this.releaseServiceMock.getReleasesForUserByIds(anyObject(), anyObject())).willAnswer(invocation ->
+                Arrays.asList(release, testRelease).stream()
+                        .filter(r -> ((Set<String>) invocation.getArguments()[0]).contains(r.getId()))
+                        .collect(Collectors.toList()));
         given(this.releaseServiceMock.getProjectsByRelease(eq(release.getId()), anyObject())).willReturn(projectList);
         given(this.releaseServiceMock.getUsingComponentsForRelease(eq(release.getId()), anyObject())).willReturn(usedByComponent);
         given(this.releaseServiceMock.deleteRelease(eq(release.getId()), anyObject())).willReturn(RequestStatus.SUCCESS);
@@ -272,15 +284,17 @@ public class ReleaseSpecTest extends TestRestDocsSpecBase {
                 new User("admin@sw360.org", "sw360").setId("123456789"));
         given(this.userServiceMock.getUserByEmail("jane@sw360.org")).willReturn(
                 new User("jane@sw360.org", "sw360").setId("209582812"));
-        given(this.licenseServiceMock.getLicenseById("Apache-2.0")).willReturn(
+        given(this.userServiceMock.getUsersByEmails(anyObject())).willReturn(ImmutableMap.of(
+                "admin@sw360.org", new User("admin@sw360.org", "sw360").setId("123456789"),
+                "jane@sw360.org", new User("jane@sw360.org", "sw360").setId("209582812")));
+        given(this.licenseServiceMock.getLicensesByIds(anyObject())).willReturn(Arrays.asList(
                 new License("Apache 2.0 License")
                         .setText("Dummy License Text")
                         .setShortname("Apache-2.0")
-                        .setId(UUID.randomUUID().toString()));
-        given(this.licenseServiceMock.getLicenseById("GPL-2.0-or-later")).willReturn(
+                        .setId("Apache-2.0"),
                 new License("GNU General Public License 2.0").setText("GNU General Public License 2.0 Text")
                         .setShortname("GPL-2.0-or-later")
-                        .setId(UUID.randomUUID().toString()));
+                        .setId("GPL-2.0-or-later")));
 
         ExternalToolProcess fossologyProcess = new ExternalToolProcess();
         fossologyProcess.setAttachmentId("5345ab789");
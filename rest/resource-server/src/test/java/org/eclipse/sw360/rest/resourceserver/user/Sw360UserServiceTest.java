@@ -0,0 +1,204 @@
+/*
+ * Copyright Siemens AG, 2021. Part of the SW360 Portal Project.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.eclipse.sw360.rest.resourceserver.user;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.datahandler.thrift.users.UserService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class Sw360UserServiceTest {
+
+    @Mock
+    private UserService.Iface thriftService;
+
+    private Sw360UserService userService;
+
+    @Before
+    public void setUp() throws Exception {
+        when(thriftService.getUsersUpdateSequence()).thenReturn("1");
+        userService = createUserService(5);
+    }
+
+    private Sw360UserService createUserService(long updateCheckIntervalSeconds) throws Exception {
+        Sw360UserService service = new Sw360UserService();
+        ReflectionTestUtils.setField(service, "userCacheMaxSize", 1000L);
+        ReflectionTestUtils.setField(service, "userCacheExpireAfterSeconds", 60L);
+        ReflectionTestUtils.setField(service, "userCacheUpdateCheckIntervalSeconds", updateCheckIntervalSeconds);
+        service = spy(service);
+        doReturn(thriftService).when(service).getThriftUserClient();
+        service.initUserCache();
+        return service;
+    }
+
+    private static User user(String email, String externalId) {
+        return new User(email, "department").setId("id-" + email).setExternalid(externalId);
+    }
+
+    @Test
+    public void testUserByEmailIsServedFromTheCache() throws Exception {
+        User user = user("user@sw360.org", "ext1");
+        when(thriftService.getByEmail("user@sw360.org")).thenReturn(user);
+
+        assertThat(userService.getUserByEmail("user@sw360.org")).isEqualTo(user);
+        assertThat(userService.getUserByEmail("user@sw360.org")).isEqualTo(user);
+
+        verify(thriftService, times(1)).getByEmail("user@sw360.org");
+    }
+
+    @Test
+    public void testUnknownUserIsNotCached() throws Exception {
+        when(thriftService.getByEmail("unknown@sw360.org")).thenReturn(null);
+
+        assertThat(userService.getUserByEmail("unknown@sw360.org")).isNull();
+        assertThat(userService.getUserByEmail("unknown@sw360.org")).isNull();
+
+        verify(thriftService, times(2)).getByEmail("unknown@sw360.org");
+    }
+
+    @Test
+    public void testCacheIsDroppedWhenUpdateSequenceChanges() throws Exception {
+        userService = createUserService(0);
+        when(thriftService.getUsersUpdateSequence()).thenReturn("1", "1", "2");
+        User user = user("user@sw360.org", "ext1");
+        User changedUser = user("user@sw360.org", "ext1").setDepartment("other department");
+        when(thriftService.getByEmail("user@sw360.org")).thenReturn(user, changedUser);
+
+        assertThat(userService.getUserByEmail("user@sw360.org")).isEqualTo(user);
+        assertThat(userService.getUserByEmail("user@sw360.org")).isEqualTo(user);
+        assertThat(userService.getUserByEmail("user@sw360.org")).isEqualTo(changedUser);
+
+        verify(thriftService, times(2)).getByEmail("user@sw360.org");
+    }
+
+    @Test
+    public void testCacheIsDroppedWhenUpdateSequenceCannotBeRead() throws Exception {
+        userService = createUserService(0);
+        when(thriftService.getUsersUpdateSequence()).thenReturn("1", null);
+        User user = user("user@sw360.org", "ext1");
+        when(thriftService.getByEmail("user@sw360.org")).thenReturn(user);
+
+        userService.getUserByEmail("user@sw360.org");
+        userService.getUserByEmail("user@sw360.org");
+
+        verify(thriftService, times(2)).getByEmail("user@sw360.org");
+    }
+
+    @Test
+    public void testUsersByEmailsAreLookedUpInOneBatch() throws Exception {
+        User cachedUser = user("cached@sw360.org", "ext1");
+        User otherUser = user("other@sw360.org", "ext2")
+                .setFormerEmailAddresses(Collections.singleton("former@sw360.org"));
+        when(thriftService.getByEmail("cached@sw360.org")).thenReturn(cachedUser);
+        when(thriftService.getByEmails(ImmutableSet.of("other@sw360.org", "former@sw360.org", "missing@sw360.org")))
+                .thenReturn(ImmutableList.of(otherUser));
+        userService.getUserByEmail("cached@sw360.org");
+
+        Map<String, User> users = userService.getUsersByEmails(Arrays.asList("cached@sw360.org", "other@sw360.org",
+                "former@sw360.org", "missing@sw360.org", null));
+
+        assertThat(users).hasSize(3)
+                .containsEntry("cached@sw360.org", cachedUser)
+                .containsEntry("other@sw360.org", otherUser)
+                .containsEntry("former@sw360.org", otherUser)
+                .doesNotContainKey("missing@sw360.org");
+        verify(thriftService, times(1)).getByEmails(ImmutableSet.of("other@sw360.org", "former@sw360.org",
+                "missing@sw360.org"));
+    }
+
+    @Test
+    public void testMissingEmailsAreLookedUpAgain() throws Exception {
+        User user = user("user@sw360.org", "ext1");
+        when(thriftService.getByEmails(ImmutableSet.of("user@sw360.org", "missing@sw360.org")))
+                .thenReturn(ImmutableList.of(user));
+        when(thriftService.getByEmails(ImmutableSet.of("missing@sw360.org"))).thenReturn(ImmutableList.of());
+
+        userService.getUsersByEmails(ImmutableList.of("user@sw360.org", "missing@sw360.org"));
+        Map<String, User> users = userService.getUsersByEmails(ImmutableList.of("user@sw360.org",
+                "missing@sw360.org"));
+
+        assertThat(users).hasSize(1).containsEntry("user@sw360.org", user);
+        verify(thriftService, times(1)).getByEmails(ImmutableSet.of("missing@sw360.org"));
+    }
+
+    @Test
+    public void testUsersByEmailsWithoutMissingEmailsDoesNotCallTheService() throws Exception {
+        User user = user("user@sw360.org", "ext1");
+        when(thriftService.getByEmail("user@sw360.org")).thenReturn(user);
+        userService.getUserByEmail("user@sw360.org");
+
+        Map<String, User> users = userService.getUsersByEmails(ImmutableList.of("user@sw360.org"));
+
+        assertThat(users).containsOnlyKeys("user@sw360.org");
+        verify(thriftService, never()).getByEmails(ImmutableSet.of("user@sw360.org"));
+    }
+
+    @Test
+    public void testUserByExternalIdIsServedFromTheCache() throws Exception {
+        User user = user("user@sw360.org", "Ext1");
+        when(thriftService.getByEmailOrExternalId("EXT1", "EXT1")).thenReturn(user);
+
+        assertThat(userService.getUserByEmailOrExternalId("EXT1")).isEqualTo(user);
+        // external ids are compared case insensitively, the email of the user is cached as well
+        assertThat(userService.getUserByEmailOrExternalId("ext1")).isEqualTo(user);
+        assertThat(userService.getUserByEmailOrExternalId("user@sw360.org")).isEqualTo(user);
+        assertThat(userService.getUserByEmail("user@sw360.org")).isEqualTo(user);
+
+        verify(thriftService, times(1)).getByEmailOrExternalId(anyString(), anyString());
+        verify(thriftService, never()).getByEmail(anyString());
+    }
+
+    @Test
+    public void testUserByEmailIsPreferredOverUserByExternalId() throws Exception {
+        User userWithEmail = user("shared", "ext1");
+        User userWithExternalId = user("other@sw360.org", "shared");
+        when(thriftService.getByEmail("shared")).thenReturn(userWithEmail);
+        when(thriftService.getByEmail("other@sw360.org")).thenReturn(userWithExternalId);
+        userService.getUserByEmail("other@sw360.org");
+        userService.getUserByEmail("shared");
+
+        assertThat(userService.getUserByEmailOrExternalId("shared")).isEqualTo(userWithEmail);
+
+        verify(thriftService, never()).getByEmailOrExternalId(anyString(), anyString());
+    }
+
+    @Test
+    public void testDeactivatedUserIsNotServedByEmailOrExternalIdFromTheCache() throws Exception {
+        User user = user("user@sw360.org", "ext1").setDeactivated(true);
+        when(thriftService.getByEmail("user@sw360.org")).thenReturn(user);
+        when(thriftService.getByEmailOrExternalId("ext1", "ext1")).thenReturn(null);
+        userService.getUserByEmail("user@sw360.org");
+
+        assertThat(userService.getUserByEmailOrExternalId("ext1")).isNull();
+
+        verify(thriftService, times(1)).getByEmailOrExternalId("ext1", "ext1");
+    }
+}